@@ -22,17 +22,29 @@ public class Board {
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
     private final Pawn enPassantPawn;
+    private final BoardTransition transition;
+    private final PieceSquareScore pieceSquareScore;
+    private final long pawnZobristHash;
+    private final long zobristHash;
 
     private Board(final Builder builder) {
         this.gameBoard = createGameBoard(builder);
         this.whitePieces = calculateActivePieces(this.gameBoard, Alliance.WHITE);
         this.blackPieces = calculateActivePieces(this.gameBoard, Alliance.BLACK);
         this.enPassantPawn = builder.enPassantPawn;
+        //the move is not kept, it would keep the board it was made on and every board before that
+        this.transition = builder.transitionMove != null ? BoardTransition.of(builder.transitionMove) : null;
+        //a board made by a move only updates the score of the board the move was made on
+        this.pieceSquareScore = builder.transitionMove != null ?
+                builder.transitionMove.getBoard().getPieceSquareScore().update(this.transition) :
+                PieceSquareScore.calculate(this.whitePieces, this.blackPieces);
+        this.pawnZobristHash = ZobristHashing.calculatePawnHash(this.whitePieces, this.blackPieces);
         final Collection<Move> whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces);
         final Collection<Move> blackStandardLegalMoves = calculateLegalMoves(this.blackPieces);
         this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
         this.blackPlayer = new BlackPlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
         this.currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
+        this.zobristHash = ZobristHashing.calculateHash(this);
     }
 
     /**
@@ -142,6 +154,31 @@ public class Board {
         return this.whitePieces;
     }
 
+    /**
+     * @return what the move that created this board changed, null for a board that was not created by a move
+     */
+    public BoardTransition getTransition() {
+        return this.transition;
+    }
+
+    public PieceSquareScore getPieceSquareScore() {
+        return this.pieceSquareScore;
+    }
+
+    /**
+     * @return the zobrist hash of the pawns only, the key of the pawn structure cache
+     */
+    public long getPawnZobristHash() {
+        return this.pawnZobristHash;
+    }
+
+    /**
+     * @return the zobrist hash of the whole position, two boards with the same position have the same hash
+     */
+    public long getZobristHash() {
+        return this.zobristHash;
+    }
+
     /**
      * Creates a list of all possible legal moves for a given collection of pieces we use this func
      * to calculate all legal moves of the whites pieces and all legal moves of the black pieces
@@ -182,6 +219,7 @@ public class Board {
         final Map<Integer, Piece> boardConfig;
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
+        Move transitionMove;
 
         Builder() {
             this.boardConfig = new HashMap<>();
@@ -204,5 +242,9 @@ public class Board {
         void setEnPassantPawn(Pawn EnPassantPawn) {
             this.enPassantPawn = EnPassantPawn;
         }
+
+        void setMoveTransition(final Move transitionMove) {
+            this.transitionMove = transitionMove;
+        }
     }
 }
\ No newline at end of file
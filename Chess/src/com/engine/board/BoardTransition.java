@@ -0,0 +1,79 @@
+package com.engine.board;
+
+import com.engine.pieces.Piece;
+import com.engine.pieces.PieceType;
+
+/**
+ * BoardTransition class that keeps what the move that created a board changed: the moved piece and the piece it
+ * became, the captured piece and the castled rook, and the hash of the board the move was made on
+ *
+ * a board keeps its transition instead of its move, the move refers to the board it was made on, that board to
+ * its own move and so on, so a board that kept its move would keep every board of the game before it alive
+ */
+public final class BoardTransition {
+    private final long previousZobristHash;
+    private final Piece movedPiece;
+    private final PieceType placedPieceType;
+    private final int destinationCoordinate;
+    private final Piece capturedPiece;
+    private final Piece castleRook;
+    private final int castleRookDestination;
+
+    private BoardTransition(final Move move) {
+        this.previousZobristHash = move.getBoard().getZobristHash();
+        this.movedPiece = move.getMovedPiece();
+        this.placedPieceType = this.movedPiece == null ? null :
+                move instanceof Move.PawnPromotion ? PieceType.QUEEN : this.movedPiece.getPieceType();
+        this.destinationCoordinate = move.getDestinationCoordinate();
+        this.capturedPiece = move.isAttack() ? move.getAttackedPiece() : null;
+        this.castleRook = move.isCastlingMove() ? ((Move.CastleMove) move).getCastleRook() : null;
+        this.castleRookDestination = move.isCastlingMove() ? ((Move.CastleMove) move).getCastleRookDestination() : -1;
+    }
+
+    static BoardTransition of(final Move move) {
+        return new BoardTransition(move);
+    }
+
+    /**
+     * @return the zobrist hash of the board the move was made on
+     */
+    public long getPreviousZobristHash() {
+        return this.previousZobristHash;
+    }
+
+    /**
+     * @return the moved piece on the tile it left, null for a null move
+     */
+    public Piece getMovedPiece() {
+        return this.movedPiece;
+    }
+
+    /**
+     * @return the type of the moved piece on its destination, a queen for a promotion
+     */
+    public PieceType getPlacedPieceType() {
+        return this.placedPieceType;
+    }
+
+    public int getDestinationCoordinate() {
+        return this.destinationCoordinate;
+    }
+
+    /**
+     * @return the captured piece, or null when the move was not an attack
+     */
+    public Piece getCapturedPiece() {
+        return this.capturedPiece;
+    }
+
+    /**
+     * @return the rook of a castle move on the tile it left, or null when the move was not a castle move
+     */
+    public Piece getCastleRook() {
+        return this.castleRook;
+    }
+
+    public int getCastleRookDestination() {
+        return this.castleRookDestination;
+    }
+}
@@ -19,6 +19,10 @@ public class BoardUtils {
     public static final boolean[] SEVENTH_RANK = initRow(8);
     public static final boolean[] SECOND_RANK = initRow(48);
     public static final boolean[] FIRST_RANK = initRow(56);
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
     private static final String[] ALGEBRAIC_NOTATION = initializeAlgebraicNotation();
     private static final int START_TILE_INDEX = 0;
     private static final Map<String, Integer> POSITION_TO_COORDINATE = initializePositionToCoordinateMap();
@@ -74,10 +78,42 @@ public class BoardUtils {
         return POSITION_TO_COORDINATE.get(position);
     }
 
-    static String getPositionAtCoordinate(final int coordinate) {
+    public static String getPositionAtCoordinate(final int coordinate) {
         return ALGEBRAIC_NOTATION[coordinate];
     }
 
+    /**
+     * Calculates the castling rights of a board from the kings and the rooks that did not make their first move
+     * @param board is the board we check
+     * @return a bit set of the rights: WHITE_KING_SIDE, WHITE_QUEEN_SIDE, BLACK_KING_SIDE and BLACK_QUEEN_SIDE
+     */
+    public static int calculateCastlingRights(final Board board) {
+        int castlingRights = 0;
+        if(canCastle(board, 60, 63)) {
+            castlingRights |= WHITE_KING_SIDE;
+        }
+        if(canCastle(board, 60, 56)) {
+            castlingRights |= WHITE_QUEEN_SIDE;
+        }
+        if(canCastle(board, 4, 7)) {
+            castlingRights |= BLACK_KING_SIDE;
+        }
+        if(canCastle(board, 4, 0)) {
+            castlingRights |= BLACK_QUEEN_SIDE;
+        }
+        return castlingRights;
+    }
+
+    private static boolean canCastle(final Board board, final int kingCoordinate, final int rookCoordinate) {
+        final Tile kingTile = board.getTile(kingCoordinate);
+        final Tile rookTile = board.getTile(rookCoordinate);
+        return kingTile.isTileOccupied() && kingTile.getPiece().getPieceType().isKing() &&
+                kingTile.getPiece().isFirstMove() &&
+                rookTile.isTileOccupied() && rookTile.getPiece().getPieceType().isRook() &&
+                rookTile.getPiece().isFirstMove() &&
+                rookTile.getPiece().getPieceAlliance() == kingTile.getPiece().getPieceAlliance();
+    }
+
     public static boolean isEndGame(final Board board) {
         return board.getCurrentPlayer().isInCheckMate() ||
                 board.getCurrentPlayer().isInStaleMate();
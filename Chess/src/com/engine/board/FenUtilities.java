@@ -0,0 +1,191 @@
+package com.engine.board;
+
+import com.engine.Alliance;
+import com.engine.pieces.*;
+
+import static com.engine.board.Board.*;
+
+/**
+ * FenUtilities class that converts a board to a FEN string (Forsyth-Edwards Notation) and back
+ *
+ * the board does not keep castling rights, it keeps if the king and the rooks made their first move,
+ * so the castling field is translated to the isFirstMove of the king and the rooks
+ */
+public class FenUtilities {
+
+    private FenUtilities() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    /**
+     * Creates a board from a FEN string, the half move clock and the full move number are ignored
+     * @param fenString is the FEN of the position
+     * @return the board of the position
+     */
+    public static Board createGameFromFEN(final String fenString) {
+        final String[] fenPartitions = fenString.trim().split("\\s+");
+        if(fenPartitions.length < 2) {
+            throw new RuntimeException("Invalid FEN string " + fenString);
+        }
+        final String castling = fenPartitions.length > 2 ? fenPartitions[2] : "-";
+        final Builder builder = new Builder();
+        int tileCoordinate = 0;
+        for(final char fenChar : fenPartitions[0].toCharArray()) {
+            if(fenChar == '/') {
+                continue;
+            }
+            if(Character.isDigit(fenChar)) {
+                tileCoordinate += fenChar - '0';
+                continue;
+            }
+            if(!BoardUtils.isValidTileCoordinate(tileCoordinate)) {
+                throw new RuntimeException("Invalid FEN string " + fenString);
+            }
+            builder.setPiece(createPiece(fenChar, tileCoordinate, castling));
+            tileCoordinate++;
+        }
+        if(tileCoordinate != BoardUtils.NUM_TILES) {
+            throw new RuntimeException("Invalid FEN string " + fenString);
+        }
+        final Alliance moveMaker = moveMaker(fenPartitions[1]);
+        builder.setMoveMaker(moveMaker);
+        if(fenPartitions.length > 3 && !fenPartitions[3].equals("-")) {
+            // the pawn that jumped is one tile past the en passant square, in the direction of its own alliance
+            final Alliance jumpedAlliance = moveMaker.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+            final int enPassantPawnCoordinate = BoardUtils.getCoordinateAtPosition(fenPartitions[3]) +
+                    jumpedAlliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+            final Piece piece = builder.boardConfig.get(enPassantPawnCoordinate);
+            if(piece instanceof Pawn && piece.getPieceAlliance() == jumpedAlliance) {
+                builder.setEnPassantPawn((Pawn) piece);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param fenString is the FEN of the position
+     * @return the half move clock of the FEN, the plies since the last capture or pawn move, 0 when it is missing
+     */
+    public static int getHalfMoveClock(final String fenString) {
+        final String[] fenPartitions = fenString.trim().split("\\s+");
+        if(fenPartitions.length < 5 || !fenPartitions[4].matches("\\d+")) {
+            return 0;
+        }
+        return Integer.parseInt(fenPartitions[4]);
+    }
+
+    /**
+     * Creates the FEN string of a board, the half move clock and the full move number are always "0 1"
+     * @param board is the board we describe
+     * @return the FEN string of the board
+     */
+    public static String createFENFromGame(final Board board) {
+        return calculateBoardText(board) + " " +
+                board.getCurrentPlayer().getAlliance().toString() + " " +
+                calculateCastleText(board) + " " +
+                calculateEnPassantSquare(board) + " " +
+                "0 1";
+    }
+
+    private static Piece createPiece(final char fenChar, final int tileCoordinate, final String castling) {
+        final Alliance alliance = Character.isUpperCase(fenChar) ? Alliance.WHITE : Alliance.BLACK;
+        switch(Character.toLowerCase(fenChar)) {
+            case 'p':
+                return new Pawn(tileCoordinate, alliance, alliance.isWhite() ? BoardUtils.SECOND_RANK[tileCoordinate] :
+                        BoardUtils.SEVENTH_RANK[tileCoordinate]);
+            case 'n':
+                return new Knight(tileCoordinate, alliance);
+            case 'b':
+                return new Bishop(tileCoordinate, alliance);
+            case 'q':
+                return new Queen(tileCoordinate, alliance);
+            case 'r':
+                return new Rook(tileCoordinate, alliance, castling.contains(rookCastleRight(tileCoordinate)));
+            case 'k':
+                final boolean kingCanCastle = alliance.isWhite() ?
+                        tileCoordinate == 60 && (castling.contains("K") || castling.contains("Q")) :
+                        tileCoordinate == 4 && (castling.contains("k") || castling.contains("q"));
+                return new King(tileCoordinate, alliance, kingCanCastle);
+            default:
+                throw new RuntimeException("Invalid FEN piece " + fenChar);
+        }
+    }
+
+    private static String rookCastleRight(final int tileCoordinate) {
+        switch(tileCoordinate) {
+            case 63:
+                return "K";
+            case 56:
+                return "Q";
+            case 7:
+                return "k";
+            case 0:
+                return "q";
+            default:
+                return "#";
+        }
+    }
+
+    private static Alliance moveMaker(final String moveMakerString) {
+        if(moveMakerString.equals("w")) {
+            return Alliance.WHITE;
+        } else if(moveMakerString.equals("b")) {
+            return Alliance.BLACK;
+        }
+        throw new RuntimeException("Invalid FEN move maker " + moveMakerString);
+    }
+
+    private static String calculateBoardText(final Board board) {
+        final StringBuilder builder = new StringBuilder();
+        for(int row = 0; row < BoardUtils.NUM_TILES_PER_ROW; row++) {
+            int emptyTiles = 0;
+            for(int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++) {
+                final Tile tile = board.getTile(row * BoardUtils.NUM_TILES_PER_ROW + column);
+                if(!tile.isTileOccupied()) {
+                    emptyTiles++;
+                    continue;
+                }
+                if(emptyTiles > 0) {
+                    builder.append(emptyTiles);
+                    emptyTiles = 0;
+                }
+                final String pieceText = tile.getPiece().toString();
+                builder.append(tile.getPiece().getPieceAlliance().isWhite() ? pieceText.toUpperCase() : pieceText);
+            }
+            if(emptyTiles > 0) {
+                builder.append(emptyTiles);
+            }
+            if(row < BoardUtils.NUM_TILES_PER_ROW - 1) {
+                builder.append('/');
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String calculateCastleText(final Board board) {
+        final int castlingRights = BoardUtils.calculateCastlingRights(board);
+        final StringBuilder builder = new StringBuilder();
+        if((castlingRights & BoardUtils.WHITE_KING_SIDE) != 0) {
+            builder.append('K');
+        }
+        if((castlingRights & BoardUtils.WHITE_QUEEN_SIDE) != 0) {
+            builder.append('Q');
+        }
+        if((castlingRights & BoardUtils.BLACK_KING_SIDE) != 0) {
+            builder.append('k');
+        }
+        if((castlingRights & BoardUtils.BLACK_QUEEN_SIDE) != 0) {
+            builder.append('q');
+        }
+        return builder.length() == 0 ? "-" : builder.toString();
+    }
+
+    private static String calculateEnPassantSquare(final Board board) {
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if(enPassantPawn != null) {
+            return BoardUtils.getPositionAtCoordinate(enPassantPawn.getPiecePosition() +
+                    enPassantPawn.getPieceAlliance().getOppositeDirection() * BoardUtils.NUM_TILES_PER_ROW);
+        }
+        return "-";
+    }
+}
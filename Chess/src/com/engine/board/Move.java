@@ -102,6 +102,7 @@ public abstract class Move {
         //move the movedPiece the imgBoard
         Builder.setPiece(this.movedPiece.movePiece(this));
         Builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
+        Builder.setMoveTransition(this);
         return Builder.build();
     }
 
@@ -160,6 +161,7 @@ public abstract class Move {
             }
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
+            builder.setMoveTransition(this);
             return builder.build();
         }
     }
@@ -273,6 +275,7 @@ public abstract class Move {
             builder.setPiece(movedPawn);
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
+            builder.setMoveTransition(this);
             return builder.build();
         }
     }
@@ -322,6 +325,7 @@ public abstract class Move {
             }
             builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
             builder.setMoveMaker(pawnMovedBoard.getCurrentPlayer().getAlliance());
+            builder.setMoveTransition(this);
             return builder.build();
         }
 
@@ -331,7 +335,7 @@ public abstract class Move {
         }
     }
 
-    static abstract class CastleMove extends Move {
+    public static abstract class CastleMove extends Move {
         final Rook castleRook;
         final int CastleRookDestination;
 
@@ -343,10 +347,14 @@ public abstract class Move {
         }
 
 
-        Rook getCastleRook() {
+        public Rook getCastleRook() {
             return this.castleRook;
         }
 
+        public int getCastleRookDestination() {
+            return this.CastleRookDestination;
+        }
+
         @Override
         public boolean isCastlingMove() {
             return true;
@@ -387,6 +395,7 @@ public abstract class Move {
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setPiece(new Rook(this.CastleRookDestination, this.board.getCurrentPlayer().getAlliance()));
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
+            builder.setMoveTransition(this);
             return builder.build();
         }
     }
@@ -441,6 +450,51 @@ public abstract class Move {
         }
     }
 
+    /**
+     * PassMove class that is a real "pass": the same pieces stay on the board and the opponent moves next,
+     * opposed to the NullMove that is only a sentinel for a move that was not found.
+     * The search uses it for null move pruning, it is never one of the legal moves of a player
+     */
+    public static final class PassMove extends Move {
+        PassMove(final Board board) {
+            super(board, -1);
+        }
+
+        @Override
+        public int getCurrentCoordinate() {
+            return -1;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public Board execute() {
+            final Builder builder = new Builder();
+            for(final Piece piece : this.board.getCurrentPlayer().getActivePieces()) {
+                builder.setPiece(piece);
+            }
+            for(final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces()) {
+                builder.setPiece(piece);
+            }
+            builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
+            builder.setMoveTransition(this);
+            return builder.build();
+        }
+
+        @Override
+        public String toString() {
+            return "--";
+        }
+    }
+
     public static class MoveFactory {
         private MoveFactory() {
             throw new RuntimeException("Not instantiable");
@@ -454,5 +508,13 @@ public abstract class Move {
             }
             return NULL_MOVE;
         }
+
+        public static Move getNullMove() {
+            return NULL_MOVE;
+        }
+
+        public static Move createPassMove(final Board board) {
+            return new PassMove(board);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.engine.board;
+
+import com.engine.Alliance;
+import com.engine.pieces.Piece;
+import com.engine.pieces.PieceSquareTables;
+import com.engine.pieces.PieceType;
+
+import java.util.Collection;
+
+/**
+ * PieceSquareScore class that keeps the material, the piece square score and the game phase of a board
+ *
+ * Every board gets one, the first board calculates it from all its pieces and every board after it only updates
+ * the score of its parent with the pieces the move changed, so the evaluation never walks over all the tiles.
+ * The scores are from white's side (white minus black)
+ */
+public final class PieceSquareScore {
+    private static final int CENTI_PAWN = 100;
+
+    private final int material;
+    private final int middleGameScore;
+    private final int endGameScore;
+    private final int phase;
+
+    private PieceSquareScore(final int material, final int middleGameScore, final int endGameScore, final int phase) {
+        this.material = material;
+        this.middleGameScore = middleGameScore;
+        this.endGameScore = endGameScore;
+        this.phase = phase;
+    }
+
+    /**
+     * Calculates the score from scratch, used only for boards that were not created by a move
+     * @param whitePieces the active white pieces
+     * @param blackPieces the active black pieces
+     * @return the score of the pieces
+     */
+    public static PieceSquareScore calculate(final Collection<Piece> whitePieces, final Collection<Piece> blackPieces) {
+        final Accumulator accumulator = new Accumulator(0, 0, 0, 0);
+        for(final Piece piece : whitePieces) {
+            accumulator.add(piece.getPieceType(), Alliance.WHITE, piece.getPiecePosition());
+        }
+        for(final Piece piece : blackPieces) {
+            accumulator.add(piece.getPieceType(), Alliance.BLACK, piece.getPiecePosition());
+        }
+        return accumulator.toScore();
+    }
+
+    /**
+     * Updates the score with the pieces a move removes and adds: the moved piece (promoted to a queen on a promotion),
+     * the captured piece and the rook of a castle move
+     * @param transition is what the move that was made on the board that owns this score changed
+     * @return the score of the board after the move
+     */
+    PieceSquareScore update(final BoardTransition transition) {
+        final Piece movedPiece = transition.getMovedPiece();
+        if(movedPiece == null) {
+            return this;
+        }
+        final Alliance alliance = movedPiece.getPieceAlliance();
+        final Accumulator accumulator = new Accumulator(this.material, this.middleGameScore, this.endGameScore, this.phase);
+        accumulator.remove(movedPiece.getPieceType(), alliance, movedPiece.getPiecePosition());
+        accumulator.add(transition.getPlacedPieceType(), alliance, transition.getDestinationCoordinate());
+        final Piece capturedPiece = transition.getCapturedPiece();
+        if(capturedPiece != null) {
+            accumulator.remove(capturedPiece.getPieceType(), capturedPiece.getPieceAlliance(),
+                    capturedPiece.getPiecePosition());
+        }
+        if(transition.getCastleRook() != null) {
+            accumulator.remove(PieceType.ROOK, alliance, transition.getCastleRook().getPiecePosition());
+            accumulator.add(PieceType.ROOK, alliance, transition.getCastleRookDestination());
+        }
+        return accumulator.toScore();
+    }
+
+    /**
+     * @return the material balance in centi-pawns by the PieceType values
+     */
+    public int getMaterial() {
+        return this.material;
+    }
+
+    public int getMiddleGameScore() {
+        return this.middleGameScore;
+    }
+
+    public int getEndGameScore() {
+        return this.endGameScore;
+    }
+
+    public int getPhase() {
+        return this.phase;
+    }
+
+    /**
+     * @return the middle game and end game scores blended by the phase
+     */
+    public int getTaperedScore() {
+        return PieceSquareTables.taper(this.middleGameScore, this.endGameScore, this.phase);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof PieceSquareScore)) {
+            return false;
+        }
+        final PieceSquareScore otherScore = (PieceSquareScore) other;
+        return this.material == otherScore.material && this.middleGameScore == otherScore.middleGameScore &&
+                this.endGameScore == otherScore.endGameScore && this.phase == otherScore.phase;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = this.material;
+        result = 31 * result + this.middleGameScore;
+        result = 31 * result + this.endGameScore;
+        result = 31 * result + this.phase;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "material=" + this.material + " mg=" + this.middleGameScore + " eg=" + this.endGameScore +
+                " phase=" + this.phase;
+    }
+
+    private static final class Accumulator {
+        int material;
+        int middleGameScore;
+        int endGameScore;
+        int phase;
+
+        Accumulator(final int material, final int middleGameScore, final int endGameScore, final int phase) {
+            this.material = material;
+            this.middleGameScore = middleGameScore;
+            this.endGameScore = endGameScore;
+            this.phase = phase;
+        }
+
+        void add(final PieceType pieceType, final Alliance alliance, final int tileCoordinate) {
+            final int sign = alliance.isWhite() ? 1 : -1;
+            this.material += sign * pieceType.getPieceValue() * CENTI_PAWN;
+            this.middleGameScore += sign * PieceSquareTables.middleGame(pieceType, alliance, tileCoordinate);
+            this.endGameScore += sign * PieceSquareTables.endGame(pieceType, alliance, tileCoordinate);
+            this.phase += PieceSquareTables.phase(pieceType);
+        }
+
+        void remove(final PieceType pieceType, final Alliance alliance, final int tileCoordinate) {
+            final int sign = alliance.isWhite() ? 1 : -1;
+            this.material -= sign * pieceType.getPieceValue() * CENTI_PAWN;
+            this.middleGameScore -= sign * PieceSquareTables.middleGame(pieceType, alliance, tileCoordinate);
+            this.endGameScore -= sign * PieceSquareTables.endGame(pieceType, alliance, tileCoordinate);
+            this.phase -= PieceSquareTables.phase(pieceType);
+        }
+
+        PieceSquareScore toScore() {
+            return new PieceSquareScore(this.material, this.middleGameScore, this.endGameScore, this.phase);
+        }
+    }
+}
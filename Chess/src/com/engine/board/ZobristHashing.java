@@ -0,0 +1,96 @@
+package com.engine.board;
+
+import com.engine.Alliance;
+import com.engine.pieces.Piece;
+import com.engine.pieces.PieceType;
+
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * ZobristHashing class that gives every piece on every tile a random 64 bit key, the hash of a set of pieces
+ * is the xor of their keys so two boards with the same pieces always have the same hash
+ */
+public final class ZobristHashing {
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+    private static final Random RANDOM = new Random(SEED);
+    private static final long[][][] PIECE_KEYS = initPieceKeys();
+    private static final long BLACK_TO_MOVE_KEY = RANDOM.nextLong();
+    private static final long[] CASTLING_KEYS = initKeys(16);
+    private static final long[] EN_PASSANT_FILE_KEYS = initKeys(BoardUtils.NUM_TILES_PER_ROW);
+
+    private ZobristHashing() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    private static long[][][] initPieceKeys() {
+        final long[][][] pieceKeys = new long[Alliance.values().length][PieceType.values().length][BoardUtils.NUM_TILES];
+        for(final long[][] allianceKeys : pieceKeys) {
+            for(final long[] pieceTypeKeys : allianceKeys) {
+                for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                    pieceTypeKeys[i] = RANDOM.nextLong();
+                }
+            }
+        }
+        return pieceKeys;
+    }
+
+    private static long[] initKeys(final int numberOfKeys) {
+        final long[] keys = new long[numberOfKeys];
+        for(int i = 0; i < numberOfKeys; i++) {
+            keys[i] = RANDOM.nextLong();
+        }
+        return keys;
+    }
+
+    public static long pieceKey(final PieceType pieceType, final Alliance alliance, final int tileCoordinate) {
+        return PIECE_KEYS[alliance.ordinal()][pieceType.ordinal()][tileCoordinate];
+    }
+
+    /**
+     * Calculates the hash of the whole position: all the pieces, the player to move, the castling rights and
+     * the file of the en passant pawn
+     * @param board is the board we hash
+     * @return the zobrist hash of the board
+     */
+    static long calculateHash(final Board board) {
+        long hash = pieceHash(board.getWhitePieces()) ^ pieceHash(board.getBlackPieces());
+        if(board.getCurrentPlayer().getAlliance().isBlack()) {
+            hash ^= BLACK_TO_MOVE_KEY;
+        }
+        hash ^= CASTLING_KEYS[BoardUtils.calculateCastlingRights(board)];
+        if(board.getEnPassantPawn() != null) {
+            hash ^= EN_PASSANT_FILE_KEYS[board.getEnPassantPawn().getPiecePosition() % BoardUtils.NUM_TILES_PER_ROW];
+        }
+        return hash;
+    }
+
+    /**
+     * Calculates the hash of the pawns only, the pawn structure of a board changes only on pawn moves and
+     * pawn captures so many boards in the search share it
+     * @param whitePieces the active white pieces
+     * @param blackPieces the active black pieces
+     * @return the xor of the keys of all the pawns
+     */
+    static long calculatePawnHash(final Collection<Piece> whitePieces, final Collection<Piece> blackPieces) {
+        return pawnHash(whitePieces) ^ pawnHash(blackPieces);
+    }
+
+    private static long pieceHash(final Collection<Piece> pieces) {
+        long hash = 0;
+        for(final Piece piece : pieces) {
+            hash ^= pieceKey(piece.getPieceType(), piece.getPieceAlliance(), piece.getPiecePosition());
+        }
+        return hash;
+    }
+
+    private static long pawnHash(final Collection<Piece> pieces) {
+        long hash = 0;
+        for(final Piece piece : pieces) {
+            if(piece.getPieceType() == PieceType.PAWN) {
+                hash ^= pieceKey(PieceType.PAWN, piece.getPieceAlliance(), piece.getPiecePosition());
+            }
+        }
+        return hash;
+    }
+}
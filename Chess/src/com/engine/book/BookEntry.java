@@ -0,0 +1,63 @@
+package com.engine.book;
+
+import com.engine.board.Move;
+
+/**
+ * BookEntry class that is one move of a position in an opening book
+ */
+public final class BookEntry {
+    private final Move move;
+    private final int weight;
+    private final int learn;
+    private final int wins;
+    private final int draws;
+    private final int losses;
+
+    BookEntry(final Move move, final int weight, final int learn, final int wins, final int draws, final int losses) {
+        this.move = move;
+        this.weight = weight;
+        this.learn = learn;
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    public Move getMove() {
+        return this.move;
+    }
+
+    /**
+     * @return how good the book thinks the move is, moves are chosen in proportion to their weight
+     */
+    public int getWeight() {
+        return this.weight;
+    }
+
+    public int getLearn() {
+        return this.learn;
+    }
+
+    /**
+     * @return the games the player of the move won with it, 0 in a Polyglot book that has no statistics
+     */
+    public int getWins() {
+        return this.wins;
+    }
+
+    public int getDraws() {
+        return this.draws;
+    }
+
+    public int getLosses() {
+        return this.losses;
+    }
+
+    public int getGames() {
+        return this.wins + this.draws + this.losses;
+    }
+
+    @Override
+    public String toString() {
+        return this.move + " (" + this.weight + ")";
+    }
+}
@@ -0,0 +1,84 @@
+package com.engine.book;
+
+import com.engine.sort.ExternalSorter;
+
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * BookRecord class that describes the entries of a book with statistics, the file written by the OpeningBookBuilder
+ *
+ * An entry is 24 bytes: the first 12 are the same as in a Polyglot book (key, move and weight), then the number
+ * of wins, draws and losses of the player of the move, all big endian. The entries are sorted by the unsigned
+ * key and then by the move, like a Polyglot book
+ */
+final class BookRecord {
+    static final int ENTRY_SIZE = 24;
+    static final int MAX_WEIGHT = 0xFFFF;
+    // the records of the runs of the OpeningBookBuilder
+    static final ExternalSorter.RecordFormat<BookRecord> FORMAT = new ExternalSorter.RecordFormat<BookRecord>() {
+        @Override
+        public BookRecord newRecord() {
+            return new BookRecord();
+        }
+
+        @Override
+        public boolean read(final DataInputStream input, final BookRecord record) throws IOException {
+            return record.read(input);
+        }
+
+        @Override
+        public int compare(final BookRecord first, final BookRecord second) {
+            return BookRecord.compare(first.key, first.move, second.key, second.move);
+        }
+    };
+
+    long key;
+    int move;
+    int wins;
+    int draws;
+    int losses;
+
+    /**
+     * reads the next record of a stream into this one
+     * @return false at the end of the stream
+     */
+    boolean read(final DataInputStream input) throws IOException {
+        try {
+            this.key = input.readLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        this.move = input.readUnsignedShort();
+        input.readUnsignedShort();
+        this.wins = input.readInt();
+        this.draws = input.readInt();
+        this.losses = input.readInt();
+        return true;
+    }
+
+    static void write(final DataOutput output, final long key, final int move, final int weight,
+                      final int wins, final int draws, final int losses) throws IOException {
+        output.writeLong(key);
+        output.writeShort(move);
+        output.writeShort(weight);
+        output.writeInt(wins);
+        output.writeInt(draws);
+        output.writeInt(losses);
+    }
+
+    /**
+     * the weight of a move is the points the player of the move scored with it, two for a win and one for a draw,
+     * like the weights of Polyglot books
+     */
+    static int weight(final long wins, final long draws) {
+        return (int) Math.min(2 * wins + draws, MAX_WEIGHT);
+    }
+
+    static int compare(final long key, final int move, final long otherKey, final int otherMove) {
+        final int keyCompare = Long.compareUnsigned(key, otherKey);
+        return keyCompare != 0 ? keyCompare : Integer.compare(move, otherMove);
+    }
+}
@@ -0,0 +1,149 @@
+package com.engine.book;
+
+import com.engine.sort.ExternalSorter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * BookStatisticsTable class that counts the results of the (position, move) pairs of a book while it is built
+ *
+ * The table is an open addressing hash table over primitive arrays, an entry is 24 bytes and no object is created
+ * per position. When it is full the entries are sorted and written to a run file of the ExternalSorter and the
+ * table starts over, so the memory stays the same on any number of games
+ */
+final class BookStatisticsTable implements ExternalSorter.Sortable {
+    private static final int EMPTY_MOVE = 0;
+
+    private final long[] keys;
+    private final int[] moves;
+    private final int[] wins;
+    private final int[] draws;
+    private final int[] losses;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+
+    /**
+     * @param maxEntries is the number of entries the table keeps before it must be written, it has twice the slots
+     */
+    BookStatisticsTable(final int maxEntries) {
+        final int capacity = Integer.highestOneBit(Math.max(maxEntries, 1)) * 2;
+        this.keys = new long[capacity];
+        this.moves = new int[capacity];
+        this.wins = new int[capacity];
+        this.draws = new int[capacity];
+        this.losses = new int[capacity];
+        this.mask = capacity - 1;
+        this.maxEntries = capacity / 2;
+        this.size = 0;
+    }
+
+    /**
+     * counts one game of a move
+     * @param key is the Polyglot hash of the position
+     * @param move is the Polyglot move, never 0
+     * @param result is 1 when the player of the move won, 0 for a draw and -1 when he lost
+     */
+    void add(final long key, final int move, final int result) {
+        int index = slot(key, move);
+        while(this.moves[index] != EMPTY_MOVE && (this.keys[index] != key || this.moves[index] != move)) {
+            index = (index + 1) & this.mask;
+        }
+        if(this.moves[index] == EMPTY_MOVE) {
+            this.keys[index] = key;
+            this.moves[index] = move;
+            this.size++;
+        }
+        if(result > 0) {
+            this.wins[index]++;
+        } else if(result < 0) {
+            this.losses[index]++;
+        } else {
+            this.draws[index]++;
+        }
+    }
+
+    boolean isFull() {
+        return this.size >= this.maxEntries;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * writes the entries sorted by key and move to a run and empties the table
+     * @param sorter is the sorter of the runs
+     */
+    void writeRun(final ExternalSorter<BookRecord> sorter) throws IOException {
+        int count = 0;
+        for(int i = 0; i <= this.mask; i++) {
+            if(this.moves[i] != EMPTY_MOVE) {
+                move(i, count++);
+            }
+        }
+        final int entries = count;
+        sorter.writeRun(this, entries, output -> {
+            for(int i = 0; i < entries; i++) {
+                BookRecord.write(output, this.keys[i], this.moves[i], 0, this.wins[i], this.draws[i], this.losses[i]);
+            }
+        });
+        clear();
+    }
+
+    void clear() {
+        Arrays.fill(this.moves, 0);
+        Arrays.fill(this.wins, 0);
+        Arrays.fill(this.draws, 0);
+        Arrays.fill(this.losses, 0);
+        this.size = 0;
+    }
+
+    private int slot(final long key, final int move) {
+        long hash = (key ^ move * 0x9E3779B97F4A7C15L) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ hash >>> 32) & this.mask;
+    }
+
+    private void move(final int from, final int to) {
+        if(from != to) {
+            this.keys[to] = this.keys[from];
+            this.moves[to] = this.moves[from];
+            this.wins[to] = this.wins[from];
+            this.draws[to] = this.draws[from];
+            this.losses[to] = this.losses[from];
+            this.moves[from] = EMPTY_MOVE;
+        }
+    }
+
+    /**
+     * the entries are compared by the unsigned key and then by the move
+     */
+    @Override
+    public int compare(final int i, final int j) {
+        return BookRecord.compare(this.keys[i], this.moves[i], this.keys[j], this.moves[j]);
+    }
+
+    @Override
+    public void swap(final int i, final int j) {
+        final long key = this.keys[i];
+        this.keys[i] = this.keys[j];
+        this.keys[j] = key;
+        int value = this.moves[i];
+        this.moves[i] = this.moves[j];
+        this.moves[j] = value;
+        value = this.wins[i];
+        this.wins[i] = this.wins[j];
+        this.wins[j] = value;
+        value = this.draws[i];
+        this.draws[i] = this.draws[j];
+        this.draws[j] = value;
+        value = this.losses[i];
+        this.losses[i] = this.losses[j];
+        this.losses[j] = value;
+    }
+}
@@ -0,0 +1,314 @@
+package com.engine.book;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.pgn.AlgebraicNotation;
+import com.engine.pgn.PgnFiles;
+import com.engine.pgn.PgnGame;
+import com.engine.pgn.PgnReader;
+import com.engine.player.MoveTransition;
+import com.engine.sort.ExternalSorter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OpeningBookBuilder class that builds a book with statistics from a PGN file
+ *
+ * The PGN file is split into one chunk per worker at the start of games (see PgnFiles), every worker streams the games of its
+ * chunk, replays them on a board up to the maximum ply and counts the result of every (position, move) pair in
+ * its own BookStatisticsTable. A full table is written as a sorted run file of the ExternalSorter, and at the end
+ * all the runs are merged into the book, so the memory is the tables of the workers no matter how many games the
+ * file has.
+ *
+ * The book is sorted by the Polyglot key of the positions, see BookRecord for the layout of an entry.
+ * Games without a result are skipped, a game is replayed until its first move that can't be played on the board
+ */
+public final class OpeningBookBuilder {
+    private static final int RUN_BUFFER_SIZE = 1 << 16;
+
+    private final PolyglotKeys keys;
+    private final int maxPly;
+    private final int minGames;
+    private final int threads;
+    private final int maxEntriesPerWorker;
+    private final Path temporaryDirectory;
+
+    private final LongAdder gamesRead = new LongAdder();
+    private final LongAdder gamesUsed = new LongAdder();
+    private final LongAdder positions = new LongAdder();
+
+    private OpeningBookBuilder(final Builder builder) {
+        this.keys = builder.keys;
+        this.maxPly = builder.maxPly;
+        this.minGames = builder.minGames;
+        this.threads = builder.threads;
+        this.maxEntriesPerWorker = builder.maxEntriesPerWorker;
+        this.temporaryDirectory = builder.temporaryDirectory;
+    }
+
+    /**
+     * Builds a book from a PGN file
+     * @param pgnPath is the PGN file
+     * @param bookPath is the book file that is written
+     * @return the number of entries of the book
+     */
+    public long build(final Path pgnPath, final Path bookPath) throws IOException {
+        try(final ExternalSorter<BookRecord> sorter = new ExternalSorter<>(this.temporaryDirectory, "book-runs",
+                BookRecord.FORMAT)) {
+            final long[] chunkStarts = PgnFiles.splitIntoChunks(pgnPath, this.threads);
+            final ExecutorService service = Executors.newFixedThreadPool(this.threads);
+            try {
+                final List<Future<?>> results = new ArrayList<>();
+                for(int i = 0; i < chunkStarts.length - 1; i++) {
+                    final long start = chunkStarts[i];
+                    final long end = chunkStarts[i + 1];
+                    results.add(service.submit(() -> {
+                        processChunk(pgnPath, start, end, sorter);
+                        return null;
+                    }));
+                }
+                for(final Future<?> result : results) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Building the book was interrupted", e);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new RuntimeException("Building the book failed", e.getCause());
+            } finally {
+                service.shutdownNow();
+            }
+            return mergeRuns(sorter, bookPath);
+        }
+    }
+
+    public long getGamesRead() {
+        return this.gamesRead.sum();
+    }
+
+    /**
+     * @return the number of games with a result that were replayed
+     */
+    public long getGamesUsed() {
+        return this.gamesUsed.sum();
+    }
+
+    /**
+     * @return the number of (position, move) pairs counted, the same pair of different games counts every time
+     */
+    public long getPositions() {
+        return this.positions.sum();
+    }
+
+    private void processChunk(final Path pgnPath, final long start, final long end,
+                              final ExternalSorter<BookRecord> sorter) throws IOException {
+        final BookStatisticsTable table = new BookStatisticsTable(this.maxEntriesPerWorker);
+        try(final FileChannel channel = FileChannel.open(pgnPath, StandardOpenOption.READ)) {
+            final PgnReader reader = PgnFiles.openChunk(channel, start);
+            PgnGame game;
+            while((game = reader.readGame()) != null && start + reader.getGameOffset() < end) {
+                this.gamesRead.increment();
+                addGame(game, table);
+                if(table.isFull()) {
+                    table.writeRun(sorter);
+                }
+            }
+        }
+        if(!table.isEmpty()) {
+            table.writeRun(sorter);
+        }
+    }
+
+    private void addGame(final PgnGame game, final BookStatisticsTable table) {
+        final int whiteResult = resultForWhite(game.getResult());
+        if(whiteResult == Integer.MIN_VALUE) {
+            return;
+        }
+        final String fen = game.getTag("FEN");
+        Board board;
+        try {
+            board = fen != null ? FenUtilities.createGameFromFEN(fen) : Board.createStandardBoard();
+        } catch (RuntimeException e) {
+            return;
+        }
+        this.gamesUsed.increment();
+        final List<String> moves = game.getMoves();
+        for(int ply = 0; ply < this.maxPly && ply < moves.size(); ply++) {
+            final MoveTransition transition = AlgebraicNotation.playSan(board, moves.get(ply));
+            if(transition == null) {
+                break;
+            }
+            final int result = board.getCurrentPlayer().getAlliance().isWhite() ? whiteResult : -whiteResult;
+            table.add(this.keys.hash(board), PolyglotBook.encodeMove(transition.getMove()), result);
+            this.positions.increment();
+            board = transition.getTransitionBoard();
+        }
+    }
+
+    /**
+     * @return 1 when white won, -1 when black won, 0 for a draw and Integer.MIN_VALUE for an unknown result
+     */
+    private static int resultForWhite(final String result) {
+        switch(result) {
+            case PgnGame.WHITE_WINS:
+                return 1;
+            case PgnGame.BLACK_WINS:
+                return -1;
+            case PgnGame.DRAW:
+                return 0;
+            default:
+                return Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * merges the sorted runs, the counts of the same (position, move) in different runs are added
+     */
+    private long mergeRuns(final ExternalSorter<BookRecord> sorter, final Path bookPath) throws IOException {
+        try(final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(bookPath), RUN_BUFFER_SIZE))) {
+            final EntryMerger merger = new EntryMerger(output, this.minGames);
+            sorter.merge(merger);
+            merger.flush();
+            return merger.entries;
+        }
+    }
+
+    /**
+     * builds a book from the command line: OpeningBookBuilder games.pgn book.bin [maxPly]
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: OpeningBookBuilder <games.pgn> <book.bin> [maxPly]");
+            return;
+        }
+        final Builder builder = new Builder(PolyglotKeys.STANDARD);
+        if(args.length > 2) {
+            builder.setMaxPly(Integer.parseInt(args[2]));
+        }
+        final OpeningBookBuilder bookBuilder = builder.build();
+        final long startTime = System.nanoTime();
+        final long entries = bookBuilder.build(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println(bookBuilder.getGamesRead() + " games, " + bookBuilder.getPositions() + " positions, " +
+                entries + " book entries in " + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+
+    /**
+     * EntryMerger class that adds up the records of the same (position, move) that come one after the other out
+     * of the merge, and writes the entry when the next pair starts
+     */
+    private static final class EntryMerger implements ExternalSorter.RecordConsumer<BookRecord> {
+        private final DataOutputStream output;
+        private final int minGames;
+        private boolean hasEntry;
+        private long key;
+        private int move;
+        private long wins;
+        private long draws;
+        private long losses;
+        private long entries;
+
+        EntryMerger(final DataOutputStream output, final int minGames) {
+            this.output = output;
+            this.minGames = minGames;
+        }
+
+        @Override
+        public void accept(final BookRecord record) throws IOException {
+            if(!this.hasEntry || record.key != this.key || record.move != this.move) {
+                flush();
+                this.hasEntry = true;
+                this.key = record.key;
+                this.move = record.move;
+            }
+            this.wins += record.wins;
+            this.draws += record.draws;
+            this.losses += record.losses;
+        }
+
+        /**
+         * writes the entry of the last pair when it has enough games
+         */
+        void flush() throws IOException {
+            if(this.hasEntry && this.wins + this.draws + this.losses >= this.minGames) {
+                BookRecord.write(this.output, this.key, this.move, BookRecord.weight(this.wins, this.draws),
+                        (int) Math.min(this.wins, Integer.MAX_VALUE), (int) Math.min(this.draws, Integer.MAX_VALUE),
+                        (int) Math.min(this.losses, Integer.MAX_VALUE));
+                this.entries++;
+            }
+            this.hasEntry = false;
+            this.wins = 0;
+            this.draws = 0;
+            this.losses = 0;
+        }
+    }
+
+    public static class Builder {
+        final PolyglotKeys keys;
+        int maxPly = 24;
+        int minGames = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxEntriesPerWorker = 1 << 20;
+        Path temporaryDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+        public Builder(final PolyglotKeys keys) {
+            this.keys = keys;
+        }
+
+        /**
+         * sets the number of plies of every game that go into the book
+         */
+        public Builder setMaxPly(final int maxPly) {
+            this.maxPly = maxPly;
+            return this;
+        }
+
+        /**
+         * sets the number of games a move needs to get into the book
+         */
+        public Builder setMinGames(final int minGames) {
+            this.minGames = minGames;
+            return this;
+        }
+
+        public Builder setThreads(final int threads) {
+            this.threads = Math.max(threads, 1);
+            return this;
+        }
+
+        /**
+         * sets how many (position, move) pairs a worker keeps in memory before it writes a run, an entry takes
+         * 48 bytes of the table
+         */
+        public Builder setMaxEntriesPerWorker(final int maxEntriesPerWorker) {
+            this.maxEntriesPerWorker = maxEntriesPerWorker;
+            return this;
+        }
+
+        public Builder setTemporaryDirectory(final Path temporaryDirectory) {
+            this.temporaryDirectory = temporaryDirectory;
+            return this;
+        }
+
+        public OpeningBookBuilder build() {
+            return new OpeningBookBuilder(this);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.engine.book;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.player.MoveTransition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * PolyglotBook class that reads the moves of a position from a Polyglot opening book (.bin)
+ *
+ * A Polyglot book is a file of 16 byte entries sorted by their key: the Polyglot hash of the position (8 bytes),
+ * the move (2 bytes), the weight (2 bytes) and the learn data (4 bytes), all big endian. The file is memory
+ * mapped and never copied to the heap, so opening a book of hundreds of megabytes is instant and the operating
+ * system loads only the pages the binary search touches.
+ *
+ * A move is packed as the to file (bits 0-2), the to row (bits 3-5), the from file (bits 6-8), the from row
+ * (bits 9-11) and the promotion piece (bits 12-14, 1 is knight and 4 is queen). Castling is written as the king
+ * taking its own rook (e1h1 is white king side castling)
+ *
+ * The same reader opens the books of the OpeningBookBuilder, their entries have the wins, draws and losses of the
+ * move in place of the learn data
+ */
+public final class PolyglotBook implements Closeable {
+    static final int ENTRY_SIZE = 16;
+    private static final int QUEEN_PROMOTION = 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final PolyglotKeys keys;
+    private final int entrySize;
+    private final int numberOfEntries;
+
+    private PolyglotBook(final FileChannel channel, final MappedByteBuffer buffer, final PolyglotKeys keys,
+                         final int entrySize) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.keys = keys;
+        this.entrySize = entrySize;
+        this.numberOfEntries = buffer.capacity() / entrySize;
+    }
+
+    /**
+     * Opens a book, the file stays mapped until the book is closed
+     * @param path is the path of the .bin file
+     * @param keys are the Polyglot keys the book was written with
+     * @return the opened book
+     */
+    public static PolyglotBook open(final Path path, final PolyglotKeys keys) throws IOException {
+        return open(path, keys, ENTRY_SIZE);
+    }
+
+    /**
+     * Opens a book that was written by the OpeningBookBuilder
+     * @param path is the path of the book
+     * @param keys are the Polyglot keys the book was written with
+     * @return the opened book, its entries have the statistics of the moves
+     */
+    public static PolyglotBook openWithStatistics(final Path path, final PolyglotKeys keys) throws IOException {
+        return open(path, keys, BookRecord.ENTRY_SIZE);
+    }
+
+    private static PolyglotBook open(final Path path, final PolyglotKeys keys, final int entrySize) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            if(size % entrySize != 0 || size > Integer.MAX_VALUE) {
+                throw new RuntimeException("Invalid book " + path + " of " + size + " bytes");
+            }
+            return new PolyglotBook(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), keys, entrySize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return this.numberOfEntries;
+    }
+
+    public PolyglotKeys getKeys() {
+        return this.keys;
+    }
+
+    /**
+     * Finds all the book moves of the position, moves that are not legal on the board (a hash collision) or
+     * that the board can't play (an under promotion) are skipped
+     * @param board is the position we look for
+     * @return the book moves sorted from the highest weight to the lowest, empty when the position is not in the book
+     */
+    public List<BookEntry> getEntries(final Board board) {
+        final long key = this.keys.hash(board);
+        final List<BookEntry> entries = new ArrayList<>();
+        for(int index = findFirstEntry(key); index < this.numberOfEntries && getKey(index) == key; index++) {
+            final int position = index * this.entrySize;
+            final Move move = decodeMove(board, this.buffer.getShort(position + 8) & 0xFFFF);
+            if(move == null) {
+                continue;
+            }
+            final int weight = this.buffer.getShort(position + 10) & 0xFFFF;
+            if(this.entrySize == ENTRY_SIZE) {
+                entries.add(new BookEntry(move, weight, this.buffer.getInt(position + 12), 0, 0, 0));
+            } else {
+                entries.add(new BookEntry(move, weight, 0, this.buffer.getInt(position + 12),
+                        this.buffer.getInt(position + 16), this.buffer.getInt(position + 20)));
+            }
+        }
+        entries.sort((e1, e2) -> Integer.compare(e2.getWeight(), e1.getWeight()));
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * @return the book move with the highest weight, or null when the position is not in the book
+     */
+    public Move getBestMove(final Board board) {
+        final List<BookEntry> entries = getEntries(board);
+        return entries.isEmpty() ? null : entries.get(0).getMove();
+    }
+
+    /**
+     * Chooses a book move at random in proportion to the weights, so the engine doesn't play the same opening
+     * every game
+     * @return the chosen move, or null when the position is not in the book
+     */
+    public Move getWeightedMove(final Board board, final Random random) {
+        final List<BookEntry> entries = getEntries(board);
+        int totalWeight = 0;
+        for(final BookEntry entry : entries) {
+            totalWeight += entry.getWeight();
+        }
+        if(totalWeight == 0) {
+            return entries.isEmpty() ? null : entries.get(0).getMove();
+        }
+        int choice = random.nextInt(totalWeight);
+        for(final BookEntry entry : entries) {
+            choice -= entry.getWeight();
+            if(choice < 0) {
+                return entry.getMove();
+            }
+        }
+        throw new RuntimeException("Should not reach here");
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Packs a move of the board in the Polyglot format
+     * @param move is the move we pack
+     * @return the Polyglot move
+     */
+    public static int encodeMove(final Move move) {
+        int destination = move.getDestinationCoordinate();
+        if(move instanceof Move.CastleMove) {
+            destination = ((Move.CastleMove) move).getCastleRook().getPiecePosition();
+        }
+        final int from = PolyglotKeys.toPolyglotSquare(move.getCurrentCoordinate());
+        final int to = PolyglotKeys.toPolyglotSquare(destination);
+        final int promotion = move instanceof Move.PawnPromotion ? QUEEN_PROMOTION : 0;
+        return promotion << 12 | from << 6 | to;
+    }
+
+    /**
+     * Unpacks a Polyglot move to the move of the board with the same tiles
+     * @return the legal move, or null when the board has no such move
+     */
+    static Move decodeMove(final Board board, final int polyglotMove) {
+        final int from = PolyglotKeys.toTileCoordinate(polyglotMove >>> 6 & 0x3F);
+        final int to = PolyglotKeys.toTileCoordinate(polyglotMove & 0x3F);
+        final int promotion = polyglotMove >>> 12 & 0x7;
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            if(move.getCurrentCoordinate() != from) {
+                continue;
+            }
+            final boolean matches;
+            if(move instanceof Move.CastleMove) {
+                matches = ((Move.CastleMove) move).getCastleRook().getPiecePosition() == to;
+            } else {
+                matches = move.getDestinationCoordinate() == to &&
+                        (move instanceof Move.PawnPromotion ? promotion == QUEEN_PROMOTION : promotion == 0);
+            }
+            if(matches) {
+                final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+                return transition.getMoveStatus().isDone() ? move : null;
+            }
+        }
+        return null;
+    }
+
+    private long getKey(final int index) {
+        return this.buffer.getLong(index * this.entrySize);
+    }
+
+    /**
+     * binary search for the first entry of the key, the keys are sorted as unsigned numbers
+     */
+    private int findFirstEntry(final long key) {
+        int low = 0;
+        int high = this.numberOfEntries;
+        while(low < high) {
+            final int middle = (low + high) >>> 1;
+            if(Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,62 @@
+package com.engine.database;
+
+import com.engine.board.Move;
+
+/**
+ * ExplorerMove class that is a move of the OpeningExplorer with the games it was played in, their results for the
+ * player of the move and their average rating
+ */
+public final class ExplorerMove {
+    private final Move move;
+    private final int games;
+    private final int wins;
+    private final int draws;
+    private final int averageRating;
+
+    ExplorerMove(final Move move, final int games, final int wins, final int draws, final int averageRating) {
+        this.move = move;
+        this.games = games;
+        this.wins = wins;
+        this.draws = draws;
+        this.averageRating = averageRating;
+    }
+
+    public Move getMove() {
+        return this.move;
+    }
+
+    public int getGames() {
+        return this.games;
+    }
+
+    public int getWins() {
+        return this.wins;
+    }
+
+    public int getDraws() {
+        return this.draws;
+    }
+
+    public int getLosses() {
+        return this.games - this.wins - this.draws;
+    }
+
+    /**
+     * @return the points the player of the move scored in percent, a draw is half a point
+     */
+    public double getScore() {
+        return (this.wins + this.draws / 2.0) * 100 / this.games;
+    }
+
+    /**
+     * @return the average rating of the games, the mean of the ratings of both players, or 0 when no game was rated
+     */
+    public int getAverageRating() {
+        return this.averageRating;
+    }
+
+    @Override
+    public String toString() {
+        return this.move + " " + this.games + " games " + Math.round(getScore()) + "%";
+    }
+}
@@ -0,0 +1,180 @@
+package com.engine.database;
+
+import java.util.Arrays;
+
+/**
+ * GameBitmap class that is a set of game ids of a database, one bit per game in an array of longs
+ *
+ * The operations make new bitmaps and never change the ones they combine, a million games is 16K longs so a
+ * combination is a few microseconds
+ */
+public final class GameBitmap {
+    private final long[] words;
+    private final int games;
+
+    GameBitmap(final long[] words, final int games) {
+        this.words = words;
+        this.games = games;
+    }
+
+    /**
+     * @param games is the number of games of the database
+     * @return a bitmap with no game
+     */
+    public static GameBitmap empty(final int games) {
+        return new GameBitmap(new long[wordsFor(games)], games);
+    }
+
+    /**
+     * @param games is the number of games of the database
+     * @return a bitmap with all the games
+     */
+    public static GameBitmap all(final int games) {
+        return empty(games).not();
+    }
+
+    static int wordsFor(final int games) {
+        return (games + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * @return the number of games of the database, the bitmap has ids from 0 to getGames() - 1
+     */
+    public int getGames() {
+        return this.games;
+    }
+
+    public boolean contains(final int id) {
+        return id >= 0 && id < this.games && (this.words[id >>> 6] & 1L << id) != 0;
+    }
+
+    /**
+     * @return the number of games in the bitmap
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for(final long word : this.words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        for(final long word : this.words) {
+            if(word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the first game in the bitmap from the id on, or -1 when there is none
+     */
+    public int nextGame(final int id) {
+        if(id < 0 || id >= this.games) {
+            return -1;
+        }
+        int index = id >>> 6;
+        long word = this.words[index] & -1L << id;
+        while(word == 0) {
+            if(++index == this.words.length) {
+                return -1;
+            }
+            word = this.words[index];
+        }
+        return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return the ids of the games in the bitmap in order
+     */
+    public int[] toArray() {
+        final int[] ids = new int[cardinality()];
+        int count = 0;
+        for(int id = nextGame(0); id >= 0; id = nextGame(id + 1)) {
+            ids[count++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * @return the games that are in both bitmaps
+     */
+    public GameBitmap and(final GameBitmap other) {
+        checkGames(other);
+        final long[] result = new long[this.words.length];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = this.words[i] & other.words[i];
+        }
+        return new GameBitmap(result, this.games);
+    }
+
+    /**
+     * @return the games that are in one of the bitmaps
+     */
+    public GameBitmap or(final GameBitmap other) {
+        checkGames(other);
+        final long[] result = new long[this.words.length];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = this.words[i] | other.words[i];
+        }
+        return new GameBitmap(result, this.games);
+    }
+
+    /**
+     * @return the games of this bitmap that are not in the other one
+     */
+    public GameBitmap andNot(final GameBitmap other) {
+        checkGames(other);
+        final long[] result = new long[this.words.length];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = this.words[i] & ~other.words[i];
+        }
+        return new GameBitmap(result, this.games);
+    }
+
+    /**
+     * @return the games of the database that are not in the bitmap
+     */
+    public GameBitmap not() {
+        final long[] result = new long[this.words.length];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = ~this.words[i];
+        }
+        // the bits after the last game stay clear
+        if(this.games % Long.SIZE != 0) {
+            result[result.length - 1] &= -1L >>> (Long.SIZE - this.games % Long.SIZE);
+        }
+        return new GameBitmap(result, this.games);
+    }
+
+    private void checkGames(final GameBitmap other) {
+        if(other.games != this.games) {
+            throw new RuntimeException("A bitmap of " + this.games + " games can't be combined with one of " +
+                    other.games + " games");
+        }
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof GameBitmap)) {
+            return false;
+        }
+        final GameBitmap otherBitmap = (GameBitmap) other;
+        return this.games == otherBitmap.games && Arrays.equals(this.words, otherBitmap.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.games + Arrays.hashCode(this.words);
+    }
+
+    @Override
+    public String toString() {
+        return cardinality() + " of " + this.games + " games";
+    }
+}
@@ -0,0 +1,298 @@
+package com.engine.database;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.pgn.PgnFiles;
+import com.engine.pgn.PgnGame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GameDatabase class that reads the games of a compact binary game database
+ *
+ * A game is a record of a 10 byte header (the number of plies, the result, the flags, the ratings of the players and
+ * the length of the tags), the tags, and one byte per move: the index of the move in the legal moves of the board it
+ * was played on. Replaying a game needs no SAN parsing and no legality check, every ply builds one board, and a game
+ * of 80 plies takes about 80 bytes plus its tags instead of the 500 bytes of its PGN.
+ *
+ * The records are appended to segment files of at most SEGMENT_SIZE bytes, the index file has the segment and the
+ * offset of every game in the order they were added, so the id of a game is its position in the index. The index
+ * and the segments are memory mapped like the PolyglotBook, reading a game is a few reads of the mapped pages.
+ *
+ * The move indexes depend on the order the move generator gives the legal moves in, a database is only read by the
+ * move generator of the VERSION that wrote it
+ */
+public final class GameDatabase implements Closeable {
+    static final String INDEX_FILE = "games.idx";
+    static final int MAGIC = 0x43474442;
+    static final int VERSION = 1;
+    static final int INDEX_HEADER_SIZE = 8;
+    static final int INDEX_ENTRY_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 10;
+    static final long SEGMENT_SIZE = 1 << 28;
+    static final int MAX_PLIES = 0xFFFF;
+    static final int FEN_FLAG = 1;
+    private static final String[] RESULTS = {PgnGame.WHITE_WINS, PgnGame.BLACK_WINS, PgnGame.DRAW,
+            PgnGame.UNKNOWN_RESULT};
+
+    private final List<FileChannel> channels;
+    private final MappedByteBuffer index;
+    private final List<MappedByteBuffer> segments;
+    private final int size;
+
+    private GameDatabase(final List<FileChannel> channels, final MappedByteBuffer index,
+                         final List<MappedByteBuffer> segments, final int size) {
+        this.channels = channels;
+        this.index = index;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Opens a database, the games appended after it was opened are not seen
+     * @param directory is the directory of the database
+     * @return the opened database, its files stay mapped until it is closed
+     */
+    public static GameDatabase open(final Path directory) throws IOException {
+        final List<FileChannel> channels = new ArrayList<>();
+        try {
+            final Path indexPath = directory.resolve(INDEX_FILE);
+            final FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ);
+            channels.add(indexChannel);
+            final int size = checkIndex(indexPath, indexChannel);
+            final MappedByteBuffer index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    INDEX_HEADER_SIZE + (long) size * INDEX_ENTRY_SIZE);
+            final List<MappedByteBuffer> segments = new ArrayList<>();
+            Path segmentPath;
+            while(Files.exists(segmentPath = directory.resolve(segmentFile(segments.size())))) {
+                final FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ);
+                channels.add(channel);
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+            return new GameDatabase(channels, index, segments, size);
+        } catch (IOException | RuntimeException e) {
+            for(final FileChannel channel : channels) {
+                channel.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * checks the header of an index
+     * @return the number of games of the index
+     */
+    static int checkIndex(final Path indexPath, final FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+        channel.read(header, 0);
+        final long games = (channel.size() - INDEX_HEADER_SIZE) / INDEX_ENTRY_SIZE;
+        if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION || games < 0 ||
+                INDEX_HEADER_SIZE + games * INDEX_ENTRY_SIZE > Integer.MAX_VALUE) {
+            throw new RuntimeException("Invalid game database index " + indexPath);
+        }
+        return (int) games;
+    }
+
+    static String segmentFile(final int segmentNumber) {
+        return String.format("games-%05d.seg", segmentNumber);
+    }
+
+    static byte encodeResult(final String result) {
+        for(int i = 0; i < RESULTS.length; i++) {
+            if(RESULTS[i].equals(result)) {
+                return (byte) i;
+            }
+        }
+        return (byte) (RESULTS.length - 1);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Reads a game with its tags
+     * @param id is the id of the game, from 0 to size() - 1
+     * @return the game
+     */
+    public StoredGame getGame(final int id) {
+        final ByteBuffer segment = segmentOf(id);
+        final int offset = offsetOf(id);
+        final byte[] moveIndexes = new byte[segment.getShort(offset) & 0xFFFF];
+        final int tagsLength = segment.getShort(offset + 8) & 0xFFFF;
+        final ByteBuffer moves = segment.duplicate();
+        moves.position(offset + RECORD_HEADER_SIZE + tagsLength);
+        moves.get(moveIndexes);
+        return new StoredGame(id, readTags(segment, offset), RESULTS[segment.get(offset + 2)],
+                segment.getShort(offset + 4) & 0xFFFF, segment.getShort(offset + 6) & 0xFFFF, moveIndexes);
+    }
+
+    /**
+     * @return the result of a game as in PGN, without reading its tags
+     */
+    public String getResult(final int id) {
+        return RESULTS[segmentOf(id).get(offsetOf(id) + 2)];
+    }
+
+    public int getPlies(final int id) {
+        return segmentOf(id).getShort(offsetOf(id)) & 0xFFFF;
+    }
+
+    /**
+     * @return the WhiteElo tag of a game, or 0 when the game has none
+     */
+    public int getWhiteElo(final int id) {
+        return segmentOf(id).getShort(offsetOf(id) + 4) & 0xFFFF;
+    }
+
+    /**
+     * @return the BlackElo tag of a game, or 0 when the game has none
+     */
+    public int getBlackElo(final int id) {
+        return segmentOf(id).getShort(offsetOf(id) + 6) & 0xFFFF;
+    }
+
+    /**
+     * Plays the moves of a game from its start board, straight from the mapped record, the tags are only read
+     * when the game starts from a FEN
+     * @param id is the id of the game
+     * @param moves gets the moves that were played, the board a move was played on is its getBoard
+     * @return the board after the last move
+     */
+    public Board replay(final int id, final List<Move> moves) {
+        final ByteBuffer segment = segmentOf(id);
+        final int offset = offsetOf(id);
+        final int plies = segment.getShort(offset) & 0xFFFF;
+        Board board = (segment.get(offset + 3) & FEN_FLAG) != 0 ?
+                StoredGame.startBoard(readTags(segment, offset).get("FEN")) : Board.createStandardBoard();
+        final int movesOffset = offset + RECORD_HEADER_SIZE + (segment.getShort(offset + 8) & 0xFFFF);
+        for(int ply = 0; ply < plies; ply++) {
+            final Move move = StoredGame.decodeMove(board, segment.get(movesOffset + ply));
+            moves.add(move);
+            board = move.execute();
+        }
+        return board;
+    }
+
+    private ByteBuffer segmentOf(final int id) {
+        checkId(id);
+        final int segmentNumber = (int) (this.index.getLong(INDEX_HEADER_SIZE + id * INDEX_ENTRY_SIZE) >>> 32);
+        if(segmentNumber >= this.segments.size()) {
+            throw new RuntimeException("The segment " + segmentNumber + " of the game " + id + " is missing");
+        }
+        return this.segments.get(segmentNumber);
+    }
+
+    private int offsetOf(final int id) {
+        return (int) this.index.getLong(INDEX_HEADER_SIZE + id * INDEX_ENTRY_SIZE);
+    }
+
+    private void checkId(final int id) {
+        if(id < 0 || id >= this.size) {
+            throw new RuntimeException("No game " + id + " in a database of " + this.size + " games");
+        }
+    }
+
+    private static Map<String, String> readTags(final ByteBuffer segment, final int offset) {
+        final Map<String, String> tags = new HashMap<>();
+        int position = offset + RECORD_HEADER_SIZE;
+        final int end = position + (segment.getShort(offset + 8) & 0xFFFF);
+        final byte[] bytes = new byte[end - position];
+        final ByteBuffer tagBuffer = segment.duplicate();
+        tagBuffer.position(position);
+        tagBuffer.get(bytes);
+        position = 0;
+        while(position < bytes.length) {
+            final int nameLength = bytes[position] & 0xFF;
+            final String name = new String(bytes, position + 1, nameLength, StandardCharsets.UTF_8);
+            position += 1 + nameLength;
+            final int valueLength = (bytes[position] & 0xFF) << 8 | bytes[position + 1] & 0xFF;
+            tags.put(name, new String(bytes, position + 2, valueLength, StandardCharsets.UTF_8));
+            position += 2 + valueLength;
+        }
+        return tags;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for(final FileChannel channel : this.channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if(exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Imports a PGN file into a database, then replays all the games of both and prints the games per second and
+     * the size of the files
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: GameDatabase <games.pgn> <directory> [threads]");
+            return;
+        }
+        final Path pgnPath = Paths.get(args[0]);
+        final Path directory = Paths.get(args[1]);
+        final int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long startTime = System.nanoTime();
+        final long games;
+        try(final GameDatabaseWriter writer = GameDatabaseWriter.open(directory)) {
+            games = PgnFiles.forEachGame(pgnPath, threads, game -> {
+                try {
+                    writer.append(game);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        long millis = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+        long databaseBytes = Files.size(directory.resolve(INDEX_FILE));
+        Path segmentPath;
+        for(int segment = 0; Files.exists(segmentPath = directory.resolve(segmentFile(segment))); segment++) {
+            databaseBytes += Files.size(segmentPath);
+        }
+        System.out.println("imported " + games + " games in " + millis + " ms, " + games * 1000 / millis +
+                " games/s, " + Files.size(pgnPath) + " bytes of PGN, " + databaseBytes + " bytes of database");
+
+        final LongAdder pgnPlies = new LongAdder();
+        startTime = System.nanoTime();
+        PgnFiles.forEachGame(pgnPath, 1, game -> pgnPlies.add(game.resolveMoves().size()));
+        millis = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+        System.out.println("replayed the PGN on one thread: " + pgnPlies.sum() * 1000 / millis + " plies/s");
+
+        try(final GameDatabase database = open(directory)) {
+            long plies = 0;
+            final List<Move> moves = new ArrayList<>();
+            startTime = System.nanoTime();
+            for(int id = 0; id < database.size(); id++) {
+                moves.clear();
+                database.replay(id, moves);
+                plies += moves.size();
+            }
+            millis = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+            System.out.println("replayed the database on one thread: " + database.size() + " games, " +
+                    plies * 1000 / millis + " plies/s");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.engine.database;
+
+import com.engine.board.Move;
+import com.engine.pgn.PgnGame;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GameDatabaseWriter class that appends games to a GameDatabase
+ *
+ * Nothing that was written is ever rewritten: a game is appended to the last segment, or to a new one when the
+ * segment is full, and then its offset is appended to the index, so a game is in the database only once both are
+ * written. The writer is synchronized, the threads of an import can share it
+ */
+public final class GameDatabaseWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final OutputStream index;
+    // the index entries wait here until their games are written, so the index never points past a segment
+    private final ByteBuffer pendingEntries;
+    private OutputStream segment;
+    private int segmentNumber;
+    private long segmentSize;
+    private int size;
+    private byte[] record;
+
+    private GameDatabaseWriter(final Path directory, final OutputStream index, final int size,
+                               final int segmentNumber, final long segmentSize) throws IOException {
+        this.directory = directory;
+        this.index = index;
+        this.pendingEntries = ByteBuffer.allocate(BUFFER_SIZE);
+        this.size = size;
+        this.segmentNumber = segmentNumber;
+        this.segmentSize = segmentSize;
+        this.segment = openSegment(directory, segmentNumber);
+        this.record = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Opens a database to append games to, it is created when the directory has none
+     * @param directory is the directory of the database
+     * @return the writer, the next game gets the id size()
+     */
+    public static GameDatabaseWriter open(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        final Path indexPath = directory.resolve(GameDatabase.INDEX_FILE);
+        int size = 0;
+        int segmentNumber = 0;
+        if(Files.exists(indexPath) && Files.size(indexPath) > 0) {
+            try(final FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                size = GameDatabase.checkIndex(indexPath, channel);
+                if(size > 0) {
+                    final ByteBuffer lastEntry = ByteBuffer.allocate(GameDatabase.INDEX_ENTRY_SIZE);
+                    channel.read(lastEntry, GameDatabase.INDEX_HEADER_SIZE +
+                            (long) (size - 1) * GameDatabase.INDEX_ENTRY_SIZE);
+                    segmentNumber = (int) (lastEntry.getLong(0) >>> 32);
+                }
+            }
+        }
+        final Path segmentPath = directory.resolve(GameDatabase.segmentFile(segmentNumber));
+        // bytes after the last indexed game were left by a writer that stopped, they are never read
+        final long segmentSize = Files.exists(segmentPath) ? Files.size(segmentPath) : 0;
+        final OutputStream index = Files.newOutputStream(indexPath, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        if(size == 0 && Files.size(indexPath) == 0) {
+            index.write(ByteBuffer.allocate(GameDatabase.INDEX_HEADER_SIZE).putInt(GameDatabase.MAGIC)
+                    .putInt(GameDatabase.VERSION).array());
+        }
+        return new GameDatabaseWriter(directory, index, size, segmentNumber, segmentSize);
+    }
+
+    private static OutputStream openSegment(final Path directory, final int segmentNumber) throws IOException {
+        final OutputStream stream = Files.newOutputStream(directory.resolve(GameDatabase.segmentFile(segmentNumber)),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new BufferedOutputStream(stream, BUFFER_SIZE);
+    }
+
+    /**
+     * @return the number of games in the database
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Replays a PGN game and appends it, the moves end before the first move that is not legal like in PgnGame
+     * @return the id of the game
+     */
+    public int append(final PgnGame game) throws IOException {
+        final List<Move> moves = new ArrayList<>(game.getMoves().size());
+        game.replay(moves);
+        return append(game.getTags(), moves, game.getResult());
+    }
+
+    /**
+     * Appends a game
+     * @param tags are the tags of the game, the FEN tag is the start board when the game has one
+     * @param moves are the legal moves of the game in order, every move knows the board it was played on
+     * @param result is the result as in PGN
+     * @return the id of the game
+     */
+    public synchronized int append(final Map<String, String> tags, final List<Move> moves,
+                                   final String result) throws IOException {
+        if(moves.size() > GameDatabase.MAX_PLIES) {
+            throw new RuntimeException("A game of " + moves.size() + " plies is too long");
+        }
+        final byte[] tagBytes = encodeTags(tags);
+        final int recordSize = GameDatabase.RECORD_HEADER_SIZE + tagBytes.length + moves.size();
+        if(this.record.length < recordSize) {
+            this.record = new byte[Math.max(recordSize, this.record.length * 2)];
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(this.record);
+        buffer.putShort((short) moves.size());
+        buffer.put(GameDatabase.encodeResult(result));
+        buffer.put((byte) (tags.containsKey("FEN") ? GameDatabase.FEN_FLAG : 0));
+        buffer.putShort((short) parseElo(tags.get("WhiteElo")));
+        buffer.putShort((short) parseElo(tags.get("BlackElo")));
+        buffer.putShort((short) tagBytes.length);
+        buffer.put(tagBytes);
+        for(final Move move : moves) {
+            buffer.put(encodeMove(move));
+        }
+        if(this.segmentSize + recordSize > GameDatabase.SEGMENT_SIZE && this.segmentSize > 0) {
+            flush();
+            this.segment.close();
+            this.segmentNumber++;
+            this.segmentSize = 0;
+            this.segment = openSegment(this.directory, this.segmentNumber);
+        }
+        this.segment.write(this.record, 0, recordSize);
+        if(!this.pendingEntries.hasRemaining()) {
+            flush();
+        }
+        this.pendingEntries.putLong((long) this.segmentNumber << 32 | this.segmentSize);
+        this.segmentSize += recordSize;
+        return this.size++;
+    }
+
+    /**
+     * a tag is the length of its name in a byte, the name, the length of its value in two bytes and the value,
+     * in UTF-8
+     */
+    private static byte[] encodeTags(final Map<String, String> tags) {
+        int length = 0;
+        final List<byte[]> encoded = new ArrayList<>(tags.size() * 2);
+        for(final Map.Entry<String, String> tag : tags.entrySet()) {
+            final byte[] name = tag.getKey().getBytes(StandardCharsets.UTF_8);
+            final byte[] value = tag.getValue().getBytes(StandardCharsets.UTF_8);
+            if(name.length > 0xFF || value.length > 0xFFFF) {
+                throw new RuntimeException("The tag " + tag.getKey() + " is too long");
+            }
+            encoded.add(name);
+            encoded.add(value);
+            length += 3 + name.length + value.length;
+        }
+        if(length > 0xFFFF) {
+            throw new RuntimeException("The tags of the game take " + length + " bytes");
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        for(int i = 0; i < encoded.size(); i += 2) {
+            buffer.put((byte) encoded.get(i).length).put(encoded.get(i));
+            buffer.putShort((short) encoded.get(i + 1).length).put(encoded.get(i + 1));
+        }
+        return buffer.array();
+    }
+
+    private static int parseElo(final String elo) {
+        if(elo == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Math.min(Integer.parseInt(elo.trim()), 0xFFFF));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return the index of the move in the legal moves of its board
+     */
+    static byte encodeMove(final Move move) {
+        final Collection<Move> legalMoves = move.getBoard().getCurrentPlayer().getLegalMoves();
+        int moveIndex = 0;
+        for(final Move legalMove : legalMoves) {
+            if(legalMove == move || legalMove.equals(move)) {
+                if(moveIndex > 0xFF) {
+                    throw new RuntimeException("The move " + move + " is the legal move " + moveIndex);
+                }
+                return (byte) moveIndex;
+            }
+            moveIndex++;
+        }
+        throw new RuntimeException("The move " + move + " is not a move of its board");
+    }
+
+    /**
+     * writes what is buffered, the games appended until now are seen by the databases opened after it
+     */
+    public synchronized void flush() throws IOException {
+        this.segment.flush();
+        this.index.write(this.pendingEntries.array(), 0, this.pendingEntries.position());
+        this.index.flush();
+        this.pendingEntries.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+            this.segment.close();
+        } finally {
+            this.index.close();
+        }
+    }
+}
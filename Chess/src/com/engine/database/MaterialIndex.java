@@ -0,0 +1,169 @@
+package com.engine.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongPredicate;
+
+/**
+ * MaterialIndex class that finds the games of a GameDatabase by the material they reached, without replaying them
+ *
+ * For every material signature a game reached the index has the set of those games, stored the smaller way: as the
+ * sorted ids of the games (4 bytes a game) when few games reached it, or as a bitmap of all the games (a bit a game)
+ * when many did. The header is the number of games and of signatures, then a directory of 24 byte entries sorted by
+ * signature: the signature, the number of games, the encoding and the offset of the set in the file, all big endian.
+ * The file is memory mapped, a query reads the directory, tests the signatures and ORs the sets that match into a
+ * GameBitmap, so the time of a query is the size of the matching sets and not of the games
+ */
+public final class MaterialIndex implements Closeable {
+    static final int MAGIC = 0x4D494458;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int DIRECTORY_ENTRY_SIZE = 24;
+    static final int IDS_ENCODING = 0;
+    static final int BITMAP_ENCODING = 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int games;
+    private final int signatures;
+
+    private MaterialIndex(final FileChannel channel, final MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.games = buffer.getInt(8);
+        this.signatures = buffer.getInt(12);
+    }
+
+    /**
+     * Opens an index, the file stays mapped until the index is closed
+     * @param path is the path of the index
+     * @return the opened index
+     */
+    public static MaterialIndex open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            if(size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new RuntimeException("Invalid material index " + path + " of " + size + " bytes");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION ||
+                    HEADER_SIZE + (long) buffer.getInt(12) * DIRECTORY_ENTRY_SIZE > size) {
+                throw new RuntimeException("Invalid material index " + path);
+            }
+            return new MaterialIndex(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of games of the database the index was built from
+     */
+    public int getGames() {
+        return this.games;
+    }
+
+    /**
+     * @return the signatures that at least one game reached, sorted
+     */
+    public long[] getSignatures() {
+        final long[] signatureArray = new long[this.signatures];
+        for(int i = 0; i < signatureArray.length; i++) {
+            signatureArray[i] = signatureAt(i);
+        }
+        return signatureArray;
+    }
+
+    /**
+     * @return the number of games that reached the signature
+     */
+    public int getCardinality(final long signature) {
+        final int entry = findEntry(signature);
+        return entry < 0 ? 0 : this.buffer.getInt(entryPosition(entry) + 8);
+    }
+
+    /**
+     * @return the games that reached the signature
+     */
+    public GameBitmap getGames(final long signature) {
+        final long[] words = new long[GameBitmap.wordsFor(this.games)];
+        final int entry = findEntry(signature);
+        if(entry >= 0) {
+            addGames(entry, words);
+        }
+        return new GameBitmap(words, this.games);
+    }
+
+    /**
+     * @return the games that reached at least one of the signatures the predicate accepts
+     */
+    public GameBitmap reached(final LongPredicate signatureFilter) {
+        final long[] words = new long[GameBitmap.wordsFor(this.games)];
+        for(int entry = 0; entry < this.signatures; entry++) {
+            if(signatureFilter.test(signatureAt(entry))) {
+                addGames(entry, words);
+            }
+        }
+        return new GameBitmap(words, this.games);
+    }
+
+    /**
+     * @return the games of the query
+     */
+    public GameBitmap find(final MaterialQuery query) {
+        return query.run(this);
+    }
+
+    private void addGames(final int entry, final long[] words) {
+        final int position = entryPosition(entry);
+        final int cardinality = this.buffer.getInt(position + 8);
+        final int encoding = this.buffer.getInt(position + 12);
+        final int offset = (int) this.buffer.getLong(position + 16);
+        if(encoding == BITMAP_ENCODING) {
+            for(int i = 0; i < words.length; i++) {
+                words[i] |= this.buffer.getLong(offset + i * Long.BYTES);
+            }
+        } else {
+            for(int i = 0; i < cardinality; i++) {
+                final int id = this.buffer.getInt(offset + i * Integer.BYTES);
+                words[id >>> 6] |= 1L << id;
+            }
+        }
+    }
+
+    private int findEntry(final long signature) {
+        int low = 0;
+        int high = this.signatures - 1;
+        while(low <= high) {
+            final int middle = (low + high) >>> 1;
+            final long middleSignature = signatureAt(middle);
+            if(middleSignature < signature) {
+                low = middle + 1;
+            } else if(middleSignature > signature) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private long signatureAt(final int entry) {
+        return this.buffer.getLong(entryPosition(entry));
+    }
+
+    private static int entryPosition(final int entry) {
+        return HEADER_SIZE + entry * DIRECTORY_ENTRY_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
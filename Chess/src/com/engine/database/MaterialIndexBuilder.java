@@ -0,0 +1,233 @@
+package com.engine.database;
+
+import com.engine.Alliance;
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.pieces.PieceType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MaterialIndexBuilder class that writes the MaterialIndex of a GameDatabase
+ *
+ * The workers take the games in blocks of GAMES_PER_TASK, replay them and add the game to the list of every
+ * signature it reached. The material only changes on a capture or a promotion, so a game reaches about a dozen
+ * signatures and the lists take 4 bytes for each of them, the lists of the workers are merged and written once
+ */
+public final class MaterialIndexBuilder {
+    private static final int GAMES_PER_TASK = 64;
+
+    private final int threads;
+
+    private MaterialIndexBuilder(final Builder builder) {
+        this.threads = builder.threads;
+    }
+
+    /**
+     * Builds the index of all the games of a database
+     * @param database is the database of the games
+     * @param indexPath is the index file that is written
+     * @return the number of signatures of the index
+     */
+    public int build(final GameDatabase database, final Path indexPath) throws IOException {
+        final AtomicInteger nextGame = new AtomicInteger();
+        final List<Map<Long, GameList>> workerLists = new ArrayList<>();
+        final ExecutorService service = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "Material index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<Map<Long, GameList>>> results = new ArrayList<>();
+            for(int i = 0; i < this.threads; i++) {
+                results.add(service.submit(() -> indexGames(database, nextGame)));
+            }
+            for(final Future<Map<Long, GameList>> result : results) {
+                workerLists.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Building the material index was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Building the material index failed", e.getCause());
+        } finally {
+            service.shutdownNow();
+        }
+        final Map<Long, GameList> lists = new HashMap<>();
+        for(final Map<Long, GameList> worker : workerLists) {
+            for(final Map.Entry<Long, GameList> entry : worker.entrySet()) {
+                lists.computeIfAbsent(entry.getKey(), signature -> new GameList()).addAll(entry.getValue());
+            }
+        }
+        write(lists, database.size(), indexPath);
+        return lists.size();
+    }
+
+    private static Map<Long, GameList> indexGames(final GameDatabase database, final AtomicInteger nextGame) {
+        final Map<Long, GameList> lists = new HashMap<>();
+        final List<Move> moves = new ArrayList<>();
+        final List<Long> gameSignatures = new ArrayList<>();
+        int first;
+        while((first = nextGame.getAndAdd(GAMES_PER_TASK)) < database.size()) {
+            for(int id = first; id < Math.min(first + GAMES_PER_TASK, database.size()); id++) {
+                moves.clear();
+                gameSignatures.clear();
+                final Board lastBoard = database.replay(id, moves);
+                for(int ply = 0; ply <= moves.size(); ply++) {
+                    final Board board = ply < moves.size() ? moves.get(ply).getBoard() : lastBoard;
+                    final Long signature = MaterialSignature.of(board);
+                    if(!gameSignatures.contains(signature)) {
+                        gameSignatures.add(signature);
+                        lists.computeIfAbsent(signature, key -> new GameList()).add(id);
+                    }
+                }
+            }
+        }
+        return lists;
+    }
+
+    /**
+     * writes the header, the directory sorted by signature and the sets of games, every set as ids or as a
+     * bitmap, the smaller one
+     */
+    private static void write(final Map<Long, GameList> lists, final int games,
+                              final Path indexPath) throws IOException {
+        final long[] signatures = new long[lists.size()];
+        int count = 0;
+        for(final Long signature : lists.keySet()) {
+            signatures[count++] = signature;
+        }
+        Arrays.sort(signatures);
+        final int bitmapWords = GameBitmap.wordsFor(games);
+        try(final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(indexPath), 1 << 16))) {
+            output.writeInt(MaterialIndex.MAGIC);
+            output.writeInt(MaterialIndex.VERSION);
+            output.writeInt(games);
+            output.writeInt(signatures.length);
+            long offset = MaterialIndex.HEADER_SIZE + (long) signatures.length * MaterialIndex.DIRECTORY_ENTRY_SIZE;
+            for(final long signature : signatures) {
+                final GameList list = lists.get(signature);
+                list.sort();
+                final boolean bitmap = (long) list.size * Integer.BYTES > (long) bitmapWords * Long.BYTES;
+                output.writeLong(signature);
+                output.writeInt(list.size);
+                output.writeInt(bitmap ? MaterialIndex.BITMAP_ENCODING : MaterialIndex.IDS_ENCODING);
+                output.writeLong(offset);
+                offset += bitmap ? (long) bitmapWords * Long.BYTES : (long) list.size * Integer.BYTES;
+            }
+            if(offset > Integer.MAX_VALUE) {
+                throw new RuntimeException("The material index would take " + offset + " bytes");
+            }
+            for(final long signature : signatures) {
+                final GameList list = lists.get(signature);
+                if((long) list.size * Integer.BYTES > (long) bitmapWords * Long.BYTES) {
+                    final long[] words = new long[bitmapWords];
+                    for(int i = 0; i < list.size; i++) {
+                        words[list.ids[i] >>> 6] |= 1L << list.ids[i];
+                    }
+                    for(final long word : words) {
+                        output.writeLong(word);
+                    }
+                } else {
+                    for(int i = 0; i < list.size; i++) {
+                        output.writeInt(list.ids[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * builds the material index of a database, then times some queries
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: MaterialIndexBuilder <database directory> <material.idx> [threads]");
+            return;
+        }
+        final Builder builder = new Builder();
+        if(args.length > 2) {
+            builder.setThreads(Integer.parseInt(args[2]));
+        }
+        final Path indexPath = Paths.get(args[1]);
+        try(final GameDatabase database = GameDatabase.open(Paths.get(args[0]))) {
+            final long startTime = System.nanoTime();
+            final int signatures = builder.build().build(database, indexPath);
+            System.out.println(database.size() + " games, " + signatures + " signatures in " +
+                    (System.nanoTime() - startTime) / 1_000_000 + " ms, " + Files.size(indexPath) + " bytes");
+        }
+        try(final MaterialIndex index = MaterialIndex.open(indexPath)) {
+            final MaterialQuery[] queries = {
+                    MaterialQuery.rookEndgameWithExtraPawn(),
+                    MaterialQuery.reached("KRPvKR").or(MaterialQuery.reached("KRvKRP")),
+                    MaterialQuery.reached("KQvK").not(),
+                    MaterialQuery.reached(signature -> MaterialSignature.count(signature, Alliance.WHITE,
+                            PieceType.QUEEN) > 1).andNot(MaterialQuery.rookEndgameWithExtraPawn())
+            };
+            for(final MaterialQuery query : queries) {
+                final long queryStart = System.nanoTime();
+                GameBitmap games = null;
+                for(int i = 0; i < 100; i++) {
+                    games = index.find(query);
+                }
+                System.out.println(games + " in " + (System.nanoTime() - queryStart) / 100_000 + " us");
+            }
+        }
+    }
+
+    /**
+     * GameList class that is a growing array of game ids
+     */
+    private static final class GameList {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(final int id) {
+            if(this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            this.ids[this.size++] = id;
+        }
+
+        void addAll(final GameList other) {
+            if(this.size + other.size > this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, Math.max(this.size + other.size, this.ids.length * 2));
+            }
+            System.arraycopy(other.ids, 0, this.ids, this.size, other.size);
+            this.size += other.size;
+        }
+
+        void sort() {
+            Arrays.sort(this.ids, 0, this.size);
+        }
+    }
+
+    public static class Builder {
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        public Builder setThreads(final int threads) {
+            this.threads = Math.max(threads, 1);
+            return this;
+        }
+
+        public MaterialIndexBuilder build() {
+            return new MaterialIndexBuilder(this);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.engine.database;
+
+import com.engine.Alliance;
+import com.engine.pieces.PieceType;
+
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * MaterialQuery class that describes a search of a MaterialIndex: the games that reached some material, and the
+ * boolean combinations of such searches. A query is only a description, MaterialIndex.find runs it on the bitmaps
+ * of the index.
+ *
+ * A query of material is a predicate of the signatures that tests their MaterialSignature.count, like
+ * rookEndgameWithExtraPawn
+ */
+public final class MaterialQuery {
+    private final Function<MaterialIndex, GameBitmap> search;
+
+    private MaterialQuery(final Function<MaterialIndex, GameBitmap> search) {
+        this.search = search;
+    }
+
+    /**
+     * @param signatures chooses the material signatures, see MaterialSignature
+     * @return the query of the games that reached at least one of the chosen signatures
+     */
+    public static MaterialQuery reached(final LongPredicate signatures) {
+        return new MaterialQuery(index -> index.reached(signatures));
+    }
+
+    /**
+     * @param signature is a signature like "KRPPvKRP"
+     * @return the query of the games that reached the signature
+     */
+    public static MaterialQuery reached(final String signature) {
+        final long material = MaterialSignature.parse(signature);
+        return new MaterialQuery(index -> index.getGames(material));
+    }
+
+    /**
+     * @return the query of the games that reached a rook endgame, one rook each and pawns, where a side has one
+     * pawn more than the other
+     */
+    public static MaterialQuery rookEndgameWithExtraPawn() {
+        return reached(signature -> {
+            for(final Alliance alliance : Alliance.values()) {
+                if(MaterialSignature.count(signature, alliance, PieceType.ROOK) != 1 ||
+                        MaterialSignature.count(signature, alliance, PieceType.QUEEN) != 0 ||
+                        MaterialSignature.count(signature, alliance, PieceType.BISHOP) != 0 ||
+                        MaterialSignature.count(signature, alliance, PieceType.KNIGHT) != 0) {
+                    return false;
+                }
+            }
+            return Math.abs(MaterialSignature.count(signature, Alliance.WHITE, PieceType.PAWN) -
+                    MaterialSignature.count(signature, Alliance.BLACK, PieceType.PAWN)) == 1;
+        });
+    }
+
+    /**
+     * @return the query of the games of both queries
+     */
+    public MaterialQuery and(final MaterialQuery other) {
+        return new MaterialQuery(index -> run(index).and(other.run(index)));
+    }
+
+    /**
+     * @return the query of the games of one of the queries
+     */
+    public MaterialQuery or(final MaterialQuery other) {
+        return new MaterialQuery(index -> run(index).or(other.run(index)));
+    }
+
+    /**
+     * @return the query of the games of this query that are not games of the other one
+     */
+    public MaterialQuery andNot(final MaterialQuery other) {
+        return new MaterialQuery(index -> run(index).andNot(other.run(index)));
+    }
+
+    /**
+     * @return the query of the games that are not games of this query
+     */
+    public MaterialQuery not() {
+        return new MaterialQuery(index -> run(index).not());
+    }
+
+    GameBitmap run(final MaterialIndex index) {
+        return this.search.apply(index);
+    }
+}
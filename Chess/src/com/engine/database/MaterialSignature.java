@@ -0,0 +1,138 @@
+package com.engine.database;
+
+import com.engine.Alliance;
+import com.engine.board.Board;
+import com.engine.pieces.Piece;
+import com.engine.pieces.PieceType;
+
+import java.util.Collection;
+
+/**
+ * MaterialSignature class that packs the material of a board in a long: the number of pawns, knights, bishops,
+ * rooks and queens of every side, 4 bits each in the order of PieceType, white in bits 0-19 and black in bits
+ * 20-39. The kings are always there and are not counted, a count stops at 15.
+ *
+ * A signature is written like "KRPPvKRP", the pieces of white, a 'v' and the pieces of black
+ */
+public final class MaterialSignature {
+    private static final int BITS_PER_COUNT = 4;
+    private static final int MAX_COUNT = (1 << BITS_PER_COUNT) - 1;
+    private static final int BLACK_SHIFT = 20;
+    private static final PieceType[] COUNTED_TYPES = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP,
+            PieceType.KNIGHT, PieceType.PAWN};
+
+    private MaterialSignature() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    /**
+     * @return the material signature of the board
+     */
+    public static long of(final Board board) {
+        return sideSignature(board.getWhitePieces()) | sideSignature(board.getBlackPieces()) << BLACK_SHIFT;
+    }
+
+    private static long sideSignature(final Collection<Piece> pieces) {
+        long signature = 0;
+        for(final Piece piece : pieces) {
+            final PieceType pieceType = piece.getPieceType();
+            if(!pieceType.isKing()) {
+                final int shift = pieceType.ordinal() * BITS_PER_COUNT;
+                if((signature >>> shift & MAX_COUNT) < MAX_COUNT) {
+                    signature += 1L << shift;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * @return the number of pieces of a type and a side in the signature, 1 for the king
+     */
+    public static int count(final long signature, final Alliance alliance, final PieceType pieceType) {
+        if(pieceType.isKing()) {
+            return 1;
+        }
+        final int shift = (alliance.isWhite() ? 0 : BLACK_SHIFT) + pieceType.ordinal() * BITS_PER_COUNT;
+        return (int) (signature >>> shift & MAX_COUNT);
+    }
+
+    /**
+     * @return the material of a side in pawns, with the piece values of PieceType and without the king
+     */
+    public static int value(final long signature, final Alliance alliance) {
+        int value = 0;
+        for(final PieceType pieceType : COUNTED_TYPES) {
+            value += count(signature, alliance, pieceType) * pieceType.getPieceValue();
+        }
+        return value;
+    }
+
+    /**
+     * @return the signature with the sides swapped
+     */
+    public static long mirror(final long signature) {
+        return signature >>> BLACK_SHIFT | (signature & (1L << BLACK_SHIFT) - 1) << BLACK_SHIFT;
+    }
+
+    /**
+     * Reads a signature like "KRPPvKRP", the pieces of a side can be in any order
+     * @param text is the signature
+     * @return the signature
+     */
+    public static long parse(final String text) {
+        final int separator = text.indexOf('v');
+        if(separator < 0 || text.indexOf('v', separator + 1) >= 0) {
+            throw new RuntimeException("Invalid material signature " + text);
+        }
+        return parseSide(text, 0, separator) | parseSide(text, separator + 1, text.length()) << BLACK_SHIFT;
+    }
+
+    private static long parseSide(final String text, final int start, final int end) {
+        long signature = 0;
+        boolean king = false;
+        for(int i = start; i < end; i++) {
+            final char letter = text.charAt(i);
+            if(letter == 'K' && !king) {
+                king = true;
+                continue;
+            }
+            PieceType pieceType = null;
+            for(final PieceType countedType : COUNTED_TYPES) {
+                if(countedType.toString().charAt(0) == Character.toLowerCase(letter) && Character.isUpperCase(letter)) {
+                    pieceType = countedType;
+                }
+            }
+            final int shift = pieceType != null ? pieceType.ordinal() * BITS_PER_COUNT : 0;
+            if(pieceType == null || (signature >>> shift & MAX_COUNT) == MAX_COUNT) {
+                throw new RuntimeException("Invalid material signature " + text);
+            }
+            signature += 1L << shift;
+        }
+        if(!king) {
+            throw new RuntimeException("Invalid material signature " + text);
+        }
+        return signature;
+    }
+
+    /**
+     * @return the signature like "KRPPvKRP"
+     */
+    public static String toString(final long signature) {
+        final StringBuilder text = new StringBuilder();
+        appendSide(text, signature, Alliance.WHITE);
+        text.append('v');
+        appendSide(text, signature, Alliance.BLACK);
+        return text.toString();
+    }
+
+    private static void appendSide(final StringBuilder text, final long signature, final Alliance alliance) {
+        text.append('K');
+        for(final PieceType pieceType : COUNTED_TYPES) {
+            final String letter = pieceType.toString().toUpperCase();
+            for(int i = 0; i < count(signature, alliance, pieceType); i++) {
+                text.append(letter);
+            }
+        }
+    }
+}
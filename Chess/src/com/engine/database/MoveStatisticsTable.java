@@ -0,0 +1,227 @@
+package com.engine.database;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * MoveStatisticsTable class that counts the games of the (position, move) pairs of the OpeningExplorer in an open
+ * addressing hash table
+ *
+ * The table is a ByteBuffer of ENTRY_SIZE byte slots: the Zobrist hash of the position (8 bytes), the move (2 bytes,
+ * see OpeningExplorer.encodeMove), 2 unused bytes, the games (4 bytes), the wins and the draws of the player of the
+ * move (4 bytes each), the sum of the ratings of the rated games (8 bytes), the rated games (4 bytes) and 4 unused
+ * bytes. A slot without games is empty. The builder counts in heap buffers and writes them to a file as they are,
+ * the explorer maps the file and probes the same slots, so nothing is parsed when the explorer is opened.
+ *
+ * A table of more than SLICE_SLOTS slots is split into buffers of SLICE_SLOTS slots, one buffer or mapping can't
+ * hold more than 2GB and a table of millions of games is bigger
+ */
+final class MoveStatisticsTable {
+    static final int ENTRY_SIZE = 40;
+    private static final int SLICE_SHIFT = 20;
+    static final int SLICE_SLOTS = 1 << SLICE_SHIFT;
+    static final int MAX_CAPACITY = 1 << 30;
+    // the table grows when it is more full than this, in percent
+    private static final int MAX_LOAD = 60;
+    // the bytes written to a file at once, a heap buffer is copied to a temporary direct buffer of this size
+    private static final int WRITE_SIZE = 1 << 20;
+
+    private final ByteBuffer[] slices;
+    private final int mask;
+    private int size;
+
+    MoveStatisticsTable(final ByteBuffer[] slices, final int capacity, final int size) {
+        if(Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY || slices.length != sliceCount(capacity)) {
+            throw new RuntimeException("Invalid move statistics table of " + capacity + " slots");
+        }
+        for(final ByteBuffer slice : slices) {
+            if(slice.capacity() < sliceBytes(capacity)) {
+                throw new RuntimeException("Invalid move statistics table of " + capacity + " slots");
+            }
+        }
+        this.slices = slices;
+        this.mask = capacity - 1;
+        this.size = size;
+    }
+
+    /**
+     * @param capacity is the number of slots, a power of two
+     * @return an empty table
+     */
+    static MoveStatisticsTable allocate(final int capacity) {
+        final ByteBuffer[] slices = new ByteBuffer[sliceCount(capacity)];
+        for(int i = 0; i < slices.length; i++) {
+            slices[i] = ByteBuffer.allocate(sliceBytes(capacity));
+        }
+        return new MoveStatisticsTable(slices, capacity, 0);
+    }
+
+    /**
+     * @return the number of buffers of a table
+     */
+    static int sliceCount(final int capacity) {
+        return (int) (((long) capacity + SLICE_SLOTS - 1) >>> SLICE_SHIFT);
+    }
+
+    /**
+     * @return the bytes of every buffer of a table
+     */
+    static int sliceBytes(final int capacity) {
+        return Math.min(capacity, SLICE_SLOTS) * ENTRY_SIZE;
+    }
+
+    int capacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * @return the number of (position, move) pairs
+     */
+    int size() {
+        return this.size;
+    }
+
+    boolean needsToGrow() {
+        return this.size * 100L > (long) capacity() * MAX_LOAD;
+    }
+
+    /**
+     * counts one game of a move
+     * @param hash is the Zobrist hash of the position
+     * @param move is the encoded move
+     * @param result is 1 when the player of the move won, 0 for a draw and -1 when he lost
+     * @param rating is the rating of the game, 0 when it is not rated
+     */
+    void add(final long hash, final int move, final int result, final int rating) {
+        int slot = slot(hash, move);
+        while(games(slot) != 0 && (hashAt(slot) != hash || moveAt(slot) != move)) {
+            slot = (slot + 1) & this.mask;
+        }
+        final ByteBuffer buffer = slice(slot);
+        final int position = offset(slot);
+        if(games(slot) == 0) {
+            buffer.putLong(position, hash);
+            buffer.putShort(position + 8, (short) move);
+            this.size++;
+        }
+        buffer.putInt(position + 12, games(slot) + 1);
+        if(result > 0) {
+            buffer.putInt(position + 16, wins(slot) + 1);
+        } else if(result == 0) {
+            buffer.putInt(position + 20, draws(slot) + 1);
+        }
+        if(rating > 0) {
+            buffer.putLong(position + 24, ratingSum(slot) + rating);
+            buffer.putInt(position + 32, ratedGames(slot) + 1);
+        }
+    }
+
+    /**
+     * @return the slot of the (position, move) pair, or -1 when no game played the move in the position
+     */
+    int find(final long hash, final int move) {
+        int slot = slot(hash, move);
+        while(games(slot) != 0) {
+            if(hashAt(slot) == hash && moveAt(slot) == move) {
+                return slot;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return a table of twice the slots with the same pairs, the buffers of this table are left to the garbage
+     * collector
+     */
+    MoveStatisticsTable grow() {
+        if(capacity() >= MAX_CAPACITY) {
+            throw new RuntimeException("The move statistics table is full at " + this.size + " moves");
+        }
+        return copy(capacity() * 2, 1);
+    }
+
+    /**
+     * @return a table of the same slots with only the pairs played in at least minGames games
+     */
+    MoveStatisticsTable prune(final int minGames) {
+        return copy(capacity(), minGames);
+    }
+
+    private MoveStatisticsTable copy(final int capacity, final int minGames) {
+        final MoveStatisticsTable table = allocate(capacity);
+        for(int slot = 0; slot <= this.mask; slot++) {
+            if(games(slot) >= minGames && games(slot) != 0) {
+                int newSlot = table.slot(hashAt(slot), moveAt(slot));
+                while(table.games(newSlot) != 0) {
+                    newSlot = (newSlot + 1) & table.mask;
+                }
+                final ByteBuffer buffer = slice(slot);
+                final ByteBuffer newBuffer = table.slice(newSlot);
+                for(int i = 0; i < ENTRY_SIZE; i += Long.BYTES) {
+                    newBuffer.putLong(table.offset(newSlot) + i, buffer.getLong(offset(slot) + i));
+                }
+                table.size++;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * writes the slots of the table to the position of a channel
+     */
+    void write(final FileChannel channel) throws IOException {
+        for(final ByteBuffer slice : this.slices) {
+            final ByteBuffer buffer = slice.duplicate();
+            buffer.clear();
+            while(buffer.hasRemaining()) {
+                final ByteBuffer chunk = buffer.slice();
+                chunk.limit(Math.min(chunk.remaining(), WRITE_SIZE));
+                final int written = channel.write(chunk);
+                buffer.position(buffer.position() + written);
+            }
+        }
+    }
+
+    long hashAt(final int slot) {
+        return slice(slot).getLong(offset(slot));
+    }
+
+    int moveAt(final int slot) {
+        return slice(slot).getShort(offset(slot) + 8) & 0xFFFF;
+    }
+
+    int games(final int slot) {
+        return slice(slot).getInt(offset(slot) + 12);
+    }
+
+    int wins(final int slot) {
+        return slice(slot).getInt(offset(slot) + 16);
+    }
+
+    int draws(final int slot) {
+        return slice(slot).getInt(offset(slot) + 20);
+    }
+
+    long ratingSum(final int slot) {
+        return slice(slot).getLong(offset(slot) + 24);
+    }
+
+    int ratedGames(final int slot) {
+        return slice(slot).getInt(offset(slot) + 32);
+    }
+
+    private ByteBuffer slice(final int slot) {
+        return this.slices[slot >>> SLICE_SHIFT];
+    }
+
+    private int offset(final int slot) {
+        return (slot & (SLICE_SLOTS - 1)) * ENTRY_SIZE;
+    }
+
+    private int slot(final long hash, final int move) {
+        final long mixed = (hash ^ move * 0x9E3779B97F4A7C15L) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (mixed ^ mixed >>> 32) & this.mask;
+    }
+}
@@ -0,0 +1,119 @@
+package com.engine.database;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * OpeningExplorer class that lists the moves the games of a database played in a position, with how often they
+ * were played, how they scored and the rating of their games
+ *
+ * The file is a 32 byte header (the magic, the version, the slots and the moves of the table and the games that
+ * were counted) followed by the MoveStatisticsTable as the OpeningExplorerBuilder counted it. The file is memory
+ * mapped and the table is probed where it lies, so opening an explorer is instant and a lookup is one probe per
+ * legal move of the position, a few microseconds. The table is mapped in the slices of the MoveStatisticsTable,
+ * so an explorer can be bigger than the 2GB of one mapping
+ */
+public final class OpeningExplorer implements Closeable {
+    static final int MAGIC = 0x4F504558;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private final FileChannel channel;
+    private final MoveStatisticsTable table;
+    private final long games;
+
+    private OpeningExplorer(final FileChannel channel, final MoveStatisticsTable table, final long games) {
+        this.channel = channel;
+        this.table = table;
+        this.games = games;
+    }
+
+    /**
+     * Opens an explorer, the file stays mapped until the explorer is closed
+     * @param path is the path of the explorer file
+     * @return the opened explorer
+     */
+    public static OpeningExplorer open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // reads the whole header
+            }
+            final int capacity = header.getInt(8);
+            if(header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION ||
+                    Integer.bitCount(capacity) != 1 || capacity > MoveStatisticsTable.MAX_CAPACITY ||
+                    HEADER_SIZE + (long) capacity * MoveStatisticsTable.ENTRY_SIZE != size) {
+                throw new RuntimeException("Invalid opening explorer " + path + " of " + size + " bytes");
+            }
+            final int sliceBytes = MoveStatisticsTable.sliceBytes(capacity);
+            final ByteBuffer[] slices = new ByteBuffer[MoveStatisticsTable.sliceCount(capacity)];
+            for(int i = 0; i < slices.length; i++) {
+                slices[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + (long) i * sliceBytes, sliceBytes);
+            }
+            return new OpeningExplorer(channel, new MoveStatisticsTable(slices, capacity, header.getInt(12)),
+                    header.getLong(16));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of (position, move) pairs
+     */
+    public int size() {
+        return this.table.size();
+    }
+
+    /**
+     * @return the number of games that were counted
+     */
+    public long getGames() {
+        return this.games;
+    }
+
+    /**
+     * Finds the moves of a position, a move the games played is a legal move of the board unless two positions
+     * have the same 64 bit hash
+     * @param board is the position
+     * @return the moves sorted from the most played to the least, empty when no game reached the position
+     */
+    public List<ExplorerMove> getMoves(final Board board) {
+        final long hash = board.getZobristHash();
+        final List<ExplorerMove> moves = new ArrayList<>();
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final int slot = this.table.find(hash, encodeMove(move));
+            if(slot >= 0) {
+                final int ratedGames = this.table.ratedGames(slot);
+                moves.add(new ExplorerMove(move, this.table.games(slot), this.table.wins(slot),
+                        this.table.draws(slot), ratedGames == 0 ? 0 : (int) (this.table.ratingSum(slot) / ratedGames)));
+            }
+        }
+        moves.sort((m1, m2) -> Integer.compare(m2.getGames(), m1.getGames()));
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * @return the move as its from and to tiles, 6 bits each, castling is the move of the king
+     */
+    static int encodeMove(final Move move) {
+        return move.getCurrentCoordinate() << 6 | move.getDestinationCoordinate();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,260 @@
+package com.engine.database;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.pgn.PgnGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OpeningExplorerBuilder class that counts the moves of the games of a GameDatabase into an OpeningExplorer file
+ *
+ * The workers take the games in blocks of GAMES_PER_TASK and replay them up to the maximum ply, the moves of a game
+ * are counted in the shared MoveStatisticsTable at once under its lock, the replay is what takes the time. The
+ * table grows by doubling and is written to the file as it is. Games without a result are skipped
+ *
+ * When the table reaches the maximum capacity the pairs of a single game are dropped to make room, most of the
+ * pairs of a big database are the moves of one game after it left the known openings. A dropped pair that is
+ * played again is counted from then on, so the rare pairs may miss some of their games, the common ones are exact
+ */
+public final class OpeningExplorerBuilder {
+    private static final int GAMES_PER_TASK = 64;
+
+    private final int threads;
+    private final int maxPly;
+    private final int initialCapacity;
+    private final int maxCapacity;
+
+    private MoveStatisticsTable table;
+    private long gamesCounted;
+
+    private OpeningExplorerBuilder(final Builder builder) {
+        this.threads = builder.threads;
+        this.maxPly = builder.maxPly;
+        this.initialCapacity = builder.initialCapacity;
+        this.maxCapacity = builder.maxCapacity;
+    }
+
+    /**
+     * Builds the explorer of all the games of a database
+     * @param database is the database of the games
+     * @param explorerPath is the explorer file that is written
+     * @return the number of (position, move) pairs of the explorer
+     */
+    public int build(final GameDatabase database, final Path explorerPath) throws IOException {
+        this.table = MoveStatisticsTable.allocate(Integer.highestOneBit(
+                Math.max(Math.min(this.initialCapacity, this.maxCapacity), 2)));
+        this.gamesCounted = 0;
+        final AtomicInteger nextGame = new AtomicInteger();
+        final ExecutorService service = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "Opening explorer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for(int i = 0; i < this.threads; i++) {
+                results.add(service.submit(() -> countGames(database, nextGame)));
+            }
+            for(final Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Building the opening explorer was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Building the opening explorer failed", e.getCause());
+        } finally {
+            service.shutdownNow();
+        }
+        write(explorerPath);
+        return this.table.size();
+    }
+
+    private void countGames(final GameDatabase database, final AtomicInteger nextGame) {
+        final List<Move> moves = new ArrayList<>();
+        final long[] hashes = new long[this.maxPly];
+        final int[] encodedMoves = new int[this.maxPly];
+        final int[] results = new int[this.maxPly];
+        int first;
+        while((first = nextGame.getAndAdd(GAMES_PER_TASK)) < database.size()) {
+            for(int id = first; id < Math.min(first + GAMES_PER_TASK, database.size()); id++) {
+                final int whiteResult = resultForWhite(database.getResult(id));
+                if(whiteResult == Integer.MIN_VALUE) {
+                    continue;
+                }
+                moves.clear();
+                database.replay(id, moves);
+                final int plies = Math.min(moves.size(), this.maxPly);
+                for(int ply = 0; ply < plies; ply++) {
+                    hashes[ply] = moves.get(ply).getBoard().getZobristHash();
+                    encodedMoves[ply] = OpeningExplorer.encodeMove(moves.get(ply));
+                    results[ply] = moves.get(ply).getBoard().getCurrentPlayer().getAlliance().isWhite() ?
+                            whiteResult : -whiteResult;
+                }
+                final int rating = gameRating(database.getWhiteElo(id), database.getBlackElo(id));
+                addGame(hashes, encodedMoves, results, plies, rating);
+            }
+        }
+    }
+
+    private synchronized void addGame(final long[] hashes, final int[] encodedMoves, final int[] results,
+                                      final int plies, final int rating) {
+        for(int ply = 0; ply < plies; ply++) {
+            this.table.add(hashes[ply], encodedMoves[ply], results[ply], rating);
+            if(this.table.needsToGrow()) {
+                if(this.table.capacity() < this.maxCapacity) {
+                    this.table = this.table.grow();
+                } else {
+                    this.table = this.table.prune(2);
+                    if(this.table.needsToGrow()) {
+                        throw new RuntimeException("The move statistics table is full at " + this.table.size() +
+                                " moves played in more than one game");
+                    }
+                }
+            }
+        }
+        this.gamesCounted++;
+    }
+
+    /**
+     * @return the mean of the ratings of the players, the one rating when the other is missing, or 0
+     */
+    private static int gameRating(final int whiteElo, final int blackElo) {
+        if(whiteElo > 0 && blackElo > 0) {
+            return (whiteElo + blackElo) / 2;
+        }
+        return Math.max(whiteElo, blackElo);
+    }
+
+    /**
+     * @return 1 when white won, -1 when black won, 0 for a draw and Integer.MIN_VALUE for an unknown result
+     */
+    private static int resultForWhite(final String result) {
+        switch(result) {
+            case PgnGame.WHITE_WINS:
+                return 1;
+            case PgnGame.BLACK_WINS:
+                return -1;
+            case PgnGame.DRAW:
+                return 0;
+            default:
+                return Integer.MIN_VALUE;
+        }
+    }
+
+    private void write(final Path explorerPath) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(OpeningExplorer.HEADER_SIZE);
+        header.putInt(OpeningExplorer.MAGIC);
+        header.putInt(OpeningExplorer.VERSION);
+        header.putInt(this.table.capacity());
+        header.putInt(this.table.size());
+        header.putLong(this.gamesCounted);
+        header.putLong(0);
+        header.flip();
+        try(final FileChannel channel = FileChannel.open(explorerPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(header.hasRemaining()) {
+                channel.write(header);
+            }
+            this.table.write(channel);
+        }
+    }
+
+    /**
+     * builds the explorer of a database, then looks up the positions of some of its games and prints the time of
+     * a lookup
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: OpeningExplorerBuilder <database directory> <explorer.bin> [maxPly] [threads]");
+            return;
+        }
+        final Builder builder = new Builder();
+        if(args.length > 2) {
+            builder.setMaxPly(Integer.parseInt(args[2]));
+        }
+        if(args.length > 3) {
+            builder.setThreads(Integer.parseInt(args[3]));
+        }
+        final Path explorerPath = Paths.get(args[1]);
+        final List<Board> boards = new ArrayList<>();
+        try(final GameDatabase database = GameDatabase.open(Paths.get(args[0]))) {
+            final long startTime = System.nanoTime();
+            final int entries = builder.build().build(database, explorerPath);
+            System.out.println(database.size() + " games, " + entries + " moves in " +
+                    (System.nanoTime() - startTime) / 1_000_000 + " ms");
+            final List<Move> moves = new ArrayList<>();
+            for(int id = 0; id < database.size() && boards.size() < 10_000; id += Math.max(database.size() / 500, 1)) {
+                moves.clear();
+                database.replay(id, moves);
+                for(int ply = 0; ply < Math.min(moves.size(), 20); ply++) {
+                    boards.add(moves.get(ply).getBoard());
+                }
+            }
+        }
+        try(final OpeningExplorer explorer = OpeningExplorer.open(explorerPath)) {
+            long found = 0;
+            final long startTime = System.nanoTime();
+            for(final Board board : boards) {
+                found += explorer.getMoves(board).size();
+            }
+            final long micros = (System.nanoTime() - startTime) / 1000;
+            System.out.println(boards.size() + " lookups, " + found + " moves, " +
+                    micros / Math.max(boards.size(), 1) + " us per lookup");
+        }
+    }
+
+    public static class Builder {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPly = 40;
+        int initialCapacity = 1 << 16;
+        int maxCapacity = MoveStatisticsTable.MAX_CAPACITY;
+
+        public Builder setThreads(final int threads) {
+            this.threads = Math.max(threads, 1);
+            return this;
+        }
+
+        /**
+         * sets the number of plies of every game that are counted
+         */
+        public Builder setMaxPly(final int maxPly) {
+            this.maxPly = Math.max(maxPly, 1);
+            return this;
+        }
+
+        /**
+         * sets the slots the table starts with, it doubles when it is more than 60% full
+         */
+        public Builder setInitialCapacity(final int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+            return this;
+        }
+
+        /**
+         * sets the slots the table grows to, a power of two of at most MoveStatisticsTable.MAX_CAPACITY, when it
+         * is full the pairs of a single game are dropped
+         */
+        public Builder setMaxCapacity(final int maxCapacity) {
+            this.maxCapacity = Integer.highestOneBit(Math.max(Math.min(maxCapacity, MoveStatisticsTable.MAX_CAPACITY), 2));
+            return this;
+        }
+
+        public OpeningExplorerBuilder build() {
+            return new OpeningExplorerBuilder(this);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.engine.database;
+
+import com.engine.board.Board;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PositionIndex class that finds the games of a GameDatabase that reached a position
+ *
+ * The index is a file of 16 byte entries: the Zobrist hash of a position (8 bytes), the id of a game that reached
+ * it (4 bytes) and the ply it reached it at (4 bytes), all big endian and sorted by the unsigned hash, then by the
+ * game and the ply. Like the PolyglotBook the file is memory mapped and binary searched, a lookup touches about
+ * log2(entries) pages whatever the size of the archive. An index of millions of games is bigger than the 2GB one
+ * mapping can hold, so it is mapped in slices of MAP_SIZE bytes.
+ *
+ * Two positions with the same 64 bit hash are the same position for the index, see PositionIndexBuilder for how it
+ * is written
+ */
+public final class PositionIndex implements Closeable {
+    static final int ENTRY_SIZE = 16;
+    private static final int ENTRIES_PER_MAP_SHIFT = 26;
+    private static final long MAP_SIZE = (long) ENTRY_SIZE << ENTRIES_PER_MAP_SHIFT;
+    private static final int ENTRIES_PER_MAP_MASK = (1 << ENTRIES_PER_MAP_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] buffers;
+    private final long numberOfEntries;
+
+    private PositionIndex(final FileChannel channel, final MappedByteBuffer[] buffers, final long numberOfEntries) {
+        this.channel = channel;
+        this.buffers = buffers;
+        this.numberOfEntries = numberOfEntries;
+    }
+
+    /**
+     * Opens an index, the file stays mapped until the index is closed
+     * @param path is the path of the index
+     * @return the opened index
+     */
+    public static PositionIndex open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            if(size % ENTRY_SIZE != 0) {
+                throw new RuntimeException("Invalid position index " + path + " of " + size + " bytes");
+            }
+            final MappedByteBuffer[] buffers = new MappedByteBuffer[(int) ((size + MAP_SIZE - 1) / MAP_SIZE)];
+            for(int i = 0; i < buffers.length; i++) {
+                final long start = i * MAP_SIZE;
+                buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAP_SIZE, size - start));
+            }
+            return new PositionIndex(channel, buffers, size / ENTRY_SIZE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of (position, game, ply) entries
+     */
+    public long size() {
+        return this.numberOfEntries;
+    }
+
+    /**
+     * @return the number of times the games reached the position, a game that repeated it counts every time
+     */
+    public long count(final Board board) {
+        final long hash = board.getZobristHash();
+        final long first = findFirstEntry(hash);
+        long last = first;
+        // the end of the range is found by a second binary search, not by walking over the matches
+        long high = this.numberOfEntries;
+        while(last < high) {
+            final long middle = (last + high) >>> 1;
+            if(Long.compareUnsigned(getHash(middle), hash) <= 0) {
+                last = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return last - first;
+    }
+
+    /**
+     * Finds the games that reached a position
+     * @param board is the position we look for
+     * @param maxMatches is the most matches that are returned
+     * @return the matches sorted by game and ply, empty when no game reached the position
+     */
+    public List<PositionMatch> find(final Board board, final int maxMatches) {
+        final long hash = board.getZobristHash();
+        final List<PositionMatch> matches = new ArrayList<>();
+        for(long index = findFirstEntry(hash);
+            index < this.numberOfEntries && matches.size() < maxMatches && getHash(index) == hash; index++) {
+            final MappedByteBuffer buffer = this.buffers[(int) (index >>> ENTRIES_PER_MAP_SHIFT)];
+            final int position = (int) (index & ENTRIES_PER_MAP_MASK) * ENTRY_SIZE;
+            matches.add(new PositionMatch(buffer.getInt(position + 8), buffer.getInt(position + 12)));
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * @return the index of the first entry whose hash is not below the hash, in unsigned order
+     */
+    private long findFirstEntry(final long hash) {
+        long low = 0;
+        long high = this.numberOfEntries;
+        while(low < high) {
+            final long middle = (low + high) >>> 1;
+            if(Long.compareUnsigned(getHash(middle), hash) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long getHash(final long index) {
+        return this.buffers[(int) (index >>> ENTRIES_PER_MAP_SHIFT)]
+                .getLong((int) (index & ENTRIES_PER_MAP_MASK) * ENTRY_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,299 @@
+package com.engine.database;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.sort.ExternalSorter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PositionIndexBuilder class that writes the PositionIndex of a GameDatabase
+ *
+ * The workers take the games in blocks of GAMES_PER_TASK, replay them and keep the hash of every position with its
+ * game and ply in two primitive arrays. Full arrays are sorted and written as a run file of the ExternalSorter,
+ * and at the end all the runs are merged into the index, so the memory is the arrays of the workers no matter how
+ * many games the database has
+ */
+public final class PositionIndexBuilder {
+    private static final int GAMES_PER_TASK = 64;
+    private static final int RUN_BUFFER_SIZE = 1 << 16;
+
+    private final int threads;
+    private final int maxEntriesPerWorker;
+    private final int maxPly;
+    private final Path temporaryDirectory;
+
+    private final LongAdder gamesIndexed = new LongAdder();
+
+    private PositionIndexBuilder(final Builder builder) {
+        this.threads = builder.threads;
+        this.maxEntriesPerWorker = builder.maxEntriesPerWorker;
+        this.maxPly = builder.maxPly;
+        this.temporaryDirectory = builder.temporaryDirectory;
+    }
+
+    /**
+     * Builds the index of all the games of a database
+     * @param database is the database of the games
+     * @param indexPath is the index file that is written
+     * @return the number of entries of the index
+     */
+    public long build(final GameDatabase database, final Path indexPath) throws IOException {
+        try(final ExternalSorter<PositionRecord> sorter = new ExternalSorter<>(this.temporaryDirectory,
+                "position-runs", PositionRecord.FORMAT)) {
+            final AtomicInteger nextGame = new AtomicInteger();
+            final ExecutorService service = Executors.newFixedThreadPool(this.threads, runnable -> {
+                final Thread thread = new Thread(runnable, "Position index");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                final List<Future<?>> results = new ArrayList<>();
+                for(int i = 0; i < this.threads; i++) {
+                    results.add(service.submit(() -> {
+                        indexGames(database, nextGame, sorter);
+                        return null;
+                    }));
+                }
+                for(final Future<?> result : results) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Building the position index was interrupted", e);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new RuntimeException("Building the position index failed", e.getCause());
+            } finally {
+                service.shutdownNow();
+            }
+            try(final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(indexPath), RUN_BUFFER_SIZE))) {
+                return sorter.merge(record -> {
+                    output.writeLong(record.hash);
+                    output.writeLong(record.value);
+                });
+            }
+        }
+    }
+
+    public long getGamesIndexed() {
+        return this.gamesIndexed.sum();
+    }
+
+    private void indexGames(final GameDatabase database, final AtomicInteger nextGame,
+                            final ExternalSorter<PositionRecord> sorter) throws IOException {
+        final RunBuffer buffer = new RunBuffer(this.maxEntriesPerWorker);
+        final List<Move> moves = new ArrayList<>();
+        int first;
+        while((first = nextGame.getAndAdd(GAMES_PER_TASK)) < database.size()) {
+            for(int id = first; id < Math.min(first + GAMES_PER_TASK, database.size()); id++) {
+                moves.clear();
+                final Board lastBoard = database.replay(id, moves);
+                final int plies = Math.min(moves.size(), this.maxPly);
+                for(int ply = 0; ply <= plies; ply++) {
+                    final Board board = ply < moves.size() ? moves.get(ply).getBoard() : lastBoard;
+                    buffer.add(board.getZobristHash(), (long) id << 32 | ply);
+                    if(buffer.isFull()) {
+                        buffer.writeRun(sorter);
+                    }
+                }
+                this.gamesIndexed.increment();
+            }
+        }
+        if(!buffer.isEmpty()) {
+            buffer.writeRun(sorter);
+        }
+    }
+
+    /**
+     * the entries are compared by the unsigned hash, then by the game and the ply that are packed in the value
+     */
+    private static int compare(final long hash, final long value, final long otherHash, final long otherValue) {
+        final int hashCompare = Long.compareUnsigned(hash, otherHash);
+        return hashCompare != 0 ? hashCompare : Long.compare(value, otherValue);
+    }
+
+    /**
+     * builds the position index of a database, then looks up the positions of some of its games and prints the
+     * time of a lookup
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: PositionIndexBuilder <database directory> <positions.idx> [threads]");
+            return;
+        }
+        final Builder builder = new Builder();
+        if(args.length > 2) {
+            builder.setThreads(Integer.parseInt(args[2]));
+        }
+        final PositionIndexBuilder indexBuilder = builder.build();
+        final Path indexPath = Paths.get(args[1]);
+        try(final GameDatabase database = GameDatabase.open(Paths.get(args[0]))) {
+            long startTime = System.nanoTime();
+            final long entries = indexBuilder.build(database, indexPath);
+            final long millis = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+            System.out.println(indexBuilder.getGamesIndexed() + " games, " + entries + " positions in " + millis +
+                    " ms, " + entries * 1000 / millis + " positions/s");
+            final List<Board> boards = new ArrayList<>();
+            final List<Move> moves = new ArrayList<>();
+            for(int id = 0; id < database.size() && boards.size() < 10_000; id += Math.max(database.size() / 100, 1)) {
+                moves.clear();
+                database.replay(id, moves);
+                for(final Move move : moves) {
+                    boards.add(move.getBoard());
+                }
+            }
+            try(final PositionIndex index = PositionIndex.open(indexPath)) {
+                long matches = 0;
+                startTime = System.nanoTime();
+                for(final Board board : boards) {
+                    matches += index.count(board);
+                    index.find(board, 100);
+                }
+                final long micros = (System.nanoTime() - startTime) / 1000;
+                System.out.println(boards.size() + " lookups, " + matches + " matches, " +
+                        micros / Math.max(boards.size(), 1) + " us per lookup");
+            }
+        }
+    }
+
+    /**
+     * RunBuffer class that keeps the entries of a worker until they are written as a sorted run
+     */
+    private static final class RunBuffer implements ExternalSorter.Sortable {
+        private final long[] hashes;
+        private final long[] values;
+        private int size;
+
+        RunBuffer(final int maxEntries) {
+            this.hashes = new long[Math.max(maxEntries, 1)];
+            this.values = new long[Math.max(maxEntries, 1)];
+        }
+
+        void add(final long hash, final long value) {
+            this.hashes[this.size] = hash;
+            this.values[this.size] = value;
+            this.size++;
+        }
+
+        boolean isFull() {
+            return this.size == this.hashes.length;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        void writeRun(final ExternalSorter<PositionRecord> sorter) throws IOException {
+            sorter.writeRun(this, this.size, output -> {
+                for(int i = 0; i < this.size; i++) {
+                    output.writeLong(this.hashes[i]);
+                    output.writeLong(this.values[i]);
+                }
+            });
+            this.size = 0;
+        }
+
+        @Override
+        public int compare(final int i, final int j) {
+            return PositionIndexBuilder.compare(this.hashes[i], this.values[i], this.hashes[j], this.values[j]);
+        }
+
+        @Override
+        public void swap(final int i, final int j) {
+            final long hash = this.hashes[i];
+            this.hashes[i] = this.hashes[j];
+            this.hashes[j] = hash;
+            final long value = this.values[i];
+            this.values[i] = this.values[j];
+            this.values[j] = value;
+        }
+    }
+
+    /**
+     * PositionRecord class that is an entry of a run: the hash of a position and its game and ply
+     */
+    private static final class PositionRecord {
+        static final ExternalSorter.RecordFormat<PositionRecord> FORMAT =
+                new ExternalSorter.RecordFormat<PositionRecord>() {
+            @Override
+            public PositionRecord newRecord() {
+                return new PositionRecord();
+            }
+
+            @Override
+            public boolean read(final DataInputStream input, final PositionRecord record) throws IOException {
+                try {
+                    record.hash = input.readLong();
+                } catch (EOFException e) {
+                    return false;
+                }
+                record.value = input.readLong();
+                return true;
+            }
+
+            @Override
+            public int compare(final PositionRecord first, final PositionRecord second) {
+                return PositionIndexBuilder.compare(first.hash, first.value, second.hash, second.value);
+            }
+        };
+
+        long hash;
+        long value;
+    }
+
+    public static class Builder {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxEntriesPerWorker = 1 << 22;
+        int maxPly = Integer.MAX_VALUE;
+        Path temporaryDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+        public Builder setThreads(final int threads) {
+            this.threads = Math.max(threads, 1);
+            return this;
+        }
+
+        /**
+         * sets how many positions a worker keeps in memory before it writes a run, an entry takes 16 bytes
+         */
+        public Builder setMaxEntriesPerWorker(final int maxEntriesPerWorker) {
+            this.maxEntriesPerWorker = maxEntriesPerWorker;
+            return this;
+        }
+
+        /**
+         * sets the number of plies of every game that are indexed, all of them by default
+         */
+        public Builder setMaxPly(final int maxPly) {
+            this.maxPly = maxPly;
+            return this;
+        }
+
+        public Builder setTemporaryDirectory(final Path temporaryDirectory) {
+            this.temporaryDirectory = temporaryDirectory;
+            return this;
+        }
+
+        public PositionIndexBuilder build() {
+            return new PositionIndexBuilder(this);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.engine.database;
+
+/**
+ * PositionMatch class that is a game of a PositionIndex that reached the position we look for, and the ply it
+ * reached it at
+ */
+public final class PositionMatch {
+    private final int gameId;
+    private final int ply;
+
+    PositionMatch(final int gameId, final int ply) {
+        this.gameId = gameId;
+        this.ply = ply;
+    }
+
+    /**
+     * @return the id of the game in its GameDatabase
+     */
+    public int getGameId() {
+        return this.gameId;
+    }
+
+    /**
+     * @return the number of moves played before the position, 0 is the start board of the game
+     */
+    public int getPly() {
+        return this.ply;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof PositionMatch)) {
+            return false;
+        }
+        final PositionMatch otherMatch = (PositionMatch) other;
+        return this.gameId == otherMatch.gameId && this.ply == otherMatch.ply;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.gameId + this.ply;
+    }
+
+    @Override
+    public String toString() {
+        return "game " + this.gameId + " ply " + this.ply;
+    }
+}
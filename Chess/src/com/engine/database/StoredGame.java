@@ -0,0 +1,123 @@
+package com.engine.database;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StoredGame class that is one game read from a GameDatabase: its tags, its result, the ratings of the players and
+ * its moves as indexes in the legal moves of the boards they were played on
+ */
+public final class StoredGame {
+    private final int id;
+    private final Map<String, String> tags;
+    private final String result;
+    private final int whiteElo;
+    private final int blackElo;
+    private final byte[] moveIndexes;
+
+    StoredGame(final int id, final Map<String, String> tags, final String result, final int whiteElo,
+               final int blackElo, final byte[] moveIndexes) {
+        this.id = id;
+        this.tags = ImmutableMap.copyOf(tags);
+        this.result = result;
+        this.whiteElo = whiteElo;
+        this.blackElo = blackElo;
+        this.moveIndexes = moveIndexes;
+    }
+
+    /**
+     * @return the number of the game in its database, the games are numbered from 0 in the order they were added
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    public Map<String, String> getTags() {
+        return this.tags;
+    }
+
+    public String getTag(final String name) {
+        return this.tags.get(name);
+    }
+
+    /**
+     * @return the result as in PGN, one of the result constants of PgnGame
+     */
+    public String getResult() {
+        return this.result;
+    }
+
+    /**
+     * @return the WhiteElo tag, or 0 when the game has none
+     */
+    public int getWhiteElo() {
+        return this.whiteElo;
+    }
+
+    /**
+     * @return the BlackElo tag, or 0 when the game has none
+     */
+    public int getBlackElo() {
+        return this.blackElo;
+    }
+
+    public int getPlies() {
+        return this.moveIndexes.length;
+    }
+
+    /**
+     * @return the board of the FEN tag, or the standard board when the game has none
+     */
+    public Board getStartBoard() {
+        return startBoard(this.tags.get("FEN"));
+    }
+
+    /**
+     * @return the moves of the game
+     */
+    public List<Move> resolveMoves() {
+        final List<Move> moves = new ArrayList<>(this.moveIndexes.length);
+        replay(moves);
+        return moves;
+    }
+
+    /**
+     * Plays the moves of the game from the start board
+     * @param moves gets the moves that were played, the board a move was played on is its getBoard
+     * @return the board after the last move
+     */
+    public Board replay(final List<Move> moves) {
+        Board board = getStartBoard();
+        for(final byte moveIndex : this.moveIndexes) {
+            final Move move = decodeMove(board, moveIndex);
+            moves.add(move);
+            board = move.execute();
+        }
+        return board;
+    }
+
+    static Board startBoard(final String fen) {
+        return fen != null ? FenUtilities.createGameFromFEN(fen) : Board.createStandardBoard();
+    }
+
+    /**
+     * The moves were legal when they were stored, so the move is executed without checking that it leaves the
+     * king safe, which would build the board a second time
+     * @return the move of the board at the index of its legal moves
+     */
+    static Move decodeMove(final Board board, final byte moveIndex) {
+        return Iterables.get(board.getCurrentPlayer().getLegalMoves(), moveIndex & 0xFF);
+    }
+
+    @Override
+    public String toString() {
+        return this.id + ": " + this.tags.get("White") + " - " + this.tags.get("Black") + " " + this.result;
+    }
+}
@@ -0,0 +1,205 @@
+package com.engine.pgn;
+
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.Move;
+import com.engine.pieces.PieceType;
+import com.engine.player.MoveTransition;
+
+/**
+ * AlgebraicNotation class that translates the standard algebraic notation (SAN) of PGN files to moves of a board
+ * and back
+ *
+ * A SAN move only names the piece type, the destination and as much of the source tile as needed to tell the
+ * moves apart, so it is resolved against the legal moves of the board
+ */
+public final class AlgebraicNotation {
+
+    private AlgebraicNotation() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    /**
+     * Finds the move of a SAN string on the board
+     * @param board is the board the move is made on
+     * @param san is the move, like "Nbd7", "exd5", "e8=Q+" or "O-O"
+     * @return the legal move, or null when the board has no such move or can't play it (an under promotion)
+     */
+    public static Move parseSan(final Board board, final String san) {
+        final MoveTransition transition = playSan(board, san);
+        return transition != null ? transition.getMove() : null;
+    }
+
+    /**
+     * Finds the move of a SAN string on the board and makes it, the board after the move is built only once for
+     * both the legality check and the caller, which is what a game replay spends its time on
+     * @param board is the board the move is made on
+     * @param san is the move
+     * @return the transition of the legal move, or null when the board has no such move
+     */
+    public static MoveTransition playSan(final Board board, final String san) {
+        int end = san.length();
+        while(end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        final String text = san.substring(0, end);
+        if(text.equals("O-O") || text.equals("0-0")) {
+            return findCastleMove(board, true);
+        }
+        if(text.equals("O-O-O") || text.equals("0-0-0")) {
+            return findCastleMove(board, false);
+        }
+        if(text.length() < 2) {
+            return null;
+        }
+        PieceType pieceType = PieceType.PAWN;
+        int start = 0;
+        if("NBRQK".indexOf(text.charAt(0)) >= 0) {
+            pieceType = pieceTypeOf(text.charAt(0));
+            start = 1;
+        }
+        char promotion = 0;
+        final int promotionIndex = text.indexOf('=');
+        if(promotionIndex >= 0) {
+            if(promotionIndex + 1 >= text.length()) {
+                return null;
+            }
+            promotion = text.charAt(promotionIndex + 1);
+            end = promotionIndex;
+        } else if(pieceType == PieceType.PAWN && "NBRQ".indexOf(text.charAt(end - 1)) >= 0) {
+            // "e8Q" without the equal sign
+            promotion = text.charAt(end - 1);
+            end--;
+        }
+        if(end - start < 2) {
+            return null;
+        }
+        final char destinationFile = text.charAt(end - 2);
+        final char destinationRank = text.charAt(end - 1);
+        if(destinationFile < 'a' || destinationFile > 'h' || destinationRank < '1' || destinationRank > '8') {
+            return null;
+        }
+        final int destination = BoardUtils.getCoordinateAtPosition("" + destinationFile + destinationRank);
+        int fromFile = -1;
+        int fromRank = -1;
+        for(int i = start; i < end - 2; i++) {
+            final char c = text.charAt(i);
+            if(c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if(c >= '1' && c <= '8') {
+                fromRank = BoardUtils.NUM_TILES_PER_ROW - (c - '0');
+            } else if(c != 'x' && c != '-') {
+                return null;
+            }
+        }
+        if(promotion != 0 && promotion != 'Q') {
+            // the board promotes only to a queen
+            return null;
+        }
+        MoveTransition foundTransition = null;
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final int source = move.getCurrentCoordinate();
+            if(move.getDestinationCoordinate() != destination || move.isCastlingMove() ||
+                    move.getMovedPiece().getPieceType() != pieceType ||
+                    (fromFile != -1 && source % BoardUtils.NUM_TILES_PER_ROW != fromFile) ||
+                    (fromRank != -1 && source / BoardUtils.NUM_TILES_PER_ROW != fromRank) ||
+                    (move instanceof Move.PawnPromotion) != (promotion != 0)) {
+                continue;
+            }
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                if(foundTransition != null) {
+                    // an ambiguous move
+                    return null;
+                }
+                foundTransition = transition;
+            }
+        }
+        return foundTransition;
+    }
+
+    /**
+     * Writes a move in SAN, with the source file or rank only when another piece of the same type can go to the
+     * same tile, and with + or # when the move checks or mates
+     * @param board is the board before the move
+     * @param move is a legal move of the board
+     * @return the move, like "Nbd7", "exd5", "e8=Q+" or "O-O"
+     */
+    public static String toSan(final Board board, final Move move) {
+        final StringBuilder san = new StringBuilder();
+        final int source = move.getCurrentCoordinate();
+        final int destination = move.getDestinationCoordinate();
+        final PieceType pieceType = move.getMovedPiece().getPieceType();
+        if(move instanceof Move.KingSideCastleMove) {
+            san.append("O-O");
+        } else if(move instanceof Move.QueenSideCastleMove) {
+            san.append("O-O-O");
+        } else if(pieceType == PieceType.PAWN) {
+            if(move.isAttack()) {
+                san.append(BoardUtils.getPositionAtCoordinate(source).charAt(0)).append('x');
+            }
+            san.append(BoardUtils.getPositionAtCoordinate(destination));
+            if(move instanceof Move.PawnPromotion) {
+                san.append("=Q");
+            }
+        } else {
+            san.append(pieceType.toString().toUpperCase());
+            boolean ambiguous = false;
+            boolean sameFile = false;
+            boolean sameRank = false;
+            for(final Move other : board.getCurrentPlayer().getLegalMoves()) {
+                final int otherSource = other.getCurrentCoordinate();
+                if(otherSource == source || other.getDestinationCoordinate() != destination ||
+                        other.isCastlingMove() || other.getMovedPiece().getPieceType() != pieceType ||
+                        !board.getCurrentPlayer().makeMove(other).getMoveStatus().isDone()) {
+                    continue;
+                }
+                ambiguous = true;
+                sameFile |= otherSource % BoardUtils.NUM_TILES_PER_ROW == source % BoardUtils.NUM_TILES_PER_ROW;
+                sameRank |= otherSource / BoardUtils.NUM_TILES_PER_ROW == source / BoardUtils.NUM_TILES_PER_ROW;
+            }
+            if(ambiguous) {
+                final String from = BoardUtils.getPositionAtCoordinate(source);
+                san.append(!sameFile ? from.substring(0, 1) : !sameRank ? from.substring(1) : from);
+            }
+            if(move.isAttack()) {
+                san.append('x');
+            }
+            san.append(BoardUtils.getPositionAtCoordinate(destination));
+        }
+        final Board afterMove = board.getCurrentPlayer().makeMove(move).getTransitionBoard();
+        if(afterMove.getCurrentPlayer().isInCheckMate()) {
+            san.append('#');
+        } else if(afterMove.getCurrentPlayer().isInCheck()) {
+            san.append('+');
+        }
+        return san.toString();
+    }
+
+    private static MoveTransition findCastleMove(final Board board, final boolean kingSide) {
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            if(kingSide ? move instanceof Move.KingSideCastleMove : move instanceof Move.QueenSideCastleMove) {
+                final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+                return transition.getMoveStatus().isDone() ? transition : null;
+            }
+        }
+        return null;
+    }
+
+    static PieceType pieceTypeOf(final char pieceLetter) {
+        switch(pieceLetter) {
+            case 'N':
+                return PieceType.KNIGHT;
+            case 'B':
+                return PieceType.BISHOP;
+            case 'R':
+                return PieceType.ROOK;
+            case 'Q':
+                return PieceType.QUEEN;
+            case 'K':
+                return PieceType.KING;
+            default:
+                return PieceType.PAWN;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.engine.pgn;
+
+import com.engine.board.Move;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * PgnFiles class that reads the games of a big PGN file on all the cores
+ *
+ * The file is cut into one chunk per thread at the start of games, every thread streams the games of its chunk
+ * with its own PgnReader, so a file of gigabytes is read in parallel with the memory of one game per thread.
+ * Reading the PGN is cheap, replaying the SAN moves on a board is what takes the time, and the threads do both
+ */
+public final class PgnFiles {
+    private static final byte[] GAME_START = "\n[Event ".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int SEARCH_BUFFER_SIZE = 1 << 16;
+
+    private PgnFiles() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    /**
+     * Cuts a file into chunks, every cut is moved to the start of the next game so a game belongs to exactly one
+     * chunk. A small file may get fewer chunks
+     * @param pgnPath is the PGN file
+     * @param chunks is the number of chunks wanted
+     * @return the offsets of the chunks and the size of the file at the end
+     */
+    public static long[] splitIntoChunks(final Path pgnPath, final int chunks) throws IOException {
+        try(final FileChannel channel = FileChannel.open(pgnPath, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final List<Long> starts = new ArrayList<>();
+            starts.add(0L);
+            for(int i = 1; i < chunks; i++) {
+                final long start = findGameStart(channel, Math.max(size * i / chunks, starts.get(starts.size() - 1)));
+                if(start > starts.get(starts.size() - 1) && start < size) {
+                    starts.add(start);
+                }
+            }
+            starts.add(size);
+            final long[] chunkStarts = new long[starts.size()];
+            for(int i = 0; i < chunkStarts.length; i++) {
+                chunkStarts[i] = starts.get(i);
+            }
+            return chunkStarts;
+        }
+    }
+
+    /**
+     * @return the offset of the first Event tag at the start of a line after the offset, or the size of the file
+     */
+    private static long findGameStart(final FileChannel channel, final long offset) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SEARCH_BUFFER_SIZE);
+        long position = offset;
+        int matched = 0;
+        while(true) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if(read <= 0) {
+                return channel.size();
+            }
+            for(int i = 0; i < read; i++) {
+                final byte b = buffer.get(i);
+                matched = b == GAME_START[matched] ? matched + 1 : b == GAME_START[0] ? 1 : 0;
+                if(matched == GAME_START.length) {
+                    // the game starts after the new line
+                    return position + i - GAME_START.length + 2;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Opens a reader at the start of a chunk, ISO-8859-1 maps every byte to one character so the offsets of the
+     * reader are byte offsets from the start of the chunk
+     * @param channel is the channel of the file, the reader reads it from its position on
+     * @param start is the offset of the chunk
+     */
+    public static PgnReader openChunk(final FileChannel channel, final long start) throws IOException {
+        channel.position(start);
+        return new PgnReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Reads all the games of a file in parallel
+     * @param pgnPath is the PGN file
+     * @param threads is the number of threads that read it
+     * @param consumer gets every game on the thread that read it, so it is called from many threads at once
+     * @return the number of games
+     */
+    public static long forEachGame(final Path pgnPath, final int threads,
+                                   final Consumer<PgnGame> consumer) throws IOException {
+        final long[] chunkStarts = splitIntoChunks(pgnPath, threads);
+        final LongAdder games = new LongAdder();
+        final ExecutorService service = Executors.newFixedThreadPool(Math.max(chunkStarts.length - 1, 1));
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for(int i = 0; i < chunkStarts.length - 1; i++) {
+                final long start = chunkStarts[i];
+                final long end = chunkStarts[i + 1];
+                results.add(service.submit(() -> {
+                    try(final FileChannel channel = FileChannel.open(pgnPath, StandardOpenOption.READ);
+                        final PgnReader reader = openChunk(channel, start)) {
+                        PgnGame game;
+                        while((game = reader.readGame()) != null && start + reader.getGameOffset() < end) {
+                            games.increment();
+                            consumer.accept(game);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for(final Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Reading " + pgnPath + " was interrupted", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException("Reading " + pgnPath + " failed", e.getCause());
+        } finally {
+            service.shutdownNow();
+        }
+        return games.sum();
+    }
+
+    /**
+     * Reads a PGN file and prints the games per second, with and without replaying the moves on a board
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: PgnFiles <games.pgn> [threads]");
+            return;
+        }
+        final Path pgnPath = Paths.get(args[0]);
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final LongAdder moves = new LongAdder();
+        long startTime = System.nanoTime();
+        long games = forEachGame(pgnPath, threads, game -> moves.add(game.getMoves().size()));
+        long millis = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+        System.out.println("read " + games + " games, " + moves.sum() + " moves in " + millis + " ms, " +
+                games * 1000 / millis + " games/s");
+        final LongAdder plies = new LongAdder();
+        startTime = System.nanoTime();
+        games = forEachGame(pgnPath, threads, game -> {
+            final List<Move> gameMoves = new ArrayList<>();
+            game.replay(gameMoves);
+            plies.add(gameMoves.size());
+        });
+        millis = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+        System.out.println("replayed " + games + " games, " + plies.sum() + " plies in " + millis + " ms, " +
+                games * 1000 / millis + " games/s, " + plies.sum() * 1000 / millis + " plies/s");
+    }
+}
@@ -0,0 +1,95 @@
+package com.engine.pgn;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.player.MoveTransition;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PgnGame class that is one game of a PGN file: its tags, the moves of the main line in SAN and the result
+ */
+public final class PgnGame {
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNKNOWN_RESULT = "*";
+
+    private final Map<String, String> tags;
+    private final List<String> moves;
+    private final String result;
+
+    PgnGame(final Map<String, String> tags, final List<String> moves, final String result) {
+        this.tags = ImmutableMap.copyOf(tags);
+        this.moves = ImmutableList.copyOf(moves);
+        this.result = result;
+    }
+
+    public Map<String, String> getTags() {
+        return this.tags;
+    }
+
+    public String getTag(final String name) {
+        return this.tags.get(name);
+    }
+
+    /**
+     * @return the moves of the main line in SAN, without move numbers, comments and variations
+     */
+    public List<String> getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * @return the board of the FEN tag, or the standard board when the game has none
+     */
+    public Board getStartBoard() {
+        final String fen = this.tags.get("FEN");
+        return fen != null ? FenUtilities.createGameFromFEN(fen) : Board.createStandardBoard();
+    }
+
+    /**
+     * Resolves the SAN moves against the legal moves of the board they are played on
+     * @return the moves of the main line, it ends before the first move that is not legal
+     */
+    public List<Move> resolveMoves() {
+        final List<Move> moves = new ArrayList<>(this.moves.size());
+        replay(moves);
+        return moves;
+    }
+
+    /**
+     * Plays the moves of the main line from the start board, every move is resolved and made once
+     * @param moves gets the moves that were played, the board a move was played on is its getBoard
+     * @return the board after the last legal move
+     */
+    public Board replay(final List<Move> moves) {
+        Board board = getStartBoard();
+        for(final String san : this.moves) {
+            final MoveTransition transition = AlgebraicNotation.playSan(board, san);
+            if(transition == null) {
+                break;
+            }
+            moves.add(transition.getMove());
+            board = transition.getTransitionBoard();
+        }
+        return board;
+    }
+
+    /**
+     * @return the result of the movetext, or the Result tag when the movetext has none
+     */
+    public String getResult() {
+        return this.result;
+    }
+
+    @Override
+    public String toString() {
+        return this.tags.get("White") + " - " + this.tags.get("Black") + " " + this.result;
+    }
+}
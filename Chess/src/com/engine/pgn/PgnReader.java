@@ -0,0 +1,285 @@
+package com.engine.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PgnReader class that reads the games of a PGN stream one after the other
+ *
+ * The reader is a state machine over single characters, so a file of millions of games is read with a constant
+ * amount of memory: only the game being read is kept. Comments ({...} and ; to the end of the line), variations
+ * (nested parentheses), numeric annotations ($n), move numbers and the ! and ? suffixes are skipped, only the
+ * tags, the moves of the main line and the result are kept.
+ *
+ * The reader counts the characters it consumed, a stream that maps every byte to one character (ISO-8859-1)
+ * gives the byte offset of every game, which is how a file is split between workers
+ */
+public final class PgnReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int END_OF_STREAM = -1;
+    private static final String[] RESULTS = {PgnGame.WHITE_WINS, PgnGame.BLACK_WINS, PgnGame.DRAW,
+            PgnGame.UNKNOWN_RESULT};
+
+    private enum State {
+        BETWEEN_GAMES, TAG_NAME, TAG_VALUE, TAG_END, MOVETEXT, TOKEN, COMMENT, LINE_COMMENT, VARIATION
+    }
+
+    private final Reader reader;
+    private final char[] buffer;
+    // the game being read, they are reused for every game because the PgnGame keeps copies
+    private final Map<String, String> tags;
+    private final List<String> moves;
+    private final StringBuilder token;
+    private int bufferLength;
+    private int bufferPosition;
+    private long offset;
+    private long gameOffset;
+
+    public PgnReader(final Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.tags = new LinkedHashMap<>();
+        this.moves = new ArrayList<>();
+        this.token = new StringBuilder();
+        this.offset = 0;
+        this.gameOffset = -1;
+    }
+
+    /**
+     * Reads the next game of the stream
+     * @return the game, or null when the stream has no more games
+     */
+    public PgnGame readGame() throws IOException {
+        final Map<String, String> tags = this.tags;
+        final List<String> moves = this.moves;
+        final StringBuilder token = this.token;
+        tags.clear();
+        moves.clear();
+        token.setLength(0);
+        String tagName = null;
+        String result = null;
+        State state = State.BETWEEN_GAMES;
+        boolean escaped = false;
+        int variationDepth = 0;
+        boolean hasGame = false;
+        while(true) {
+            final int c = peek();
+            if(c == END_OF_STREAM) {
+                if(state == State.TOKEN) {
+                    result = addToken(token, moves, result);
+                }
+                break;
+            }
+            switch(state) {
+                case BETWEEN_GAMES:
+                    if(c == '[') {
+                        this.gameOffset = this.offset;
+                        hasGame = true;
+                        state = State.TAG_NAME;
+                    } else if(!Character.isWhitespace(c)) {
+                        // a game without tags
+                        this.gameOffset = this.offset;
+                        hasGame = true;
+                        state = State.MOVETEXT;
+                        continue;
+                    }
+                    break;
+                case TAG_NAME:
+                    if(c == '"') {
+                        tagName = token.toString().trim();
+                        token.setLength(0);
+                        state = State.TAG_VALUE;
+                    } else if(c == ']') {
+                        token.setLength(0);
+                        state = State.TAG_END;
+                        continue;
+                    } else {
+                        token.append((char) c);
+                    }
+                    break;
+                case TAG_VALUE:
+                    if(escaped) {
+                        token.append((char) c);
+                        escaped = false;
+                    } else if(c == '\\') {
+                        escaped = true;
+                    } else if(c == '"') {
+                        tags.put(tagName, token.toString());
+                        token.setLength(0);
+                        state = State.TAG_END;
+                    } else {
+                        token.append((char) c);
+                    }
+                    break;
+                case TAG_END:
+                    if(c == ']') {
+                        state = State.MOVETEXT;
+                    }
+                    break;
+                case MOVETEXT:
+                    if(c == '[') {
+                        if(moves.isEmpty() && result == null) {
+                            state = State.TAG_NAME;
+                            break;
+                        }
+                        // the next game starts, it is read by the next call
+                        return createGame(tags, moves, result);
+                    } else if(c == '{') {
+                        state = State.COMMENT;
+                    } else if(c == ';') {
+                        state = State.LINE_COMMENT;
+                    } else if(c == '(') {
+                        variationDepth = 1;
+                        state = State.VARIATION;
+                    } else if(c == ')') {
+                        // a parenthesis without a variation, it is dropped like the annotations
+                        break;
+                    } else if(!Character.isWhitespace(c)) {
+                        state = State.TOKEN;
+                        continue;
+                    }
+                    break;
+                case TOKEN:
+                    if(Character.isWhitespace(c) || c == '{' || c == '(' || c == ';' || c == '[' || c == ')') {
+                        result = addToken(token, moves, result);
+                        state = State.MOVETEXT;
+                        if(result != null) {
+                            return createGame(tags, moves, result);
+                        }
+                        continue;
+                    }
+                    token.append((char) c);
+                    break;
+                case COMMENT:
+                    if(c == '}') {
+                        state = State.MOVETEXT;
+                    }
+                    break;
+                case LINE_COMMENT:
+                    if(c == '\n') {
+                        state = State.MOVETEXT;
+                    }
+                    break;
+                case VARIATION:
+                    if(c == '(') {
+                        variationDepth++;
+                    } else if(c == ')') {
+                        variationDepth--;
+                        if(variationDepth == 0) {
+                            state = State.MOVETEXT;
+                        }
+                    } else if(c == '{') {
+                        // a comment inside a variation may have parentheses of its own
+                        skipComment();
+                        continue;
+                    }
+                    break;
+                default:
+                    throw new RuntimeException("Should not reach here");
+            }
+            read();
+        }
+        return hasGame ? createGame(tags, moves, result) : null;
+    }
+
+    /**
+     * @return the offset of the first character of the last game that was read
+     */
+    public long getGameOffset() {
+        return this.gameOffset;
+    }
+
+    /**
+     * @return the number of characters the reader consumed
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private static PgnGame createGame(final Map<String, String> tags, final List<String> moves, final String result) {
+        final String tagResult = tags.get("Result");
+        return new PgnGame(tags, moves, result != null ? result : tagResult != null ? tagResult : PgnGame.UNKNOWN_RESULT);
+    }
+
+    /**
+     * adds a movetext token to the moves, move numbers and annotations are dropped
+     * @return the result when the token is a result, otherwise the result so far
+     */
+    private static String addToken(final StringBuilder token, final List<String> moves, final String result) {
+        final String gameResult = findResult(token);
+        if(gameResult != null) {
+            token.setLength(0);
+            return gameResult;
+        }
+        // the token is cut in place, only the move itself becomes a string
+        final StringBuilder text = token;
+        int start = 0;
+        // "12." "12..." and "12...e5" all start with the move number
+        while(start < text.length() && Character.isDigit(text.charAt(start))) {
+            start++;
+        }
+        if(start < text.length() && text.charAt(start) == '.') {
+            while(start < text.length() && text.charAt(start) == '.') {
+                start++;
+            }
+        } else {
+            start = 0;
+        }
+        int end = text.length();
+        while(end > start && (text.charAt(end - 1) == '!' || text.charAt(end - 1) == '?')) {
+            end--;
+        }
+        if(end > start && text.charAt(start) != '$') {
+            moves.add(text.substring(start, end));
+        }
+        token.setLength(0);
+        return result;
+    }
+
+    private static String findResult(final StringBuilder token) {
+        for(final String result : RESULTS) {
+            if(token.length() == result.length() && result.contentEquals(token)) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while(c != '}' && c != END_OF_STREAM);
+    }
+
+    private int peek() throws IOException {
+        if(this.bufferPosition == this.bufferLength) {
+            this.bufferLength = this.reader.read(this.buffer, 0, this.buffer.length);
+            this.bufferPosition = 0;
+            if(this.bufferLength <= 0) {
+                this.bufferLength = 0;
+                return END_OF_STREAM;
+            }
+        }
+        return this.buffer[this.bufferPosition];
+    }
+
+    private int read() throws IOException {
+        final int c = peek();
+        if(c != END_OF_STREAM) {
+            this.bufferPosition++;
+            this.offset++;
+        }
+        return c;
+    }
+}
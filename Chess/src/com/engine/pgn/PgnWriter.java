@@ -0,0 +1,98 @@
+package com.engine.pgn;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PgnWriter class that writes games to a PGN stream one after the other, every game is flushed when it is
+ * written so a file that is still being written can already be read
+ *
+ * The moves are written in SAN from the board they were played on, a game that did not start from the standard
+ * position gets the SetUp and FEN tags
+ */
+public final class PgnWriter implements Closeable {
+    private static final int MAX_LINE_LENGTH = 80;
+    private static final String STANDARD_FEN = FenUtilities.createFENFromGame(Board.createStandardBoard());
+
+    private final Writer writer;
+
+    public PgnWriter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes one game
+     * @param tags are the tags of the game in the order they are written, the result tag is added when missing
+     * @param startBoard is the board the first move is played on
+     * @param moves are the moves of the game
+     * @param result is the result, one of the PgnGame results
+     */
+    public synchronized void writeGame(final Map<String, String> tags, final Board startBoard, final List<Move> moves,
+                                       final String result) throws IOException {
+        final StringBuilder game = new StringBuilder();
+        for(final Map.Entry<String, String> tag : tags.entrySet()) {
+            appendTag(game, tag.getKey(), tag.getValue());
+        }
+        if(!tags.containsKey("Result")) {
+            appendTag(game, "Result", result);
+        }
+        final String fen = FenUtilities.createFENFromGame(startBoard);
+        if(!fen.equals(STANDARD_FEN) && !tags.containsKey("FEN")) {
+            appendTag(game, "SetUp", "1");
+            appendTag(game, "FEN", fen);
+        }
+        game.append('\n');
+        final StringBuilder line = new StringBuilder();
+        Board board = startBoard;
+        int moveNumber = 1;
+        for(int i = 0; i < moves.size(); i++) {
+            final Move move = moves.get(i);
+            final boolean white = board.getCurrentPlayer().getAlliance().isWhite();
+            if(white) {
+                appendToken(game, line, moveNumber + ".");
+            } else if(i == 0) {
+                appendToken(game, line, moveNumber + "...");
+            }
+            appendToken(game, line, AlgebraicNotation.toSan(board, move));
+            board = board.getCurrentPlayer().makeMove(move).getTransitionBoard();
+            if(!white) {
+                moveNumber++;
+            }
+        }
+        appendToken(game, line, result);
+        game.append(line).append("\n\n");
+        this.writer.write(game.toString());
+        this.writer.flush();
+    }
+
+    private static void appendTag(final StringBuilder game, final String name, final String value) {
+        game.append('[').append(name).append(" \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"]\n");
+    }
+
+    /**
+     * adds a token to the current line of the movetext, the line is moved to the game when the token does not fit
+     */
+    private static void appendToken(final StringBuilder game, final StringBuilder line, final String token) {
+        if(line.length() > 0 && line.length() + 1 + token.length() > MAX_LINE_LENGTH) {
+            game.append(line).append('\n');
+            line.setLength(0);
+        }
+        if(line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+    }
+}
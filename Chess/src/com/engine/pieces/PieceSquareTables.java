@@ -0,0 +1,170 @@
+package com.engine.pieces;
+
+import com.engine.Alliance;
+
+/**
+ * PieceSquareTables class that holds the middle game and end game values of every piece on every tile
+ *
+ * the tables are written from white's side with tile 0 being a8 (like the board coordinates), a black piece
+ * reads the table mirrored by rank. The values already include the material value of the piece
+ */
+public final class PieceSquareTables {
+    // how much each piece type adds to the game phase, a full board is MAX_PHASE and bare kings are 0
+    static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+    public static final int MAX_PHASE = 24;
+
+    static final int[] MIDDLE_GAME_MATERIAL = {82, 337, 365, 477, 1025, 0};
+    static final int[] END_GAME_MATERIAL = {94, 281, 297, 512, 936, 0};
+
+    private static final int[] PAWN_MIDDLE_GAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] PAWN_END_GAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             80,  80,  80,  80,  80,  80,  80,  80,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             30,  30,  30,  30,  30,  30,  30,  30,
+             20,  20,  20,  20,  20,  20,  20,  20,
+             10,  10,  10,  10,  10,  10,  10,  10,
+             10,  10,  10,  10,  10,  10,  10,  10,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] ROOK = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0
+    };
+
+    private static final int[] QUEEN = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+
+    private static final int[] KING_MIDDLE_GAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20
+    };
+
+    private static final int[] KING_END_GAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // indexed by the PieceType ordinal, material included
+    private static final int[][] MIDDLE_GAME_TABLES = combine(MIDDLE_GAME_MATERIAL,
+            PAWN_MIDDLE_GAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_MIDDLE_GAME);
+    private static final int[][] END_GAME_TABLES = combine(END_GAME_MATERIAL,
+            PAWN_END_GAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_END_GAME);
+
+    private PieceSquareTables() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    private static int[][] combine(final int[] material, final int[]... tables) {
+        final int[][] combined = new int[tables.length][];
+        for(int i = 0; i < tables.length; i++) {
+            combined[i] = new int[tables[i].length];
+            for(int j = 0; j < tables[i].length; j++) {
+                combined[i][j] = material[i] + tables[i][j];
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * white reads the tables as they are written, black reads them with the ranks flipped
+     */
+    static int relativeTile(final Alliance alliance, final int tileCoordinate) {
+        return alliance.isWhite() ? tileCoordinate : tileCoordinate ^ 56;
+    }
+
+    public static int middleGame(final PieceType pieceType, final Alliance alliance, final int tileCoordinate) {
+        return MIDDLE_GAME_TABLES[pieceType.ordinal()][relativeTile(alliance, tileCoordinate)];
+    }
+
+    public static int endGame(final PieceType pieceType, final Alliance alliance, final int tileCoordinate) {
+        return END_GAME_TABLES[pieceType.ordinal()][relativeTile(alliance, tileCoordinate)];
+    }
+
+    public static int middleGameMaterial(final PieceType pieceType) {
+        return MIDDLE_GAME_MATERIAL[pieceType.ordinal()];
+    }
+
+    public static int endGameMaterial(final PieceType pieceType) {
+        return END_GAME_MATERIAL[pieceType.ordinal()];
+    }
+
+    /**
+     * @return true when the piece has a middle game and an end game table, the other pieces use one table in both
+     * phases and only their material is tapered
+     */
+    public static boolean hasPhaseTables(final PieceType pieceType) {
+        return pieceType == PieceType.PAWN || pieceType == PieceType.KING;
+    }
+
+    public static int phase(final PieceType pieceType) {
+        return PHASE_WEIGHTS[pieceType.ordinal()];
+    }
+
+    /**
+     * blends a middle game and an end game score by the phase, MAX_PHASE is pure middle game
+     */
+    public static int taper(final int middleGameScore, final int endGameScore, final int phase) {
+        final int clampedPhase = Math.min(phase, MAX_PHASE);
+        return (middleGameScore * clampedPhase + endGameScore * (MAX_PHASE - clampedPhase)) / MAX_PHASE;
+    }
+}
@@ -18,6 +18,10 @@ public class MoveTransition {
         return this.transitionBoard;
     }
 
+    public Move getMove() {
+        return this.move;
+    }
+
     public MoveStatus getMoveStatus() {
         return this.moveStatus;
     }
@@ -37,7 +37,7 @@ public abstract class Player {
         return ImmutableList.copyOf(attackTileMoves);
     }
 
-    private King getPlayerKing() {
+    public King getPlayerKing() {
         return playerKing;
     }
 
@@ -0,0 +1,432 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.pieces.Piece;
+import com.engine.pieces.PieceType;
+import com.engine.player.MoveTransition;
+import com.engine.tablebase.EndgameTablebases;
+import com.engine.tablebase.TablebaseResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * AlphaBeta class that searches the game tree to a fixed depth with a negamax alpha-beta search
+ *
+ * When the depth runs out the search doesn't stop at once, it continues with a quiescence search over captures and
+ * promotions until the position is quiet, so a capture sequence is never cut in the middle (the horizon effect).
+ * Captures that lose material by the static exchange evaluation are skipped in the quiescence search.
+ *
+ * The moves after the first one are searched with a null window (principal variation search) and only searched
+ * again with the full window when they turn out better. The search is selective, each technique can be turned off through the SearchOptions:
+ * <ul>
+ * <li>null move pruning - the player passes, if he is still above beta the node is cut</li>
+ * <li>late move reductions - quiet moves late in the move ordering are searched with less depth first</li>
+ * <li>futility pruning - at the frontier quiet moves that can't bring the score back to alpha are skipped</li>
+ * <li>razoring - nodes that are far below alpha near the horizon are checked with the quiescence search only</li>
+ * </ul>
+ * The result of every node is kept in the TranspositionTable, a position that is reached again is cut by its
+ * stored score when it was searched deep enough, otherwise its stored best move is searched first.
+ * When endgame tablebases are set a position with few pieces is not searched, its exact value is read from them.
+ */
+public class AlphaBeta implements MoveStrategy {
+    public static final int MATE_SCORE = 1_000_000;
+    public static final int INFINITY = Integer.MAX_VALUE - 1;
+    private static final int MAX_QUIESCENCE_PLY = 32;
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_FULL_DEPTH_MOVES = 3;
+    private static final int[] FUTILITY_MARGINS = {0, 200, 400};
+    private static final int[] RAZOR_MARGINS = {0, 300, 500};
+
+    private final BoardEvaluator evaluator;
+    private final int searchDepth;
+    private final SearchOptions options;
+    private final SearchHeuristics heuristics;
+    private TimeManager timeManager;
+    private TranspositionTable transpositionTable;
+    private EndgameTablebases tablebases;
+    private long nodes;
+    private long quiescenceNodes;
+
+    public AlphaBeta(final int searchDepth) {
+        this(new CachedBoardEvaluator(new TaperedBoardEvaluator()), searchDepth);
+    }
+
+    public AlphaBeta(final BoardEvaluator evaluator, final int searchDepth) {
+        this(evaluator, searchDepth, SearchOptions.DEFAULT);
+    }
+
+    public AlphaBeta(final BoardEvaluator evaluator, final int searchDepth, final SearchOptions options) {
+        this.evaluator = evaluator;
+        this.searchDepth = searchDepth;
+        this.options = options;
+        this.heuristics = new SearchHeuristics();
+        this.timeManager = TimeManager.infinite();
+        this.transpositionTable = new TranspositionTable();
+    }
+
+    /**
+     * sets the time manager that can stop the search, every search after it is limited by its time
+     */
+    public void setTimeManager(final TimeManager timeManager) {
+        this.timeManager = timeManager;
+    }
+
+    /**
+     * sets the transposition table of the search, a table can be shared with another search of the same game
+     */
+    public void setTranspositionTable(final TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    /**
+     * sets the endgame tablebases that are probed inside the search, null turns the probes off
+     */
+    public void setTablebases(final EndgameTablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getQuiescenceNodes() {
+        return this.quiescenceNodes;
+    }
+
+    @Override
+    public String toString() {
+        return "AlphaBeta";
+    }
+
+    /**
+     * Searches all the moves of the current player and returns the best one
+     * @param board is the board we search
+     * @return the best move, or the null move if the current player has no legal move
+     */
+    @Override
+    public Move execute(final Board board) {
+        clearStatistics();
+        this.heuristics.clear();
+        return searchRoot(board, this.searchDepth, null).getBestMove();
+    }
+
+    void clearStatistics() {
+        this.nodes = 0;
+        this.quiescenceNodes = 0;
+    }
+
+    /**
+     * Searches all the moves of the current player to the given depth, the killer moves and the history of
+     * earlier searches are kept so an iterative deepening search gets better ordering every iteration
+     * @param board is the board we search
+     * @param depth is the depth of the search
+     * @param firstMove is searched before all the other moves, usually the best move of the previous iteration
+     * @return the best move and its score, aborted if the time manager stopped the search
+     */
+    SearchResult searchRoot(final Board board, final int depth, final Move firstMove) {
+        Move bestMove = Move.MoveFactory.getNullMove();
+        int alpha = -INFINITY;
+        for(final Move move : rootMoves(board, firstMove)) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                final int value = -search(transition.getTransitionBoard(), depth - 1, -INFINITY, -alpha, 1, true);
+                if(this.timeManager.isStopped()) {
+                    return new SearchResult(bestMove, alpha, depth, getNodes() + getQuiescenceNodes(), true);
+                }
+                if(value > alpha) {
+                    alpha = value;
+                    bestMove = move;
+                }
+            }
+        }
+        if(!bestMove.equals(Move.MoveFactory.getNullMove())) {
+            this.transpositionTable.store(board.getZobristHash(), TranspositionTable.toTableScore(alpha, 0), depth,
+                    TranspositionTable.EXACT, TranspositionTable.encodeMove(bestMove));
+        }
+        return new SearchResult(bestMove, alpha, depth, getNodes() + getQuiescenceNodes(), false);
+    }
+
+    /**
+     * Searches all the moves of the current player to the given depth and keeps the best lines instead of only the
+     * best move (multi-PV): a move is searched with the score of the worst kept line as alpha, so every kept line
+     * has its exact score and the others are cut as soon as they can't get in
+     * @param board is the board we search
+     * @param depth is the depth of the search
+     * @param firstMoves are searched before all the other moves, usually the lines of the previous iteration
+     * @param lines is the number of lines to keep
+     * @return the lines from the best to the worst, fewer when the player has fewer legal moves, or null if the
+     * time manager stopped the search
+     */
+    List<SearchResult> searchRootLines(final Board board, final int depth, final List<Move> firstMoves,
+                                       final int lines) {
+        final List<SearchResult> bestLines = new ArrayList<>(lines + 1);
+        int alpha = -INFINITY;
+        for(final Move move : rootMoves(board, firstMoves)) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                final int value = -search(transition.getTransitionBoard(), depth - 1, -INFINITY, -alpha, 1, true);
+                if(this.timeManager.isStopped()) {
+                    return null;
+                }
+                if(value > alpha) {
+                    int index = 0;
+                    while(index < bestLines.size() && bestLines.get(index).getScore() >= value) {
+                        index++;
+                    }
+                    bestLines.add(index, new SearchResult(move, value, depth, getNodes() + getQuiescenceNodes(), false));
+                    if(bestLines.size() > lines) {
+                        bestLines.remove(lines);
+                    }
+                    if(bestLines.size() == lines) {
+                        alpha = bestLines.get(lines - 1).getScore();
+                    }
+                }
+            }
+        }
+        if(!bestLines.isEmpty()) {
+            this.transpositionTable.store(board.getZobristHash(),
+                    TranspositionTable.toTableScore(bestLines.get(0).getScore(), 0), depth, TranspositionTable.EXACT,
+                    TranspositionTable.encodeMove(bestLines.get(0).getBestMove()));
+        }
+        return bestLines;
+    }
+
+    private List<Move> rootMoves(final Board board, final Move firstMove) {
+        return rootMoves(board, firstMove != null ? Collections.singletonList(firstMove) : Collections.<Move>emptyList());
+    }
+
+    private List<Move> rootMoves(final Board board, final List<Move> firstMoves) {
+        final List<Move> moves = MoveOrdering.orderMoves(board, board.getCurrentPlayer().getLegalMoves(), this.heuristics, 0);
+        if(firstMoves.isEmpty()) {
+            return moves;
+        }
+        final List<Move> reorderedMoves = new ArrayList<>(moves.size());
+        for(final Move firstMove : firstMoves) {
+            if(moves.contains(firstMove)) {
+                reorderedMoves.add(firstMove);
+            }
+        }
+        for(final Move move : moves) {
+            if(!reorderedMoves.contains(move)) {
+                reorderedMoves.add(move);
+            }
+        }
+        return reorderedMoves;
+    }
+
+    private int search(final Board board, final int depth, int alpha, final int beta, final int ply,
+                       final boolean allowNullMove) {
+        if(depth <= 0 || ply >= SearchHeuristics.MAX_PLY) {
+            return quiescence(board, alpha, beta, ply, 0);
+        }
+        this.nodes++;
+        if(this.timeManager.checkTime(this.nodes + this.quiescenceNodes)) {
+            return 0;
+        }
+        if(this.tablebases != null && ply > 0) {
+            final TablebaseResult result = this.tablebases.probe(board);
+            if(result != null) {
+                return tablebaseScore(result, ply);
+            }
+        }
+        final boolean nullWindow = beta - alpha == 1;
+        final long entry = this.transpositionTable.probe(board.getZobristHash());
+        final int hashMove = TranspositionTable.getMove(entry);
+        if(entry != 0 && nullWindow && TranspositionTable.getDepth(entry) >= depth) {
+            final int tableScore = TranspositionTable.fromTableScore(TranspositionTable.getScore(entry), ply);
+            final int bound = TranspositionTable.getBound(entry);
+            if(bound == TranspositionTable.EXACT ||
+                    bound == TranspositionTable.LOWER_BOUND && tableScore >= beta ||
+                    bound == TranspositionTable.UPPER_BOUND && tableScore <= alpha) {
+                return tableScore;
+            }
+        }
+        final int originalAlpha = alpha;
+        final boolean inCheck = board.getCurrentPlayer().isInCheck();
+        final int staticEvaluation = inCheck ? -INFINITY : evaluate(board);
+        if(!inCheck && nullWindow && !isMateScore(beta)) {
+            if(this.options.isRazoring() && depth < RAZOR_MARGINS.length &&
+                    staticEvaluation + RAZOR_MARGINS[depth] < alpha) {
+                final int value = quiescence(board, alpha, beta, ply, 0);
+                if(value < alpha) {
+                    return value;
+                }
+            }
+            if(this.options.isNullMovePruning() && allowNullMove && depth >= NULL_MOVE_MIN_DEPTH &&
+                    staticEvaluation >= beta && hasNonPawnMaterial(board)) {
+                final Board passedBoard = Move.MoveFactory.createPassMove(board).execute();
+                final int reduction = NULL_MOVE_REDUCTION + (depth > 6 ? 1 : 0);
+                final int value = -search(passedBoard, depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+                if(value >= beta) {
+                    return isMateScore(value) ? beta : value;
+                }
+            }
+        }
+        final boolean futile = this.options.isFutilityPruning() && !inCheck && depth < FUTILITY_MARGINS.length &&
+                !isMateScore(alpha) && staticEvaluation + FUTILITY_MARGINS[depth] <= alpha;
+        final List<Move> moves = MoveOrdering.orderMoves(board, board.getCurrentPlayer().getLegalMoves(),
+                this.heuristics, ply, hashMove);
+        int bestValue = -INFINITY;
+        Move bestMove = null;
+        int legalMoves = 0;
+        for(final Move move : moves) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            legalMoves++;
+            final Board childBoard = transition.getTransitionBoard();
+            final boolean givesCheck = childBoard.getCurrentPlayer().isInCheck();
+            final boolean quiet = isQuiet(move) && !givesCheck && !this.heuristics.isKiller(move, ply);
+            if(futile && quiet && legalMoves > 1) {
+                bestValue = Math.max(bestValue, staticEvaluation);
+                continue;
+            }
+            int value;
+            if(legalMoves == 1) {
+                value = -search(childBoard, depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                // the later moves are searched with a null window (and maybe reduced) to prove they are not better
+                int reduction = 0;
+                if(this.options.isLateMoveReductions() && quiet && !inCheck && depth >= LMR_MIN_DEPTH &&
+                        legalMoves > LMR_FULL_DEPTH_MOVES) {
+                    reduction = legalMoves > 2 * LMR_FULL_DEPTH_MOVES ? 2 : 1;
+                }
+                value = -search(childBoard, depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if(value > alpha && reduction > 0) {
+                    value = -search(childBoard, depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if(value > alpha && value < beta) {
+                    value = -search(childBoard, depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            if(value > bestValue) {
+                bestValue = value;
+                if(value > alpha) {
+                    alpha = value;
+                    bestMove = move;
+                    if(alpha >= beta) {
+                        if(isQuiet(move)) {
+                            this.heuristics.storeCutoff(move, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if(legalMoves == 0) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+        if(!this.timeManager.isStopped()) {
+            final int bound = bestValue >= beta ? TranspositionTable.LOWER_BOUND :
+                    bestValue > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+            this.transpositionTable.store(board.getZobristHash(), TranspositionTable.toTableScore(bestValue, ply),
+                    depth, bound, bestMove != null ? TranspositionTable.encodeMove(bestMove) : hashMove);
+        }
+        return bestValue;
+    }
+
+    /**
+     * Searches only the tactical moves (captures that don't lose material and promotions) until the position is quiet
+     *
+     * the player to move may always "stand pat" and take the static evaluation instead of capturing, unless
+     * he is in check, then all his moves are searched so a mate is not missed
+     */
+    private int quiescence(final Board board, int alpha, final int beta, final int ply, final int quiescencePly) {
+        this.quiescenceNodes++;
+        if(this.timeManager.checkTime(this.nodes + this.quiescenceNodes)) {
+            return 0;
+        }
+        if(quiescencePly >= MAX_QUIESCENCE_PLY) {
+            return evaluate(board);
+        }
+        final boolean inCheck = board.getCurrentPlayer().isInCheck();
+        int bestValue = -INFINITY;
+        if(!inCheck) {
+            bestValue = evaluate(board);
+            if(bestValue >= beta) {
+                return bestValue;
+            }
+            if(bestValue > alpha) {
+                alpha = bestValue;
+            }
+        }
+        final Iterable<Move> moves = inCheck ?
+                MoveOrdering.orderMoves(board, board.getCurrentPlayer().getLegalMoves(), this.heuristics, ply) :
+                MoveOrdering.orderTacticalMoves(board, board.getCurrentPlayer().getLegalMoves());
+        boolean hasLegalMove = false;
+        for(final Move move : moves) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            hasLegalMove = true;
+            final int value = -quiescence(transition.getTransitionBoard(), -beta, -alpha, ply + 1, quiescencePly + 1);
+            if(value > bestValue) {
+                bestValue = value;
+                if(value > alpha) {
+                    alpha = value;
+                    if(alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if(inCheck && !hasLegalMove) {
+            return -MATE_SCORE + ply;
+        }
+        return bestValue;
+    }
+
+    /**
+     * the evaluator scores from white's side, the negamax search needs the score from the current player side
+     */
+    private int evaluate(final Board board) {
+        final int score = this.evaluator.evaluate(board, 0);
+        return board.getCurrentPlayer().getAlliance().isWhite() ? score : -score;
+    }
+
+    /**
+     * a tablebase win is a mate in the distance of the table, counted from the root like the mates of the search
+     */
+    private static int tablebaseScore(final TablebaseResult result, final int ply) {
+        final int distance = Math.min(ply + result.getDistanceToMate(), SearchHeuristics.MAX_PLY - 1);
+        switch(result.getOutcome()) {
+            case WIN:
+                return MATE_SCORE - distance;
+            case LOSS:
+                return -MATE_SCORE + distance;
+            default:
+                return 0;
+        }
+    }
+
+    static boolean isMateScore(final int score) {
+        return Math.abs(score) >= MATE_SCORE - SearchHeuristics.MAX_PLY && Math.abs(score) <= MATE_SCORE;
+    }
+
+    private static boolean isQuiet(final Move move) {
+        return !move.isAttack() && !MoveOrdering.isPromotion(move);
+    }
+
+    /**
+     * null move pruning is not safe in pawn endings because of zugzwang, so the player needs a piece
+     */
+    private static boolean hasNonPawnMaterial(final Board board) {
+        for(final Piece piece : board.getCurrentPlayer().getActivePieces()) {
+            if(!piece.getPieceType().isKing() && piece.getPieceType() != PieceType.PAWN) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
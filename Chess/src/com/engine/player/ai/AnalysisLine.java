@@ -0,0 +1,76 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * AnalysisLine class that holds one of the lines of a multi-PV search: the moves the search expects from a root
+ * move on (the principal variation) and the score of the root move
+ */
+public final class AnalysisLine {
+    private final Board board;
+    private final List<Move> moves;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+
+    AnalysisLine(final Board board, final List<Move> moves, final int score, final int depth, final long nodes) {
+        this.board = board;
+        this.moves = ImmutableList.copyOf(moves);
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return the board the line starts from
+     */
+    public Board getBoard() {
+        return this.board;
+    }
+
+    /**
+     * @return the moves of the line, the first one is the root move
+     */
+    public List<Move> getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * @return the score of the line in centi-pawns from the side of the player to move
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return the nodes the search visited until the line was found
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return the number of moves until mate, negative when the player to move gets mated, or 0 when the score is
+     * not a mate score
+     */
+    public int getMateIn() {
+        if(!AlphaBeta.isMateScore(this.score)) {
+            return 0;
+        }
+        final int plies = AlphaBeta.MATE_SCORE - Math.abs(this.score);
+        return this.score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + this.depth + " score " + this.score + " moves " + this.moves;
+    }
+}
@@ -0,0 +1,10 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+
+/**
+ * BoardEvaluator interface that scores a board in centi-pawns, positive is good for white and negative is good for black
+ */
+public interface BoardEvaluator {
+    int evaluate(final Board board, final int depth);
+}
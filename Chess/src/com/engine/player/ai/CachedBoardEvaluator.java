@@ -0,0 +1,48 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+
+/**
+ * CachedBoardEvaluator class that decorates another evaluator with an EvaluationCache, a position that was
+ * already evaluated (in an earlier iteration or by another thread) is not evaluated again
+ *
+ * the decorated evaluator must not depend on the depth, the cache keeps one score per position
+ */
+public final class CachedBoardEvaluator implements BoardEvaluator {
+    private final BoardEvaluator evaluator;
+    private final EvaluationCache cache;
+
+    public CachedBoardEvaluator(final BoardEvaluator evaluator) {
+        this(evaluator, new EvaluationCache());
+    }
+
+    public CachedBoardEvaluator(final BoardEvaluator evaluator, final EvaluationCache cache) {
+        this.evaluator = evaluator;
+        this.cache = cache;
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        final long hash = board.getZobristHash();
+        final long data = this.cache.probe(hash);
+        if(data != 0) {
+            return (int) data;
+        }
+        final int score = this.evaluator.evaluate(board, depth);
+        this.cache.store(hash, score);
+        return score;
+    }
+
+    public BoardEvaluator getEvaluator() {
+        return this.evaluator;
+    }
+
+    public EvaluationCache getCache() {
+        return this.cache;
+    }
+
+    @Override
+    public String toString() {
+        return "Cached" + this.evaluator;
+    }
+}
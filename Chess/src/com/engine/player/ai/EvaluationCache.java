@@ -0,0 +1,86 @@
+package com.engine.player.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EvaluationCache class that keeps the static evaluation of positions by their zobrist hash
+ *
+ * The cache is direct mapped: every hash has exactly one slot and a new position simply replaces the old one.
+ * A slot is two longs, the hash xor the data and the data itself, so a slot that was half written by another
+ * thread doesn't pass the check and is treated as a miss, no locks are needed to share the cache between threads
+ */
+public final class EvaluationCache {
+    public static final int DEFAULT_ENTRIES = 1 << 16;
+    private static final int ENTRY_SIZE = 2;
+    // the data word keeps the score in the low 32 bits and a marker bit so an empty slot is never a hit
+    private static final long VALID = 1L << 32;
+
+    private final long[] entries;
+    private final int mask;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    public EvaluationCache() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * @param numberOfEntries is rounded down to a power of two, every entry takes 16 bytes
+     */
+    public EvaluationCache(final int numberOfEntries) {
+        final int size = Integer.highestOneBit(Math.max(numberOfEntries, 1));
+        this.entries = new long[size * ENTRY_SIZE];
+        this.mask = size - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * checks if the position is in the cache
+     * @param hash is the zobrist hash of the position
+     * @return the data word of the position, the score is its low 32 bits, or 0 when the position is not in the
+     * cache. The data word of a stored position is never 0
+     */
+    long probe(final long hash) {
+        final int index = ((int) hash & this.mask) * ENTRY_SIZE;
+        final long data = this.entries[index + 1];
+        if((this.entries[index] ^ data) == hash && (data & VALID) != 0) {
+            this.hits.increment();
+            return data;
+        }
+        this.misses.increment();
+        return 0;
+    }
+
+    void store(final long hash, final int score) {
+        final int index = ((int) hash & this.mask) * ENTRY_SIZE;
+        final long data = VALID | (score & 0xFFFFFFFFL);
+        this.entries[index] = hash ^ data;
+        this.entries[index + 1] = data;
+    }
+
+    public int size() {
+        return this.entries.length / ENTRY_SIZE;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void clear() {
+        Arrays.fill(this.entries, 0);
+        this.hits.reset();
+        this.misses.reset();
+    }
+}
@@ -0,0 +1,152 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.player.MoveTransition;
+
+import java.util.function.Consumer;
+
+/**
+ * IterativeDeepening class that searches with the AlphaBeta search one depth after the other until the
+ * TimeManager says there is no time for another iteration
+ *
+ * every iteration starts with the best move of the iteration before it, and when the time runs out in the
+ * middle of an iteration the best move of the last completed iteration is played.
+ * A move with only one legal reply is played at once without searching
+ */
+public class IterativeDeepening implements MoveStrategy {
+    public static final int MAX_DEPTH = 64;
+    // a score drop of this much between iterations counts as a fail low
+    private static final int FAIL_LOW_MARGIN = 50;
+
+    private final AlphaBeta alphaBeta;
+    private int maxDepth;
+    private TimeManager timeManager;
+    private SearchResult lastResult;
+    private Consumer<SearchResult> iterationListener;
+
+    public IterativeDeepening() {
+        this(new CachedBoardEvaluator(new TaperedBoardEvaluator()), MAX_DEPTH, SearchOptions.DEFAULT);
+    }
+
+    public IterativeDeepening(final BoardEvaluator evaluator, final int maxDepth, final SearchOptions options) {
+        this.alphaBeta = new AlphaBeta(evaluator, maxDepth, options);
+        this.maxDepth = maxDepth;
+        this.timeManager = TimeManager.infinite();
+    }
+
+    /**
+     * sets the time manager of the next search, a new one is needed for every move because its clock starts
+     * when it is created
+     */
+    public void setTimeManager(final TimeManager timeManager) {
+        this.timeManager = timeManager;
+    }
+
+    public TimeManager getTimeManager() {
+        return this.timeManager;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.alphaBeta.getTranspositionTable();
+    }
+
+    public void setTranspositionTable(final TranspositionTable transpositionTable) {
+        this.alphaBeta.setTranspositionTable(transpositionTable);
+    }
+
+    /**
+     * sets the deepest iteration of the next searches
+     */
+    public void setMaxDepth(final int maxDepth) {
+        this.maxDepth = Math.min(Math.max(maxDepth, 1), MAX_DEPTH);
+    }
+
+    /**
+     * sets a listener that gets the result of every completed iteration, it is called on the searching thread
+     */
+    public void setIterationListener(final Consumer<SearchResult> iterationListener) {
+        this.iterationListener = iterationListener;
+    }
+
+    /**
+     * @return the result of the last completed iteration of the last search
+     */
+    public SearchResult getLastResult() {
+        return this.lastResult;
+    }
+
+    /**
+     * @return the nodes the last search visited, with the ones of an iteration that was cut
+     */
+    public long getNodes() {
+        return this.alphaBeta.getNodes() + this.alphaBeta.getQuiescenceNodes();
+    }
+
+    @Override
+    public String toString() {
+        return "IterativeDeepening";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        this.alphaBeta.setTimeManager(this.timeManager);
+        this.alphaBeta.clearStatistics();
+        this.lastResult = null;
+        final Move forcedMove = findForcedMove(board);
+        if(forcedMove != null) {
+            this.lastResult = new SearchResult(forcedMove, 0, 0, 0, false);
+            return forcedMove;
+        }
+        Move bestMove = null;
+        for(int depth = 1; depth <= this.maxDepth; depth++) {
+            final SearchResult result = this.alphaBeta.searchRoot(board, depth, bestMove);
+            if(result.isAborted()) {
+                // even a cut first iteration is better than no move at all
+                if(bestMove == null && !result.getBestMove().equals(Move.MoveFactory.getNullMove())) {
+                    bestMove = result.getBestMove();
+                }
+                break;
+            }
+            final boolean bestMoveChanged = bestMove != null && !bestMove.equals(result.getBestMove());
+            final boolean failedLow = this.lastResult != null &&
+                    this.lastResult.getScore() - result.getScore() > FAIL_LOW_MARGIN;
+            bestMove = result.getBestMove();
+            this.lastResult = result;
+            if(this.iterationListener != null) {
+                this.iterationListener.accept(result);
+            }
+            this.timeManager.onIterationComplete(bestMoveChanged, failedLow);
+            if(AlphaBeta.isMateScore(result.getScore()) || !this.timeManager.shouldStartNextIteration()) {
+                break;
+            }
+        }
+        return bestMove != null ? bestMove : firstLegalMove(board);
+    }
+
+    private static Move firstLegalMove(final Board board) {
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            if(board.getCurrentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                return move;
+            }
+        }
+        return Move.MoveFactory.getNullMove();
+    }
+
+    /**
+     * @return the only legal move of the current player, or null when he has more than one
+     */
+    private static Move findForcedMove(final Board board) {
+        Move legalMove = null;
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                if(legalMove != null) {
+                    return null;
+                }
+                legalMove = move;
+            }
+        }
+        return legalMove;
+    }
+}
@@ -0,0 +1,64 @@
+package com.engine.player.ai;
+
+import com.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * MateSearchResult class that holds what the ProofNumberSearch found for a position
+ */
+public final class MateSearchResult {
+    public enum Status {
+        // a forced mate was found
+        MATE,
+        // there is no forced mate within the number of moves that was searched
+        NO_MATE,
+        // the node budget ran out first
+        UNKNOWN
+    }
+
+    private final Status status;
+    private final int mateIn;
+    private final List<Move> line;
+    private final long nodes;
+
+    MateSearchResult(final Status status, final int mateIn, final List<Move> line, final long nodes) {
+        this.status = status;
+        this.mateIn = mateIn;
+        this.line = ImmutableList.copyOf(line);
+        this.nodes = nodes;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public boolean isMate() {
+        return this.status == Status.MATE;
+    }
+
+    /**
+     * @return the number of moves of the player to move until mate, or 0 when no mate was found
+     */
+    public int getMateIn() {
+        return this.mateIn;
+    }
+
+    /**
+     * @return the mating line, the moves of both players from the position to the mate
+     */
+    public List<Move> getLine() {
+        return this.line;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    @Override
+    public String toString() {
+        return this.status == Status.MATE ? "mate in " + this.mateIn + " " + this.line + " nodes " + this.nodes :
+                this.status + " nodes " + this.nodes;
+    }
+}
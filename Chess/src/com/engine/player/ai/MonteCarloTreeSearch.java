@@ -0,0 +1,432 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MonteCarloTreeSearch class that picks a move by playing many random games (UCT)
+ *
+ * Every iteration walks down the tree from the root choosing the child with the best upper confidence bound
+ * (wins / visits + c * sqrt(ln(parent visits) / visits)), adds the children of the leaf it reaches, plays a random
+ * game from there on a PlayoutBoard and adds the result to every node of the path. The move of the root that was
+ * visited the most is played.
+ *
+ * The nodes live in a pool of int arrays, a node is an index and its children are next to each other in the pool,
+ * so a tree of a million nodes is a few arrays and not a million objects. The threads share the tree: the walk
+ * down and the update are done under one lock and the random games, which take almost all the time, run in
+ * parallel. A thread that walks through a node adds a virtual loss to it, so the other threads prefer other paths
+ * until the result comes back.
+ *
+ * The tree is kept between moves, when the new board is the position after a child or a grandchild of the old root
+ * that node becomes the root and its subtree is moved to the front of the pool. The subtree is copied into a second
+ * pool that is allocated the first time and then swapped with the first one, so a move doesn't allocate a pool.
+ * The playout threads live until the search is closed
+ */
+public final class MonteCarloTreeSearch implements MoveStrategy, AutoCloseable {
+    public static final int DEFAULT_MAX_NODES = 1 << 20;
+    public static final long DEFAULT_MAX_PLAYOUTS = 100_000;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int VIRTUAL_LOSS = 3;
+    private static final int PLAYOUT_PLIES = 100;
+    private static final int MAX_TREE_DEPTH = 256;
+    private static final int NO_NODE = -1;
+    private static final int ROOT = 0;
+
+    private final int threads;
+    private final int maxNodes;
+    private final ExecutorService service;
+    private final Object treeLock;
+    private final AtomicLong playouts;
+    // the node pool, the score is in half points from the side of the player that made the move of the node
+    private int[] moves;
+    private int[] firstChild;
+    private int[] childCount;
+    private int[] visits;
+    private int[] scores;
+    // the pool the subtree is copied into and the old index of every copied node, null until the first copy
+    private int[] spareMoves;
+    private int[] spareFirstChild;
+    private int[] spareChildCount;
+    private int[] spareVisits;
+    private int[] spareScores;
+    private int[] oldIndexes;
+    private int nodeCount;
+    private PlayoutBoard rootBoard;
+    private TimeManager timeManager;
+    private long maxPlayouts;
+    private long lastSearchMillis;
+
+    public MonteCarloTreeSearch() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * @param threads is the number of threads that play random games
+     * @param maxNodes is the size of the node pool, a node takes 20 bytes
+     */
+    public MonteCarloTreeSearch(final int threads, final int maxNodes) {
+        this.threads = Math.max(threads, 1);
+        this.maxNodes = maxNodes;
+        this.service = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "MCTS");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.treeLock = new Object();
+        this.playouts = new AtomicLong();
+        this.moves = new int[maxNodes];
+        this.firstChild = new int[maxNodes];
+        this.childCount = new int[maxNodes];
+        this.visits = new int[maxNodes];
+        this.scores = new int[maxNodes];
+        this.timeManager = TimeManager.infinite();
+        this.maxPlayouts = DEFAULT_MAX_PLAYOUTS;
+    }
+
+    /**
+     * sets the time manager of the next search, the search stops at its soft limit
+     */
+    public void setTimeManager(final TimeManager timeManager) {
+        this.timeManager = timeManager;
+    }
+
+    /**
+     * sets the number of random games of a search, Long.MAX_VALUE leaves it to the time manager
+     */
+    public void setMaxPlayouts(final long maxPlayouts) {
+        this.maxPlayouts = maxPlayouts;
+    }
+
+    /**
+     * @return the number of random games of the last search
+     */
+    public long getPlayouts() {
+        return this.playouts.get();
+    }
+
+    public long getPlayoutsPerSecond() {
+        return this.playouts.get() * 1000 / Math.max(this.lastSearchMillis, 1);
+    }
+
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * @return the number of visits of the root, it includes the visits kept from the search before
+     */
+    public int getRootVisits() {
+        return this.visits[ROOT];
+    }
+
+    @Override
+    public String toString() {
+        return "MonteCarloTreeSearch";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        final long startTime = System.nanoTime();
+        this.playouts.set(0);
+        prepareRoot(PlayoutBoard.of(board));
+        if(this.childCount[ROOT] > 1) {
+            final List<Future<?>> workers = new ArrayList<>();
+            for(int i = 0; i < this.threads; i++) {
+                workers.add(this.service.submit(this::runPlayouts));
+            }
+            for(final Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("A playout thread failed", e.getCause());
+                }
+            }
+        }
+        this.lastSearchMillis = (System.nanoTime() - startTime) / 1_000_000;
+        if(this.childCount[ROOT] == 0) {
+            return Move.MoveFactory.getNullMove();
+        }
+        int bestChild = this.firstChild[ROOT];
+        for(int child = this.firstChild[ROOT]; child < this.firstChild[ROOT] + this.childCount[ROOT]; child++) {
+            if(this.visits[child] > this.visits[bestChild]) {
+                bestChild = child;
+            }
+        }
+        return Move.MoveFactory.createMove(board, PlayoutBoard.from(this.moves[bestChild]),
+                PlayoutBoard.to(this.moves[bestChild]));
+    }
+
+    /**
+     * stops the running search from another thread, the best move so far is played
+     */
+    public void stop() {
+        this.timeManager.stop();
+    }
+
+    /**
+     * stops the playout threads, the search can't be used after it is closed
+     */
+    @Override
+    public void close() {
+        this.service.shutdownNow();
+    }
+
+    private boolean shouldStop() {
+        return this.playouts.get() >= this.maxPlayouts || this.timeManager.isStopped() ||
+                this.timeManager.getElapsedMillis() >= this.timeManager.getSoftLimitMillis();
+    }
+
+    /**
+     * keeps the subtree of the new board when it is a child or a grandchild of the old root, otherwise the tree is
+     * cleared
+     */
+    private void prepareRoot(final PlayoutBoard board) {
+        final int reusedNode = this.rootBoard != null ? findNode(board) : NO_NODE;
+        if(reusedNode == NO_NODE) {
+            this.nodeCount = 1;
+            clearNode(ROOT, 0);
+        } else if(reusedNode != ROOT) {
+            compact(reusedNode);
+        }
+        this.rootBoard = board;
+        if(this.firstChild[ROOT] == NO_NODE) {
+            final PlayoutBoard work = new PlayoutBoard();
+            work.copyFrom(board);
+            expand(ROOT, work);
+        }
+    }
+
+    private int findNode(final PlayoutBoard board) {
+        if(isSamePosition(this.rootBoard, board)) {
+            return ROOT;
+        }
+        final PlayoutBoard work = new PlayoutBoard();
+        for(int child = this.firstChild[ROOT]; child < this.firstChild[ROOT] + this.childCount[ROOT]; child++) {
+            work.copyFrom(this.rootBoard);
+            final int childUndo = work.makeMove(this.moves[child]);
+            if(isSamePosition(work, board)) {
+                return child;
+            }
+            for(int grandChild = this.firstChild[child];
+                grandChild < this.firstChild[child] + this.childCount[child]; grandChild++) {
+                final int undo = work.makeMove(this.moves[grandChild]);
+                if(isSamePosition(work, board)) {
+                    return grandChild;
+                }
+                work.unmakeMove(this.moves[grandChild], undo);
+            }
+            work.unmakeMove(this.moves[child], childUndo);
+        }
+        return NO_NODE;
+    }
+
+    private static boolean isSamePosition(final PlayoutBoard first, final PlayoutBoard second) {
+        return Arrays.equals(first.squares, second.squares) && first.sideToMove == second.sideToMove &&
+                first.castlingRights == second.castlingRights && first.enPassantSquare == second.enPassantSquare;
+    }
+
+    /**
+     * moves the subtree of a node to the front of the pool with the node as the root, breadth first so the
+     * children of every node stay next to each other
+     */
+    private void compact(final int newRoot) {
+        if(this.oldIndexes == null) {
+            this.spareMoves = new int[this.maxNodes];
+            this.spareFirstChild = new int[this.maxNodes];
+            this.spareChildCount = new int[this.maxNodes];
+            this.spareVisits = new int[this.maxNodes];
+            this.spareScores = new int[this.maxNodes];
+            this.oldIndexes = new int[this.maxNodes];
+        }
+        final int[] newMoves = this.spareMoves;
+        final int[] newFirstChild = this.spareFirstChild;
+        final int[] newChildCount = this.spareChildCount;
+        final int[] newVisits = this.spareVisits;
+        final int[] newScores = this.spareScores;
+        final int[] oldIndexes = this.oldIndexes;
+        oldIndexes[ROOT] = newRoot;
+        int newCount = 1;
+        for(int node = 0; node < newCount; node++) {
+            final int oldNode = oldIndexes[node];
+            newMoves[node] = this.moves[oldNode];
+            newVisits[node] = this.visits[oldNode];
+            newScores[node] = this.scores[oldNode];
+            newChildCount[node] = this.childCount[oldNode];
+            if(this.firstChild[oldNode] == NO_NODE) {
+                newFirstChild[node] = NO_NODE;
+                continue;
+            }
+            newFirstChild[node] = newCount;
+            for(int i = 0; i < this.childCount[oldNode]; i++) {
+                oldIndexes[newCount++] = this.firstChild[oldNode] + i;
+            }
+        }
+        // the old pool is the spare pool of the next copy, the nodes past the new count are cleared when they are used
+        this.spareMoves = this.moves;
+        this.spareFirstChild = this.firstChild;
+        this.spareChildCount = this.childCount;
+        this.spareVisits = this.visits;
+        this.spareScores = this.scores;
+        this.moves = newMoves;
+        this.firstChild = newFirstChild;
+        this.childCount = newChildCount;
+        this.visits = newVisits;
+        this.scores = newScores;
+        this.nodeCount = newCount;
+    }
+
+    private void runPlayouts() {
+        final PlayoutBoard work = new PlayoutBoard();
+        final int[] moveBuffer = new int[PlayoutBoard.MAX_MOVES];
+        final int[] path = new int[MAX_TREE_DEPTH + 1];
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        while(!shouldStop()) {
+            work.copyFrom(this.rootBoard);
+            final int pathLength;
+            final boolean terminal;
+            synchronized(this.treeLock) {
+                pathLength = selectPath(work, path, random);
+                final int leaf = path[pathLength - 1];
+                terminal = this.firstChild[leaf] != NO_NODE && this.childCount[leaf] == 0;
+            }
+            final int result;
+            if(terminal) {
+                result = !work.isInCheck() ? PlayoutBoard.DRAW :
+                        work.isWhiteToMove() ? PlayoutBoard.BLACK_WINS : PlayoutBoard.WHITE_WINS;
+            } else {
+                result = work.playRandomGame(random, moveBuffer, PLAYOUT_PLIES);
+            }
+            synchronized(this.treeLock) {
+                backPropagate(path, pathLength, result);
+            }
+            this.playouts.incrementAndGet();
+        }
+    }
+
+    /**
+     * walks down the tree to a leaf, expands the leaf when it was visited before and steps into one of its new
+     * children, the board is moved along
+     * @return the length of the path
+     */
+    private int selectPath(final PlayoutBoard work, final int[] path, final ThreadLocalRandom random) {
+        int node = ROOT;
+        int pathLength = 0;
+        this.visits[node] += VIRTUAL_LOSS;
+        path[pathLength++] = node;
+        while(this.firstChild[node] != NO_NODE && this.childCount[node] > 0 && pathLength <= MAX_TREE_DEPTH) {
+            node = selectChild(node);
+            work.makeMove(this.moves[node]);
+            this.visits[node] += VIRTUAL_LOSS;
+            path[pathLength++] = node;
+        }
+        if(this.firstChild[node] == NO_NODE && this.visits[node] > VIRTUAL_LOSS && pathLength <= MAX_TREE_DEPTH &&
+                expand(node, work) && this.childCount[node] > 0) {
+            node = this.firstChild[node] + random.nextInt(this.childCount[node]);
+            work.makeMove(this.moves[node]);
+            this.visits[node] += VIRTUAL_LOSS;
+            path[pathLength++] = node;
+        }
+        return pathLength;
+    }
+
+    /**
+     * @return the child with the best upper confidence bound, a child that was never visited comes first
+     */
+    private int selectChild(final int node) {
+        final double logVisits = Math.log(Math.max(this.visits[node], 1));
+        int bestChild = this.firstChild[node];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for(int child = this.firstChild[node]; child < this.firstChild[node] + this.childCount[node]; child++) {
+            if(this.visits[child] == 0) {
+                return child;
+            }
+            final double value = this.scores[child] / (2.0 * this.visits[child]) +
+                    EXPLORATION * Math.sqrt(logVisits / this.visits[child]);
+            if(value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    /**
+     * adds the legal moves of the board as the children of the node
+     * @return false when the pool is full
+     */
+    private boolean expand(final int node, final PlayoutBoard work) {
+        final int[] legalMoves = new int[PlayoutBoard.MAX_MOVES];
+        final int count = work.generateLegalMoves(legalMoves);
+        if(this.nodeCount + count > this.maxNodes) {
+            return false;
+        }
+        this.firstChild[node] = this.nodeCount;
+        this.childCount[node] = count;
+        for(int i = 0; i < count; i++) {
+            clearNode(this.nodeCount, legalMoves[i]);
+            this.nodeCount++;
+        }
+        return true;
+    }
+
+    private void clearNode(final int node, final int move) {
+        this.moves[node] = move;
+        this.firstChild[node] = NO_NODE;
+        this.childCount[node] = 0;
+        this.visits[node] = 0;
+        this.scores[node] = 0;
+    }
+
+    /**
+     * takes the virtual loss back and adds the result to every node of the path
+     */
+    private void backPropagate(final int[] path, final int pathLength, final int result) {
+        // the player that made the move of the root is the one not to move at the root
+        boolean moverIsWhite = !this.rootBoard.isWhiteToMove();
+        for(int i = 0; i < pathLength; i++) {
+            final int node = path[i];
+            this.visits[node] += 1 - VIRTUAL_LOSS;
+            this.scores[node] += moverIsWhite ? result + 1 : 1 - result;
+            moverIsWhite = !moverIsWhite;
+        }
+    }
+
+    /**
+     * Measures the random games per second with 1, 2, 4 ... threads up to the number of cores
+     */
+    public static void main(final String[] args) {
+        final long millis = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        final int cores = Runtime.getRuntime().availableProcessors();
+        long singleThreadRate = 0;
+        for(int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            try(final MonteCarloTreeSearch search = new MonteCarloTreeSearch(threads, DEFAULT_MAX_NODES)) {
+                search.setMaxPlayouts(Long.MAX_VALUE);
+                search.setTimeManager(TimeManager.forMoveTime(millis));
+                final Move move = search.execute(Board.createStandardBoard());
+                final long rate = search.getPlayoutsPerSecond();
+                if(threads == 1) {
+                    singleThreadRate = rate;
+                }
+                System.out.println(threads + " threads: " + search.getPlayouts() + " playouts, " + rate +
+                        " playouts/s, speedup " + String.format("%.2f", (double) rate / Math.max(singleThreadRate, 1)) +
+                        ", " + search.getNodeCount() + " nodes, move " + move);
+            }
+            if(threads >= cores) {
+                break;
+            }
+        }
+    }
+}
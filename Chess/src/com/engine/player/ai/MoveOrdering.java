@@ -0,0 +1,110 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * MoveOrdering class that sorts moves so the search looks at the most promising ones first
+ */
+final class MoveOrdering {
+    private static final int HASH_MOVE_BONUS = 2_000_000;
+    private static final int WINNING_CAPTURE_BONUS = 1_000_000;
+    private static final int PROMOTION_BONUS = 900_000;
+    private static final int KILLER_BONUS = 800_000;
+    private static final int LOSING_CAPTURE_PENALTY = -1_000_000;
+
+    private MoveOrdering() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    static List<Move> orderMoves(final Board board, final Collection<Move> moves,
+                                 final SearchHeuristics heuristics, final int ply) {
+        return orderMoves(board, moves, heuristics, ply, TranspositionTable.NO_MOVE);
+    }
+
+    /**
+     * Sorts all the moves of a position, the best move from the transposition table first, then winning and equal captures by their exchange value first,
+     * then promotions, killer moves, quiet moves by their history score and losing captures last
+     * @param board is the board the moves are made on
+     * @param moves the moves we sort
+     * @param heuristics the killer moves and history of the search
+     * @param ply is the distance from the root, for finding the killer moves
+     * @param hashMove is the encoded best move of the transposition table, or NO_MOVE
+     * @return a none changeable sorted list of the moves
+     */
+    static List<Move> orderMoves(final Board board, final Collection<Move> moves,
+                                 final SearchHeuristics heuristics, final int ply, final int hashMove) {
+        final List<ScoredMove> scoredMoves = new ArrayList<>(moves.size());
+        for(final Move move : moves) {
+            final int score = hashMove != TranspositionTable.NO_MOVE && TranspositionTable.encodeMove(move) == hashMove ?
+                    HASH_MOVE_BONUS : scoreMove(board, move, heuristics, ply);
+            scoredMoves.add(new ScoredMove(move, score));
+        }
+        return sort(scoredMoves);
+    }
+
+    /**
+     * Creates the list of moves the quiescence search looks at: promotions and captures that don't lose material
+     * by the static exchange evaluation, sorted from the best exchange to the worst
+     * @param board is the board the moves are made on
+     * @param moves the moves we filter
+     * @return a none changeable sorted list of the tactical moves
+     */
+    static List<Move> orderTacticalMoves(final Board board, final Collection<Move> moves) {
+        final List<ScoredMove> scoredMoves = new ArrayList<>();
+        for(final Move move : moves) {
+            if(move.isAttack()) {
+                final int exchange = StaticExchangeEvaluator.evaluate(board, move);
+                if(exchange >= 0) {
+                    scoredMoves.add(new ScoredMove(move, exchange + (isPromotion(move) ? PROMOTION_BONUS : 0)));
+                }
+            } else if(isPromotion(move)) {
+                scoredMoves.add(new ScoredMove(move, PROMOTION_BONUS));
+            }
+        }
+        return sort(scoredMoves);
+    }
+
+    static boolean isPromotion(final Move move) {
+        return move instanceof Move.PawnPromotion;
+    }
+
+    private static int scoreMove(final Board board, final Move move, final SearchHeuristics heuristics, final int ply) {
+        if(move.isAttack()) {
+            final int exchange = StaticExchangeEvaluator.evaluate(board, move);
+            return exchange >= 0 ? WINNING_CAPTURE_BONUS + exchange : LOSING_CAPTURE_PENALTY + exchange;
+        }
+        if(isPromotion(move)) {
+            return PROMOTION_BONUS;
+        }
+        if(heuristics.isKiller(move, ply)) {
+            return KILLER_BONUS;
+        }
+        return Math.min(heuristics.getHistoryScore(move), KILLER_BONUS - 1);
+    }
+
+    private static List<Move> sort(final List<ScoredMove> scoredMoves) {
+        scoredMoves.sort((m1, m2) -> Ints.compare(m2.score, m1.score));
+        final List<Move> sortedMoves = new ArrayList<>(scoredMoves.size());
+        for(final ScoredMove scoredMove : scoredMoves) {
+            sortedMoves.add(scoredMove.move);
+        }
+        return ImmutableList.copyOf(sortedMoves);
+    }
+
+    private static final class ScoredMove {
+        final Move move;
+        final int score;
+
+        ScoredMove(final Move move, final int score) {
+            this.move = move;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+
+/**
+ * MoveStrategy interface that every engine implements so the rest of the game can ask it for a move
+ */
+public interface MoveStrategy {
+    Move execute(final Board board);
+}
@@ -0,0 +1,174 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * MultiPvSearch class that analyzes a position for the player: it searches the best few moves instead of only the
+ * best one, deeper and deeper until it is stopped, and gives every completed depth to a listener
+ *
+ * The analysis runs on its own thread. analyze returns at once, it stops the running analysis (the search checks
+ * the stop on every node) and queues the new one, so the caller never waits for the search. The analyses that
+ * were queued behind a newer one are skipped, and an analysis that was replaced never calls the listener again,
+ * so the listener only gets the lines of the last board.
+ *
+ * The search is not thread safe, it is only used from the analysis thread
+ */
+public final class MultiPvSearch {
+    public static final int DEFAULT_LINES = 3;
+    private static final int MAX_PV_LENGTH = 16;
+
+    private final AlphaBeta alphaBeta;
+    private final ExecutorService analysisService;
+    private volatile int lines;
+    private volatile Consumer<List<AnalysisLine>> listener;
+    // the number of the last analysis, an analysis whose number is older was replaced
+    private volatile long generation;
+    private volatile TimeManager timeManager;
+
+    public MultiPvSearch() {
+        this(new CachedBoardEvaluator(new TaperedBoardEvaluator()), SearchOptions.DEFAULT);
+    }
+
+    public MultiPvSearch(final BoardEvaluator evaluator, final SearchOptions options) {
+        this.alphaBeta = new AlphaBeta(evaluator, IterativeDeepening.MAX_DEPTH, options);
+        this.analysisService = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lines = DEFAULT_LINES;
+    }
+
+    /**
+     * sets the number of lines of the next analyses
+     */
+    public void setLines(final int lines) {
+        this.lines = Math.max(lines, 1);
+    }
+
+    public int getLines() {
+        return this.lines;
+    }
+
+    /**
+     * sets the listener of the lines, it is called on the analysis thread after every completed depth with the
+     * lines from the best to the worst
+     */
+    public void setListener(final Consumer<List<AnalysisLine>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts analyzing a board in the background until stop is called or another board is analyzed
+     * @param board is the board to analyze
+     */
+    public synchronized void analyze(final Board board) {
+        final long analysis = ++this.generation;
+        stopSearch();
+        final TimeManager analysisTimeManager = TimeManager.infinite();
+        this.timeManager = analysisTimeManager;
+        this.analysisService.execute(() -> {
+            if(analysis == this.generation) {
+                run(board, analysis, analysisTimeManager);
+            }
+        });
+    }
+
+    /**
+     * stops the running analysis without waiting for it
+     */
+    public synchronized void stop() {
+        this.generation++;
+        stopSearch();
+    }
+
+    private void stopSearch() {
+        if(this.timeManager != null) {
+            this.timeManager.stop();
+            this.timeManager = null;
+        }
+    }
+
+    private void run(final Board board, final long analysis, final TimeManager analysisTimeManager) {
+        this.alphaBeta.setTimeManager(analysisTimeManager);
+        this.alphaBeta.clearStatistics();
+        List<AnalysisLine> previousLines = Collections.emptyList();
+        for(int depth = 1; depth <= IterativeDeepening.MAX_DEPTH; depth++) {
+            final List<AnalysisLine> analysisLines = searchLines(board, depth, previousLines, this.lines);
+            if(analysisLines == null || analysis != this.generation) {
+                return;
+            }
+            final Consumer<List<AnalysisLine>> currentListener = this.listener;
+            if(currentListener != null) {
+                currentListener.accept(analysisLines);
+            }
+            if(analysisLines.isEmpty()) {
+                return;
+            }
+            previousLines = analysisLines;
+        }
+    }
+
+    /**
+     * Searches the lines of a board to a fixed depth on the calling thread, not while an analysis runs
+     * @param board is the board to search
+     * @param depth is the depth of the search
+     * @param lines is the number of lines
+     * @return the lines from the best to the worst
+     */
+    public List<AnalysisLine> search(final Board board, final int depth, final int lines) {
+        this.alphaBeta.setTimeManager(TimeManager.infinite());
+        this.alphaBeta.clearStatistics();
+        List<AnalysisLine> analysisLines = Collections.emptyList();
+        for(int iteration = 1; iteration <= depth; iteration++) {
+            analysisLines = searchLines(board, iteration, analysisLines, lines);
+        }
+        return analysisLines;
+    }
+
+    private List<AnalysisLine> searchLines(final Board board, final int depth, final List<AnalysisLine> previousLines,
+                                           final int lines) {
+        final List<Move> firstMoves = new ArrayList<>(previousLines.size());
+        for(final AnalysisLine line : previousLines) {
+            firstMoves.add(line.getMoves().get(0));
+        }
+        final List<SearchResult> results = this.alphaBeta.searchRootLines(board, depth, firstMoves, lines);
+        if(results == null) {
+            return null;
+        }
+        final List<AnalysisLine> analysisLines = new ArrayList<>(results.size());
+        for(final SearchResult result : results) {
+            analysisLines.add(new AnalysisLine(board, principalVariation(board, result.getBestMove(), depth),
+                    result.getScore(), depth, result.getNodes()));
+        }
+        return analysisLines;
+    }
+
+    /**
+     * follows the best moves of the transposition table from the root move on
+     */
+    private List<Move> principalVariation(final Board board, final Move rootMove, final int depth) {
+        final List<Move> moves = new ArrayList<>();
+        Board position = board;
+        Move move = rootMove;
+        while(move != null && moves.size() < Math.min(depth, MAX_PV_LENGTH)) {
+            final MoveTransition transition = position.getCurrentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                break;
+            }
+            moves.add(move);
+            position = transition.getTransitionBoard();
+            move = this.alphaBeta.getTranspositionTable().getBestMove(position);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,179 @@
+package com.engine.player.ai;
+
+import com.engine.Alliance;
+import com.engine.board.Board;
+import com.engine.board.BoardTransition;
+import com.engine.board.Move;
+import com.engine.pieces.Piece;
+import com.engine.pieces.PieceType;
+import com.google.common.collect.Iterables;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * NnueEvaluator class that scores a board with an NnueNetwork
+ *
+ * The accumulators of a board are not summed from all its pieces, they are made from the accumulators of the
+ * board the transition move was made on: the moved piece is removed from its tile and added on its destination
+ * (as a queen for a promotion), the captured piece and the castled rook are moved too, like the PieceSquareScore.
+ * The accumulators of the last boards are kept in a small table by zobrist hash (a transposition has the same
+ * accumulators whatever its moves were), so the search that evaluates a child after its parent only pays for the
+ * two to four features the move changed. A board whose parent is not in the table is summed from its pieces, the
+ * board only keeps the hash of its parent and not the parent itself.
+ *
+ * An evaluator keeps its own table, so every search thread needs its own evaluator, the network can be shared
+ */
+public final class NnueEvaluator implements BoardEvaluator {
+    private static final int CACHE_SIZE = 1 << 12;
+
+    private final NnueNetwork network;
+    private final int hiddenSize;
+    private final long[] keys;
+    // both accumulators of every entry, the white one first
+    private final short[][] accumulators;
+
+    public NnueEvaluator(final NnueNetwork network) {
+        this.network = network;
+        this.hiddenSize = network.getHiddenSize();
+        this.keys = new long[CACHE_SIZE];
+        this.accumulators = new short[CACHE_SIZE][2 * this.hiddenSize];
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        final short[] accumulator = findAccumulator(board);
+        final boolean whiteToMove = board.getCurrentPlayer().getAlliance().isWhite();
+        final int score = whiteToMove ? this.network.output(accumulator, 0, this.hiddenSize) :
+                this.network.output(accumulator, this.hiddenSize, 0);
+        return whiteToMove ? score : -score;
+    }
+
+    @Override
+    public String toString() {
+        return "Nnue";
+    }
+
+    /**
+     * finds the accumulators of a board in the table, or makes them from the ones of its parent
+     */
+    short[] findAccumulator(final Board board) {
+        final short[] cached = probe(board.getZobristHash());
+        if(cached != null) {
+            return cached;
+        }
+        final BoardTransition transition = board.getTransition();
+        final short[] parentAccumulator = transition != null ? probe(transition.getPreviousZobristHash()) : null;
+        final short[] accumulator = store(board.getZobristHash());
+        if(parentAccumulator == null) {
+            // the parent is not in the table, the board is summed from its pieces
+            refresh(board, accumulator);
+            return accumulator;
+        }
+        // the parent and the board may share an entry, then the copy is the same array
+        System.arraycopy(parentAccumulator, 0, accumulator, 0, accumulator.length);
+        update(transition, accumulator);
+        return accumulator;
+    }
+
+    private short[] probe(final long hash) {
+        final int index = index(hash);
+        return this.keys[index] == hash ? this.accumulators[index] : null;
+    }
+
+    private short[] store(final long hash) {
+        final int index = index(hash);
+        this.keys[index] = hash;
+        return this.accumulators[index];
+    }
+
+    private static int index(final long hash) {
+        return (int) (hash ^ hash >>> 32) & (CACHE_SIZE - 1);
+    }
+
+    private void refresh(final Board board, final short[] accumulator) {
+        this.network.resetAccumulator(accumulator, 0);
+        this.network.resetAccumulator(accumulator, this.hiddenSize);
+        for(final Piece piece : Iterables.concat(board.getWhitePieces(), board.getBlackPieces())) {
+            add(accumulator, piece.getPieceType(), piece.getPieceAlliance(), piece.getPiecePosition());
+        }
+    }
+
+    /**
+     * changes the accumulators of the board a move was made on into the ones of the board after it
+     */
+    private void update(final BoardTransition transition, final short[] accumulator) {
+        final Piece movedPiece = transition.getMovedPiece();
+        if(movedPiece == null) {
+            // a null move does not move any piece
+            return;
+        }
+        final Alliance alliance = movedPiece.getPieceAlliance();
+        remove(accumulator, movedPiece.getPieceType(), alliance, movedPiece.getPiecePosition());
+        add(accumulator, transition.getPlacedPieceType(), alliance, transition.getDestinationCoordinate());
+        final Piece capturedPiece = transition.getCapturedPiece();
+        if(capturedPiece != null) {
+            remove(accumulator, capturedPiece.getPieceType(), capturedPiece.getPieceAlliance(),
+                    capturedPiece.getPiecePosition());
+        }
+        if(transition.getCastleRook() != null) {
+            remove(accumulator, PieceType.ROOK, alliance, transition.getCastleRook().getPiecePosition());
+            add(accumulator, PieceType.ROOK, alliance, transition.getCastleRookDestination());
+        }
+    }
+
+    private void add(final short[] accumulator, final PieceType pieceType, final Alliance alliance, final int tile) {
+        this.network.addFeature(accumulator, 0, NnueNetwork.feature(Alliance.WHITE, pieceType, alliance, tile));
+        this.network.addFeature(accumulator, this.hiddenSize,
+                NnueNetwork.feature(Alliance.BLACK, pieceType, alliance, tile));
+    }
+
+    private void remove(final short[] accumulator, final PieceType pieceType, final Alliance alliance, final int tile) {
+        this.network.removeFeature(accumulator, 0, NnueNetwork.feature(Alliance.WHITE, pieceType, alliance, tile));
+        this.network.removeFeature(accumulator, this.hiddenSize,
+                NnueNetwork.feature(Alliance.BLACK, pieceType, alliance, tile));
+    }
+
+    /**
+     * Compares the evaluations per second of the network and of the TaperedBoardEvaluator, on the boards of random
+     * games evaluated in the order they were played like the search does
+     */
+    public static void main(final String[] args) throws IOException {
+        final NnueNetwork network = args.length > 0 ? NnueNetwork.load(Paths.get(args[0])) :
+                NnueNetwork.random(256, 1);
+        final List<Board> boards = new ArrayList<>();
+        final Random random = new Random(1);
+        while(boards.size() < 20_000) {
+            Board board = Board.createStandardBoard();
+            for(int ply = 0; ply < 80; ply++) {
+                final List<Move> moves = new ArrayList<>();
+                for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+                    if(board.getCurrentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                        moves.add(move);
+                    }
+                }
+                if(moves.isEmpty()) {
+                    break;
+                }
+                board = board.getCurrentPlayer().makeMove(moves.get(random.nextInt(moves.size()))).getTransitionBoard();
+                boards.add(board);
+            }
+        }
+        final BoardEvaluator[] evaluators = {new TaperedBoardEvaluator(), new NnueEvaluator(network)};
+        for(int round = 0; round < 3; round++) {
+            for(final BoardEvaluator evaluator : evaluators) {
+                final long startTime = System.nanoTime();
+                long checksum = 0;
+                for(final Board board : boards) {
+                    checksum += evaluator.evaluate(board, 0);
+                }
+                final long nanos = System.nanoTime() - startTime;
+                System.out.println(evaluator + ": " + boards.size() * 1_000_000_000L / nanos + " evaluations/s" +
+                        " (checksum " + checksum + ")");
+            }
+        }
+    }
+}
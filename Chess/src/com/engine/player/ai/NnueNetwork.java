@@ -0,0 +1,177 @@
+package com.engine.player.ai;
+
+import com.engine.Alliance;
+import com.engine.board.BoardUtils;
+import com.engine.pieces.PieceType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * NnueNetwork class that holds the weights of an efficiently updatable neural network (NNUE) for the NnueEvaluator
+ *
+ * The input is one feature per piece type, color and tile (768), seen from both sides: for black the colors are
+ * swapped and the ranks flipped, so both sides use the same weights. The first layer sums the weights of the
+ * features on the board into an accumulator of HIDDEN values per side, the output is a weighted sum of the two
+ * accumulators clipped to 0..QA, the side to move first.
+ *
+ * The weights are int16, quantized by QA for the first layer and QB for the output layer. The file is little
+ * endian: the magic, the version and the hidden size as ints, then the feature weights (feature major), the
+ * accumulator biases, the 2 * hidden output weights and the output bias. It is memory mapped and copied into
+ * arrays once, the hot loops run over plain short arrays which the JIT vectorizes
+ */
+public final class NnueNetwork {
+    public static final int FEATURES = 2 * PieceType.values().length * BoardUtils.NUM_TILES;
+    public static final int QA = 255;
+    public static final int QB = 64;
+    // the output is in these centipawns per unit of the sigmoid the network was trained on
+    public static final int SCALE = 400;
+    private static final int MAGIC = 0x554E4E43;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    private final int hiddenSize;
+    private final short[] featureWeights;
+    private final short[] featureBiases;
+    private final short[] outputWeights;
+    private final short outputBias;
+
+    NnueNetwork(final int hiddenSize, final short[] featureWeights, final short[] featureBiases,
+                final short[] outputWeights, final short outputBias) {
+        this.hiddenSize = hiddenSize;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Loads a network file
+     * @param file is the network, in the layout described above
+     * @return the network
+     */
+    public static NnueNetwork load(final Path file) throws IOException {
+        try(final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if(buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new RuntimeException("Not an NNUE network file: " + file);
+            }
+            final int hiddenSize = buffer.getInt(8);
+            if(hiddenSize <= 0 || buffer.capacity() != HEADER_BYTES + (long) fileWeights(hiddenSize) * Short.BYTES) {
+                throw new RuntimeException("The network file " + file + " has a wrong size");
+            }
+            buffer.position(HEADER_BYTES);
+            final ShortBuffer weights = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            final short[] featureWeights = new short[FEATURES * hiddenSize];
+            final short[] featureBiases = new short[hiddenSize];
+            final short[] outputWeights = new short[2 * hiddenSize];
+            weights.get(featureWeights).get(featureBiases).get(outputWeights);
+            return new NnueNetwork(hiddenSize, featureWeights, featureBiases, outputWeights, weights.get());
+        }
+    }
+
+    /**
+     * Writes the network in the file layout
+     */
+    public void save(final Path file) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + fileWeights(this.hiddenSize) * Short.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(this.hiddenSize);
+        final ShortBuffer weights = buffer.asShortBuffer();
+        weights.put(this.featureWeights).put(this.featureBiases).put(this.outputWeights).put(this.outputBias);
+        buffer.rewind();
+        try(final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Creates a network with small random weights, for benchmarks and tests when no trained network is at hand
+     */
+    public static NnueNetwork random(final int hiddenSize, final long seed) {
+        final Random random = new Random(seed);
+        final short[] featureWeights = new short[FEATURES * hiddenSize];
+        for(int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) (random.nextInt(33) - 16);
+        }
+        final short[] featureBiases = new short[hiddenSize];
+        for(int i = 0; i < hiddenSize; i++) {
+            featureBiases[i] = (short) random.nextInt(QA / 2);
+        }
+        final short[] outputWeights = new short[2 * hiddenSize];
+        for(int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(2 * QB + 1) - QB);
+        }
+        return new NnueNetwork(hiddenSize, featureWeights, featureBiases, outputWeights, (short) 0);
+    }
+
+    private static int fileWeights(final int hiddenSize) {
+        return FEATURES * hiddenSize + hiddenSize + 2 * hiddenSize + 1;
+    }
+
+    public int getHiddenSize() {
+        return this.hiddenSize;
+    }
+
+    /**
+     * @return the feature of a piece seen from a side, the pieces of the side come first and its ranks go up
+     */
+    static int feature(final Alliance perspective, final PieceType pieceType, final Alliance pieceAlliance,
+                       final int tileCoordinate) {
+        final int relativeTile = perspective.isWhite() ? tileCoordinate : tileCoordinate ^ 56;
+        final int side = pieceAlliance == perspective ? 0 : 1;
+        return (side * PieceType.values().length + pieceType.ordinal()) * BoardUtils.NUM_TILES + relativeTile;
+    }
+
+    /**
+     * sets an accumulator to the biases
+     */
+    void resetAccumulator(final short[] accumulator, final int offset) {
+        System.arraycopy(this.featureBiases, 0, accumulator, offset, this.hiddenSize);
+    }
+
+    void addFeature(final short[] accumulator, final int offset, final int feature) {
+        final short[] weights = this.featureWeights;
+        final int weightOffset = feature * this.hiddenSize;
+        for(int i = 0; i < this.hiddenSize; i++) {
+            accumulator[offset + i] += weights[weightOffset + i];
+        }
+    }
+
+    void removeFeature(final short[] accumulator, final int offset, final int feature) {
+        final short[] weights = this.featureWeights;
+        final int weightOffset = feature * this.hiddenSize;
+        for(int i = 0; i < this.hiddenSize; i++) {
+            accumulator[offset + i] -= weights[weightOffset + i];
+        }
+    }
+
+    /**
+     * Runs the output layer
+     * @param accumulator holds the accumulators of both sides
+     * @param ownOffset is where the accumulator of the side to move starts
+     * @param opponentOffset is where the accumulator of the other side starts
+     * @return the score in centipawns for the side to move
+     */
+    int output(final short[] accumulator, final int ownOffset, final int opponentOffset) {
+        final short[] weights = this.outputWeights;
+        int sum = 0;
+        for(int i = 0; i < this.hiddenSize; i++) {
+            sum += Math.min(Math.max(accumulator[ownOffset + i], 0), QA) * weights[i];
+        }
+        for(int i = 0; i < this.hiddenSize; i++) {
+            sum += Math.min(Math.max(accumulator[opponentOffset + i], 0), QA) * weights[this.hiddenSize + i];
+        }
+        return (int) ((sum + (long) this.outputBias * QA) * SCALE / (QA * QB));
+    }
+}
@@ -0,0 +1,135 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * ParallelSearch class that searches with several threads that share one TranspositionTable (lazy SMP)
+ *
+ * The main thread runs the IterativeDeepening with the time manager of the move and its move is played. The
+ * helper threads search the same position without a limit until the main thread is done, they don't talk to it
+ * at all, they only fill the shared table with scores, bounds and best moves that cut or order the nodes of the
+ * main search. The table is lockless, so the threads never wait for each other.
+ * With one thread it is the plain IterativeDeepening. The helper threads live until the search is closed
+ */
+public final class ParallelSearch implements MoveStrategy, AutoCloseable {
+    private final IterativeDeepening mainSearch;
+    private final List<IterativeDeepening> helpers;
+    private final ExecutorService service;
+    private TranspositionTable transpositionTable;
+
+    public ParallelSearch(final int threads, final TranspositionTable transpositionTable) {
+        this(threads, transpositionTable, () -> new CachedBoardEvaluator(new TaperedBoardEvaluator()));
+    }
+
+    /**
+     * @param evaluatorFactory creates the evaluator of every thread, an evaluator with state like the
+     *                         NnueEvaluator is never shared
+     */
+    public ParallelSearch(final int threads, final TranspositionTable transpositionTable,
+                          final Supplier<BoardEvaluator> evaluatorFactory) {
+        this.mainSearch = new IterativeDeepening(evaluatorFactory.get(), IterativeDeepening.MAX_DEPTH,
+                SearchOptions.DEFAULT);
+        this.helpers = new ArrayList<>();
+        for(int i = 1; i < threads; i++) {
+            this.helpers.add(new IterativeDeepening(evaluatorFactory.get(), IterativeDeepening.MAX_DEPTH,
+                    SearchOptions.DEFAULT));
+        }
+        this.service = this.helpers.isEmpty() ? null : Executors.newFixedThreadPool(this.helpers.size(), runnable -> {
+            final Thread thread = new Thread(runnable, "Search helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        setTranspositionTable(transpositionTable);
+    }
+
+    public int getThreads() {
+        return this.helpers.size() + 1;
+    }
+
+    public void setTranspositionTable(final TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+        this.mainSearch.setTranspositionTable(transpositionTable);
+        for(final IterativeDeepening helper : this.helpers) {
+            helper.setTranspositionTable(transpositionTable);
+        }
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    /**
+     * sets the time manager of the next search, only the main thread is limited by it
+     */
+    public void setTimeManager(final TimeManager timeManager) {
+        this.mainSearch.setTimeManager(timeManager);
+    }
+
+    public void setMaxDepth(final int maxDepth) {
+        this.mainSearch.setMaxDepth(maxDepth);
+    }
+
+    /**
+     * sets a listener that gets every completed iteration of the main thread
+     */
+    public void setIterationListener(final Consumer<SearchResult> iterationListener) {
+        this.mainSearch.setIterationListener(iterationListener);
+    }
+
+    public SearchResult getLastResult() {
+        return this.mainSearch.getLastResult();
+    }
+
+    /**
+     * stops the helper threads, the search can't be used after it is closed
+     */
+    @Override
+    public void close() {
+        if(this.service != null) {
+            this.service.shutdownNow();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelSearch";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        final List<TimeManager> helperTimeManagers = new ArrayList<>();
+        final List<Future<Move>> helperSearches = new ArrayList<>();
+        for(final IterativeDeepening helper : this.helpers) {
+            final TimeManager helperTimeManager = TimeManager.infinite();
+            helper.setTimeManager(helperTimeManager);
+            helperTimeManagers.add(helperTimeManager);
+            helperSearches.add(this.service.submit(() -> helper.execute(board)));
+        }
+        try {
+            return this.mainSearch.execute(board);
+        } finally {
+            for(final TimeManager helperTimeManager : helperTimeManagers) {
+                helperTimeManager.stop();
+            }
+            for(final Future<Move> helperSearch : helperSearches) {
+                try {
+                    helperSearch.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("A search helper failed", e.getCause());
+                }
+            }
+        }
+    }
+}
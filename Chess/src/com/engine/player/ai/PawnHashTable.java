@@ -0,0 +1,96 @@
+package com.engine.player.ai;
+
+import com.engine.Alliance;
+import com.engine.board.Board;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PawnHashTable class that caches the PawnStructure of a board by the zobrist hash of its pawns
+ *
+ * The table is a fixed size array of longs, every entry takes ENTRY_SIZE longs: a check word and four data words.
+ * The check word is the key xor all the data words, so a reader that sees an entry half written by another
+ * thread gets a check that doesn't match and treats it as a miss. This way one table can be shared by
+ * the search threads without any locks. An empty entry (all zeros) only matches the key of a board without
+ * pawns, and the structure of such a board is all zeros too
+ */
+public final class PawnHashTable {
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+    private static final int ENTRY_SIZE = 5;
+
+    private final long[] entries;
+    private final int mask;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    public PawnHashTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * @param numberOfEntries is rounded down to a power of two
+     */
+    public PawnHashTable(final int numberOfEntries) {
+        final int size = Integer.highestOneBit(Math.max(numberOfEntries, 1));
+        this.entries = new long[size * ENTRY_SIZE];
+        this.mask = size - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Returns the pawn structure of the board from the table, or calculates and stores it when it is not there
+     * @param board is the board we need the pawn structure of
+     * @return the pawn structure of the board
+     */
+    public PawnStructure get(final Board board) {
+        final long key = board.getPawnZobristHash();
+        final int index = ((int) key & this.mask) * ENTRY_SIZE;
+        final long scores = this.entries[index + 1];
+        final long whitePassed = this.entries[index + 2];
+        final long blackPassed = this.entries[index + 3];
+        final long shields = this.entries[index + 4];
+        if((this.entries[index] ^ scores ^ whitePassed ^ blackPassed ^ shields) == key) {
+            this.hits.increment();
+            return new PawnStructure((int) (scores >> 32), (int) scores, whitePassed, blackPassed, shields);
+        }
+        this.misses.increment();
+        final PawnStructure pawnStructure = PawnStructure.calculate(board);
+        store(index, key, pawnStructure);
+        return pawnStructure;
+    }
+
+    private void store(final int index, final long key, final PawnStructure pawnStructure) {
+        final long scores = ((long) pawnStructure.getMiddleGameScore() << 32) |
+                ((pawnStructure.getEndGameScore() & 0xFFFFFFFFL));
+        final long whitePassed = pawnStructure.getPassedPawns(Alliance.WHITE);
+        final long blackPassed = pawnStructure.getPassedPawns(Alliance.BLACK);
+        final long shields = pawnStructure.getShields();
+        this.entries[index] = key ^ scores ^ whitePassed ^ blackPassed ^ shields;
+        this.entries[index + 1] = scores;
+        this.entries[index + 2] = whitePassed;
+        this.entries[index + 3] = blackPassed;
+        this.entries[index + 4] = shields;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void clear() {
+        Arrays.fill(this.entries, 0);
+        this.hits.reset();
+        this.misses.reset();
+    }
+}
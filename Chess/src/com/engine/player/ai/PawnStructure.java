@@ -0,0 +1,192 @@
+package com.engine.player.ai;
+
+import com.engine.Alliance;
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.pieces.Piece;
+import com.engine.pieces.PieceType;
+
+/**
+ * PawnStructure class that holds everything the evaluation needs to know about the pawns of a board:
+ * the doubled, isolated, backward and passed pawn score, the tiles of the passed pawns and the pawn shield
+ * of each wing (queen side, center, king side) for both alliances
+ *
+ * it depends only on the pawns, so it is calculated once per pawn structure and kept in the PawnHashTable
+ */
+public final class PawnStructure {
+    private static final int DOUBLED_MIDDLE_GAME = 10;
+    private static final int DOUBLED_END_GAME = 20;
+    private static final int ISOLATED_MIDDLE_GAME = 10;
+    private static final int ISOLATED_END_GAME = 15;
+    private static final int BACKWARD_MIDDLE_GAME = 8;
+    private static final int BACKWARD_END_GAME = 10;
+    private static final int[] PASSED_PAWN_MIDDLE_GAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_PAWN_END_GAME = {0, 10, 20, 35, 60, 100, 150, 0};
+    private static final int SHIELD_SECOND_RANK = 12;
+    private static final int SHIELD_THIRD_RANK = 6;
+    // the first file of the queen side, center and king side wings, each wing is three files wide
+    private static final int[] WING_FIRST_FILE = {0, 2, 5};
+    static final int WINGS = 3;
+
+    private final int middleGameScore;
+    private final int endGameScore;
+    private final long whitePassedPawns;
+    private final long blackPassedPawns;
+    // one byte per alliance and wing
+    private final long shields;
+
+    PawnStructure(final int middleGameScore, final int endGameScore, final long whitePassedPawns,
+                  final long blackPassedPawns, final long shields) {
+        this.middleGameScore = middleGameScore;
+        this.endGameScore = endGameScore;
+        this.whitePassedPawns = whitePassedPawns;
+        this.blackPassedPawns = blackPassedPawns;
+        this.shields = shields;
+    }
+
+    /**
+     * Calculates the pawn structure of a board from its pawns
+     * @param board is the board we look at
+     * @return the pawn structure of the board, the scores are from white's side
+     */
+    public static PawnStructure calculate(final Board board) {
+        // pawnRows[alliance][file] is a bit set of the rows the pawns of the alliance have on that file
+        final int[][] pawnRows = new int[2][BoardUtils.NUM_TILES_PER_ROW];
+        collectPawns(board.getWhitePieces(), pawnRows[0]);
+        collectPawns(board.getBlackPieces(), pawnRows[1]);
+        final int[] whiteScore = scoreAlliance(Alliance.WHITE, pawnRows[0], pawnRows[1]);
+        final int[] blackScore = scoreAlliance(Alliance.BLACK, pawnRows[1], pawnRows[0]);
+        long shields = 0;
+        for(int wing = 0; wing < WINGS; wing++) {
+            shields |= (long) shield(Alliance.WHITE, pawnRows[0], wing) << (8 * wing);
+            shields |= (long) shield(Alliance.BLACK, pawnRows[1], wing) << (8 * (WINGS + wing));
+        }
+        return new PawnStructure(whiteScore[0] - blackScore[0], whiteScore[1] - blackScore[1],
+                passedPawns(Alliance.WHITE, pawnRows[0], pawnRows[1]),
+                passedPawns(Alliance.BLACK, pawnRows[1], pawnRows[0]), shields);
+    }
+
+    public int getMiddleGameScore() {
+        return this.middleGameScore;
+    }
+
+    public int getEndGameScore() {
+        return this.endGameScore;
+    }
+
+    /**
+     * @return a bit set of the tiles of the passed pawns of the alliance, bit i is tile i
+     */
+    public long getPassedPawns(final Alliance alliance) {
+        return alliance.isWhite() ? this.whitePassedPawns : this.blackPassedPawns;
+    }
+
+    /**
+     * @return the pawn shield of the alliance in front of a king that stands on the given file
+     */
+    public int getShield(final Alliance alliance, final int kingFile) {
+        final int wing = kingFile <= 2 ? 0 : kingFile <= 4 ? 1 : 2;
+        return (int) (this.shields >>> (8 * ((alliance.isWhite() ? 0 : WINGS) + wing))) & 0xFF;
+    }
+
+    long getShields() {
+        return this.shields;
+    }
+
+    private static void collectPawns(final Iterable<Piece> pieces, final int[] pawnRows) {
+        for(final Piece piece : pieces) {
+            if(piece.getPieceType() == PieceType.PAWN) {
+                pawnRows[piece.getPiecePosition() % BoardUtils.NUM_TILES_PER_ROW] |=
+                        1 << (piece.getPiecePosition() / BoardUtils.NUM_TILES_PER_ROW);
+            }
+        }
+    }
+
+    private static int[] scoreAlliance(final Alliance alliance, final int[] ownRows, final int[] opponentRows) {
+        final int[] score = new int[2];
+        for(int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+            final int pawnsOnFile = Integer.bitCount(ownRows[file]);
+            if(pawnsOnFile == 0) {
+                continue;
+            }
+            if(pawnsOnFile > 1) {
+                score[0] -= (pawnsOnFile - 1) * DOUBLED_MIDDLE_GAME;
+                score[1] -= (pawnsOnFile - 1) * DOUBLED_END_GAME;
+            }
+            final int neighbourRows = rowsOn(ownRows, file - 1) | rowsOn(ownRows, file + 1);
+            for(int row = 0; row < BoardUtils.NUM_TILES_PER_ROW; row++) {
+                if((ownRows[file] & (1 << row)) == 0) {
+                    continue;
+                }
+                if(neighbourRows == 0) {
+                    score[0] -= ISOLATED_MIDDLE_GAME;
+                    score[1] -= ISOLATED_END_GAME;
+                } else if(isBackward(alliance, file, row, neighbourRows, opponentRows)) {
+                    score[0] -= BACKWARD_MIDDLE_GAME;
+                    score[1] -= BACKWARD_END_GAME;
+                }
+                if(isPassed(alliance, file, row, opponentRows)) {
+                    final int rank = alliance.isWhite() ? 7 - row : row;
+                    score[0] += PASSED_PAWN_MIDDLE_GAME[rank];
+                    score[1] += PASSED_PAWN_END_GAME[rank];
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * a backward pawn has no friendly pawn next to it or behind it, and the tile in front of it
+     * is attacked by an opponent pawn so it can't advance safely
+     */
+    private static boolean isBackward(final Alliance alliance, final int file, final int row,
+                                      final int neighbourRows, final int[] opponentRows) {
+        final int direction = alliance.getDirection();
+        final int behindOrLevel = direction < 0 ? ~((1 << row) - 1) : (1 << (row + 1)) - 1;
+        if((neighbourRows & behindOrLevel) != 0) {
+            return false;
+        }
+        final int stopRow = row + direction;
+        final int attackerRow = stopRow + direction;
+        if(attackerRow < 0 || attackerRow >= BoardUtils.NUM_TILES_PER_ROW) {
+            return false;
+        }
+        return ((rowsOn(opponentRows, file - 1) | rowsOn(opponentRows, file + 1)) & (1 << attackerRow)) != 0;
+    }
+
+    private static boolean isPassed(final Alliance alliance, final int file, final int row, final int[] opponentRows) {
+        final int ahead = alliance.isWhite() ? (1 << row) - 1 : ~((1 << (row + 1)) - 1);
+        final int blockers = rowsOn(opponentRows, file - 1) | rowsOn(opponentRows, file) | rowsOn(opponentRows, file + 1);
+        return (blockers & ahead) == 0;
+    }
+
+    private static long passedPawns(final Alliance alliance, final int[] ownRows, final int[] opponentRows) {
+        long passed = 0;
+        for(int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+            for(int row = 0; row < BoardUtils.NUM_TILES_PER_ROW; row++) {
+                if((ownRows[file] & (1 << row)) != 0 && isPassed(alliance, file, row, opponentRows)) {
+                    passed |= 1L << (row * BoardUtils.NUM_TILES_PER_ROW + file);
+                }
+            }
+        }
+        return passed;
+    }
+
+    private static int shield(final Alliance alliance, final int[] ownRows, final int wing) {
+        final int secondRow = alliance.isWhite() ? 6 : 1;
+        final int thirdRow = secondRow + alliance.getDirection();
+        int shield = 0;
+        for(int file = WING_FIRST_FILE[wing]; file < WING_FIRST_FILE[wing] + 3; file++) {
+            if((ownRows[file] & (1 << secondRow)) != 0) {
+                shield += SHIELD_SECOND_RANK;
+            } else if((ownRows[file] & (1 << thirdRow)) != 0) {
+                shield += SHIELD_THIRD_RANK;
+            }
+        }
+        return shield;
+    }
+
+    private static int rowsOn(final int[] pawnRows, final int file) {
+        return file < 0 || file >= BoardUtils.NUM_TILES_PER_ROW ? 0 : pawnRows[file];
+    }
+}
@@ -0,0 +1,484 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.pieces.Piece;
+import com.google.common.collect.Iterables;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * PlayoutBoard class that is a mutable board of plain ints for the random games of the MonteCarloTreeSearch
+ *
+ * A Board is immutable and computes the legal moves of both players when it is built, which is right for the
+ * search but far too slow to play thousands of random games a second. This board is changed in place: a move is
+ * made and unmade on the same arrays, the moves are pseudo-legal ints in a buffer and a move is legal when the
+ * king of the player that made it is not attacked after it.
+ *
+ * The tiles are numbered like the board (0 is a8, 63 is h1). A piece is its PieceType ordinal + 1, plus 8 for
+ * black. A move is the tile it starts on, the tile it ends on shifted by 6 and a flag shifted by 12.
+ * Pawns promote to queens only, like on the board
+ */
+public final class PlayoutBoard {
+    public static final int MAX_MOVES = 256;
+    public static final int WHITE_WINS = 1;
+    public static final int DRAW = 0;
+    public static final int BLACK_WINS = -1;
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+    static final int PAWN = 1;
+    static final int KNIGHT = 2;
+    static final int BISHOP = 3;
+    static final int ROOK = 4;
+    static final int QUEEN = 5;
+    static final int KING = 6;
+    static final int BLACK_PIECE = 8;
+    static final int DOUBLE_PUSH = 1;
+    static final int EN_PASSANT = 2;
+    static final int CASTLE = 3;
+    static final int PROMOTION = 4;
+    private static final int[] PIECE_VALUES = {0, 1, 3, 3, 5, 9, 0};
+    // a random game that is cut is won by the side that is this many pawns ahead
+    private static final int WINNING_MATERIAL = 3;
+    private static final int[] ROW_STEPS = {-1, 0, 0, 1, -1, -1, 1, 1};
+    private static final int[] COLUMN_STEPS = {0, -1, 1, 0, -1, 1, -1, 1};
+    private static final int[][] KNIGHT_TARGETS = stepTargets(new int[]{-2, -2, -1, -1, 1, 1, 2, 2},
+            new int[]{-1, 1, -2, 2, -2, 2, -1, 1});
+    private static final int[][] KING_TARGETS = stepTargets(ROW_STEPS, COLUMN_STEPS);
+    // the tiles from a tile to the edge in every direction, the first 4 directions are straight, the rest diagonal
+    private static final int[][][] RAYS = initializeRays();
+    // the castling rights that stay when a piece moves from or to a tile
+    private static final int[] CASTLING_MASKS = initializeCastlingMasks();
+
+    final int[] squares = new int[BoardUtils.NUM_TILES];
+    final int[] kingSquares = new int[2];
+    int sideToMove;
+    int castlingRights;
+    int enPassantSquare = -1;
+    int halfMoveClock;
+
+    /**
+     * Creates the playout board of a board
+     * @param board is the board we copy
+     * @return the playout board with the same pieces, player, castling rights and en passant tile
+     */
+    public static PlayoutBoard of(final Board board) {
+        final PlayoutBoard playoutBoard = new PlayoutBoard();
+        for(final Piece piece : Iterables.concat(board.getWhitePieces(), board.getBlackPieces())) {
+            final int color = piece.getPieceAlliance().isWhite() ? WHITE : BLACK;
+            final int code = piece.getPieceType().ordinal() + 1 + (color == BLACK ? BLACK_PIECE : 0);
+            playoutBoard.squares[piece.getPiecePosition()] = code;
+            if(code % BLACK_PIECE == KING) {
+                playoutBoard.kingSquares[color] = piece.getPiecePosition();
+            }
+        }
+        playoutBoard.sideToMove = board.getCurrentPlayer().getAlliance().isWhite() ? WHITE : BLACK;
+        playoutBoard.castlingRights = BoardUtils.calculateCastlingRights(board);
+        if(board.getEnPassantPawn() != null) {
+            // the tile the pawn jumped over
+            final int pawnSquare = board.getEnPassantPawn().getPiecePosition();
+            playoutBoard.enPassantSquare = pawnSquare + (playoutBoard.sideToMove == WHITE ? -8 : 8);
+        }
+        return playoutBoard;
+    }
+
+    public void copyFrom(final PlayoutBoard other) {
+        System.arraycopy(other.squares, 0, this.squares, 0, this.squares.length);
+        this.kingSquares[WHITE] = other.kingSquares[WHITE];
+        this.kingSquares[BLACK] = other.kingSquares[BLACK];
+        this.sideToMove = other.sideToMove;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfMoveClock = other.halfMoveClock;
+    }
+
+    public boolean isWhiteToMove() {
+        return this.sideToMove == WHITE;
+    }
+
+    public boolean isInCheck() {
+        return isAttacked(this.kingSquares[this.sideToMove], this.sideToMove ^ 1);
+    }
+
+    public static int from(final int move) {
+        return move & 63;
+    }
+
+    public static int to(final int move) {
+        return move >>> 6 & 63;
+    }
+
+    static int flag(final int move) {
+        return move >>> 12;
+    }
+
+    private static int move(final int from, final int to, final int flag) {
+        return from | to << 6 | flag << 12;
+    }
+
+    /**
+     * Generates the pseudo-legal moves of the player to move, moves that leave the own king attacked are included
+     * @param moves is filled with the moves, it needs MAX_MOVES places
+     * @return the number of moves
+     */
+    public int generateMoves(final int[] moves) {
+        final int side = this.sideToMove;
+        int count = 0;
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final int piece = this.squares[square];
+            if(piece == 0 || colorOf(piece) != side) {
+                continue;
+            }
+            switch(piece & 7) {
+                case PAWN:
+                    count = generatePawnMoves(square, moves, count);
+                    break;
+                case KNIGHT:
+                    count = generateStepMoves(square, KNIGHT_TARGETS[square], moves, count);
+                    break;
+                case KING:
+                    count = generateStepMoves(square, KING_TARGETS[square], moves, count);
+                    count = generateCastles(moves, count);
+                    break;
+                case BISHOP:
+                    count = generateSlidingMoves(square, 4, 8, moves, count);
+                    break;
+                case ROOK:
+                    count = generateSlidingMoves(square, 0, 4, moves, count);
+                    break;
+                default:
+                    count = generateSlidingMoves(square, 0, 8, moves, count);
+            }
+        }
+        return count;
+    }
+
+    private int generatePawnMoves(final int square, final int[] moves, int count) {
+        final int direction = this.sideToMove == WHITE ? -8 : 8;
+        final int startRow = this.sideToMove == WHITE ? 6 : 1;
+        final int promotionRow = this.sideToMove == WHITE ? 0 : 7;
+        final int oneStep = square + direction;
+        final boolean promotes = oneStep / 8 == promotionRow;
+        if(this.squares[oneStep] == 0) {
+            moves[count++] = move(square, oneStep, promotes ? PROMOTION : 0);
+            if(square / 8 == startRow && this.squares[oneStep + direction] == 0) {
+                moves[count++] = move(square, oneStep + direction, DOUBLE_PUSH);
+            }
+        }
+        final int column = square % 8;
+        for(int side = -1; side <= 1; side += 2) {
+            if(column + side < 0 || column + side > 7) {
+                continue;
+            }
+            final int target = oneStep + side;
+            final int captured = this.squares[target];
+            if(captured != 0 && colorOf(captured) != this.sideToMove) {
+                moves[count++] = move(square, target, promotes ? PROMOTION : 0);
+            } else if(target == this.enPassantSquare) {
+                moves[count++] = move(square, target, EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+    private int generateStepMoves(final int square, final int[] targets, final int[] moves, int count) {
+        for(final int target : targets) {
+            final int captured = this.squares[target];
+            if(captured == 0 || colorOf(captured) != this.sideToMove) {
+                moves[count++] = move(square, target, 0);
+            }
+        }
+        return count;
+    }
+
+    private int generateSlidingMoves(final int square, final int firstDirection, final int lastDirection,
+                                     final int[] moves, int count) {
+        for(int direction = firstDirection; direction < lastDirection; direction++) {
+            for(final int target : RAYS[square][direction]) {
+                final int captured = this.squares[target];
+                if(captured == 0) {
+                    moves[count++] = move(square, target, 0);
+                    continue;
+                }
+                if(colorOf(captured) != this.sideToMove) {
+                    moves[count++] = move(square, target, 0);
+                }
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * castling is checked completely here, the king may not be in check or pass an attacked tile
+     */
+    private int generateCastles(final int[] moves, int count) {
+        final int side = this.sideToMove;
+        final int king = side == WHITE ? 60 : 4;
+        if(this.kingSquares[side] != king || isAttacked(king, side ^ 1)) {
+            return count;
+        }
+        final int kingSideRight = side == WHITE ? BoardUtils.WHITE_KING_SIDE : BoardUtils.BLACK_KING_SIDE;
+        final int queenSideRight = side == WHITE ? BoardUtils.WHITE_QUEEN_SIDE : BoardUtils.BLACK_QUEEN_SIDE;
+        if((this.castlingRights & kingSideRight) != 0 && this.squares[king + 1] == 0 && this.squares[king + 2] == 0 &&
+                !isAttacked(king + 1, side ^ 1) && !isAttacked(king + 2, side ^ 1)) {
+            moves[count++] = move(king, king + 2, CASTLE);
+        }
+        if((this.castlingRights & queenSideRight) != 0 && this.squares[king - 1] == 0 &&
+                this.squares[king - 2] == 0 && this.squares[king - 3] == 0 &&
+                !isAttacked(king - 1, side ^ 1) && !isAttacked(king - 2, side ^ 1)) {
+            moves[count++] = move(king, king - 2, CASTLE);
+        }
+        return count;
+    }
+
+    /**
+     * Makes a move on the board
+     * @param move is a pseudo-legal move of the player to move
+     * @return what unmakeMove needs to take the move back
+     */
+    public int makeMove(final int move) {
+        final int from = from(move);
+        final int to = to(move);
+        final int flag = flag(move);
+        final int piece = this.squares[from];
+        int captured = this.squares[to];
+        final int undo = this.castlingRights << 4 | (this.enPassantSquare + 1) << 8 | this.halfMoveClock << 15;
+        if(flag == EN_PASSANT) {
+            final int capturedSquare = to + (this.sideToMove == WHITE ? 8 : -8);
+            captured = this.squares[capturedSquare];
+            this.squares[capturedSquare] = 0;
+        }
+        this.squares[to] = flag == PROMOTION ? QUEEN | (piece & BLACK_PIECE) : piece;
+        this.squares[from] = 0;
+        if(flag == CASTLE) {
+            moveCastleRook(to, false);
+        }
+        if((piece & 7) == KING) {
+            this.kingSquares[this.sideToMove] = to;
+        }
+        this.castlingRights &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+        this.enPassantSquare = flag == DOUBLE_PUSH ? (from + to) / 2 : -1;
+        this.halfMoveClock = (piece & 7) == PAWN || captured != 0 ? 0 : this.halfMoveClock + 1;
+        this.sideToMove ^= 1;
+        return undo | captured;
+    }
+
+    public void unmakeMove(final int move, final int undo) {
+        final int from = from(move);
+        final int to = to(move);
+        final int flag = flag(move);
+        this.sideToMove ^= 1;
+        final int piece = flag == PROMOTION ? PAWN | (this.squares[to] & BLACK_PIECE) : this.squares[to];
+        final int captured = undo & 15;
+        this.squares[from] = piece;
+        if(flag == EN_PASSANT) {
+            this.squares[to] = 0;
+            this.squares[to + (this.sideToMove == WHITE ? 8 : -8)] = captured;
+        } else {
+            this.squares[to] = captured;
+        }
+        if(flag == CASTLE) {
+            moveCastleRook(to, true);
+        }
+        if((piece & 7) == KING) {
+            this.kingSquares[this.sideToMove] = from;
+        }
+        this.castlingRights = undo >>> 4 & 15;
+        this.enPassantSquare = (undo >>> 8 & 127) - 1;
+        this.halfMoveClock = undo >>> 15;
+    }
+
+    private void moveCastleRook(final int kingDestination, final boolean back) {
+        final int rookFrom = kingDestination % 8 == 6 ? kingDestination + 1 : kingDestination - 2;
+        final int rookTo = kingDestination % 8 == 6 ? kingDestination - 1 : kingDestination + 1;
+        if(back) {
+            this.squares[rookFrom] = this.squares[rookTo];
+            this.squares[rookTo] = 0;
+        } else {
+            this.squares[rookTo] = this.squares[rookFrom];
+            this.squares[rookFrom] = 0;
+        }
+    }
+
+    /**
+     * @return true if the player that just moved didn't leave its king attacked
+     */
+    public boolean isLegalAfterMove() {
+        final int mover = this.sideToMove ^ 1;
+        return !isAttacked(this.kingSquares[mover], this.sideToMove);
+    }
+
+    /**
+     * Generates the legal moves of the player to move
+     * @param moves is filled with the moves, it needs MAX_MOVES places
+     * @return the number of legal moves
+     */
+    public int generateLegalMoves(final int[] moves) {
+        final int pseudoLegalCount = generateMoves(moves);
+        int count = 0;
+        for(int i = 0; i < pseudoLegalCount; i++) {
+            final int undo = makeMove(moves[i]);
+            if(isLegalAfterMove()) {
+                moves[count++] = moves[i];
+            }
+            unmakeMove(moves[i], undo);
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a tile is attacked by a player
+     * @param square is the tile
+     * @param color is the attacking player
+     * @return true if a piece of the player attacks the tile
+     */
+    boolean isAttacked(final int square, final int color) {
+        final int colorBit = color == BLACK ? BLACK_PIECE : 0;
+        // a white pawn attacks upwards, so it is found one row below the tile
+        final int pawnRow = square / 8 + (color == WHITE ? 1 : -1);
+        if(pawnRow >= 0 && pawnRow < 8) {
+            final int column = square % 8;
+            if(column > 0 && this.squares[pawnRow * 8 + column - 1] == (PAWN | colorBit) ||
+                    column < 7 && this.squares[pawnRow * 8 + column + 1] == (PAWN | colorBit)) {
+                return true;
+            }
+        }
+        for(final int target : KNIGHT_TARGETS[square]) {
+            if(this.squares[target] == (KNIGHT | colorBit)) {
+                return true;
+            }
+        }
+        for(final int target : KING_TARGETS[square]) {
+            if(this.squares[target] == (KING | colorBit)) {
+                return true;
+            }
+        }
+        for(int direction = 0; direction < 8; direction++) {
+            final int slider = direction < 4 ? ROOK : BISHOP;
+            for(final int target : RAYS[square][direction]) {
+                final int piece = this.squares[target];
+                if(piece == 0) {
+                    continue;
+                }
+                if(piece == (slider | colorBit) || piece == (QUEEN | colorBit)) {
+                    return true;
+                }
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Plays random legal moves until the game ends or is cut, the board is changed
+     * @param random is the random generator of the thread
+     * @param moves is a buffer of MAX_MOVES places
+     * @param maxPlies is the number of moves after which the game is cut and judged by the material
+     * @return WHITE_WINS, DRAW or BLACK_WINS
+     */
+    public int playRandomGame(final Random random, final int[] moves, final int maxPlies) {
+        for(int ply = 0; ply < maxPlies; ply++) {
+            if(this.halfMoveClock >= 100 || isBareKings()) {
+                return DRAW;
+            }
+            int count = generateMoves(moves);
+            boolean moved = false;
+            while(count > 0) {
+                // a random move that turns out illegal is swapped out of the buffer and another one is tried
+                final int index = random.nextInt(count);
+                final int move = moves[index];
+                final int undo = makeMove(move);
+                if(isLegalAfterMove()) {
+                    moved = true;
+                    break;
+                }
+                unmakeMove(move, undo);
+                moves[index] = moves[--count];
+            }
+            if(!moved) {
+                if(!isInCheck()) {
+                    return DRAW;
+                }
+                return this.sideToMove == WHITE ? BLACK_WINS : WHITE_WINS;
+            }
+        }
+        final int material = materialBalance();
+        return material >= WINNING_MATERIAL ? WHITE_WINS : material <= -WINNING_MATERIAL ? BLACK_WINS : DRAW;
+    }
+
+    /**
+     * @return the material of white minus the material of black in pawns
+     */
+    int materialBalance() {
+        int balance = 0;
+        for(final int piece : this.squares) {
+            if(piece != 0) {
+                balance += colorOf(piece) == WHITE ? PIECE_VALUES[piece & 7] : -PIECE_VALUES[piece & 7];
+            }
+        }
+        return balance;
+    }
+
+    private boolean isBareKings() {
+        for(final int piece : this.squares) {
+            if(piece != 0 && (piece & 7) != KING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int colorOf(final int piece) {
+        return piece >>> 3;
+    }
+
+    private static int[][] stepTargets(final int[] rowSteps, final int[] columnSteps) {
+        final int[][] targets = new int[BoardUtils.NUM_TILES][];
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final int[] buffer = new int[rowSteps.length];
+            int count = 0;
+            for(int i = 0; i < rowSteps.length; i++) {
+                final int row = square / 8 + rowSteps[i];
+                final int column = square % 8 + columnSteps[i];
+                if(row >= 0 && row < 8 && column >= 0 && column < 8) {
+                    buffer[count++] = row * 8 + column;
+                }
+            }
+            targets[square] = Arrays.copyOf(buffer, count);
+        }
+        return targets;
+    }
+
+    private static int[][][] initializeRays() {
+        final int[][][] rays = new int[BoardUtils.NUM_TILES][ROW_STEPS.length][];
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            for(int direction = 0; direction < ROW_STEPS.length; direction++) {
+                final int[] buffer = new int[7];
+                int count = 0;
+                int row = square / 8 + ROW_STEPS[direction];
+                int column = square % 8 + COLUMN_STEPS[direction];
+                while(row >= 0 && row < 8 && column >= 0 && column < 8) {
+                    buffer[count++] = row * 8 + column;
+                    row += ROW_STEPS[direction];
+                    column += COLUMN_STEPS[direction];
+                }
+                rays[square][direction] = Arrays.copyOf(buffer, count);
+            }
+        }
+        return rays;
+    }
+
+    private static int[] initializeCastlingMasks() {
+        final int[] masks = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(masks, 15);
+        masks[60] &= ~(BoardUtils.WHITE_KING_SIDE | BoardUtils.WHITE_QUEEN_SIDE);
+        masks[63] &= ~BoardUtils.WHITE_KING_SIDE;
+        masks[56] &= ~BoardUtils.WHITE_QUEEN_SIDE;
+        masks[4] &= ~(BoardUtils.BLACK_KING_SIDE | BoardUtils.BLACK_QUEEN_SIDE);
+        masks[7] &= ~BoardUtils.BLACK_KING_SIDE;
+        masks[0] &= ~BoardUtils.BLACK_QUEEN_SIDE;
+        return masks;
+    }
+}
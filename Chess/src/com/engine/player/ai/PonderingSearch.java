@@ -0,0 +1,134 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PonderingSearch class that lets the engine think on the opponent's time
+ *
+ * After the engine moves, the best reply the transposition table has for the opponent is taken as the expected
+ * move and the position after it is searched in the background without a time limit. When the opponent plays the
+ * expected move (a ponder hit) the running search just gets the budget of the move and goes on from the depth it
+ * reached. When he plays another move (a ponder miss) the pondering search is stopped and a new search starts,
+ * the transposition table it filled is shared so the new search is not starting from nothing either.
+ *
+ * The search itself is not thread safe, only one of them runs at a time: a new search waits for the pondering
+ * search to stop first
+ */
+public final class PonderingSearch {
+    private final IterativeDeepening search;
+    private final ExecutorService ponderService;
+    private Future<Move> ponderResult;
+    private TimeManager ponderTimeManager;
+    private Board ponderBoard;
+    private Move expectedMove;
+    private int ponderHits;
+    private int ponderMisses;
+
+    public PonderingSearch() {
+        this(new IterativeDeepening());
+    }
+
+    public PonderingSearch(final IterativeDeepening search) {
+        this.search = search;
+        this.ponderService = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Ponder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches the move of the current player, the pondering search is used when it searched this position
+     * @param board is the position after the opponent's move
+     * @param timeManager is the budget of the move
+     * @return the best move of the current player
+     */
+    public synchronized Move search(final Board board, final TimeManager timeManager) {
+        if(this.ponderResult != null && this.ponderBoard.getZobristHash() == board.getZobristHash()) {
+            this.ponderHits++;
+            this.ponderTimeManager.ponderHit(timeManager);
+            final Move move = awaitPonderResult();
+            if(move != null) {
+                return move;
+            }
+        } else if(this.ponderResult != null) {
+            this.ponderMisses++;
+            stopPondering();
+        }
+        this.search.setTimeManager(timeManager);
+        return this.search.execute(board);
+    }
+
+    /**
+     * Starts searching the expected reply of the opponent in the background
+     * @param board is the position after the engine's move, the opponent is to move
+     * @return true if the transposition table had a reply to ponder on
+     */
+    public synchronized boolean startPondering(final Board board) {
+        stopPondering();
+        final Move reply = this.search.getTranspositionTable().getBestMove(board);
+        if(reply == null) {
+            return false;
+        }
+        this.expectedMove = reply;
+        this.ponderBoard = board.getCurrentPlayer().makeMove(reply).getTransitionBoard();
+        this.ponderTimeManager = TimeManager.forPondering();
+        this.search.setTimeManager(this.ponderTimeManager);
+        final Board boardToSearch = this.ponderBoard;
+        this.ponderResult = this.ponderService.submit(() -> this.search.execute(boardToSearch));
+        return true;
+    }
+
+    /**
+     * stops the pondering search and waits for it, called when the game is reset or the engine stops playing
+     */
+    public synchronized void stopPondering() {
+        if(this.ponderResult != null) {
+            this.ponderTimeManager.stop();
+            awaitPonderResult();
+        }
+    }
+
+    public synchronized boolean isPondering() {
+        return this.ponderResult != null;
+    }
+
+    /**
+     * @return the move of the opponent the engine ponders on, or null when it doesn't ponder
+     */
+    public synchronized Move getExpectedMove() {
+        return this.ponderResult != null ? this.expectedMove : null;
+    }
+
+    public IterativeDeepening getSearch() {
+        return this.search;
+    }
+
+    public synchronized int getPonderHits() {
+        return this.ponderHits;
+    }
+
+    public synchronized int getPonderMisses() {
+        return this.ponderMisses;
+    }
+
+    private Move awaitPonderResult() {
+        try {
+            return this.ponderResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("The pondering search failed", e.getCause());
+        } finally {
+            this.ponderResult = null;
+            this.ponderBoard = null;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.player.MoveTransition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ProofNumberSearch class that proves forced mates with a depth-first proof-number search (df-pn)
+ *
+ * Alpha-beta searches every move to the same depth, but in a mating attack the defender often has one or two
+ * replies to a check and many to a quiet move. The proof-number search always expands the position that is the
+ * cheapest to prove or disprove: the proof number of a position is how many leaves still have to be shown to be
+ * mates to prove it, the disproof number how many escapes have to be found to disprove it. So the narrow check
+ * sequences are followed first and deep, and the wide quiet branches wait.
+ *
+ * The numbers are kept from the side of the player to move (phi and delta), so the attacker's and the defender's
+ * positions are handled by the same code. The depth-first version keeps only the current path on the stack and
+ * the numbers of the other positions in a ProofNumberTable of a fixed size, a position is left when its numbers
+ * pass the thresholds its parent gave it.
+ *
+ * A mate in n moves is searched with n = 1, 2, ... so the first mate found is the shortest one. The same position
+ * with a different number of plies left is a different entry of the table, that way no cycles can happen
+ */
+public final class ProofNumberSearch {
+    public static final int INFINITY = Integer.MAX_VALUE / 4;
+    private static final int MAX_PLIES = 256;
+    // mixed into the zobrist hash so every number of plies left has its own entries
+    private static final long[] PLIES_KEYS = initializePliesKeys();
+
+    private final long maxNodes;
+    private final boolean checksOnly;
+    private final ProofNumberTable table;
+    private long nodes;
+
+    private ProofNumberSearch(final Builder builder) {
+        this.maxNodes = builder.maxNodes;
+        this.checksOnly = builder.checksOnly;
+        this.table = new ProofNumberTable(builder.hashSize);
+    }
+
+    /**
+     * Searches the shortest forced mate of the player to move
+     * @param board is the board we search
+     * @param maxMoves is the longest mate we look for, in moves of the player to move
+     * @return the mate and its line, or no mate, or unknown when the node budget ran out
+     */
+    public MateSearchResult solve(final Board board, final int maxMoves) {
+        this.nodes = 0;
+        for(int mateIn = 1; mateIn <= maxMoves && 2 * mateIn - 1 < MAX_PLIES; mateIn++) {
+            final long numbers = prove(board, 2 * mateIn - 1);
+            if(ProofNumberTable.phi(numbers) == 0) {
+                final List<Move> line = new ArrayList<>();
+                findLine(board, 2 * mateIn - 1, line);
+                return new MateSearchResult(MateSearchResult.Status.MATE, mateIn, line, this.nodes);
+            }
+            if(isOutOfNodes()) {
+                return new MateSearchResult(MateSearchResult.Status.UNKNOWN, 0, Collections.emptyList(), this.nodes);
+            }
+        }
+        return new MateSearchResult(MateSearchResult.Status.NO_MATE, 0, Collections.emptyList(), this.nodes);
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * searches the position until it is proven or disproven, or the node budget runs out
+     * @return the numbers of the position packed by ProofNumberTable.pack
+     */
+    private long prove(final Board board, final int pliesLeft) {
+        final long numbers = this.table.probe(key(board, pliesLeft));
+        if(numbers != ProofNumberTable.NOT_FOUND && (ProofNumberTable.phi(numbers) == 0 ||
+                ProofNumberTable.delta(numbers) == 0)) {
+            return numbers;
+        }
+        return search(board, pliesLeft, INFINITY, INFINITY);
+    }
+
+    /**
+     * The function searches a position until its phi or delta reaches the threshold
+     * @param board is the position, the attacker is to move when the plies left are odd
+     * @param pliesLeft is the number of plies until the mate must be on the board
+     * @return the numbers of the position packed by ProofNumberTable.pack
+     */
+    private long search(final Board board, final int pliesLeft, final int thresholdPhi, final int thresholdDelta) {
+        this.nodes++;
+        final long startNodes = this.nodes;
+        final long key = key(board, pliesLeft);
+        if(pliesLeft == 0) {
+            // the defender is mated, or it is still alive when the time for the mate is up
+            final long numbers = board.getCurrentPlayer().isInCheckMate() ? ProofNumberTable.pack(INFINITY, 0) :
+                    ProofNumberTable.pack(0, INFINITY);
+            this.table.store(key, ProofNumberTable.phi(numbers), ProofNumberTable.delta(numbers), 1);
+            return numbers;
+        }
+        final List<Move> moves = new ArrayList<>();
+        final List<Board> children = new ArrayList<>();
+        generateChildren(board, pliesLeft, moves, children);
+        if(children.isEmpty()) {
+            // the attacker has no move that can still mate in time, or the defender is mated or stalemated
+            final boolean lost = pliesLeft % 2 == 1 || board.getCurrentPlayer().isInCheck();
+            final long numbers = lost ? ProofNumberTable.pack(INFINITY, 0) : ProofNumberTable.pack(0, INFINITY);
+            this.table.store(key, ProofNumberTable.phi(numbers), ProofNumberTable.delta(numbers), 1);
+            return numbers;
+        }
+        final int[] childPhi = new int[children.size()];
+        final int[] childDelta = new int[children.size()];
+        for(int i = 0; i < children.size(); i++) {
+            final long numbers = initialNumbers(children.get(i), pliesLeft - 1);
+            childPhi[i] = ProofNumberTable.phi(numbers);
+            childDelta[i] = ProofNumberTable.delta(numbers);
+        }
+        while(true) {
+            // the phi of a position is the smallest delta of its children, its delta the sum of their phi
+            int phi = INFINITY;
+            long delta = 0;
+            int best = 0;
+            int secondDelta = INFINITY;
+            for(int i = 0; i < children.size(); i++) {
+                delta += childPhi[i];
+                if(childDelta[i] < phi) {
+                    secondDelta = phi;
+                    phi = childDelta[i];
+                    best = i;
+                } else if(childDelta[i] < secondDelta) {
+                    secondDelta = childDelta[i];
+                }
+            }
+            final int clampedDelta = (int) Math.min(delta, INFINITY);
+            if(phi >= thresholdPhi || clampedDelta >= thresholdDelta || isOutOfNodes()) {
+                this.table.store(key, phi, clampedDelta, this.nodes - startNodes + 1);
+                return ProofNumberTable.pack(phi, clampedDelta);
+            }
+            final int bestThresholdPhi = (int) Math.min((long) thresholdDelta - clampedDelta + childPhi[best], INFINITY);
+            final int bestThresholdDelta = (int) Math.min(thresholdPhi, (long) secondDelta + 1);
+            final long numbers = search(children.get(best), pliesLeft - 1, bestThresholdPhi, bestThresholdDelta);
+            childPhi[best] = ProofNumberTable.phi(numbers);
+            childDelta[best] = ProofNumberTable.delta(numbers);
+        }
+    }
+
+    /**
+     * the numbers of a child from the table, a child that is not there starts at 1 and 1
+     */
+    private long initialNumbers(final Board board, final int pliesLeft) {
+        final long numbers = this.table.probe(key(board, pliesLeft));
+        return numbers != ProofNumberTable.NOT_FOUND ? numbers : ProofNumberTable.pack(1, 1);
+    }
+
+    /**
+     * Generates the legal moves of the position. The attacker's last move has to be a check, and with checksOnly
+     * all its moves have to be checks
+     */
+    private void generateChildren(final Board board, final int pliesLeft, final List<Move> moves,
+                                  final List<Board> children) {
+        final boolean attacker = pliesLeft % 2 == 1;
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final Board child = transition.getTransitionBoard();
+            if(attacker && (this.checksOnly || pliesLeft == 1) && !child.getCurrentPlayer().isInCheck()) {
+                continue;
+            }
+            moves.add(move);
+            children.add(child);
+        }
+    }
+
+    /**
+     * follows the proven children from the root to the mate, a child that was replaced in the table is proven again
+     */
+    private void findLine(final Board board, final int pliesLeft, final List<Move> line) {
+        if(pliesLeft == 0) {
+            return;
+        }
+        final List<Move> moves = new ArrayList<>();
+        final List<Board> children = new ArrayList<>();
+        generateChildren(board, pliesLeft, moves, children);
+        final boolean attacker = pliesLeft % 2 == 1;
+        for(int i = 0; i < children.size(); i++) {
+            final long numbers = prove(children.get(i), pliesLeft - 1);
+            // the attacker plays a move to a lost position, the defender any move since all of them are lost
+            if(!attacker || ProofNumberTable.delta(numbers) == 0) {
+                line.add(moves.get(i));
+                findLine(children.get(i), pliesLeft - 1, line);
+                return;
+            }
+        }
+    }
+
+    private boolean isOutOfNodes() {
+        return this.nodes >= this.maxNodes;
+    }
+
+    private static long key(final Board board, final int pliesLeft) {
+        return board.getZobristHash() ^ PLIES_KEYS[pliesLeft];
+    }
+
+    private static long[] initializePliesKeys() {
+        final Random random = new Random(MAX_PLIES);
+        final long[] keys = new long[MAX_PLIES];
+        for(int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    /**
+     * Solves a suite of mate problems and prints the solving rate. Every line of the file is an EPD or FEN with the
+     * length of the mate in a "dm" operation, like "kbK5/pp6/1P6/8/8/8/8/R7 w - - dm 2;"
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: ProofNumberSearch <suite.epd> [maxNodes] [hashMegabytes]");
+            return;
+        }
+        final Builder builder = new Builder();
+        if(args.length > 1) {
+            builder.setMaxNodes(Long.parseLong(args[1]));
+        }
+        if(args.length > 2) {
+            builder.setHashSize(Long.parseLong(args[2]) << 20);
+        }
+        final Pattern mateOperation = Pattern.compile("\\bdm\\s+(\\d+)");
+        int problems = 0;
+        int solved = 0;
+        long totalNodes = 0;
+        final long startTime = System.nanoTime();
+        for(final String line : Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            final Matcher matcher = mateOperation.matcher(line);
+            if(!matcher.find()) {
+                continue;
+            }
+            final int mateIn = Integer.parseInt(matcher.group(1));
+            final Board board = FenUtilities.createGameFromFEN(line.substring(0, matcher.start()));
+            final MateSearchResult result = builder.build().solve(board, mateIn);
+            problems++;
+            totalNodes += result.getNodes();
+            if(result.isMate() && result.getMateIn() == mateIn) {
+                solved++;
+            }
+            System.out.println(line.substring(0, matcher.start()).trim() + " -> " + result);
+        }
+        final long milliseconds = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+        System.out.println("solved " + solved + " of " + problems + " (" + (problems == 0 ? 0 : 100 * solved / problems) +
+                "%), " + totalNodes + " nodes in " + milliseconds + " ms, " + totalNodes * 1000 / milliseconds + " nodes/s");
+    }
+
+    public static class Builder {
+        long maxNodes = 1_000_000;
+        long hashSize = 64L << 20;
+        boolean checksOnly;
+
+        /**
+         * sets the number of positions the search may expand before it gives up
+         */
+        public Builder setMaxNodes(final long maxNodes) {
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        /**
+         * sets the memory of the proof number table in bytes, an entry takes 20 bytes
+         */
+        public Builder setHashSize(final long hashSize) {
+            this.hashSize = hashSize;
+            return this;
+        }
+
+        /**
+         * when set the attacker only plays checks, which solves mates by checks much faster
+         */
+        public Builder setChecksOnly(final boolean checksOnly) {
+            this.checksOnly = checksOnly;
+            return this;
+        }
+
+        public ProofNumberSearch build() {
+            return new ProofNumberSearch(this);
+        }
+    }
+}
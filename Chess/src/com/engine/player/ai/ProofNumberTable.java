@@ -0,0 +1,77 @@
+package com.engine.player.ai;
+
+/**
+ * ProofNumberTable class that keeps the proof and disproof numbers of the positions the ProofNumberSearch visited
+ *
+ * The table has a fixed size given in bytes, so a long solve never runs out of memory, it only forgets. Every key
+ * has a bucket of two entries, a new position replaces the entry that took less work to find (the number of nodes
+ * searched under it), so the expensive results stay and the cheap ones near the leaves are searched again
+ */
+final class ProofNumberTable {
+    static final int ENTRY_BYTES = 20;
+    static final long NOT_FOUND = -1;
+    private static final int BUCKET_SIZE = 2;
+
+    private final long[] keys;
+    private final long[] numbers;
+    private final int[] works;
+    private final int mask;
+
+    /**
+     * @param sizeInBytes is the memory the table may take, the number of buckets is rounded down to a power of two
+     */
+    ProofNumberTable(final long sizeInBytes) {
+        final long buckets = Math.max(sizeInBytes / (ENTRY_BYTES * BUCKET_SIZE), 1);
+        final int size = Integer.highestOneBit((int) Math.min(buckets, 1 << 28));
+        this.keys = new long[size * BUCKET_SIZE];
+        this.numbers = new long[size * BUCKET_SIZE];
+        this.works = new int[size * BUCKET_SIZE];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return the proof numbers of the key packed by pack, or NOT_FOUND
+     */
+    long probe(final long key) {
+        final int index = ((int) key & this.mask) * BUCKET_SIZE;
+        for(int i = index; i < index + BUCKET_SIZE; i++) {
+            if(this.keys[i] == key) {
+                return this.numbers[i];
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    void store(final long key, final int phi, final int delta, final long work) {
+        final int index = ((int) key & this.mask) * BUCKET_SIZE;
+        int replaced = index;
+        for(int i = index; i < index + BUCKET_SIZE; i++) {
+            if(this.keys[i] == key) {
+                replaced = i;
+                break;
+            }
+            if(this.works[i] < this.works[replaced]) {
+                replaced = i;
+            }
+        }
+        this.keys[replaced] = key;
+        this.numbers[replaced] = pack(phi, delta);
+        this.works[replaced] = (int) Math.min(work, Integer.MAX_VALUE);
+    }
+
+    int size() {
+        return this.keys.length;
+    }
+
+    static long pack(final int phi, final int delta) {
+        return (long) phi << 32 | delta;
+    }
+
+    static int phi(final long numbers) {
+        return (int) (numbers >>> 32);
+    }
+
+    static int delta(final long numbers) {
+        return (int) numbers;
+    }
+}
@@ -0,0 +1,74 @@
+package com.engine.player.ai;
+
+import com.engine.board.BoardUtils;
+import com.engine.board.Move;
+
+import java.util.Arrays;
+
+/**
+ * SearchHeuristics class that remembers which quiet moves caused cutoffs, so the move ordering can try them early
+ *
+ * killer moves are kept per ply (two for each ply) and the history score is kept per alliance, source and destination
+ */
+final class SearchHeuristics {
+    static final int MAX_PLY = 128;
+    private static final int KILLERS_PER_PLY = 2;
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final Move[][] killerMoves;
+    private final int[][][] history;
+
+    SearchHeuristics() {
+        this.killerMoves = new Move[MAX_PLY][KILLERS_PER_PLY];
+        this.history = new int[2][BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+    }
+
+    void clear() {
+        for(final Move[] killers : this.killerMoves) {
+            killers[0] = null;
+            killers[1] = null;
+        }
+        for(final int[][] allianceHistory : this.history) {
+            for(final int[] sourceHistory : allianceHistory) {
+                Arrays.fill(sourceHistory, 0);
+            }
+        }
+    }
+
+    /**
+     * stores a quiet move that caused a beta cutoff, the newest killer goes first
+     */
+    void storeCutoff(final Move move, final int ply, final int depth) {
+        if(ply < MAX_PLY && !move.equals(this.killerMoves[ply][0])) {
+            this.killerMoves[ply][1] = this.killerMoves[ply][0];
+            this.killerMoves[ply][0] = move;
+        }
+        final int[] sourceHistory = this.history[allianceIndex(move)][move.getCurrentCoordinate()];
+        sourceHistory[move.getDestinationCoordinate()] += depth * depth;
+        if(sourceHistory[move.getDestinationCoordinate()] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    boolean isKiller(final Move move, final int ply) {
+        return ply < MAX_PLY && (move.equals(this.killerMoves[ply][0]) || move.equals(this.killerMoves[ply][1]));
+    }
+
+    int getHistoryScore(final Move move) {
+        return this.history[allianceIndex(move)][move.getCurrentCoordinate()][move.getDestinationCoordinate()];
+    }
+
+    private void ageHistory() {
+        for(final int[][] allianceHistory : this.history) {
+            for(final int[] sourceHistory : allianceHistory) {
+                for(int i = 0; i < sourceHistory.length; i++) {
+                    sourceHistory[i] /= 2;
+                }
+            }
+        }
+    }
+
+    private static int allianceIndex(final Move move) {
+        return move.getMovedPiece().getPieceAlliance().isWhite() ? 0 : 1;
+    }
+}
@@ -0,0 +1,80 @@
+package com.engine.player.ai;
+
+/**
+ * SearchOptions class that turns the selective search techniques of the AlphaBeta search on and off,
+ * every technique is on by default and can be turned off to check that it does not lose strength
+ */
+public final class SearchOptions {
+    public static final SearchOptions DEFAULT = new Builder().build();
+    public static final SearchOptions PLAIN = new Builder()
+            .setNullMovePruning(false)
+            .setLateMoveReductions(false)
+            .setFutilityPruning(false)
+            .setRazoring(false)
+            .build();
+
+    private final boolean nullMovePruning;
+    private final boolean lateMoveReductions;
+    private final boolean futilityPruning;
+    private final boolean razoring;
+
+    private SearchOptions(final Builder builder) {
+        this.nullMovePruning = builder.nullMovePruning;
+        this.lateMoveReductions = builder.lateMoveReductions;
+        this.futilityPruning = builder.futilityPruning;
+        this.razoring = builder.razoring;
+    }
+
+    public boolean isNullMovePruning() {
+        return this.nullMovePruning;
+    }
+
+    public boolean isLateMoveReductions() {
+        return this.lateMoveReductions;
+    }
+
+    public boolean isFutilityPruning() {
+        return this.futilityPruning;
+    }
+
+    public boolean isRazoring() {
+        return this.razoring;
+    }
+
+    @Override
+    public String toString() {
+        return "nullMove=" + this.nullMovePruning + " lmr=" + this.lateMoveReductions +
+                " futility=" + this.futilityPruning + " razoring=" + this.razoring;
+    }
+
+    public static class Builder {
+        boolean nullMovePruning = true;
+        boolean lateMoveReductions = true;
+        boolean futilityPruning = true;
+        boolean razoring = true;
+
+        public Builder setNullMovePruning(final boolean nullMovePruning) {
+            this.nullMovePruning = nullMovePruning;
+            return this;
+        }
+
+        public Builder setLateMoveReductions(final boolean lateMoveReductions) {
+            this.lateMoveReductions = lateMoveReductions;
+            return this;
+        }
+
+        public Builder setFutilityPruning(final boolean futilityPruning) {
+            this.futilityPruning = futilityPruning;
+            return this;
+        }
+
+        public Builder setRazoring(final boolean razoring) {
+            this.razoring = razoring;
+            return this;
+        }
+
+        public SearchOptions build() {
+            return new SearchOptions(this);
+        }
+    }
+}
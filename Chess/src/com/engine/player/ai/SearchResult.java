@@ -0,0 +1,53 @@
+package com.engine.player.ai;
+
+import com.engine.board.Move;
+
+/**
+ * SearchResult class that holds what one search of the root found
+ */
+public final class SearchResult {
+    private final Move bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final boolean aborted;
+
+    SearchResult(final Move bestMove, final int score, final int depth, final long nodes, final boolean aborted) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.aborted = aborted;
+    }
+
+    public Move getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * @return the score of the best move in centi-pawns from the side of the player to move
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return true if the search was stopped before it searched all the root moves
+     */
+    public boolean isAborted() {
+        return this.aborted;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + this.depth + " score " + this.score + " nodes " + this.nodes + " move " + this.bestMove;
+    }
+}
@@ -0,0 +1,39 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.pieces.Piece;
+import com.engine.player.Player;
+
+/**
+ * StandardBoardEvaluator class that scores a board by material and mobility only
+ */
+public final class StandardBoardEvaluator implements BoardEvaluator {
+    static final int CENTI_PAWN = 100;
+    private static final int MOBILITY_MULTIPLIER = 2;
+    private static final int CHECK_BONUS = 25;
+
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        return scorePlayer(board.getWhitePlayer()) - scorePlayer(board.getBlackPlayer());
+    }
+
+    private static int scorePlayer(final Player player) {
+        return pieceValue(player) + mobility(player) + check(player);
+    }
+
+    private static int pieceValue(final Player player) {
+        int pieceValueScore = 0;
+        for(final Piece piece : player.getActivePieces()) {
+            pieceValueScore += piece.getPieceValue() * CENTI_PAWN;
+        }
+        return pieceValueScore;
+    }
+
+    private static int mobility(final Player player) {
+        return player.getLegalMoves().size() * MOBILITY_MULTIPLIER;
+    }
+
+    private static int check(final Player player) {
+        return player.getOpponent().isInCheck() ? CHECK_BONUS : 0;
+    }
+}
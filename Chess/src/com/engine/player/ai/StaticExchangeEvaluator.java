@@ -0,0 +1,191 @@
+package com.engine.player.ai;
+
+import com.engine.Alliance;
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.Move;
+import com.engine.board.Tile;
+import com.engine.pieces.Piece;
+import com.engine.pieces.PieceType;
+
+/**
+ * StaticExchangeEvaluator class that calculates the material outcome of a capture sequence on a single tile
+ *
+ * Both sides keep recapturing on the target tile with their least valuable attacker, pieces that are used are
+ * removed from the occupancy so sliding pieces behind them (x-rays) join the exchange, and each side may stop
+ * capturing whenever it is better for it.
+ */
+public final class StaticExchangeEvaluator {
+    private static final int MAX_EXCHANGES = 32;
+    private static final int[] KNIGHT_OFFSETS = {-17, -15, -10, -6, 6, 10, 15, 17};
+    private static final int[] KING_OFFSETS = {-9, -8, -7, -1, 1, 7, 8, 9};
+    private static final int[] DIAGONAL_OFFSETS = {-9, -7, 7, 9};
+    private static final int[] ORTHOGONAL_OFFSETS = {-8, -1, 1, 8};
+    // the order in which the attackers are tried, cheapest first
+    private static final PieceType[] ATTACKER_ORDER = {PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP,
+            PieceType.ROOK, PieceType.QUEEN, PieceType.KING};
+
+    private StaticExchangeEvaluator() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    /**
+     * Calculates the material gain (in centi-pawns) of the move for the player making it
+     *
+     * A quiet move returns 0, a capture returns the value of the exchange that it starts on the destination tile
+     *
+     * @param board is the board the move is made on
+     * @param move is the capture we are checking
+     * @return the material balance of the exchange, negative means the capture loses material
+     */
+    public static int evaluate(final Board board, final Move move) {
+        if(!move.isAttack()) {
+            return 0;
+        }
+        final PieceType[] types = new PieceType[BoardUtils.NUM_TILES];
+        final Alliance[] alliances = new Alliance[BoardUtils.NUM_TILES];
+        for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            final Tile tile = board.getTile(i);
+            if(tile.isTileOccupied()) {
+                types[i] = tile.getPiece().getPieceType();
+                alliances[i] = tile.getPiece().getPieceAlliance();
+            }
+        }
+        final int target = move.getDestinationCoordinate();
+        final Piece attackedPiece = move.getAttackedPiece();
+        // en passant takes a pawn that is not on the target tile
+        types[attackedPiece.getPiecePosition()] = null;
+        alliances[attackedPiece.getPiecePosition()] = null;
+        types[move.getCurrentCoordinate()] = null;
+        alliances[move.getCurrentCoordinate()] = null;
+
+        final int[] gain = new int[MAX_EXCHANGES];
+        int depth = 0;
+        gain[depth] = valueOf(attackedPiece.getPieceType());
+        PieceType pieceOnTarget = move.getMovedPiece().getPieceType();
+        Alliance sideToCapture = move.getMovedPiece().getPieceAlliance().isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        while(depth + 1 < MAX_EXCHANGES) {
+            final int attackerPosition = findLeastValuableAttacker(types, alliances, target, sideToCapture);
+            if(attackerPosition == -1) {
+                break;
+            }
+            // the king can't capture into a defended tile
+            if(types[attackerPosition].isKing() && findLeastValuableAttacker(types, alliances, target,
+                    sideToCapture.isWhite() ? Alliance.BLACK : Alliance.WHITE) != -1) {
+                break;
+            }
+            depth++;
+            gain[depth] = valueOf(pieceOnTarget) - gain[depth - 1];
+            if(Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break;
+            }
+            pieceOnTarget = types[attackerPosition];
+            types[attackerPosition] = null;
+            alliances[attackerPosition] = null;
+            sideToCapture = sideToCapture.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        }
+        while(depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * checks if the capture does not lose material, used for pruning bad captures in the quiescence search
+     */
+    public static boolean isWinningOrEqual(final Board board, final Move move) {
+        return evaluate(board, move) >= 0;
+    }
+
+    static int valueOf(final PieceType pieceType) {
+        return pieceType.getPieceValue() * StandardBoardEvaluator.CENTI_PAWN;
+    }
+
+    private static int findLeastValuableAttacker(final PieceType[] types, final Alliance[] alliances,
+                                                 final int target, final Alliance alliance) {
+        for(final PieceType attackerType : ATTACKER_ORDER) {
+            final int position = findAttacker(types, alliances, target, alliance, attackerType);
+            if(position != -1) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static int findAttacker(final PieceType[] types, final Alliance[] alliances, final int target,
+                                    final Alliance alliance, final PieceType attackerType) {
+        switch(attackerType) {
+            case PAWN:
+                // a pawn attacks against its direction, so we look for it behind the target
+                for(final int fileOffset : new int[] {-1, 1}) {
+                    final int position = target - alliance.getDirection() * 8 + fileOffset;
+                    if(isStep(target - alliance.getDirection() * 8, position) &&
+                            isPiece(types, alliances, position, alliance, PieceType.PAWN)) {
+                        return position;
+                    }
+                }
+                return -1;
+            case KNIGHT:
+                return findStepper(types, alliances, target, alliance, PieceType.KNIGHT, KNIGHT_OFFSETS);
+            case KING:
+                return findStepper(types, alliances, target, alliance, PieceType.KING, KING_OFFSETS);
+            case BISHOP:
+                return findSlider(types, alliances, target, alliance, PieceType.BISHOP, DIAGONAL_OFFSETS);
+            case ROOK:
+                return findSlider(types, alliances, target, alliance, PieceType.ROOK, ORTHOGONAL_OFFSETS);
+            case QUEEN:
+                final int diagonalQueen = findSlider(types, alliances, target, alliance, PieceType.QUEEN, DIAGONAL_OFFSETS);
+                return diagonalQueen != -1 ? diagonalQueen :
+                        findSlider(types, alliances, target, alliance, PieceType.QUEEN, ORTHOGONAL_OFFSETS);
+            default:
+                throw new RuntimeException("Should not reach here");
+        }
+    }
+
+    private static int findStepper(final PieceType[] types, final Alliance[] alliances, final int target,
+                                   final Alliance alliance, final PieceType pieceType, final int[] offsets) {
+        for(final int offset : offsets) {
+            final int position = target + offset;
+            if(isStep(target, position) && isPiece(types, alliances, position, alliance, pieceType)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static int findSlider(final PieceType[] types, final Alliance[] alliances, final int target,
+                                  final Alliance alliance, final PieceType pieceType, final int[] offsets) {
+        for(final int offset : offsets) {
+            int previous = target;
+            int position = target + offset;
+            while(isStep(previous, position)) {
+                if(types[position] != null) {
+                    if(isPiece(types, alliances, position, alliance, pieceType)) {
+                        return position;
+                    }
+                    break;
+                }
+                previous = position;
+                position += offset;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isPiece(final PieceType[] types, final Alliance[] alliances, final int position,
+                                   final Alliance alliance, final PieceType pieceType) {
+        return types[position] == pieceType && alliances[position] == alliance;
+    }
+
+    /**
+     * checks that going from one tile to the other is a single king or knight step that did not wrap
+     * around the edge of the board
+     */
+    private static boolean isStep(final int from, final int to) {
+        if(!BoardUtils.isValidTileCoordinate(from) || !BoardUtils.isValidTileCoordinate(to)) {
+            return false;
+        }
+        return Math.abs(from % BoardUtils.NUM_TILES_PER_ROW - to % BoardUtils.NUM_TILES_PER_ROW) <= 2;
+    }
+}
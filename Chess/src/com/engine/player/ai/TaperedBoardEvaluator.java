@@ -0,0 +1,75 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.Move;
+import com.engine.board.PieceSquareScore;
+import com.engine.pieces.PieceSquareTables;
+import com.engine.player.Player;
+
+/**
+ * TaperedBoardEvaluator class that scores a board by material, piece square tables, mobility, king safety and
+ * pawn structure, each term has a middle game and an end game value that are blended by the game phase
+ *
+ * the material, the piece square tables and the phase are not calculated here, they are updated by every move
+ * in the PieceSquareScore of the board, and the pawn terms are kept in the PawnHashTable
+ */
+public final class TaperedBoardEvaluator implements BoardEvaluator {
+    private static final int MOBILITY_MIDDLE_GAME = 4;
+    private static final int MOBILITY_END_GAME = 2;
+    private static final int KING_ZONE_ATTACK_PENALTY = 6;
+
+    private final PawnHashTable pawnHashTable;
+
+    public TaperedBoardEvaluator() {
+        this(new PawnHashTable());
+    }
+
+    /**
+     * @param pawnHashTable the cache of the pawn structures, it can be shared by evaluators of different threads
+     */
+    public TaperedBoardEvaluator(final PawnHashTable pawnHashTable) {
+        this.pawnHashTable = pawnHashTable;
+    }
+
+    public PawnHashTable getPawnHashTable() {
+        return this.pawnHashTable;
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        final PieceSquareScore pieceSquareScore = board.getPieceSquareScore();
+        final Player whitePlayer = board.getWhitePlayer();
+        final Player blackPlayer = board.getBlackPlayer();
+        final int mobility = whitePlayer.getLegalMoves().size() - blackPlayer.getLegalMoves().size();
+        final PawnStructure pawnStructure = this.pawnHashTable.get(board);
+        final int kingSafety = kingSafety(whitePlayer, pawnStructure) - kingSafety(blackPlayer, pawnStructure);
+        final int middleGame = pieceSquareScore.getMiddleGameScore() + pawnStructure.getMiddleGameScore() +
+                mobility * MOBILITY_MIDDLE_GAME + kingSafety;
+        final int endGame = pieceSquareScore.getEndGameScore() + pawnStructure.getEndGameScore() +
+                mobility * MOBILITY_END_GAME;
+        return PieceSquareTables.taper(middleGame, endGame, pieceSquareScore.getPhase());
+    }
+
+    @Override
+    public String toString() {
+        return "Tapered";
+    }
+
+    /**
+     * Scores the safety of the king of a player: the pawn shield of the wing the king is on
+     * and every opponent move that lands next to the king is an attack on it
+     */
+    private static int kingSafety(final Player player, final PawnStructure pawnStructure) {
+        final int kingPosition = player.getPlayerKing().getPiecePosition();
+        int score = pawnStructure.getShield(player.getAlliance(), kingPosition % BoardUtils.NUM_TILES_PER_ROW);
+        for(final Move move : player.getOpponent().getLegalMoves()) {
+            final int destination = move.getDestinationCoordinate();
+            if(Math.abs(destination / BoardUtils.NUM_TILES_PER_ROW - kingPosition / BoardUtils.NUM_TILES_PER_ROW) <= 1 &&
+                    Math.abs(destination % BoardUtils.NUM_TILES_PER_ROW - kingPosition % BoardUtils.NUM_TILES_PER_ROW) <= 1) {
+                score -= KING_ZONE_ATTACK_PENALTY;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,163 @@
+package com.engine.player.ai;
+
+/**
+ * TimeManager class that decides how long the engine may think on a move
+ *
+ * The budget of a move comes from the remaining time on the clock, the increment and the moves left until the
+ * next time control. There are two limits: the soft limit is checked between iterations of the iterative
+ * deepening (no new iteration starts when most of it is used), the hard limit is checked inside the search every
+ * NODES_BETWEEN_CHECKS nodes and stops it at once, so the engine never loses on time. The soft limit is extended
+ * when the best move keeps changing or the score drops, never beyond the hard limit.
+ * All the times are measured with System.nanoTime which is monotonic, opposed to the wall clock
+ *
+ * A pondering search runs without limits until the opponent plays the expected move, then ponderHit gives it the
+ * budget of the move: the time spent pondering counts as time of the move, so a search that pondered longer than
+ * the soft limit starts no new iteration. It keeps the hard limit of the budget, the iteration in progress is
+ * finished and an unstable best move or a dropping score still extends the soft limit
+ */
+public final class TimeManager {
+    // the per side limit of the Arduino relay (dtLimit in Project.ino)
+    public static final long GAME_TIME_LIMIT_MILLIS = 15 * 60 * 1000;
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    // time kept on the clock for the relay and the bluetooth link
+    private static final long SAFETY_MARGIN_MILLIS = 100;
+    private static final int HARD_LIMIT_FACTOR = 4;
+    private static final long NODES_BETWEEN_CHECKS = 256;
+    // an iteration takes a few times longer than the one before it, so it is not started after this part of the budget
+    private static final double NEXT_ITERATION_THRESHOLD = 0.5;
+    private static final double INSTABILITY_EXTENSION = 1.5;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final long startTime;
+    private volatile long hardLimit;
+    private volatile long softLimit;
+    private volatile boolean stopped;
+    private volatile long nodeLimit;
+
+    private TimeManager(final long softLimitMillis, final long hardLimitMillis) {
+        this.startTime = System.nanoTime();
+        this.hardLimit = hardLimitMillis == Long.MAX_VALUE ? Long.MAX_VALUE : hardLimitMillis * NANOS_PER_MILLI;
+        this.softLimit = softLimitMillis == Long.MAX_VALUE ? Long.MAX_VALUE :
+                Math.min(softLimitMillis * NANOS_PER_MILLI, this.hardLimit);
+        this.stopped = false;
+        this.nodeLimit = Long.MAX_VALUE;
+    }
+
+    /**
+     * Creates the budget of a move from the game clock
+     * @param remainingMillis is the time left on the engine's clock
+     * @param incrementMillis is the time added to the clock after every move
+     * @param movesToGo is the number of moves until the next time control, 0 when the rest of the game must fit
+     * @return the time manager of the move, the clock starts running when it is created
+     */
+    public static TimeManager forClock(final long remainingMillis, final long incrementMillis, final int movesToGo) {
+        final long usableMillis = Math.max(remainingMillis - SAFETY_MARGIN_MILLIS, 1);
+        final int moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+        final long softMillis = Math.min(usableMillis / moves + incrementMillis * 3 / 4, usableMillis);
+        final long hardMillis = Math.min(softMillis * HARD_LIMIT_FACTOR,
+                movesToGo == 1 ? usableMillis : usableMillis / 2);
+        return new TimeManager(Math.max(softMillis, 1), Math.max(hardMillis, 1));
+    }
+
+    /**
+     * Creates a budget of exactly the given time, the search stops when it runs out
+     */
+    public static TimeManager forMoveTime(final long moveTimeMillis) {
+        return new TimeManager(moveTimeMillis, moveTimeMillis);
+    }
+
+    /**
+     * Creates a time manager that never runs out, the search is limited only by depth or by stop()
+     */
+    public static TimeManager infinite() {
+        return new TimeManager(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates the time manager of a pondering search, it never runs out until ponderHit or stop is called
+     */
+    public static TimeManager forPondering() {
+        return infinite();
+    }
+
+    /**
+     * called when the opponent played the move that was pondered, from then on the search is limited by the budget
+     * @param budget is the time manager the move would get if it was searched from now
+     */
+    public void ponderHit(final TimeManager budget) {
+        this.softLimit = budget.softLimit;
+        this.hardLimit = budget.hardLimit == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(budget.hardLimit, elapsed());
+    }
+
+    /**
+     * limits the search to a number of nodes too, it stops at whichever limit comes first
+     */
+    public void setNodeLimit(final long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * checks if the search must stop, cheap enough to be called on every node: the clock is read only
+     * every NODES_BETWEEN_CHECKS nodes
+     * @param nodes is the number of nodes the search visited
+     * @return true when the search must stop
+     */
+    boolean checkTime(final long nodes) {
+        if(this.stopped) {
+            return true;
+        }
+        if(nodes >= this.nodeLimit) {
+            this.stopped = true;
+        }
+        if(nodes % NODES_BETWEEN_CHECKS == 0 && elapsed() >= this.hardLimit) {
+            this.stopped = true;
+        }
+        return this.stopped;
+    }
+
+    /**
+     * @return true if there is enough time left to complete another iteration of the iterative deepening
+     */
+    boolean shouldStartNextIteration() {
+        return !this.stopped && (this.softLimit == Long.MAX_VALUE ||
+                elapsed() < this.softLimit * NEXT_ITERATION_THRESHOLD);
+    }
+
+    /**
+     * called after every completed iteration, an unstable best move or a dropping score gives the search more time
+     * @param bestMoveChanged if the iteration found a different best move than the one before it
+     * @param failedLow if the score of the iteration dropped
+     */
+    void onIterationComplete(final boolean bestMoveChanged, final boolean failedLow) {
+        if((bestMoveChanged || failedLow) && this.softLimit != Long.MAX_VALUE) {
+            this.softLimit = Math.min((long) (this.softLimit * INSTABILITY_EXTENSION), this.hardLimit);
+        }
+    }
+
+    /**
+     * stops the search from another thread
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    public boolean isStopped() {
+        return this.stopped;
+    }
+
+    public long getElapsedMillis() {
+        return elapsed() / NANOS_PER_MILLI;
+    }
+
+    public long getSoftLimitMillis() {
+        return this.softLimit == Long.MAX_VALUE ? Long.MAX_VALUE : this.softLimit / NANOS_PER_MILLI;
+    }
+
+    public long getHardLimitMillis() {
+        return this.hardLimit == Long.MAX_VALUE ? Long.MAX_VALUE : this.hardLimit / NANOS_PER_MILLI;
+    }
+
+    private long elapsed() {
+        return System.nanoTime() - this.startTime;
+    }
+}
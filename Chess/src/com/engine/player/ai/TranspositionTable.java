@@ -0,0 +1,187 @@
+package com.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.player.MoveTransition;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TranspositionTable class that keeps the results of searched positions by their zobrist hash
+ *
+ * Every entry keeps the score, the depth it was searched to, whether the score is exact or only a bound and the
+ * best move that was found. The best move is searched first when the position is reached again, even when the
+ * depth is not enough to use the score, so the table also helps the next iteration and the pondering search.
+ * Like the EvaluationCache a slot is the hash xor the data and the data, so the table can be shared between
+ * threads without locks
+ */
+public final class TranspositionTable {
+    public static final int DEFAULT_ENTRIES = 1 << 18;
+    public static final int NO_MOVE = -1;
+    static final int EXACT = 0;
+    static final int LOWER_BOUND = 1;
+    static final int UPPER_BOUND = 2;
+    private static final int ENTRY_SIZE = 2;
+    // the data word: score in bits 0-31, depth in bits 32-39, bound in bits 40-41, move in bits 42-53
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final long HAS_MOVE = 1L << 54;
+    private static final long VALID = 1L << 55;
+
+    private final long[] entries;
+    private final int mask;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    public TranspositionTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * @param numberOfEntries is rounded down to a power of two, every entry takes 16 bytes
+     */
+    public TranspositionTable(final int numberOfEntries) {
+        final int size = Integer.highestOneBit(Math.max(numberOfEntries, 1));
+        this.entries = new long[size * ENTRY_SIZE];
+        this.mask = size - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * looks for the position in the table
+     * @param hash is the zobrist hash of the position
+     * @return the data word of the entry, or 0 when the position is not in the table
+     */
+    long probe(final long hash) {
+        final int index = ((int) hash & this.mask) * ENTRY_SIZE;
+        final long data = this.entries[index + 1];
+        if((this.entries[index] ^ data) == hash && (data & VALID) != 0) {
+            this.hits.increment();
+            return data;
+        }
+        this.misses.increment();
+        return 0;
+    }
+
+    /**
+     * stores the result of a search, a deeper result of the same position is only replaced by a result
+     * that is as deep, and the old best move is kept when the new result has none
+     * @param hash is the zobrist hash of the position
+     * @param score is the score from the side of the player to move, mate scores must be made relative to the
+     *              position with toTableScore
+     * @param depth is the depth the position was searched to
+     * @param bound is EXACT, LOWER_BOUND or UPPER_BOUND
+     * @param move is the encoded best move, or NO_MOVE
+     */
+    void store(final long hash, final int score, final int depth, final int bound, final int move) {
+        final int index = ((int) hash & this.mask) * ENTRY_SIZE;
+        final long oldData = this.entries[index + 1];
+        final boolean samePosition = (this.entries[index] ^ oldData) == hash && (oldData & VALID) != 0;
+        if(samePosition && getDepth(oldData) > depth && bound != EXACT) {
+            return;
+        }
+        long data = VALID | (score & 0xFFFFFFFFL) | ((long) Math.max(Math.min(depth, 0xFF), 0) << DEPTH_SHIFT) |
+                ((long) bound << BOUND_SHIFT);
+        if(move != NO_MOVE) {
+            data |= HAS_MOVE | ((long) move << MOVE_SHIFT);
+        } else if(samePosition && (oldData & HAS_MOVE) != 0) {
+            data |= oldData & (HAS_MOVE | (0xFFFL << MOVE_SHIFT));
+        }
+        this.entries[index] = hash ^ data;
+        this.entries[index + 1] = data;
+    }
+
+    /**
+     * Finds the best move the table has for the position, used to guess the reply of the opponent
+     * @param board is the position we look for
+     * @return the legal best move of the position, or null when the table has none
+     */
+    public Move getBestMove(final Board board) {
+        final int move = getMove(probe(board.getZobristHash()));
+        if(move == NO_MOVE) {
+            return null;
+        }
+        final Move bestMove = Move.MoveFactory.createMove(board, fromCoordinate(move), toCoordinate(move));
+        if(bestMove == Move.MoveFactory.getNullMove()) {
+            return null;
+        }
+        final MoveTransition transition = board.getCurrentPlayer().makeMove(bestMove);
+        return transition.getMoveStatus().isDone() ? bestMove : null;
+    }
+
+    static int getScore(final long data) {
+        return (int) data;
+    }
+
+    static int getDepth(final long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    static int getBound(final long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    static int getMove(final long data) {
+        return (data & HAS_MOVE) != 0 ? (int) (data >>> MOVE_SHIFT) & 0xFFF : NO_MOVE;
+    }
+
+    /**
+     * a move is kept as its current and destination coordinates, 6 bits each
+     */
+    static int encodeMove(final Move move) {
+        return move.getCurrentCoordinate() << 6 | move.getDestinationCoordinate();
+    }
+
+    static int fromCoordinate(final int move) {
+        return move >>> 6;
+    }
+
+    static int toCoordinate(final int move) {
+        return move & 0x3F;
+    }
+
+    /**
+     * a mate score counts the plies from the root, the table keeps it counted from the position itself
+     * so it is right when the position is reached at a different ply
+     */
+    static int toTableScore(final int score, final int ply) {
+        if(AlphaBeta.isMateScore(score)) {
+            return score > 0 ? score + ply : score - ply;
+        }
+        return score;
+    }
+
+    static int fromTableScore(final int score, final int ply) {
+        if(AlphaBeta.isMateScore(score)) {
+            return score > 0 ? score - ply : score + ply;
+        }
+        return score;
+    }
+
+    public int size() {
+        return this.entries.length / ENTRY_SIZE;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void clear() {
+        Arrays.fill(this.entries, 0);
+        this.hits.reset();
+        this.misses.reset();
+    }
+}
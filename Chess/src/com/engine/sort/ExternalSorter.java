@@ -0,0 +1,217 @@
+package com.engine.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ExternalSorter class that sorts more records than fit in memory, it is the sort of the OpeningBookBuilder and of
+ * the PositionIndexBuilder
+ *
+ * The workers keep their records in primitive arrays, sort them in place and write them as a run file into a
+ * temporary directory of the sorter. At the end the runs are merged in one pass with a priority queue of run
+ * readers, every reader reads into one record object so no object is created per record. Closing the sorter
+ * deletes the directory with everything in it, also the runs a failed worker left half written
+ */
+public final class ExternalSorter<R> implements Closeable {
+    private static final int RUN_BUFFER_SIZE = 1 << 16;
+
+    private final Path runDirectory;
+    private final RecordFormat<R> format;
+    private final List<Path> runs;
+    private final AtomicInteger runCounter;
+
+    /**
+     * @param temporaryDirectory is the directory the run directory is created in
+     * @param prefix is the prefix of the name of the run directory
+     * @param format reads and orders the records of the runs
+     */
+    public ExternalSorter(final Path temporaryDirectory, final String prefix, final RecordFormat<R> format)
+            throws IOException {
+        this.runDirectory = Files.createTempDirectory(temporaryDirectory, prefix);
+        this.format = format;
+        this.runs = new ArrayList<>();
+        this.runCounter = new AtomicInteger();
+    }
+
+    /**
+     * sorts the first entries of a worker in place and writes them as a new run, it is called by many workers
+     * at once
+     * @param entries are the entries of the worker
+     * @param size is the number of entries
+     * @param writer writes the entries in their sorted order, in the format the RecordFormat reads
+     */
+    public void writeRun(final Sortable entries, final int size, final RunWriter writer) throws IOException {
+        sort(entries, 0, size - 1);
+        final Path run = this.runDirectory.resolve("run-" + this.runCounter.incrementAndGet() + ".bin");
+        try(final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(run), RUN_BUFFER_SIZE))) {
+            writer.write(output);
+        }
+        synchronized(this.runs) {
+            this.runs.add(run);
+        }
+    }
+
+    /**
+     * merges the runs that were written
+     * @param consumer gets every record in order, the record object is reused after the call
+     * @return the number of records
+     */
+    public long merge(final RecordConsumer<R> consumer) throws IOException {
+        final List<Path> runs;
+        synchronized(this.runs) {
+            runs = new ArrayList<>(this.runs);
+        }
+        final PriorityQueue<RunReader<R>> queue = new PriorityQueue<>(Math.max(runs.size(), 1),
+                (r1, r2) -> this.format.compare(r1.record, r2.record));
+        long records = 0;
+        try {
+            for(final Path run : runs) {
+                final RunReader<R> reader = new RunReader<>(run, this.format);
+                if(reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            while(!queue.isEmpty()) {
+                final RunReader<R> reader = queue.poll();
+                consumer.accept(reader.record);
+                records++;
+                if(reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for(final RunReader<R> reader : queue) {
+                reader.close();
+            }
+        }
+        return records;
+    }
+
+    /**
+     * deletes the run directory and everything in it
+     */
+    @Override
+    public void close() throws IOException {
+        if(!Files.exists(this.runDirectory)) {
+            return;
+        }
+        final List<Path> paths;
+        try(final Stream<Path> walk = Files.walk(this.runDirectory)) {
+            // the files come before the directories that hold them
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for(final Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * a quick sort over the entries of a worker, they are compared and swapped by index so they can be kept in
+     * parallel primitive arrays
+     */
+    public static void sort(final Sortable entries, int low, int high) {
+        while(low < high) {
+            // the middle entry is the pivot, it waits at the low end while the rest is partitioned
+            entries.swap(low, (low + high) >>> 1);
+            int i = low;
+            int j = high + 1;
+            while(true) {
+                while(entries.compare(++i, low) < 0 && i != high) {
+                    // the entries before i are not greater than the pivot
+                }
+                while(entries.compare(low, --j) < 0 && j != low) {
+                    // the entries after j are not less than the pivot
+                }
+                if(i >= j) {
+                    break;
+                }
+                entries.swap(i, j);
+            }
+            entries.swap(low, j);
+            // recursion on the smaller part keeps the stack shallow
+            if(j - low < high - j) {
+                sort(entries, low, j - 1);
+                low = j + 1;
+            } else {
+                sort(entries, j + 1, high);
+                high = j - 1;
+            }
+        }
+    }
+
+    /**
+     * Sortable interface of the entries of a worker
+     */
+    public interface Sortable {
+        int compare(int i, int j);
+
+        void swap(int i, int j);
+    }
+
+    /**
+     * RunWriter interface that writes the sorted entries of a worker to a run
+     */
+    public interface RunWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    /**
+     * RecordFormat interface that reads the records of the runs and orders them
+     */
+    public interface RecordFormat<R> {
+        R newRecord();
+
+        /**
+         * reads the next record of a run into a record object
+         * @return false at the end of the run
+         */
+        boolean read(DataInputStream input, R record) throws IOException;
+
+        int compare(R first, R second);
+    }
+
+    /**
+     * RecordConsumer interface that gets the merged records
+     */
+    public interface RecordConsumer<R> {
+        void accept(R record) throws IOException;
+    }
+
+    private static final class RunReader<R> {
+        private final DataInputStream input;
+        private final RecordFormat<R> format;
+        private final R record;
+
+        RunReader(final Path run, final RecordFormat<R> format) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), RUN_BUFFER_SIZE));
+            this.format = format;
+            this.record = format.newRecord();
+        }
+
+        boolean next() throws IOException {
+            return this.format.read(this.input, this.record);
+        }
+
+        void close() throws IOException {
+            this.input.close();
+        }
+    }
+}
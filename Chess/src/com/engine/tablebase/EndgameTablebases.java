@@ -0,0 +1,155 @@
+package com.engine.tablebase;
+
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.pieces.Piece;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * EndgameTablebases class that is the directory of the tables, it finds the table of a board and probes it
+ *
+ * The tables are opened the first time they are needed and stay mapped. A probe is a constant time lookup: the
+ * pieces of the board are put in the order of the ending, the colors are flipped when the table keeps the ending
+ * from the other side, and one entry of the mapped file is read.
+ * A board with castling rights or an en passant pawn is not probed, the tables don't have those
+ */
+public final class EndgameTablebases implements Closeable {
+    public static final int MAX_PIECES = TablebasePosition.MAX_PIECES;
+    static final String FILE_EXTENSION = ".tbl";
+
+    private final Path directory;
+    private final Map<Material, Tablebase> tables;
+    // the endings that have no file, so the directory is not checked again on every probe
+    private final Map<Material, Boolean> missingTables;
+    // the endings by the pieces of a position, so a probe doesn't build the name of the ending
+    private final Map<Integer, Material> materials;
+
+    public EndgameTablebases(final Path directory) {
+        this.directory = directory;
+        this.tables = new ConcurrentHashMap<>();
+        this.missingTables = new ConcurrentHashMap<>();
+        this.materials = new ConcurrentHashMap<>();
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Finds the value of the board in the tables
+     * @param board is the board we probe
+     * @return the result from the side of the player to move, or null when the board is not in the tables
+     */
+    public TablebaseResult probe(final Board board) {
+        final int pieceCount = board.getWhitePieces().size() + board.getBlackPieces().size();
+        if(pieceCount > MAX_PIECES || board.getEnPassantPawn() != null ||
+                BoardUtils.calculateCastlingRights(board) != 0) {
+            return null;
+        }
+        final TablebasePosition position = new TablebasePosition();
+        position.count = 0;
+        for(final Piece piece : board.getWhitePieces()) {
+            addPiece(position, piece);
+        }
+        for(final Piece piece : board.getBlackPieces()) {
+            addPiece(position, piece);
+        }
+        position.sideToMove = board.getCurrentPlayer().getAlliance().isWhite() ? Material.WHITE : Material.BLACK;
+        position.sortPieces();
+        final int entry = probeEntry(position);
+        return entry < 0 ? null : Tablebase.toResult(entry);
+    }
+
+    /**
+     * Probes a position of any ending, a position of only the two kings is a draw
+     * @param position is the position, its pieces in the order of its material, it is not changed
+     * @return the entry of the position, or -1 when its table is missing
+     */
+    int probeEntry(final TablebasePosition position) {
+        if(position.count == 2) {
+            return Tablebase.entry(Tablebase.DRAW, 0);
+        }
+        final Material material = this.materials.computeIfAbsent(materialKey(position),
+                key -> position.getMaterial());
+        if(material.isCanonical()) {
+            final Tablebase table = getTable(material);
+            return table != null ? table.probe(position) : -1;
+        }
+        final TablebasePosition flipped = new TablebasePosition();
+        flipped.copyFrom(position);
+        flipped.flipColors();
+        final Tablebase table = getTable(material.flip());
+        return table != null ? table.probe(flipped) : -1;
+    }
+
+    /**
+     * @return the table of the ending as it is kept (see Material.isCanonical), or null when it has no file
+     */
+    public Tablebase getTable(final Material material) {
+        final Tablebase table = this.tables.get(material);
+        if(table != null || this.missingTables.containsKey(material)) {
+            return table;
+        }
+        synchronized(this) {
+            final Tablebase openedTable = this.tables.get(material);
+            if(openedTable != null) {
+                return openedTable;
+            }
+            final Path path = getPath(material);
+            if(!Files.exists(path)) {
+                this.missingTables.put(material, Boolean.TRUE);
+                return null;
+            }
+            try {
+                final Tablebase newTable = Tablebase.open(path, material);
+                this.tables.put(material, newTable);
+                return newTable;
+            } catch (IOException e) {
+                throw new RuntimeException("Can't open the tablebase " + path, e);
+            }
+        }
+    }
+
+    Path getPath(final Material material) {
+        return this.directory.resolve(material.getName() + FILE_EXTENSION);
+    }
+
+    /**
+     * forgets that the table of the ending is missing, called after it was generated
+     */
+    void tableAdded(final Material material) {
+        this.missingTables.remove(material);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for(final Tablebase table : this.tables.values()) {
+            table.close();
+        }
+        this.tables.clear();
+    }
+
+    /**
+     * @return a number that is the same for all the positions of the same pieces, 4 bits for every piece
+     */
+    private static int materialKey(final TablebasePosition position) {
+        int key = 0;
+        for(int i = 0; i < position.count; i++) {
+            key = key << 4 | (position.types[i] * 2 + position.colors[i] + 1);
+        }
+        return key;
+    }
+
+    private static void addPiece(final TablebasePosition position, final Piece piece) {
+        position.squares[position.count] = piece.getPiecePosition();
+        position.types[position.count] = piece.getPieceType().ordinal();
+        position.colors[position.count] = piece.getPieceAlliance().isWhite() ? Material.WHITE : Material.BLACK;
+        position.count++;
+    }
+}
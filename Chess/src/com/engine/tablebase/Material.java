@@ -0,0 +1,213 @@
+package com.engine.tablebase;
+
+import com.engine.pieces.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * Material class that is the set of pieces of an ending, like KQvK or KRvKP, every ending has its own table
+ *
+ * The pieces are kept in the order of the index: the white king, the black king, the other white pieces and the
+ * other black pieces, each side from the queen down to the pawn. An ending is stored only from the side of the
+ * stronger player as white, a position of the other side is looked up with the colors flipped
+ */
+public final class Material {
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+    // the order of the pieces in a name and in the index
+    private static final PieceType[] NAME_ORDER = {PieceType.KING, PieceType.QUEEN, PieceType.ROOK,
+            PieceType.BISHOP, PieceType.KNIGHT, PieceType.PAWN};
+
+    private final int[] types;
+    private final int[] colors;
+    private final String name;
+    // the flipped ending, made the first time it is needed
+    private Material flipped;
+
+    private Material(final int[] types, final int[] colors) {
+        this.types = types;
+        this.colors = colors;
+        this.name = createName(types, colors);
+    }
+
+    /**
+     * Creates the material from a name
+     * @param name is the name of the ending, the pieces of white, a "v" and the pieces of black, like "KRPvK"
+     * @return the material
+     */
+    public static Material parse(final String name) {
+        final int separator = name.indexOf('v');
+        if(separator < 1 || name.charAt(0) != 'K' || separator + 1 >= name.length() ||
+                name.charAt(separator + 1) != 'K') {
+            throw new RuntimeException("Invalid ending " + name);
+        }
+        final int[] types = new int[name.length() - 1];
+        final int[] colors = new int[name.length() - 1];
+        int count = 0;
+        for(int i = 0; i < name.length(); i++) {
+            if(i == separator) {
+                continue;
+            }
+            types[count] = typeOf(name.charAt(i)).ordinal();
+            colors[count] = i < separator ? WHITE : BLACK;
+            count++;
+        }
+        return of(types, colors);
+    }
+
+    /**
+     * Creates the material of a set of pieces in any order
+     * @param types are the PieceType ordinals of the pieces
+     * @param colors are WHITE or BLACK for every piece
+     * @return the material with the pieces in the order of the index
+     */
+    static Material of(final int[] types, final int[] colors) {
+        final Integer[] order = new Integer[types.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Integer.compare(sortKey(types[i1], colors[i1]), sortKey(types[i2], colors[i2])));
+        final int[] sortedTypes = new int[types.length];
+        final int[] sortedColors = new int[types.length];
+        for(int i = 0; i < order.length; i++) {
+            sortedTypes[i] = types[order[i]];
+            sortedColors[i] = colors[order[i]];
+        }
+        if(sortedTypes.length < 2 || sortedTypes[0] != PieceType.KING.ordinal() || sortedColors[0] != WHITE ||
+                sortedTypes[1] != PieceType.KING.ordinal() || sortedColors[1] != BLACK) {
+            throw new RuntimeException("An ending needs one king of each side");
+        }
+        return new Material(sortedTypes, sortedColors);
+    }
+
+    /**
+     * the kings first, then white pieces before black pieces, each from the queen down to the pawn
+     */
+    static int sortKey(final int type, final int color) {
+        if(type == PieceType.KING.ordinal()) {
+            return color;
+        }
+        return 2 + color * NAME_ORDER.length + nameOrder(type);
+    }
+
+    public int getPieceCount() {
+        return this.types.length;
+    }
+
+    int getType(final int piece) {
+        return this.types[piece];
+    }
+
+    int getColor(final int piece) {
+        return this.colors[piece];
+    }
+
+    public boolean hasPawns() {
+        for(final int type : this.types) {
+            if(type == PieceType.PAWN.ordinal()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the same ending with the colors of the pieces swapped
+     */
+    public Material flip() {
+        if(this.flipped != null) {
+            return this.flipped;
+        }
+        final int[] flippedColors = new int[this.colors.length];
+        for(int i = 0; i < flippedColors.length; i++) {
+            flippedColors[i] = 1 - this.colors[i];
+        }
+        this.flipped = of(this.types.clone(), flippedColors);
+        return this.flipped;
+    }
+
+    /**
+     * the table of an ending is kept with the stronger side as white: more material, or the same material
+     * and the smaller name
+     * @return true if the ending is kept as it is, false if it is kept flipped
+     */
+    public boolean isCanonical() {
+        final int whiteValue = value(WHITE);
+        final int blackValue = value(BLACK);
+        if(whiteValue != blackValue) {
+            return whiteValue > blackValue;
+        }
+        return this.name.compareTo(flip().name) <= 0;
+    }
+
+    /**
+     * @return the ending as its table keeps it
+     */
+    public Material canonical() {
+        return isCanonical() ? this : flip();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other || other instanceof Material && this.name.equals(((Material) other).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    private int value(final int color) {
+        int value = 0;
+        for(int i = 0; i < this.types.length; i++) {
+            if(this.colors[i] == color) {
+                value += PieceType.values()[this.types[i]].getPieceValue();
+            }
+        }
+        return value;
+    }
+
+    private static String createName(final int[] types, final int[] colors) {
+        final StringBuilder builder = new StringBuilder();
+        for(final int color : new int[] {WHITE, BLACK}) {
+            if(color == BLACK) {
+                builder.append('v');
+            }
+            for(final PieceType pieceType : NAME_ORDER) {
+                for(int i = 0; i < types.length; i++) {
+                    if(colors[i] == color && types[i] == pieceType.ordinal()) {
+                        builder.append(pieceType.toString().toUpperCase());
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static int nameOrder(final int type) {
+        for(int i = 0; i < NAME_ORDER.length; i++) {
+            if(NAME_ORDER[i].ordinal() == type) {
+                return i;
+            }
+        }
+        throw new RuntimeException("Should not reach here");
+    }
+
+    private static PieceType typeOf(final char pieceLetter) {
+        for(final PieceType pieceType : NAME_ORDER) {
+            if(pieceType.toString().toUpperCase().charAt(0) == pieceLetter) {
+                return pieceType;
+            }
+        }
+        throw new RuntimeException("Invalid piece " + pieceLetter);
+    }
+}
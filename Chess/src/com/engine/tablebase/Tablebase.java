@@ -0,0 +1,118 @@
+package com.engine.tablebase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tablebase class that is the memory mapped table of one ending
+ *
+ * The file has a header of 16 bytes (a magic number, the number of positions, the bits of the distance and the
+ * bits of an entry) followed by the entries packed as a stream of bits with no padding between them. An entry is
+ * the outcome (2 bits) and the distance to mate in plies, so a probe is one unaligned read of 8 bytes and a shift
+ */
+public final class Tablebase implements Closeable {
+    static final int MAGIC = 0x54424C31;
+    static final int HEADER_SIZE = 16;
+    static final int DRAW = 0;
+    static final int WIN = 1;
+    static final int LOSS = 2;
+    static final int ILLEGAL = 3;
+
+    private final Material material;
+    private final TablebaseIndexer indexer;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int distanceBits;
+    private final int entryBits;
+    private final long entryMask;
+
+    private Tablebase(final Material material, final FileChannel channel, final MappedByteBuffer buffer) {
+        this.material = material;
+        this.indexer = new TablebaseIndexer(material);
+        this.channel = channel;
+        this.buffer = buffer;
+        if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != this.indexer.size()) {
+            throw new RuntimeException("Invalid tablebase of " + material);
+        }
+        this.distanceBits = buffer.getInt(8);
+        this.entryBits = buffer.getInt(12);
+        this.entryMask = (1L << this.entryBits) - 1;
+    }
+
+    /**
+     * Maps the table of an ending
+     * @param path is the file of the table
+     * @param material is the ending of the table
+     * @return the table, its file stays mapped until it is closed
+     */
+    public static Tablebase open(final Path path, final Material material) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new Tablebase(material, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Material getMaterial() {
+        return this.material;
+    }
+
+    TablebaseIndexer getIndexer() {
+        return this.indexer;
+    }
+
+    /**
+     * @return the entry of the position, its pieces must be in the order of the material
+     */
+    int probe(final TablebasePosition position) {
+        return probe(this.indexer.index(position));
+    }
+
+    int probe(final long index) {
+        final long bit = index * this.entryBits;
+        return (int) (this.buffer.getLong(HEADER_SIZE + (int) (bit >>> 3)) >>> (bit & 7) & this.entryMask);
+    }
+
+    static int outcome(final int entry) {
+        return entry & 0x3;
+    }
+
+    static int distance(final int entry) {
+        return entry >>> 2;
+    }
+
+    static int entry(final int outcome, final int distance) {
+        return distance << 2 | outcome;
+    }
+
+    static TablebaseResult toResult(final int entry) {
+        switch(outcome(entry)) {
+            case WIN:
+                return new TablebaseResult(TablebaseResult.Outcome.WIN, distance(entry));
+            case LOSS:
+                return new TablebaseResult(TablebaseResult.Outcome.LOSS, distance(entry));
+            case DRAW:
+                return new TablebaseResult(TablebaseResult.Outcome.DRAW, 0);
+            default:
+                return null;
+        }
+    }
+
+    public int getDistanceBits() {
+        return this.distanceBits;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,437 @@
+package com.engine.tablebase;
+
+import com.engine.pieces.PieceType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * TablebaseGenerator class that solves an ending by retrograde analysis and writes its table
+ *
+ * First every position is looked at once: illegal positions are marked, mates are losses at distance 0,
+ * stalemates are draws, and the moves that capture or promote are looked up in the tables of the smaller endings
+ * (which are generated first). Then the positions are solved by distance, from the mates backwards: the parents
+ * of a loss at distance n are wins at distance n + 1, and a parent of a win is checked again, when all its moves
+ * lead to wins of the opponent it is a loss at the distance of the longest one plus one. The parents are found
+ * by moving the pieces backwards (un-moves), so only the positions near the solved ones are visited.
+ * Positions that are never solved are draws.
+ *
+ * The first pass and every distance are split between the threads, a distance is done in two steps (first all
+ * its positions are marked, then their parents are visited) so the threads never see a half done distance
+ */
+public final class TablebaseGenerator {
+    private static final byte UNKNOWN = 0;
+    private static final byte WIN = 1;
+    private static final byte LOSS = 2;
+    private static final byte DRAW = 3;
+    private static final byte ILLEGAL = 4;
+    private static final int CHUNKS_PER_THREAD = 8;
+
+    private final EndgameTablebases tablebases;
+    private final int threads;
+
+    public TablebaseGenerator(final EndgameTablebases tablebases) {
+        this(tablebases, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TablebaseGenerator(final EndgameTablebases tablebases, final int threads) {
+        this.tablebases = tablebases;
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * Generates the table of an ending and the tables of all the endings it leads to, tables that already
+     * exist are kept
+     * @param material is the ending, like KRvK or KPvKP, of at most 4 pieces
+     */
+    public void generate(final Material material) throws IOException {
+        final Material canonical = material.canonical();
+        if(canonical.getPieceCount() <= 2 || this.tablebases.getTable(canonical) != null) {
+            return;
+        }
+        if(canonical.getPieceCount() > TablebasePosition.MAX_PIECES) {
+            throw new RuntimeException("Tablebases have at most " + TablebasePosition.MAX_PIECES + " pieces");
+        }
+        for(final Material subMaterial : subMaterials(canonical)) {
+            generate(subMaterial);
+        }
+        final ExecutorService service = Executors.newFixedThreadPool(this.threads);
+        try {
+            new Solver(canonical, service).solve();
+        } finally {
+            service.shutdownNow();
+        }
+        this.tablebases.tableAdded(canonical);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator <directory> <ending>... (like KQvK KRvKP)");
+            return;
+        }
+        try(final EndgameTablebases tablebases = new EndgameTablebases(Paths.get(args[0]))) {
+            final TablebaseGenerator generator = new TablebaseGenerator(tablebases);
+            for(int i = 1; i < args.length; i++) {
+                final long startTime = System.nanoTime();
+                generator.generate(Material.parse(args[i]));
+                System.out.println(args[i] + " generated in " + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+            }
+        }
+    }
+
+    /**
+     * @return the endings after a capture of a piece or a promotion of a pawn
+     */
+    private static List<Material> subMaterials(final Material material) {
+        final List<Material> subMaterials = new ArrayList<>();
+        final int count = material.getPieceCount();
+        for(int removed = 2; removed < count; removed++) {
+            final int[] types = new int[count - 1];
+            final int[] colors = new int[count - 1];
+            for(int i = 0, j = 0; i < count; i++) {
+                if(i != removed) {
+                    types[j] = material.getType(i);
+                    colors[j++] = material.getColor(i);
+                }
+            }
+            subMaterials.add(Material.of(types, colors));
+        }
+        for(int promoted = 2; promoted < count; promoted++) {
+            if(material.getType(promoted) == PieceType.PAWN.ordinal()) {
+                final int[] types = new int[count];
+                final int[] colors = new int[count];
+                for(int i = 0; i < count; i++) {
+                    types[i] = i == promoted ? PieceType.QUEEN.ordinal() : material.getType(i);
+                    colors[i] = material.getColor(i);
+                }
+                subMaterials.add(Material.of(types, colors));
+            }
+        }
+        return subMaterials;
+    }
+
+    /**
+     * Solver class that holds the work arrays of one ending while it is solved
+     */
+    private final class Solver {
+        private final Material material;
+        private final TablebaseIndexer indexer;
+        private final ExecutorService service;
+        private final byte[] states;
+        private final short[] distances;
+        // the positions to solve at every distance, an entry is the index shifted left and 1 for a loss
+        private final List<LongList> buckets;
+
+        Solver(final Material material, final ExecutorService service) {
+            this.material = material;
+            this.indexer = new TablebaseIndexer(material);
+            this.service = service;
+            this.states = new byte[(int) this.indexer.size()];
+            this.distances = new short[(int) this.indexer.size()];
+            this.buckets = new ArrayList<>();
+        }
+
+        void solve() throws IOException {
+            final int size = this.states.length;
+            final int chunks = threads * CHUNKS_PER_THREAD;
+            final List<Callable<List<LongList>>> tasks = new ArrayList<>();
+            for(int chunk = 0; chunk < chunks; chunk++) {
+                final int start = (int) ((long) size * chunk / chunks);
+                final int end = (int) ((long) size * (chunk + 1) / chunks);
+                tasks.add(() -> initialize(start, end));
+            }
+            for(final List<LongList> chunkBuckets : runAll(tasks)) {
+                merge(chunkBuckets);
+            }
+            for(int distance = 0; distance < this.buckets.size(); distance++) {
+                solveDistance(distance);
+            }
+            int maxDistance = 0;
+            for(int index = 0; index < size; index++) {
+                if(this.states[index] == UNKNOWN) {
+                    this.states[index] = DRAW;
+                } else if(this.states[index] == WIN || this.states[index] == LOSS) {
+                    maxDistance = Math.max(maxDistance, this.distances[index]);
+                }
+            }
+            write(maxDistance);
+        }
+
+        /**
+         * the first pass over the positions from start to end
+         * @return the positions to solve by distance
+         */
+        private List<LongList> initialize(final int start, final int end) {
+            final List<LongList> chunkBuckets = new ArrayList<>();
+            final TablebasePosition position = new TablebasePosition();
+            final TablebasePosition child = new TablebasePosition();
+            final MoveSummary summary = new MoveSummary();
+            for(int index = start; index < end; index++) {
+                this.indexer.decode(index, position);
+                if(!position.isLegal() || this.indexer.index(position) != index) {
+                    this.states[index] = ILLEGAL;
+                    continue;
+                }
+                summary.reset();
+                final int legalMoves = position.generateMoves(child, (nextPosition, leavesTable) -> {
+                    if(leavesTable) {
+                        summary.addExit(tablebases.probeEntry(nextPosition));
+                    } else {
+                        summary.inTableMoves++;
+                    }
+                });
+                if(legalMoves == 0) {
+                    if(position.isInCheck()) {
+                        add(chunkBuckets, 0, index, true);
+                    } else {
+                        this.states[index] = DRAW;
+                    }
+                } else if(summary.exitWin >= 0) {
+                    add(chunkBuckets, summary.exitWin, index, false);
+                } else if(summary.inTableMoves == 0 && !summary.exitDraw) {
+                    add(chunkBuckets, summary.exitLoss, index, true);
+                }
+            }
+            return chunkBuckets;
+        }
+
+        private void solveDistance(final int distance) throws IOException {
+            final LongList bucket = this.buckets.get(distance);
+            // first every position of the distance is marked, then the parents are visited
+            for(int i = 0; i < bucket.size; i++) {
+                final int index = (int) (bucket.values[i] >>> 1);
+                if(this.states[index] == UNKNOWN) {
+                    this.states[index] = (bucket.values[i] & 1) != 0 ? LOSS : WIN;
+                    this.distances[index] = (short) distance;
+                } else {
+                    bucket.values[i] = -1;
+                }
+            }
+            final int chunks = Math.min(threads * CHUNKS_PER_THREAD, Math.max(bucket.size / 1024, 1));
+            final List<Callable<List<LongList>>> tasks = new ArrayList<>();
+            for(int chunk = 0; chunk < chunks; chunk++) {
+                final int start = (int) ((long) bucket.size * chunk / chunks);
+                final int end = (int) ((long) bucket.size * (chunk + 1) / chunks);
+                tasks.add(() -> visitParents(bucket, start, end, distance));
+            }
+            for(final List<LongList> chunkBuckets : runAll(tasks)) {
+                merge(chunkBuckets);
+            }
+            // the bucket is done, its memory is not needed anymore
+            this.buckets.set(distance, new LongList());
+        }
+
+        private List<LongList> visitParents(final LongList bucket, final int start, final int end, final int distance) {
+            final List<LongList> chunkBuckets = new ArrayList<>();
+            final TablebasePosition position = new TablebasePosition();
+            final TablebasePosition parent = new TablebasePosition();
+            final TablebasePosition child = new TablebasePosition();
+            final MoveSummary summary = new MoveSummary();
+            for(int i = start; i < end; i++) {
+                if(bucket.values[i] == -1) {
+                    continue;
+                }
+                final int index = (int) (bucket.values[i] >>> 1);
+                final boolean loss = this.states[index] == LOSS;
+                this.indexer.decode(index, position);
+                position.generateUnmoves(parent, (parentPosition, leavesTable) -> {
+                    final int parentIndex = (int) this.indexer.index(parentPosition);
+                    if(this.states[parentIndex] != UNKNOWN) {
+                        return;
+                    }
+                    if(loss) {
+                        add(chunkBuckets, distance + 1, parentIndex, false);
+                    } else {
+                        final int lossDistance = findLossDistance(parentPosition, child, summary);
+                        if(lossDistance >= 0) {
+                            add(chunkBuckets, lossDistance, parentIndex, true);
+                        }
+                    }
+                });
+            }
+            return chunkBuckets;
+        }
+
+        /**
+         * checks if every move of the position leads to a win of the opponent
+         * @return the distance of the loss, or -1 when the position is not (yet) lost
+         */
+        private int findLossDistance(final TablebasePosition position, final TablebasePosition child,
+                                     final MoveSummary summary) {
+            summary.reset();
+            position.generateMoves(child, (nextPosition, leavesTable) -> {
+                if(leavesTable) {
+                    summary.addExit(tablebases.probeEntry(nextPosition));
+                    return;
+                }
+                final int childIndex = (int) this.indexer.index(nextPosition);
+                if(this.states[childIndex] == WIN) {
+                    summary.exitLoss = Math.max(summary.exitLoss, this.distances[childIndex] + 1);
+                } else {
+                    summary.exitDraw = true;
+                }
+            });
+            return summary.exitWin < 0 && !summary.exitDraw ? summary.exitLoss : -1;
+        }
+
+        private void add(final List<LongList> chunkBuckets, final int distance, final int index, final boolean loss) {
+            while(chunkBuckets.size() <= distance) {
+                chunkBuckets.add(new LongList());
+            }
+            chunkBuckets.get(distance).add((long) index << 1 | (loss ? 1 : 0));
+        }
+
+        private void merge(final List<LongList> chunkBuckets) {
+            for(int distance = 0; distance < chunkBuckets.size(); distance++) {
+                while(this.buckets.size() <= distance) {
+                    this.buckets.add(new LongList());
+                }
+                this.buckets.get(distance).addAll(chunkBuckets.get(distance));
+            }
+        }
+
+        private <T> List<T> runAll(final List<Callable<T>> tasks) throws IOException {
+            final List<T> results = new ArrayList<>(tasks.size());
+            try {
+                final List<Future<T>> futures = new ArrayList<>(tasks.size());
+                for(final Callable<T> task : tasks) {
+                    futures.add(this.service.submit(task));
+                }
+                for(final Future<T> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("The generation of " + this.material + " was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("The generation of " + this.material + " failed", e.getCause());
+            }
+            return results;
+        }
+
+        /**
+         * packs the entries as a stream of bits and writes the table, the file is renamed at the end so a table
+         * that is half written is never opened
+         */
+        private void write(final int maxDistance) throws IOException {
+            final int distanceBits = 32 - Integer.numberOfLeadingZeros(Math.max(maxDistance, 1));
+            final int entryBits = 2 + distanceBits;
+            final Path path = tablebases.getPath(this.material);
+            Files.createDirectories(path.getParent());
+            final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+            try(final OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporaryPath), 1 << 16)) {
+                final DataOutputStream output = new DataOutputStream(stream);
+                output.writeInt(Integer.reverseBytes(Tablebase.MAGIC));
+                output.writeInt(Integer.reverseBytes(this.states.length));
+                output.writeInt(Integer.reverseBytes(distanceBits));
+                output.writeInt(Integer.reverseBytes(entryBits));
+                long bits = 0;
+                int bitCount = 0;
+                for(int index = 0; index < this.states.length; index++) {
+                    bits |= (long) entryOf(index) << bitCount;
+                    bitCount += entryBits;
+                    while(bitCount >= 8) {
+                        output.write((int) bits);
+                        bits >>>= 8;
+                        bitCount -= 8;
+                    }
+                }
+                if(bitCount > 0) {
+                    output.write((int) bits);
+                }
+                // a probe always reads 8 bytes
+                output.write(new byte[Long.BYTES]);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        private int entryOf(final int index) {
+            switch(this.states[index]) {
+                case WIN:
+                    return Tablebase.entry(Tablebase.WIN, this.distances[index]);
+                case LOSS:
+                    return Tablebase.entry(Tablebase.LOSS, this.distances[index]);
+                case DRAW:
+                    return Tablebase.entry(Tablebase.DRAW, 0);
+                default:
+                    return Tablebase.entry(Tablebase.ILLEGAL, 0);
+            }
+        }
+    }
+
+    /**
+     * MoveSummary class that collects what the moves of one position lead to
+     */
+    private static final class MoveSummary {
+        // the shortest win through a move that leaves the table, or -1
+        int exitWin;
+        // the longest loss through the moves that were looked at
+        int exitLoss;
+        boolean exitDraw;
+        int inTableMoves;
+
+        void reset() {
+            this.exitWin = -1;
+            this.exitLoss = 0;
+            this.exitDraw = false;
+            this.inTableMoves = 0;
+        }
+
+        /**
+         * adds a move to another ending, the entry of the child is from the side of the opponent
+         */
+        void addExit(final int entry) {
+            if(entry < 0) {
+                throw new RuntimeException("A table the ending leads to is missing");
+            }
+            final int distance = Tablebase.distance(entry) + 1;
+            switch(Tablebase.outcome(entry)) {
+                case Tablebase.LOSS:
+                    this.exitWin = this.exitWin < 0 ? distance : Math.min(this.exitWin, distance);
+                    break;
+                case Tablebase.WIN:
+                    this.exitLoss = Math.max(this.exitLoss, distance);
+                    break;
+                default:
+                    this.exitDraw = true;
+            }
+        }
+    }
+
+    /**
+     * LongList class that is a growing array of longs
+     */
+    private static final class LongList {
+        long[] values = new long[16];
+        int size;
+
+        void add(final long value) {
+            if(this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+
+        void addAll(final LongList other) {
+            if(this.size + other.size > this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(this.size + other.size, this.values.length * 2));
+            }
+            System.arraycopy(other.values, 0, this.values, this.size, other.size);
+            this.size += other.size;
+        }
+    }
+}
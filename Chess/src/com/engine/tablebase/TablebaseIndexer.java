@@ -0,0 +1,129 @@
+package com.engine.tablebase;
+
+import com.engine.board.BoardUtils;
+
+import java.util.Arrays;
+
+/**
+ * TablebaseIndexer class that numbers the positions of an ending, reduced by the symmetries of the board
+ *
+ * An ending without pawns looks the same after any rotation or mirror of the board, so the white king is always
+ * moved into the a1-d1-d4 triangle (10 tiles). Pawns only allow the left-right mirror, so the white king is moved
+ * to the files a-d (32 tiles). Of all the symmetric copies of a position (and the swaps of two identical pieces)
+ * the one with the smallest index is the position's index, the other indexes are never used.
+ *
+ * index = ((side to move * king slots + white king slot) * 64 + black king) * 64 ... for every other piece
+ */
+final class TablebaseIndexer {
+    private static final int NUM_SYMMETRIES = 8;
+    private static final int NO_SLOT = -1;
+
+    private final Material material;
+    private final int pieceCount;
+    private final int[] kingSlots;
+    private final int[] slotSquares;
+    private final int symmetries;
+    private final boolean identicalPieces;
+    private final long size;
+
+    TablebaseIndexer(final Material material) {
+        this.material = material;
+        this.pieceCount = material.getPieceCount();
+        final boolean pawns = material.hasPawns();
+        this.symmetries = pawns ? 2 : NUM_SYMMETRIES;
+        this.kingSlots = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(this.kingSlots, NO_SLOT);
+        int slots = 0;
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final int row = square / 8;
+            final int column = square % 8;
+            // with no pawns the triangle a1, d1, d4: the files a-d and the rank is not above the file
+            final boolean inRegion = pawns ? column < 4 : column < 4 && 7 - row <= column;
+            if(inRegion) {
+                this.kingSlots[square] = slots++;
+            }
+        }
+        this.slotSquares = new int[slots];
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            if(this.kingSlots[square] != NO_SLOT) {
+                this.slotSquares[this.kingSlots[square]] = square;
+            }
+        }
+        this.identicalPieces = this.pieceCount == 4 && material.getType(2) == material.getType(3) &&
+                material.getColor(2) == material.getColor(3);
+        this.size = 2L * slots << 6 * (this.pieceCount - 1);
+    }
+
+    Material getMaterial() {
+        return this.material;
+    }
+
+    long size() {
+        return this.size;
+    }
+
+    /**
+     * Calculates the index of a position of the ending, its pieces must be in the order of the material
+     * @param position is the position
+     * @return the smallest index of the symmetric copies of the position
+     */
+    long index(final TablebasePosition position) {
+        long bestIndex = Long.MAX_VALUE;
+        for(int symmetry = 0; symmetry < this.symmetries; symmetry++) {
+            final int kingSlot = this.kingSlots[transform(position.squares[0], symmetry)];
+            if(kingSlot == NO_SLOT) {
+                continue;
+            }
+            long index = position.sideToMove * this.slotSquares.length + kingSlot;
+            for(int i = 1; i < this.pieceCount; i++) {
+                index = index << 6 | transform(position.squares[i], symmetry);
+            }
+            bestIndex = Math.min(bestIndex, index);
+            if(this.identicalPieces) {
+                // the same position with the two identical pieces swapped
+                final long swapped = (index & ~0xFFFL) | (index & 0x3F) << 6 | (index >>> 6 & 0x3F);
+                bestIndex = Math.min(bestIndex, swapped);
+            }
+        }
+        return bestIndex;
+    }
+
+    /**
+     * Creates the position of an index
+     * @param index is the index
+     * @param position is filled with the position, it may be illegal or not the smallest copy
+     */
+    void decode(long index, final TablebasePosition position) {
+        position.count = this.pieceCount;
+        for(int i = this.pieceCount - 1; i >= 1; i--) {
+            position.squares[i] = (int) (index & 0x3F);
+            index >>>= 6;
+        }
+        position.squares[0] = this.slotSquares[(int) (index % this.slotSquares.length)];
+        position.sideToMove = (int) (index / this.slotSquares.length);
+        for(int i = 0; i < this.pieceCount; i++) {
+            position.types[i] = this.material.getType(i);
+            position.colors[i] = this.material.getColor(i);
+        }
+    }
+
+    /**
+     * the symmetries of the board: bit 0 mirrors the files, bit 1 mirrors the rows, bit 2 swaps rows and files
+     */
+    private static int transform(final int square, final int symmetry) {
+        int row = square / 8;
+        int column = square % 8;
+        if((symmetry & 4) != 0) {
+            final int swap = row;
+            row = 7 - column;
+            column = 7 - swap;
+        }
+        if((symmetry & 1) != 0) {
+            column = 7 - column;
+        }
+        if((symmetry & 2) != 0) {
+            row = 7 - row;
+        }
+        return row * 8 + column;
+    }
+}
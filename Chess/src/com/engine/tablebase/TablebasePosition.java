@@ -0,0 +1,376 @@
+package com.engine.tablebase;
+
+import com.engine.board.BoardUtils;
+import com.engine.pieces.PieceType;
+
+/**
+ * TablebasePosition class that is a position of a few pieces in plain arrays, the generator makes millions of
+ * them so it doesn't build a Board for each
+ *
+ * The tiles are numbered like the board (0 is a8, 63 is h1). There is no castling and no en passant in a
+ * tablebase, a pawn that reaches the last row always becomes a queen like on the board.
+ * Piece 0 is always the white king and piece 1 the black king
+ */
+final class TablebasePosition {
+    static final int MAX_PIECES = 4;
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+    private static final int[] KNIGHT_ROW_STEPS = {-2, -2, -1, -1, 1, 1, 2, 2};
+    private static final int[] KNIGHT_COLUMN_STEPS = {-1, 1, -2, 2, -2, 2, -1, 1};
+    private static final int[] KING_ROW_STEPS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] KING_COLUMN_STEPS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final int[] DIAGONAL_ROW_STEPS = {-1, -1, 1, 1};
+    private static final int[] DIAGONAL_COLUMN_STEPS = {-1, 1, -1, 1};
+    private static final int[] ORTHOGONAL_ROW_STEPS = {-1, 0, 0, 1};
+    private static final int[] ORTHOGONAL_COLUMN_STEPS = {0, -1, 1, 0};
+    private static final long[] KNIGHT_ATTACKS = stepAttacks(KNIGHT_ROW_STEPS, KNIGHT_COLUMN_STEPS);
+    private static final long[] KING_ATTACKS = stepAttacks(KING_ROW_STEPS, KING_COLUMN_STEPS);
+    // the tiles strictly between two tiles on a line, or -1 when they are not on a line
+    private static final long[][] BETWEEN = initializeBetween();
+
+    int count;
+    final int[] squares = new int[MAX_PIECES];
+    final int[] types = new int[MAX_PIECES];
+    final int[] colors = new int[MAX_PIECES];
+    int sideToMove;
+
+    interface Visitor {
+        /**
+         * called for every child position, the position is reused so it must not be kept
+         * @param child is the position after the move
+         * @param leavesTable is true when the move captured or promoted, so the child belongs to another ending
+         */
+        void visit(TablebasePosition child, boolean leavesTable);
+    }
+
+    void set(final Material material, final int[] pieceSquares, final int sideToMove) {
+        this.count = material.getPieceCount();
+        for(int i = 0; i < this.count; i++) {
+            this.squares[i] = pieceSquares[i];
+            this.types[i] = material.getType(i);
+            this.colors[i] = material.getColor(i);
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    void copyFrom(final TablebasePosition other) {
+        this.count = other.count;
+        System.arraycopy(other.squares, 0, this.squares, 0, other.count);
+        System.arraycopy(other.types, 0, this.types, 0, other.count);
+        System.arraycopy(other.colors, 0, this.colors, 0, other.count);
+        this.sideToMove = other.sideToMove;
+    }
+
+    Material getMaterial() {
+        final int[] pieceTypes = new int[this.count];
+        final int[] pieceColors = new int[this.count];
+        System.arraycopy(this.types, 0, pieceTypes, 0, this.count);
+        System.arraycopy(this.colors, 0, pieceColors, 0, this.count);
+        return Material.of(pieceTypes, pieceColors);
+    }
+
+    /**
+     * puts the pieces in the order of the index of their material, after a capture or a promotion
+     */
+    void sortPieces() {
+        for(int i = 1; i < this.count; i++) {
+            for(int j = i; j > 0 && isBefore(j, j - 1); j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    /**
+     * swaps the colors of the pieces and mirrors the rows, the result is the same position from the other side
+     */
+    void flipColors() {
+        for(int i = 0; i < this.count; i++) {
+            this.colors[i] = 1 - this.colors[i];
+            this.squares[i] = this.squares[i] ^ 56;
+        }
+        this.sideToMove = 1 - this.sideToMove;
+        sortPieces();
+    }
+
+    long occupancy() {
+        long occupancy = 0;
+        for(int i = 0; i < this.count; i++) {
+            occupancy |= 1L << this.squares[i];
+        }
+        return occupancy;
+    }
+
+    /**
+     * checks that the pieces are on different tiles, no pawn is on the first or last row and the player who is
+     * not to move is not in check
+     */
+    boolean isLegal() {
+        long occupancy = 0;
+        for(int i = 0; i < this.count; i++) {
+            final long bit = 1L << this.squares[i];
+            if((occupancy & bit) != 0) {
+                return false;
+            }
+            occupancy |= bit;
+            if(this.types[i] == PAWN && (this.squares[i] < 8 || this.squares[i] >= 56)) {
+                return false;
+            }
+        }
+        return !isAttacked(this.squares[1 - this.sideToMove], this.sideToMove, occupancy);
+    }
+
+    boolean isInCheck() {
+        return isAttacked(this.squares[this.sideToMove], 1 - this.sideToMove, occupancy());
+    }
+
+    /**
+     * @return true if a piece of the color attacks the tile
+     */
+    boolean isAttacked(final int target, final int color, final long occupancy) {
+        for(int i = 0; i < this.count; i++) {
+            if(this.colors[i] == color && this.squares[i] != target &&
+                    attacks(this.types[i], color, this.squares[i], target, occupancy)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generates the legal moves of the player to move
+     * @param child is the position the moves are made on, reused for every move
+     * @param visitor gets every position after a legal move
+     * @return the number of legal moves
+     */
+    int generateMoves(final TablebasePosition child, final Visitor visitor) {
+        final long occupancy = occupancy();
+        int legalMoves = 0;
+        for(int i = 0; i < this.count; i++) {
+            if(this.colors[i] != this.sideToMove) {
+                continue;
+            }
+            final int from = this.squares[i];
+            final int type = this.types[i];
+            if(type == PAWN) {
+                final int direction = this.sideToMove == Material.WHITE ? -8 : 8;
+                final int push = from + direction;
+                if((occupancy & 1L << push) == 0) {
+                    legalMoves += tryMove(child, visitor, i, push);
+                    final int startRow = this.sideToMove == Material.WHITE ? 6 : 1;
+                    final int jump = push + direction;
+                    if(from / 8 == startRow && (occupancy & 1L << jump) == 0) {
+                        legalMoves += tryMove(child, visitor, i, jump);
+                    }
+                }
+                for(final int columnStep : new int[] {-1, 1}) {
+                    final int column = from % 8 + columnStep;
+                    if(column >= 0 && column < 8 && isOpponentPiece(push + columnStep)) {
+                        legalMoves += tryMove(child, visitor, i, push + columnStep);
+                    }
+                }
+                continue;
+            }
+            for(int to = 0; to < BoardUtils.NUM_TILES; to++) {
+                if(to != from && attacks(type, this.sideToMove, from, to, occupancy) && !isOwnPiece(to)) {
+                    legalMoves += tryMove(child, visitor, i, to);
+                }
+            }
+        }
+        return legalMoves;
+    }
+
+    /**
+     * Generates the positions the player who is not to move could have come from with a move that doesn't
+     * capture or promote (those come from other endings), only legal positions are visited
+     * @param parent is the position before the move, reused for every move
+     * @param visitor gets every parent position
+     */
+    void generateUnmoves(final TablebasePosition parent, final Visitor visitor) {
+        final int mover = 1 - this.sideToMove;
+        final long occupancy = occupancy();
+        for(int i = 0; i < this.count; i++) {
+            if(this.colors[i] != mover) {
+                continue;
+            }
+            final int to = this.squares[i];
+            if(this.types[i] == PAWN) {
+                final int direction = mover == Material.WHITE ? -8 : 8;
+                final int from = to - direction;
+                // a pawn can't come from the first row of its side
+                final int firstRow = mover == Material.WHITE ? 7 : 0;
+                if(from / 8 != firstRow && (occupancy & 1L << from) == 0) {
+                    tryUnmove(parent, visitor, i, from);
+                    final int jumpRow = mover == Material.WHITE ? 4 : 3;
+                    final int jumpFrom = from - direction;
+                    if(to / 8 == jumpRow && (occupancy & 1L << jumpFrom) == 0) {
+                        tryUnmove(parent, visitor, i, jumpFrom);
+                    }
+                }
+                continue;
+            }
+            for(int from = 0; from < BoardUtils.NUM_TILES; from++) {
+                if(from != to && (occupancy & 1L << from) == 0 && attacks(this.types[i], mover, to, from, occupancy)) {
+                    tryUnmove(parent, visitor, i, from);
+                }
+            }
+        }
+    }
+
+    private int tryMove(final TablebasePosition child, final Visitor visitor, final int piece, final int to) {
+        child.copyFrom(this);
+        boolean leavesTable = false;
+        child.squares[piece] = to;
+        for(int j = 0; j < child.count; j++) {
+            if(j != piece && child.squares[j] == to) {
+                child.remove(j);
+                leavesTable = true;
+                break;
+            }
+        }
+        final int movedPiece = leavesTable ? child.indexOfSquare(to) : piece;
+        if(child.types[movedPiece] == PAWN && (to < 8 || to >= 56)) {
+            child.types[movedPiece] = QUEEN;
+            leavesTable = true;
+        }
+        if(child.isAttacked(child.squares[child.sideToMove], 1 - child.sideToMove, child.occupancy())) {
+            return 0;
+        }
+        child.sideToMove = 1 - child.sideToMove;
+        if(leavesTable) {
+            child.sortPieces();
+        }
+        visitor.visit(child, leavesTable);
+        return 1;
+    }
+
+    private void tryUnmove(final TablebasePosition parent, final Visitor visitor, final int piece, final int from) {
+        parent.copyFrom(this);
+        parent.squares[piece] = from;
+        parent.sideToMove = 1 - this.sideToMove;
+        if(parent.isLegal()) {
+            visitor.visit(parent, false);
+        }
+    }
+
+    private void remove(final int piece) {
+        for(int j = piece; j < this.count - 1; j++) {
+            this.squares[j] = this.squares[j + 1];
+            this.types[j] = this.types[j + 1];
+            this.colors[j] = this.colors[j + 1];
+        }
+        this.count--;
+    }
+
+    private int indexOfSquare(final int square) {
+        for(int i = 0; i < this.count; i++) {
+            if(this.squares[i] == square) {
+                return i;
+            }
+        }
+        throw new RuntimeException("Should not reach here");
+    }
+
+    private boolean isOwnPiece(final int square) {
+        for(int i = 0; i < this.count; i++) {
+            if(this.squares[i] == square) {
+                return this.colors[i] == this.sideToMove;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOpponentPiece(final int square) {
+        for(int i = 0; i < this.count; i++) {
+            if(this.squares[i] == square) {
+                return this.colors[i] != this.sideToMove;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBefore(final int i, final int j) {
+        return Material.sortKey(this.types[i], this.colors[i]) < Material.sortKey(this.types[j], this.colors[j]);
+    }
+
+    private void swap(final int i, final int j) {
+        int value = this.squares[i];
+        this.squares[i] = this.squares[j];
+        this.squares[j] = value;
+        value = this.types[i];
+        this.types[i] = this.types[j];
+        this.types[j] = value;
+        value = this.colors[i];
+        this.colors[i] = this.colors[j];
+        this.colors[j] = value;
+    }
+
+    /**
+     * checks if a piece on the from tile attacks the target tile, the pieces of the occupancy block the sliders
+     */
+    static boolean attacks(final int type, final int color, final int from, final int target, final long occupancy) {
+        if(type == KNIGHT) {
+            return (KNIGHT_ATTACKS[from] & 1L << target) != 0;
+        } else if(type == KING) {
+            return (KING_ATTACKS[from] & 1L << target) != 0;
+        } else if(type == PAWN) {
+            final int rowStep = color == Material.WHITE ? -1 : 1;
+            return target / 8 == from / 8 + rowStep && Math.abs(target % 8 - from % 8) == 1;
+        }
+        final long between = BETWEEN[from][target];
+        if(between == -1 || (between & occupancy) != 0) {
+            return false;
+        }
+        final boolean diagonal = from / 8 != target / 8 && from % 8 != target % 8;
+        if(type == BISHOP) {
+            return diagonal;
+        } else if(type == ROOK) {
+            return !diagonal;
+        }
+        return type == QUEEN;
+    }
+
+    private static long[] stepAttacks(final int[] rowSteps, final int[] columnSteps) {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            for(int i = 0; i < rowSteps.length; i++) {
+                final int row = square / 8 + rowSteps[i];
+                final int column = square % 8 + columnSteps[i];
+                if(row >= 0 && row < 8 && column >= 0 && column < 8) {
+                    attacks[square] |= 1L << (row * 8 + column);
+                }
+            }
+        }
+        return attacks;
+    }
+
+    private static long[][] initializeBetween() {
+        final long[][] between = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+        for(final long[] row : between) {
+            java.util.Arrays.fill(row, -1);
+        }
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            addRays(between, square, DIAGONAL_ROW_STEPS, DIAGONAL_COLUMN_STEPS);
+            addRays(between, square, ORTHOGONAL_ROW_STEPS, ORTHOGONAL_COLUMN_STEPS);
+        }
+        return between;
+    }
+
+    private static void addRays(final long[][] between, final int square, final int[] rowSteps, final int[] columnSteps) {
+        for(int i = 0; i < rowSteps.length; i++) {
+            long path = 0;
+            int row = square / 8 + rowSteps[i];
+            int column = square % 8 + columnSteps[i];
+            while(row >= 0 && row < 8 && column >= 0 && column < 8) {
+                final int target = row * 8 + column;
+                between[square][target] = path;
+                path |= 1L << target;
+                row += rowSteps[i];
+                column += columnSteps[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.engine.tablebase;
+
+/**
+ * TablebaseResult class that is the value of a position in a tablebase, from the side of the player to move
+ */
+public final class TablebaseResult {
+    public enum Outcome {
+        WIN, DRAW, LOSS
+    }
+
+    private final Outcome outcome;
+    private final int distanceToMate;
+
+    TablebaseResult(final Outcome outcome, final int distanceToMate) {
+        this.outcome = outcome;
+        this.distanceToMate = distanceToMate;
+    }
+
+    public Outcome getOutcome() {
+        return this.outcome;
+    }
+
+    /**
+     * @return the number of plies until the mate with the best play of both players, 0 for a draw
+     */
+    public int getDistanceToMate() {
+        return this.distanceToMate;
+    }
+
+    @Override
+    public String toString() {
+        return this.outcome == Outcome.DRAW ? "DRAW" : this.outcome + " in " + this.distanceToMate;
+    }
+}
@@ -0,0 +1,90 @@
+package com.engine.tournament;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.pgn.PgnGame;
+import com.engine.pieces.PieceType;
+import com.engine.player.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Adjudicator class that follows a game and tells when it is over by the rules: checkmate, stalemate, threefold
+ * repetition and the fifty-move rule
+ */
+public final class Adjudicator {
+    public static final String CHECKMATE = "checkmate";
+    public static final String STALEMATE = "stalemate";
+    public static final String THREEFOLD_REPETITION = "threefold repetition";
+    public static final String FIFTY_MOVE_RULE = "fifty-move rule";
+    private static final int FIFTY_MOVE_RULE_PLIES = 100;
+    private static final int REPETITIONS_FOR_DRAW = 3;
+
+    // the positions since the last capture or pawn move, only they can be repeated
+    private final List<Long> positions;
+    private Board board;
+    private int halfMoveClock;
+
+    public Adjudicator(final Board startBoard) {
+        this(startBoard, 0);
+    }
+
+    /**
+     * @param halfMoveClock is the plies since the last capture or pawn move before the start board, the half move
+     *                      clock of its FEN
+     */
+    public Adjudicator(final Board startBoard, final int halfMoveClock) {
+        this.positions = new ArrayList<>();
+        this.board = startBoard;
+        this.halfMoveClock = halfMoveClock;
+        this.positions.add(startBoard.getZobristHash());
+    }
+
+    /**
+     * follows a move of the game
+     * @param move is the move made on the current board
+     * @param nextBoard is the board after it
+     */
+    public void addMove(final Move move, final Board nextBoard) {
+        if(move.isAttack() || move.getMovedPiece().getPieceType() == PieceType.PAWN) {
+            this.positions.clear();
+            this.halfMoveClock = 0;
+        } else {
+            this.halfMoveClock++;
+        }
+        this.board = nextBoard;
+        this.positions.add(nextBoard.getZobristHash());
+    }
+
+    /**
+     * @return why the game on the current board is over, or null when it goes on
+     */
+    public String getTermination() {
+        final Player player = this.board.getCurrentPlayer();
+        if(player.isInCheckMate()) {
+            return CHECKMATE;
+        }
+        if(player.isInStaleMate()) {
+            return STALEMATE;
+        }
+        if(Collections.frequency(this.positions, this.board.getZobristHash()) >= REPETITIONS_FOR_DRAW) {
+            return THREEFOLD_REPETITION;
+        }
+        if(this.halfMoveClock >= FIFTY_MOVE_RULE_PLIES) {
+            return FIFTY_MOVE_RULE;
+        }
+        return null;
+    }
+
+    /**
+     * @return the result of a game that ended with the termination, one of the PgnGame results
+     */
+    public String getResult(final String termination) {
+        if(!termination.equals(CHECKMATE)) {
+            return PgnGame.DRAW;
+        }
+        return this.board.getCurrentPlayer().getAlliance().isWhite() ? PgnGame.BLACK_WINS : PgnGame.WHITE_WINS;
+    }
+}
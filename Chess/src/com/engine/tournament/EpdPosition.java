@@ -0,0 +1,180 @@
+package com.engine.tournament;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.pgn.AlgebraicNotation;
+import com.engine.uci.UciEngine;
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EpdPosition class that holds a position of a test suite in the extended position description (EPD) format,
+ * like "r1b2rk1/ppq1bppp/2p1pn2/8/2NP4/2N1P3/PP2BPPP/2RQK2R w K - bm Nxe5; id \"STS.001\";"
+ *
+ * The first four fields are the ones of a FEN, the rest are operations: an opcode and its operands ended by a
+ * semicolon. The suite runner uses "bm" (the best moves, one of them must be played), "am" (the moves to avoid)
+ * and "id". The moves are in SAN, the long algebraic notation of UCI is accepted too
+ */
+public final class EpdPosition {
+    private final String fen;
+    private final Map<String, List<String>> operations;
+    private final Board board;
+    private final List<Move> bestMoves;
+    private final List<Move> avoidMoves;
+
+    private EpdPosition(final String fen, final Map<String, List<String>> operations) {
+        this.fen = fen;
+        this.operations = operations;
+        this.board = FenUtilities.createGameFromFEN(fen);
+        this.bestMoves = resolveMoves(this.board, getOperands("bm"));
+        this.avoidMoves = resolveMoves(this.board, getOperands("am"));
+    }
+
+    /**
+     * Parses an EPD line
+     * @return the position, or null when the line is empty or a comment that starts with #
+     */
+    public static EpdPosition parse(final String line) {
+        final String text = line.trim();
+        if(text.isEmpty() || text.startsWith("#")) {
+            return null;
+        }
+        int index = 0;
+        for(int field = 0; field < 4; field++) {
+            index = text.indexOf(' ', index);
+            if(index < 0) {
+                if(field == 3) {
+                    index = text.length();
+                    break;
+                }
+                throw new RuntimeException("Not an EPD position: " + line);
+            }
+            if(field < 3) {
+                index++;
+            }
+        }
+        return new EpdPosition(text.substring(0, index), parseOperations(text, index));
+    }
+
+    /**
+     * Reads a suite, one position per line
+     */
+    public static List<EpdPosition> read(final Path file) throws IOException {
+        final List<EpdPosition> positions = new ArrayList<>();
+        for(final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            final EpdPosition position = parse(line);
+            if(position != null) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * splits the operations on the semicolons, a quoted operand keeps its spaces and semicolons
+     */
+    private static Map<String, List<String>> parseOperations(final String text, final int from) {
+        final Map<String, List<String>> operations = new LinkedHashMap<>();
+        final List<String> tokens = new ArrayList<>();
+        final StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        for(int i = from; i <= text.length(); i++) {
+            final char c = i < text.length() ? text.charAt(i) : ';';
+            if(c == '"') {
+                quoted = !quoted;
+            } else if(quoted) {
+                token.append(c);
+            } else if(c == ' ' || c == '\t' || c == ';') {
+                if(token.length() > 0) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+                if(c == ';' && !tokens.isEmpty()) {
+                    operations.put(tokens.get(0), ImmutableList.copyOf(tokens.subList(1, tokens.size())));
+                    tokens.clear();
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        return operations;
+    }
+
+    private static List<Move> resolveMoves(final Board board, final List<String> texts) {
+        final ImmutableList.Builder<Move> moves = ImmutableList.builder();
+        for(final String text : texts) {
+            Move move = AlgebraicNotation.parseSan(board, text);
+            if(move == null) {
+                move = UciEngine.parseMove(board, text);
+            }
+            if(move == null) {
+                throw new RuntimeException("The move " + text + " is not legal in " + FenUtilities.createFENFromGame(board));
+            }
+            moves.add(move);
+        }
+        return moves.build();
+    }
+
+    /**
+     * @return the first four fields of the position
+     */
+    public String getFen() {
+        return this.fen;
+    }
+
+    public Board getBoard() {
+        return this.board;
+    }
+
+    /**
+     * @return the operands of an opcode, empty when the position does not have it
+     */
+    public List<String> getOperands(final String opcode) {
+        final List<String> operands = this.operations.get(opcode);
+        return operands != null ? operands : ImmutableList.<String>of();
+    }
+
+    /**
+     * @return the id of the position, or its FEN when it has none
+     */
+    public String getId() {
+        final List<String> id = getOperands("id");
+        return id.isEmpty() ? this.fen : String.join(" ", id);
+    }
+
+    public List<Move> getBestMoves() {
+        return this.bestMoves;
+    }
+
+    public List<Move> getAvoidMoves() {
+        return this.avoidMoves;
+    }
+
+    /**
+     * @return true when the move is one of the best moves, or when the position has only moves to avoid and the
+     * move is not one of them
+     */
+    public boolean isSolvedBy(final Move move) {
+        if(move == null) {
+            return false;
+        }
+        if(!this.bestMoves.isEmpty() && !this.bestMoves.contains(move)) {
+            return false;
+        }
+        return !this.avoidMoves.contains(move);
+    }
+
+    @Override
+    public String toString() {
+        return getId();
+    }
+}
@@ -0,0 +1,275 @@
+package com.engine.tournament;
+
+import com.engine.board.Move;
+import com.engine.pgn.AlgebraicNotation;
+import com.engine.player.ai.IterativeDeepening;
+import com.engine.player.ai.SearchResult;
+import com.engine.player.ai.TimeManager;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * EpdSuite class that runs a test suite of EPD positions, like WAC or STS, and counts the positions the engine
+ * solves: its move is one of the "bm" moves and none of the "am" moves
+ *
+ * Every position is searched on its own with a time or node limit, a thread per core takes the next position
+ * when it finished one, so the positions are solved in parallel and a suite scales with the cores. A thread keeps
+ * its search but clears the transposition table before every position, so no position is helped by the ones
+ * before it and the result does not depend on the order the threads took them.
+ *
+ * The time to solution is the time from which the search kept a solving move until it stopped, so a move that
+ * is found at depth 3, lost at depth 5 and found again at depth 8 is solved at depth 8
+ */
+public final class EpdSuite {
+    private final long moveTimeMillis;
+    private final long nodesPerPosition;
+    private final int threads;
+    private final Consumer<EpdSuiteResult> resultListener;
+    private volatile boolean stopped;
+
+    private EpdSuite(final Builder builder) {
+        this.moveTimeMillis = builder.moveTimeMillis;
+        this.nodesPerPosition = builder.nodesPerPosition;
+        this.threads = builder.threads;
+        this.resultListener = builder.resultListener;
+    }
+
+    /**
+     * Searches all the positions, or until stop is called
+     * @param positions is the suite
+     * @param engine is the engine that searches the positions
+     * @return the results in the order of the positions, without the positions that were not searched
+     */
+    public List<EpdSuiteResult> run(final List<EpdPosition> positions, final TournamentEngine engine) {
+        final EpdSuiteResult[] results = new EpdSuiteResult[positions.size()];
+        final ExecutorService service = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "EPD suite");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final AtomicInteger nextPosition = new AtomicInteger();
+        final List<Future<?>> workers = new ArrayList<>();
+        for(int i = 0; i < this.threads; i++) {
+            workers.add(service.submit(() -> {
+                final IterativeDeepening search = engine.createSearch();
+                int position;
+                while(!this.stopped && (position = nextPosition.getAndIncrement()) < positions.size()) {
+                    results[position] = solve(search, positions.get(position));
+                    if(this.resultListener != null) {
+                        this.resultListener.accept(results[position]);
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for(final Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A suite position failed", e.getCause());
+        } finally {
+            service.shutdownNow();
+        }
+        final List<EpdSuiteResult> searched = new ArrayList<>();
+        for(final EpdSuiteResult result : results) {
+            if(result != null) {
+                searched.add(result);
+            }
+        }
+        return searched;
+    }
+
+    /**
+     * stops the suite, the positions that are being searched are finished but no new one is started
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    private EpdSuiteResult solve(final IterativeDeepening search, final EpdPosition position) {
+        final TimeManager timeManager = this.moveTimeMillis > 0 ? TimeManager.forMoveTime(this.moveTimeMillis) :
+                TimeManager.infinite();
+        if(this.nodesPerPosition > 0) {
+            timeManager.setNodeLimit(this.nodesPerPosition);
+        }
+        // the elapsed time and the nodes of the iteration from which the solving move was kept
+        final long[] solution = {-1, -1};
+        search.getTranspositionTable().clear();
+        search.setTimeManager(timeManager);
+        search.setIterationListener(result -> {
+            if(!position.isSolvedBy(result.getBestMove())) {
+                solution[0] = -1;
+                solution[1] = -1;
+            } else if(solution[0] < 0) {
+                solution[0] = timeManager.getElapsedMillis();
+                solution[1] = result.getNodes();
+            }
+        });
+        final Move move = search.execute(position.getBoard());
+        final long millis = timeManager.getElapsedMillis();
+        final SearchResult lastResult = search.getLastResult();
+        if(position.isSolvedBy(move) && solution[0] < 0) {
+            // a forced move, or a move of a cut iteration
+            solution[0] = millis;
+            solution[1] = search.getNodes();
+        }
+        return new EpdSuiteResult(position, move, lastResult != null ? lastResult.getScore() : 0,
+                lastResult != null ? lastResult.getDepth() : 0, search.getNodes(), millis,
+                position.isSolvedBy(move) ? solution[0] : -1, position.isSolvedBy(move) ? solution[1] : -1);
+    }
+
+    /**
+     * Writes the results as a JSON object: the totals of the suite and a line per position, so another program
+     * can compare two runs
+     * @param results are the results of a run
+     * @param wallMillis is the time the whole run took
+     * @param writer gets the JSON
+     */
+    public static void writeJson(final List<EpdSuiteResult> results, final long wallMillis,
+                                 final Writer writer) throws IOException {
+        int solved = 0;
+        long nodes = 0;
+        long searchMillis = 0;
+        long solutionMillis = 0;
+        for(final EpdSuiteResult result : results) {
+            nodes += result.getNodes();
+            searchMillis += result.getMillis();
+            if(result.isSolved()) {
+                solved++;
+                solutionMillis += result.getSolutionMillis();
+            }
+        }
+        writer.write("{\n");
+        writer.write("  \"positions\": " + results.size() + ",\n");
+        writer.write("  \"solved\": " + solved + ",\n");
+        writer.write("  \"nodes\": " + nodes + ",\n");
+        writer.write("  \"wallMillis\": " + wallMillis + ",\n");
+        // the speed of all the threads together, and of one thread
+        writer.write("  \"nps\": " + nodes * 1000 / Math.max(wallMillis, 1) + ",\n");
+        writer.write("  \"npsPerThread\": " + nodes * 1000 / Math.max(searchMillis, 1) + ",\n");
+        writer.write("  \"averageSolutionMillis\": " + (solved == 0 ? 0 : solutionMillis / solved) + ",\n");
+        writer.write("  \"results\": [");
+        for(int i = 0; i < results.size(); i++) {
+            final EpdSuiteResult result = results.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("    {\"id\": " + quote(result.getPosition().getId()) +
+                    ", \"solved\": " + result.isSolved() +
+                    ", \"move\": " + quote(AlgebraicNotation.toSan(result.getPosition().getBoard(), result.getMove())) +
+                    ", \"expected\": " + quote(String.join(" ", result.getPosition().getOperands("bm"))) +
+                    ", \"avoid\": " + quote(String.join(" ", result.getPosition().getOperands("am"))) +
+                    ", \"score\": " + result.getScore() +
+                    ", \"depth\": " + result.getDepth() +
+                    ", \"nodes\": " + result.getNodes() +
+                    ", \"millis\": " + result.getMillis() +
+                    ", \"solutionMillis\": " + result.getSolutionMillis() +
+                    ", \"solutionNodes\": " + result.getSolutionNodes() + "}");
+        }
+        writer.write("\n  ]\n}\n");
+        writer.flush();
+    }
+
+    private static String quote(final String text) {
+        final StringBuilder builder = new StringBuilder("\"");
+        for(int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if(c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if(c < ' ') {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Runs a suite, prints every position to the error stream as it is solved and the JSON summary to the
+     * output. The engine is "default" (every search option on) or "plain" (no selective search)
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: EpdSuite <suite.epd> <moveTimeMillis> [nodesPerPosition] [default|plain] " +
+                    "[threads]");
+            return;
+        }
+        final Builder builder = new Builder()
+                .setMoveTimeMillis(Long.parseLong(args[1]))
+                .setResultListener(System.err::println);
+        if(args.length > 2) {
+            builder.setNodesPerPosition(Long.parseLong(args[2]));
+        }
+        if(args.length > 4) {
+            builder.setThreads(Integer.parseInt(args[4]));
+        }
+        final TournamentEngine engine = Tournament.engineNamed(args.length > 3 ? args[3] : "default", "engine");
+        final List<EpdPosition> positions = EpdPosition.read(Paths.get(args[0]));
+        final long startTime = System.nanoTime();
+        final List<EpdSuiteResult> results = builder.build().run(positions, engine);
+        writeJson(results, (System.nanoTime() - startTime) / 1_000_000,
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+
+    public static class Builder {
+        long moveTimeMillis = 1000;
+        long nodesPerPosition;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Consumer<EpdSuiteResult> resultListener;
+
+        /**
+         * sets the time every position is searched, 0 for no time limit
+         */
+        public Builder setMoveTimeMillis(final long moveTimeMillis) {
+            this.moveTimeMillis = moveTimeMillis;
+            return this;
+        }
+
+        /**
+         * sets the nodes every position is searched to, 0 for no node limit. A node limit gives the same result
+         * on every machine
+         */
+        public Builder setNodesPerPosition(final long nodesPerPosition) {
+            this.nodesPerPosition = nodesPerPosition;
+            return this;
+        }
+
+        /**
+         * sets how many positions are searched at the same time, by default one per core
+         */
+        public Builder setThreads(final int threads) {
+            this.threads = Math.max(threads, 1);
+            return this;
+        }
+
+        /**
+         * sets a listener that gets every result as soon as its position is searched, it is called on the
+         * searching threads
+         */
+        public Builder setResultListener(final Consumer<EpdSuiteResult> resultListener) {
+            this.resultListener = resultListener;
+            return this;
+        }
+
+        public EpdSuite build() {
+            if(this.moveTimeMillis <= 0 && this.nodesPerPosition <= 0) {
+                throw new RuntimeException("A suite needs a time or a node limit");
+            }
+            return new EpdSuite(this);
+        }
+    }
+}
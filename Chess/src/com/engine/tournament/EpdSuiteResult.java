@@ -0,0 +1,83 @@
+package com.engine.tournament;
+
+import com.engine.board.Move;
+import com.engine.pgn.AlgebraicNotation;
+
+/**
+ * EpdSuiteResult class that holds what the search found on one position of a test suite
+ */
+public final class EpdSuiteResult {
+    private final EpdPosition position;
+    private final Move move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long millis;
+    private final long solutionMillis;
+    private final long solutionNodes;
+
+    EpdSuiteResult(final EpdPosition position, final Move move, final int score, final int depth, final long nodes,
+                   final long millis, final long solutionMillis, final long solutionNodes) {
+        this.position = position;
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.solutionMillis = solutionMillis;
+        this.solutionNodes = solutionNodes;
+    }
+
+    public EpdPosition getPosition() {
+        return this.position;
+    }
+
+    public Move getMove() {
+        return this.move;
+    }
+
+    public boolean isSolved() {
+        return this.position.isSolvedBy(this.move);
+    }
+
+    /**
+     * @return the score of the last completed iteration from the side of the player to move
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getMillis() {
+        return this.millis;
+    }
+
+    /**
+     * @return the time from which the search kept a solving move until it stopped, -1 when it was not solved
+     */
+    public long getSolutionMillis() {
+        return this.solutionMillis;
+    }
+
+    /**
+     * @return the nodes visited until the search found the solving move it kept, -1 when it was not solved
+     */
+    public long getSolutionNodes() {
+        return this.solutionNodes;
+    }
+
+    @Override
+    public String toString() {
+        return this.position.getId() + ": " + (isSolved() ? "solved" : "failed") + " with " +
+                AlgebraicNotation.toSan(this.position.getBoard(), this.move) + " depth " + this.depth + " score " +
+                this.score + " nodes " + this.nodes + " time " + this.millis + " ms" +
+                (isSolved() ? " solved in " + this.solutionMillis + " ms" : "");
+    }
+}
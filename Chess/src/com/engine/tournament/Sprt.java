@@ -0,0 +1,267 @@
+package com.engine.tournament;
+
+import com.engine.pgn.PgnWriter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Sprt class that tests a change of the engine with a sequential probability ratio test: game pairs are played
+ * until the results are strong enough to accept one of two hypotheses, H0 "the first engine is elo0 stronger"
+ * or H1 "the first engine is elo1 stronger". A clear change is decided after a few hundred games, a close one
+ * gets as many as it needs, so no CPU is wasted on a fixed number of games.
+ *
+ * The games of a pair are played from the same opening with swapped colors, so the pair result (0, 1/4, 1/2,
+ * 3/4 or 1 of the points) is counted in five buckets, the pentanomial. Counting pairs instead of games removes
+ * the variance of the openings, and the test needs fewer games than with the win/draw/loss counts.
+ *
+ * The log-likelihood ratio is the generalized SPRT approximation of the pair scores:
+ * LLR = N * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance), where s0 and s1 are the expected scores of elo0
+ * and elo1. The test stops when it leaves the bounds ln(beta / (1 - alpha)) and ln((1 - beta) / alpha).
+ *
+ * The variance counts VARIANCE_PRIOR pairs of every bucket more than were played. Without it a run where every
+ * pair has the same result has no variance and the LLR is never computed, a change that wins every pair would
+ * never be accepted, and a few equal pairs at the start would give a huge LLR and decide the test at once
+ */
+public final class Sprt {
+    private static final double CONFIDENCE_Z = 1.959964;
+    private static final double VARIANCE_PRIOR = 0.5;
+
+    public enum Status {
+        CONTINUE,
+        H0_ACCEPTED,
+        H1_ACCEPTED
+    }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+    // the number of pairs that scored 0, 1, 2, 3 and 4 half points for the first engine
+    private final long[] pentanomial;
+    private volatile Tournament tournament;
+
+    private Sprt(final Builder builder) {
+        this.elo0 = builder.elo0;
+        this.elo1 = builder.elo1;
+        this.lowerBound = Math.log(builder.beta / (1 - builder.alpha));
+        this.upperBound = Math.log((1 - builder.beta) / builder.alpha);
+        this.pentanomial = new long[5];
+    }
+
+    /**
+     * Plays the test, the pairs and the time control come from the tournament builder
+     * @param builder is the tournament to play, its pair listener is replaced
+     * @param first is the engine that is tested, usually the changed one
+     * @param second is the engine it is compared to
+     * @return the status when the test stopped, CONTINUE when the tournament ran out of pairs before a decision
+     */
+    public Status run(final Tournament.Builder builder, final TournamentEngine first,
+                      final TournamentEngine second) {
+        this.tournament = builder.setPairListener((firstGame, secondGame) ->
+                addPair(firstGame.getHalfPoints(first) + secondGame.getHalfPoints(first))).build();
+        this.tournament.run(first, second);
+        return getStatus();
+    }
+
+    /**
+     * adds the result of a pair, the tournament is stopped when the test is decided
+     * @param halfPoints are the half points the first engine scored in the two games, from 0 to 4
+     */
+    public void addPair(final int halfPoints) {
+        final Status status;
+        synchronized(this) {
+            this.pentanomial[halfPoints]++;
+            status = getStatus();
+        }
+        final Tournament running = this.tournament;
+        if(status != Status.CONTINUE && running != null) {
+            running.stop();
+        }
+    }
+
+    public synchronized Status getStatus() {
+        final double llr = getLlr();
+        return llr >= this.upperBound ? Status.H1_ACCEPTED :
+                llr <= this.lowerBound ? Status.H0_ACCEPTED : Status.CONTINUE;
+    }
+
+    public synchronized double getLlr() {
+        final long pairs = getPairs();
+        if(pairs < 2) {
+            return 0;
+        }
+        final double variance = getVariance();
+        final double s0 = expectedScore(this.elo0);
+        final double s1 = expectedScore(this.elo1);
+        return pairs * (s1 - s0) * (2 * getMean() - s0 - s1) / (2 * variance);
+    }
+
+    public double getLowerBound() {
+        return this.lowerBound;
+    }
+
+    public double getUpperBound() {
+        return this.upperBound;
+    }
+
+    public synchronized long getPairs() {
+        long pairs = 0;
+        for(final long count : this.pentanomial) {
+            pairs += count;
+        }
+        return pairs;
+    }
+
+    public synchronized long[] getPentanomial() {
+        return this.pentanomial.clone();
+    }
+
+    /**
+     * @return the Elo difference of the first engine measured from the score
+     */
+    public synchronized double getElo() {
+        return elo(getMean());
+    }
+
+    /**
+     * @return half the width of the 95% confidence interval of the Elo difference
+     */
+    public synchronized double getEloError() {
+        final long pairs = getPairs();
+        if(pairs < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        final double margin = CONFIDENCE_Z * Math.sqrt(getVariance() / pairs);
+        return (elo(getMean() + margin) - elo(getMean() - margin)) / 2;
+    }
+
+    /**
+     * @return the mean score of a pair, from 0 to 1
+     */
+    private double getMean() {
+        final long pairs = getPairs();
+        if(pairs == 0) {
+            return 0.5;
+        }
+        double sum = 0;
+        for(int halfPoints = 0; halfPoints < this.pentanomial.length; halfPoints++) {
+            sum += this.pentanomial[halfPoints] * halfPoints / 4.0;
+        }
+        return sum / pairs;
+    }
+
+    /**
+     * @return the variance of the score of a pair around the measured mean, with VARIANCE_PRIOR pairs added to
+     * every bucket so it is never 0
+     */
+    private double getVariance() {
+        final double mean = getMean();
+        double sum = 0;
+        for(int halfPoints = 0; halfPoints < this.pentanomial.length; halfPoints++) {
+            final double deviation = halfPoints / 4.0 - mean;
+            sum += (this.pentanomial[halfPoints] + VARIANCE_PRIOR) * deviation * deviation;
+        }
+        return sum / (getPairs() + VARIANCE_PRIOR * this.pentanomial.length);
+    }
+
+    private static double expectedScore(final double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(final double score) {
+        final double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        final long[] counts = this.pentanomial;
+        return String.format("pairs %d [%d %d %d %d %d], Elo %.1f +- %.1f, LLR %.2f (%.2f, %.2f) %s", getPairs(),
+                counts[0], counts[1], counts[2], counts[3], counts[4], getElo(), getEloError(), getLlr(),
+                this.lowerBound, this.upperBound, getStatus());
+    }
+
+    /**
+     * Runs a test on all the cores and prints the state after every pair. The engines are "default" or "plain"
+     * like in the Tournament
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 5) {
+            System.err.println("Usage: Sprt <openings.epd> <baseMillis> <incrementMillis> <elo0> <elo1> " +
+                    "[first second] [games.pgn]");
+            return;
+        }
+        final Sprt sprt = new Builder()
+                .setElo0(Double.parseDouble(args[3]))
+                .setElo1(Double.parseDouble(args[4]))
+                .build();
+        final TournamentEngine first = Tournament.engineNamed(args.length > 6 ? args[5] : "default", "first");
+        final TournamentEngine second = Tournament.engineNamed(args.length > 6 ? args[6] : "default", "second");
+        final Tournament.Builder builder = new Tournament.Builder()
+                .setOpenings(Tournament.readOpenings(Paths.get(args[0])))
+                .setPairs(Integer.MAX_VALUE)
+                .setTimeControl(Long.parseLong(args[1]), Long.parseLong(args[2]))
+                .setGameListener(game -> System.out.println(game + ", " + sprt));
+        PgnWriter pgnWriter = null;
+        if(args.length > 7) {
+            pgnWriter = new PgnWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get(args[7])),
+                    StandardCharsets.UTF_8));
+            builder.setPgnWriter(pgnWriter);
+        }
+        try {
+            sprt.run(builder, first, second);
+            System.out.println(sprt);
+        } finally {
+            if(pgnWriter != null) {
+                pgnWriter.close();
+            }
+        }
+    }
+
+    public static class Builder {
+        double elo0 = 0;
+        double elo1 = 5;
+        double alpha = 0.05;
+        double beta = 0.05;
+
+        /**
+         * sets the Elo difference of the null hypothesis, the change is rejected when it is accepted
+         */
+        public Builder setElo0(final double elo0) {
+            this.elo0 = elo0;
+            return this;
+        }
+
+        /**
+         * sets the Elo difference of the alternative hypothesis, the change is accepted when it is accepted
+         */
+        public Builder setElo1(final double elo1) {
+            this.elo1 = elo1;
+            return this;
+        }
+
+        /**
+         * sets the chance to accept H1 when H0 is true
+         */
+        public Builder setAlpha(final double alpha) {
+            this.alpha = alpha;
+            return this;
+        }
+
+        /**
+         * sets the chance to accept H0 when H1 is true
+         */
+        public Builder setBeta(final double beta) {
+            this.beta = beta;
+            return this;
+        }
+
+        public Sprt build() {
+            return new Sprt(this);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.engine.tournament;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.pgn.PgnGame;
+import com.engine.pgn.PgnWriter;
+import com.engine.player.MoveTransition;
+import com.engine.player.Player;
+import com.engine.player.ai.IterativeDeepening;
+import com.engine.player.ai.SearchOptions;
+import com.engine.player.ai.TimeManager;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Tournament class that plays engine against engine games without the GUI, to measure if a change of the engine
+ * makes it stronger
+ *
+ * The games are played in pairs: every opening is played twice, once with each engine as white, so an unbalanced
+ * opening does not favor one of the engines. The pairs are played at the same time on a pool with a thread per
+ * core, every game searches on the thread it is played on, so the cores are kept busy and the games don't take
+ * the time of each other. Every game has its own clocks, a move is searched with the budget TimeManager gives
+ * the clock, and a player whose clock runs out loses.
+ *
+ * A game ends on checkmate, stalemate, threefold repetition, the fifty-move rule or the move limit. The finished
+ * games are written to the PGN stream and given to the listener as soon as they end
+ */
+public final class Tournament {
+    public static final String STANDARD_OPENING = FenUtilities.createFENFromGame(Board.createStandardBoard());
+
+    private final List<String> openings;
+    private final long baseMillis;
+    private final long incrementMillis;
+    private final int pairs;
+    private final int threads;
+    private final int maxPlies;
+    private final PgnWriter pgnWriter;
+    private final Consumer<TournamentGame> gameListener;
+    private final BiConsumer<TournamentGame, TournamentGame> pairListener;
+    private volatile boolean stopped;
+
+    private Tournament(final Builder builder) {
+        this.openings = builder.openings;
+        this.baseMillis = builder.baseMillis;
+        this.incrementMillis = builder.incrementMillis;
+        this.pairs = builder.pairs > 0 ? builder.pairs : builder.openings.size();
+        this.threads = builder.threads;
+        this.maxPlies = builder.maxPlies;
+        this.pgnWriter = builder.pgnWriter;
+        this.gameListener = builder.gameListener;
+        this.pairListener = builder.pairListener;
+    }
+
+    /**
+     * Plays all the game pairs, or until stop is called
+     * @param first is the engine the score is counted for
+     * @param second is its opponent
+     * @return the score of the first engine
+     */
+    public TournamentScore run(final TournamentEngine first, final TournamentEngine second) {
+        final TournamentScore score = new TournamentScore(first);
+        final ExecutorService service = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "Tournament game");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // every thread takes the next pair when it finished one, so a long tournament is never queued up front
+        final AtomicInteger nextPair = new AtomicInteger();
+        final List<Future<?>> workers = new ArrayList<>();
+        for(int i = 0; i < this.threads; i++) {
+            workers.add(service.submit(() -> {
+                int pair;
+                while(!this.stopped && (pair = nextPair.getAndIncrement()) < this.pairs) {
+                    playPair(pair, first, second, score);
+                }
+                return null;
+            }));
+        }
+        try {
+            for(final Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A tournament game failed", e.getCause());
+        } finally {
+            service.shutdownNow();
+        }
+        return score;
+    }
+
+    private void playPair(final int pair, final TournamentEngine first, final TournamentEngine second,
+                          final TournamentScore score) throws IOException {
+        final String opening = this.openings.get(pair % this.openings.size());
+        final TournamentGame[] games = new TournamentGame[2];
+        for(int game = 0; game < 2; game++) {
+            if(this.stopped) {
+                return;
+            }
+            final boolean swapped = game == 1;
+            games[game] = playGame(2 * pair + game + 1, opening, swapped ? second : first, swapped ? first : second);
+            score.add(games[game]);
+            writeGame(games[game]);
+            if(this.gameListener != null) {
+                this.gameListener.accept(games[game]);
+            }
+        }
+        if(this.pairListener != null) {
+            this.pairListener.accept(games[0], games[1]);
+        }
+    }
+
+    /**
+     * stops the tournament, the games that are being played are finished but no new game is started
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    private TournamentGame playGame(final int number, final String opening, final TournamentEngine white,
+                                    final TournamentEngine black) {
+        final Board startBoard = FenUtilities.createGameFromFEN(opening);
+        final IterativeDeepening whiteSearch = white.createSearch();
+        final IterativeDeepening blackSearch = black.createSearch();
+        final long[] clocks = {this.baseMillis, this.baseMillis};
+        final List<Move> moves = new ArrayList<>();
+        final Adjudicator adjudicator = new Adjudicator(startBoard, FenUtilities.getHalfMoveClock(opening));
+        Board board = startBoard;
+        while(true) {
+            final String termination = adjudicator.getTermination();
+            if(termination != null) {
+                return new TournamentGame(number, white, black, startBoard, moves, adjudicator.getResult(termination),
+                        termination);
+            }
+            if(moves.size() >= this.maxPlies) {
+                return new TournamentGame(number, white, black, startBoard, moves, PgnGame.DRAW, "move limit");
+            }
+            final Player player = board.getCurrentPlayer();
+            final boolean whiteToMove = player.getAlliance().isWhite();
+            final String lost = whiteToMove ? PgnGame.BLACK_WINS : PgnGame.WHITE_WINS;
+            final int side = whiteToMove ? 0 : 1;
+            final IterativeDeepening search = whiteToMove ? whiteSearch : blackSearch;
+            search.setTimeManager(TimeManager.forClock(clocks[side], this.incrementMillis, 0));
+            final long startTime = System.nanoTime();
+            final Move move = search.execute(board);
+            clocks[side] -= (System.nanoTime() - startTime) / 1_000_000;
+            if(clocks[side] < 0) {
+                return new TournamentGame(number, white, black, startBoard, moves, lost, "time forfeit");
+            }
+            clocks[side] += this.incrementMillis;
+            final MoveTransition transition = player.makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                return new TournamentGame(number, white, black, startBoard, moves, lost, "illegal move");
+            }
+            moves.add(move);
+            board = transition.getTransitionBoard();
+            adjudicator.addMove(move, board);
+        }
+    }
+
+    private void writeGame(final TournamentGame game) throws IOException {
+        if(this.pgnWriter == null) {
+            return;
+        }
+        final Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Tournament");
+        tags.put("Site", "?");
+        tags.put("Round", String.valueOf(game.getNumber()));
+        tags.put("White", game.getWhite().getName());
+        tags.put("Black", game.getBlack().getName());
+        tags.put("Result", game.getResult());
+        tags.put("TimeControl", this.baseMillis / 1000.0 + "+" + this.incrementMillis / 1000.0);
+        tags.put("Termination", game.getTermination());
+        this.pgnWriter.writeGame(tags, game.getStartBoard(), game.getMoves(), game.getResult());
+    }
+
+    /**
+     * Reads an opening file, every line is an EPD or a FEN and empty lines or lines that start with # are skipped.
+     * The operations of an EPD line are dropped
+     */
+    public static List<String> readOpenings(final Path file) throws IOException {
+        final List<String> openings = new ArrayList<>();
+        for(final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            final String[] fields = line.trim().split("\\s+");
+            if(fields.length < 4 || fields[0].startsWith("#")) {
+                continue;
+            }
+            final boolean fen = fields.length >= 6 && fields[4].matches("\\d+") && fields[5].matches("\\d+");
+            openings.add(String.join(" ", Arrays.asList(fields).subList(0, fen ? 6 : 4)));
+        }
+        return openings;
+    }
+
+    /**
+     * Plays a self-play tournament and prints every game and the score while it runs. The engines are "default"
+     * (every search option on) or "plain" (no selective search)
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 5) {
+            System.err.println("Usage: Tournament <openings.epd> <pairs> <baseMillis> <incrementMillis> <games.pgn> " +
+                    "[first second] [threads]");
+            return;
+        }
+        final TournamentEngine first = engineNamed(args.length > 6 ? args[5] : "default", "first");
+        final TournamentEngine second = engineNamed(args.length > 6 ? args[6] : "default", "second");
+        try(final PgnWriter pgnWriter = new PgnWriter(new OutputStreamWriter(
+                Files.newOutputStream(Paths.get(args[4])), StandardCharsets.UTF_8))) {
+            final Builder builder = new Builder()
+                    .setOpenings(readOpenings(Paths.get(args[0])))
+                    .setPairs(Integer.parseInt(args[1]))
+                    .setTimeControl(Long.parseLong(args[2]), Long.parseLong(args[3]))
+                    .setPgnWriter(pgnWriter);
+            if(args.length > 7) {
+                builder.setThreads(Integer.parseInt(args[7]));
+            }
+            final long startTime = System.nanoTime();
+            // the games end out of order, the number of a game is not the number of finished games
+            final AtomicInteger finishedGames = new AtomicInteger();
+            builder.setGameListener(game -> System.out.println(game + ", " + String.format("%.0f",
+                    finishedGames.incrementAndGet() * 3.6e12 / (System.nanoTime() - startTime)) + " games/h"));
+            System.out.println(builder.build().run(first, second));
+        }
+    }
+
+    static TournamentEngine engineNamed(final String options, final String name) {
+        switch(options) {
+            case "default":
+                return TournamentEngine.withOptions(name + " (default)", SearchOptions.DEFAULT);
+            case "plain":
+                return TournamentEngine.withOptions(name + " (plain)", SearchOptions.PLAIN);
+            default:
+                throw new RuntimeException("Unknown engine " + options + ", use default or plain");
+        }
+    }
+
+    public static class Builder {
+        List<String> openings = Collections.singletonList(STANDARD_OPENING);
+        long baseMillis = 10_000;
+        long incrementMillis = 100;
+        int pairs;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPlies = 400;
+        PgnWriter pgnWriter;
+        Consumer<TournamentGame> gameListener;
+        BiConsumer<TournamentGame, TournamentGame> pairListener;
+
+        /**
+         * sets the FENs the games start from, they are used one after the other for the pairs
+         */
+        public Builder setOpenings(final List<String> openings) {
+            if(openings.isEmpty()) {
+                throw new RuntimeException("A tournament needs at least one opening");
+            }
+            this.openings = openings;
+            return this;
+        }
+
+        /**
+         * sets the time control of every game: the time on each clock at the start and the time added after
+         * every move
+         */
+        public Builder setTimeControl(final long baseMillis, final long incrementMillis) {
+            this.baseMillis = baseMillis;
+            this.incrementMillis = incrementMillis;
+            return this;
+        }
+
+        /**
+         * sets the number of game pairs, by default every opening is played once
+         */
+        public Builder setPairs(final int pairs) {
+            this.pairs = pairs;
+            return this;
+        }
+
+        /**
+         * sets how many games are played at the same time, by default one per core
+         */
+        public Builder setThreads(final int threads) {
+            this.threads = Math.max(threads, 1);
+            return this;
+        }
+
+        /**
+         * sets the number of plies after which a game is adjudicated as a draw
+         */
+        public Builder setMaxPlies(final int maxPlies) {
+            this.maxPlies = maxPlies;
+            return this;
+        }
+
+        public Builder setPgnWriter(final PgnWriter pgnWriter) {
+            this.pgnWriter = pgnWriter;
+            return this;
+        }
+
+        /**
+         * sets a listener that gets every game when it ends, it is called on the thread that played the game
+         */
+        public Builder setGameListener(final Consumer<TournamentGame> gameListener) {
+            this.gameListener = gameListener;
+            return this;
+        }
+
+        /**
+         * sets a listener that gets both games of a pair when the second one ends, the first engine is white in
+         * the first game
+         */
+        public Builder setPairListener(final BiConsumer<TournamentGame, TournamentGame> pairListener) {
+            this.pairListener = pairListener;
+            return this;
+        }
+
+        public Tournament build() {
+            return new Tournament(this);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.engine.tournament;
+
+import com.engine.player.ai.CachedBoardEvaluator;
+import com.engine.player.ai.IterativeDeepening;
+import com.engine.player.ai.SearchOptions;
+import com.engine.player.ai.TaperedBoardEvaluator;
+
+import java.util.function.Supplier;
+
+/**
+ * TournamentEngine class that is one of the players of a Tournament: a name and a way to build its search.
+ * Every game gets a new search, so no transposition table, killer move or history is shared between games
+ */
+public final class TournamentEngine {
+    private final String name;
+    private final Supplier<IterativeDeepening> searchFactory;
+
+    public TournamentEngine(final String name, final Supplier<IterativeDeepening> searchFactory) {
+        this.name = name;
+        this.searchFactory = searchFactory;
+    }
+
+    /**
+     * @return an engine that searches with the standard evaluation and the given search options
+     */
+    public static TournamentEngine withOptions(final String name, final SearchOptions options) {
+        return new TournamentEngine(name, () -> new IterativeDeepening(
+                new CachedBoardEvaluator(new TaperedBoardEvaluator()), IterativeDeepening.MAX_DEPTH, options));
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    IterativeDeepening createSearch() {
+        return this.searchFactory.get();
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,87 @@
+package com.engine.tournament;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.pgn.PgnGame;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * TournamentGame class that is one finished game of a Tournament: the players, the opening, the moves and how
+ * the game ended
+ */
+public final class TournamentGame {
+    private final int number;
+    private final TournamentEngine white;
+    private final TournamentEngine black;
+    private final Board startBoard;
+    private final List<Move> moves;
+    private final String result;
+    private final String termination;
+
+    TournamentGame(final int number, final TournamentEngine white, final TournamentEngine black,
+                   final Board startBoard, final List<Move> moves, final String result, final String termination) {
+        this.number = number;
+        this.white = white;
+        this.black = black;
+        this.startBoard = startBoard;
+        this.moves = ImmutableList.copyOf(moves);
+        this.result = result;
+        this.termination = termination;
+    }
+
+    /**
+     * @return the number of the game in the tournament, starting at 1
+     */
+    public int getNumber() {
+        return this.number;
+    }
+
+    public TournamentEngine getWhite() {
+        return this.white;
+    }
+
+    public TournamentEngine getBlack() {
+        return this.black;
+    }
+
+    public Board getStartBoard() {
+        return this.startBoard;
+    }
+
+    public List<Move> getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * @return the result, one of the PgnGame results
+     */
+    public String getResult() {
+        return this.result;
+    }
+
+    /**
+     * @return why the game ended, like "checkmate" or "threefold repetition"
+     */
+    public String getTermination() {
+        return this.termination;
+    }
+
+    /**
+     * @return the points the engine scored in half points: 2 for a win, 1 for a draw and 0 for a loss
+     */
+    public int getHalfPoints(final TournamentEngine engine) {
+        if(this.result.equals(PgnGame.DRAW)) {
+            return 1;
+        }
+        final boolean whiteWon = this.result.equals(PgnGame.WHITE_WINS);
+        return (engine == this.white) == whiteWon ? 2 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "game " + this.number + ": " + this.white + " - " + this.black + " " + this.result + " (" +
+                this.termination + ", " + this.moves.size() + " plies)";
+    }
+}
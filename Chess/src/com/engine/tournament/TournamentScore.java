@@ -0,0 +1,71 @@
+package com.engine.tournament;
+
+/**
+ * TournamentScore class that counts the results of a Tournament from the side of its first engine and how fast
+ * the games are played
+ */
+public final class TournamentScore {
+    private final TournamentEngine engine;
+    private final long startTime;
+    private int wins;
+    private int draws;
+    private int losses;
+
+    TournamentScore(final TournamentEngine engine) {
+        this.engine = engine;
+        this.startTime = System.nanoTime();
+    }
+
+    synchronized void add(final TournamentGame game) {
+        switch(game.getHalfPoints(this.engine)) {
+            case 2:
+                this.wins++;
+                break;
+            case 1:
+                this.draws++;
+                break;
+            default:
+                this.losses++;
+                break;
+        }
+    }
+
+    public synchronized int getWins() {
+        return this.wins;
+    }
+
+    public synchronized int getDraws() {
+        return this.draws;
+    }
+
+    public synchronized int getLosses() {
+        return this.losses;
+    }
+
+    public synchronized int getGames() {
+        return this.wins + this.draws + this.losses;
+    }
+
+    /**
+     * @return the part of the points the first engine scored, 0.5 when no game was played
+     */
+    public synchronized double getScore() {
+        final int games = getGames();
+        return games == 0 ? 0.5 : (this.wins + 0.5 * this.draws) / games;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - this.startTime) / 1_000_000;
+    }
+
+    public double getGamesPerHour() {
+        return getGames() * 3_600_000.0 / Math.max(getElapsedMillis(), 1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return this.engine + ": +" + this.wins + " =" + this.draws + " -" + this.losses + " of " + getGames() +
+                " games, score " + String.format("%.1f%%", 100 * getScore()) +
+                ", " + String.format("%.0f", getGamesPerHour()) + " games/h";
+    }
+}
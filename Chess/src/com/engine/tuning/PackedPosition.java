@@ -0,0 +1,106 @@
+package com.engine.tuning;
+
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.Tile;
+import com.engine.pieces.Piece;
+
+import java.nio.ByteBuffer;
+
+/**
+ * PackedPosition class that packs a labeled position into a record of 32 bytes, the format of the self-play
+ * training data
+ *
+ * byte 0: the occupied tiles, bit 0 is a8 (long)
+ * byte 8: the codes of the pieces on them in tile order, 4 bits each like in the TuningDataset (two longs)
+ * byte 24: the search score from white's side in centipawns (short)
+ * byte 26: the result of the game for white in half points
+ * byte 27: 1 when white is to move, 0 for black
+ * byte 28: the ply of the position in its game (short)
+ * byte 30: two bytes kept at 0
+ *
+ * The records are written in the byte order of the buffer, the generator writes them little endian
+ */
+public final class PackedPosition {
+    public static final int RECORD_BYTES = 32;
+    private static final int PIECES_OFFSET = 8;
+    private static final int SCORE_OFFSET = 24;
+    private static final int RESULT_OFFSET = 26;
+    private static final int SIDE_TO_MOVE_OFFSET = 27;
+    private static final int PLY_OFFSET = 28;
+
+    private PackedPosition() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    /**
+     * Packs the pieces of a board, without the score and the result that are only known later
+     * @param board is the position
+     * @param pieces gets the two longs of the piece codes
+     * @return the occupied tiles
+     */
+    public static long packPieces(final Board board, final long[] pieces) {
+        long occupancy = 0;
+        pieces[0] = 0;
+        pieces[1] = 0;
+        int count = 0;
+        for(int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final Tile boardTile = board.getTile(tile);
+            if(!boardTile.isTileOccupied()) {
+                continue;
+            }
+            final Piece piece = boardTile.getPiece();
+            final int code = piece.getPieceType().ordinal() + 1 +
+                    (piece.getPieceAlliance().isWhite() ? 0 : TuningDataset.BLACK);
+            occupancy |= 1L << tile;
+            pieces[count / TuningDataset.PIECES_PER_LONG] |=
+                    (long) code << ((count % TuningDataset.PIECES_PER_LONG) * TuningDataset.BITS_PER_PIECE);
+            count++;
+        }
+        return occupancy;
+    }
+
+    /**
+     * writes a record at the position of the buffer and moves it past the record
+     */
+    public static void write(final ByteBuffer buffer, final long occupancy, final long lowPieces,
+                             final long highPieces, final int whiteScore, final int resultHalfPoints,
+                             final boolean whiteToMove, final int ply) {
+        buffer.putLong(occupancy)
+                .putLong(lowPieces)
+                .putLong(highPieces)
+                .putShort((short) Math.max(Math.min(whiteScore, Short.MAX_VALUE), Short.MIN_VALUE))
+                .put((byte) resultHalfPoints)
+                .put((byte) (whiteToMove ? 1 : 0))
+                .putShort((short) Math.min(ply, Short.MAX_VALUE))
+                .putShort((short) 0);
+    }
+
+    public static long getOccupancy(final ByteBuffer buffer, final int record) {
+        return buffer.getLong(record);
+    }
+
+    public static long getLowPieces(final ByteBuffer buffer, final int record) {
+        return buffer.getLong(record + PIECES_OFFSET);
+    }
+
+    public static long getHighPieces(final ByteBuffer buffer, final int record) {
+        return buffer.getLong(record + PIECES_OFFSET + Long.BYTES);
+    }
+
+    public static int getScore(final ByteBuffer buffer, final int record) {
+        return buffer.getShort(record + SCORE_OFFSET);
+    }
+
+    public static int getResult(final ByteBuffer buffer, final int record) {
+        return buffer.get(record + RESULT_OFFSET);
+    }
+
+    public static boolean isWhiteToMove(final ByteBuffer buffer, final int record) {
+        return buffer.get(record + SIDE_TO_MOVE_OFFSET) != 0;
+    }
+
+    public static int getPly(final ByteBuffer buffer, final int record) {
+        return buffer.getShort(record + PLY_OFFSET);
+    }
+}
@@ -0,0 +1,346 @@
+package com.engine.tuning;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.pgn.PgnGame;
+import com.engine.player.MoveTransition;
+import com.engine.player.ai.IterativeDeepening;
+import com.engine.player.ai.SearchResult;
+import com.engine.player.ai.TimeManager;
+import com.engine.tournament.Adjudicator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SelfPlayGenerator class that plays self-play games on all the cores and writes their positions labeled with the
+ * search score and the game result, as training data for the evaluation
+ *
+ * Every move is searched to a fixed number of nodes, so the data does not depend on the speed of the machine.
+ * The games start with a few random moves, so they are all different. Only quiet positions are kept: the player
+ * to move is not in check and the move the search found is not a capture, the evaluation can't score the
+ * positions in the middle of an exchange anyway. A position is written only when its game ended and the result
+ * is known, as a PackedPosition record of 32 bytes.
+ *
+ * Every thread writes its own file with its own buffer, so the threads never wait for each other; the buffers
+ * are written when they are full and at least every flush interval.
+ *
+ * At the default 5000 nodes per move one core gives about 6 positions per second, a million positions take about
+ * two days on one core (about 13 per second at 2000 nodes per move). The search is bound by the Board, every move
+ * builds a new board and generates all its legal moves, so more nodes per move make the data better but slower in
+ * the same proportion
+ */
+public final class SelfPlayGenerator {
+    private static final int BUFFER_RECORDS = 8192;
+    private static final int MAX_SCORE = 3000;
+
+    private final Path directory;
+    private final int threads;
+    private final long nodesPerMove;
+    private final int randomPlies;
+    private final int maxPlies;
+    private final long positions;
+    private final long flushIntervalMillis;
+    private final AtomicLong writtenPositions;
+    private final AtomicLong playedGames;
+    private volatile boolean stopped;
+
+    private SelfPlayGenerator(final Builder builder) {
+        this.directory = builder.directory;
+        this.threads = builder.threads;
+        this.nodesPerMove = builder.nodesPerMove;
+        this.randomPlies = builder.randomPlies;
+        this.maxPlies = builder.maxPlies;
+        this.positions = builder.positions;
+        this.flushIntervalMillis = builder.flushIntervalMillis;
+        this.writtenPositions = new AtomicLong();
+        this.playedGames = new AtomicLong();
+    }
+
+    /**
+     * Plays games until the number of positions is written or stop is called
+     */
+    public void run() throws IOException {
+        Files.createDirectories(this.directory);
+        final ExecutorService service = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "Self-play");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final List<Future<?>> workers = new ArrayList<>();
+        for(int i = 0; i < this.threads; i++) {
+            final int thread = i;
+            workers.add(service.submit(() -> {
+                generate(thread);
+                return null;
+            }));
+        }
+        try {
+            for(final Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A self-play thread failed", e.getCause());
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    public void stop() {
+        this.stopped = true;
+    }
+
+    public long getWrittenPositions() {
+        return this.writtenPositions.get();
+    }
+
+    public long getPlayedGames() {
+        return this.playedGames.get();
+    }
+
+    /**
+     * the loop of one thread: it plays games and writes their positions to its own file
+     */
+    private void generate(final int thread) throws IOException {
+        final Path file = this.directory.resolve("selfplay-" + thread + ".bin");
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * PackedPosition.RECORD_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        final Random random = new Random(System.nanoTime() ^ thread);
+        final GameRecord game = new GameRecord();
+        final IterativeDeepening search = new IterativeDeepening();
+        try(final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            long lastFlush = System.nanoTime();
+            while(!this.stopped && this.writtenPositions.get() < this.positions) {
+                final int result = playGame(search, random, game);
+                for(int i = 0; i < game.size; i++) {
+                    if(!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                        lastFlush = System.nanoTime();
+                    }
+                    PackedPosition.write(buffer, game.occupancy[i], game.lowPieces[i], game.highPieces[i],
+                            game.scores[i], result, game.whiteToMove[i], game.plies[i]);
+                }
+                this.writtenPositions.addAndGet(game.size);
+                this.playedGames.incrementAndGet();
+                if((System.nanoTime() - lastFlush) / 1_000_000 >= this.flushIntervalMillis) {
+                    flush(channel, buffer);
+                    lastFlush = System.nanoTime();
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Plays one game and keeps its quiet positions in the record
+     * @return white's result in half points
+     */
+    private int playGame(final IterativeDeepening search, final Random random, final GameRecord game) {
+        game.size = 0;
+        search.getTranspositionTable().clear();
+        final long[] pieces = new long[2];
+        Board board = Board.createStandardBoard();
+        final Adjudicator adjudicator = new Adjudicator(board);
+        for(int ply = 0; ; ply++) {
+            final String termination = adjudicator.getTermination();
+            if(termination != null) {
+                final String result = adjudicator.getResult(termination);
+                return result.equals(PgnGame.WHITE_WINS) ? 2 : result.equals(PgnGame.DRAW) ? 1 : 0;
+            }
+            if(ply >= this.maxPlies) {
+                return 1;
+            }
+            final Move move;
+            if(ply < this.randomPlies) {
+                move = randomMove(board, random);
+            } else {
+                final TimeManager timeManager = TimeManager.infinite();
+                timeManager.setNodeLimit(this.nodesPerMove);
+                search.setTimeManager(timeManager);
+                move = search.execute(board);
+                final SearchResult result = search.getLastResult();
+                final boolean whiteToMove = board.getCurrentPlayer().getAlliance().isWhite();
+                // a mate score is far above MAX_SCORE too
+                if(result != null && !board.getCurrentPlayer().isInCheck() && !move.isAttack() &&
+                        Math.abs(result.getScore()) < MAX_SCORE) {
+                    final long occupancy = PackedPosition.packPieces(board, pieces);
+                    game.add(occupancy, pieces[0], pieces[1], whiteToMove ? result.getScore() : -result.getScore(),
+                            whiteToMove, ply);
+                }
+            }
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            board = transition.getTransitionBoard();
+            adjudicator.addMove(move, board);
+        }
+    }
+
+    private static Move randomMove(final Board board, final Random random) {
+        final List<Move> moves = new ArrayList<>();
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            if(board.getCurrentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                moves.add(move);
+            }
+        }
+        return moves.get(random.nextInt(moves.size()));
+    }
+
+    /**
+     * GameRecord class that keeps the positions of the game being played until its result is known
+     */
+    private static final class GameRecord {
+        private long[] occupancy = new long[256];
+        private long[] lowPieces = new long[256];
+        private long[] highPieces = new long[256];
+        private int[] scores = new int[256];
+        private boolean[] whiteToMove = new boolean[256];
+        private int[] plies = new int[256];
+        private int size;
+
+        private void add(final long occupancy, final long low, final long high, final int score,
+                         final boolean whiteToMove, final int ply) {
+            if(this.size == this.occupancy.length) {
+                final int capacity = this.size * 2;
+                this.occupancy = Arrays.copyOf(this.occupancy, capacity);
+                this.lowPieces = Arrays.copyOf(this.lowPieces, capacity);
+                this.highPieces = Arrays.copyOf(this.highPieces, capacity);
+                this.scores = Arrays.copyOf(this.scores, capacity);
+                this.whiteToMove = Arrays.copyOf(this.whiteToMove, capacity);
+                this.plies = Arrays.copyOf(this.plies, capacity);
+            }
+            this.occupancy[this.size] = occupancy;
+            this.lowPieces[this.size] = low;
+            this.highPieces[this.size] = high;
+            this.scores[this.size] = score;
+            this.whiteToMove[this.size] = whiteToMove;
+            this.plies[this.size] = ply;
+            this.size++;
+        }
+    }
+
+    /**
+     * Generates positions and prints the throughput every few seconds
+     */
+    public static void main(final String[] args) throws Exception {
+        if(args.length < 2) {
+            System.err.println("Usage: SelfPlayGenerator <directory> <positions> [nodesPerMove] [threads]");
+            return;
+        }
+        final Builder builder = new Builder(Paths.get(args[0])).setPositions(Long.parseLong(args[1]));
+        if(args.length > 2) {
+            builder.setNodesPerMove(Long.parseLong(args[2]));
+        }
+        if(args.length > 3) {
+            builder.setThreads(Integer.parseInt(args[3]));
+        }
+        final SelfPlayGenerator generator = builder.build();
+        final long startTime = System.nanoTime();
+        final Thread reporter = new Thread(() -> {
+            while(!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                final long millis = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+                System.out.println(generator.getWrittenPositions() + " positions, " + generator.getPlayedGames() +
+                        " games, " + generator.getWrittenPositions() * 1000 / millis + " positions/s");
+            }
+        });
+        reporter.setDaemon(true);
+        reporter.start();
+        generator.run();
+        reporter.interrupt();
+        final long millis = Math.max((System.nanoTime() - startTime) / 1_000_000, 1);
+        System.out.println("done: " + generator.getWrittenPositions() + " positions in " + millis + " ms, " +
+                generator.getWrittenPositions() * 1000 / millis + " positions/s");
+    }
+
+    public static class Builder {
+        final Path directory;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long nodesPerMove = 5000;
+        int randomPlies = 8;
+        int maxPlies = 400;
+        long positions = 1_000_000;
+        long flushIntervalMillis = 10_000;
+
+        public Builder(final Path directory) {
+            this.directory = directory;
+        }
+
+        public Builder setThreads(final int threads) {
+            this.threads = Math.max(threads, 1);
+            return this;
+        }
+
+        /**
+         * sets the nodes every move is searched to
+         */
+        public Builder setNodesPerMove(final long nodesPerMove) {
+            this.nodesPerMove = nodesPerMove;
+            return this;
+        }
+
+        /**
+         * sets the number of random moves every game starts with, their positions are not written
+         */
+        public Builder setRandomPlies(final int randomPlies) {
+            this.randomPlies = randomPlies;
+            return this;
+        }
+
+        /**
+         * sets the number of plies after which a game is a draw
+         */
+        public Builder setMaxPlies(final int maxPlies) {
+            this.maxPlies = maxPlies;
+            return this;
+        }
+
+        /**
+         * sets the number of positions to generate, the games being played when it is reached are finished
+         */
+        public Builder setPositions(final long positions) {
+            this.positions = positions;
+            return this;
+        }
+
+        /**
+         * sets the longest time the positions of a finished game wait in a buffer before they are written
+         */
+        public Builder setFlushIntervalMillis(final long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+            return this;
+        }
+
+        public SelfPlayGenerator build() {
+            return new SelfPlayGenerator(this);
+        }
+    }
+}
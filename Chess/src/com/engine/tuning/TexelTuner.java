@@ -0,0 +1,318 @@
+package com.engine.tuning;
+
+import com.engine.Alliance;
+import com.engine.board.BoardUtils;
+import com.engine.pieces.PieceSquareTables;
+import com.engine.pieces.PieceType;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.stream.IntStream;
+
+/**
+ * TexelTuner class that tunes the material values and the piece square tables of the evaluation from positions
+ * whose game result is known (Texel's tuning method)
+ *
+ * The evaluation of a position is mapped to an expected score by a sigmoid, 1 / (1 + 10^(-k * eval / 400)), and
+ * the tuner minimizes the mean squared error between the expected scores and the results. The weights have the
+ * layout of PieceSquareTables: the middle game and end game material of every piece type, a table for each phase
+ * for the pieces that have one (see PieceSquareTables.hasPhaseTables) and one table for both phases for the
+ * others, so the tuned weights can be pasted in as they are. The tapered evaluation is linear in the weights, so
+ * the gradient of the error is exact and cheap.
+ * The weights start at the current PieceSquareTables and are moved by gradient descent with Adam steps, the
+ * gradient of all the positions is summed by a parallel stream on every core.
+ *
+ * The mobility, king safety and pawn structure terms need legal moves or the pawn hash, they are not tuned here
+ */
+public final class TexelTuner {
+    private static final int PIECE_TYPES = PieceType.values().length;
+    private static final int MIDDLE_GAME = 0;
+    private static final int END_GAME = 1;
+    // the first weight of the table of every piece type in both phases, after the material of both phases,
+    // a piece with one table for both phases has the same start twice
+    private static final int[][] TABLE_STARTS = tableStarts();
+    public static final int WEIGHTS = TABLE_STARTS[PIECE_TYPES - 1][END_GAME] + BoardUtils.NUM_TILES;
+    private static final double LN_10 = Math.log(10);
+    private static final double ADAM_BETA1 = 0.9;
+    private static final double ADAM_BETA2 = 0.999;
+    private static final double ADAM_EPSILON = 1e-8;
+    private static final int[] PHASE_WEIGHTS = phaseWeights();
+
+    private final TuningDataset dataset;
+    private final double[] weights;
+    private double scalingConstant;
+
+    public TexelTuner(final TuningDataset dataset) {
+        this.dataset = dataset;
+        this.weights = new double[WEIGHTS];
+        for(final PieceType pieceType : PieceType.values()) {
+            final int type = pieceType.ordinal();
+            final int middleGameMaterial = PieceSquareTables.middleGameMaterial(pieceType);
+            final int endGameMaterial = PieceSquareTables.endGameMaterial(pieceType);
+            this.weights[MIDDLE_GAME * PIECE_TYPES + type] = middleGameMaterial;
+            this.weights[END_GAME * PIECE_TYPES + type] = endGameMaterial;
+            for(int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+                this.weights[TABLE_STARTS[type][MIDDLE_GAME] + tile] =
+                        PieceSquareTables.middleGame(pieceType, Alliance.WHITE, tile) - middleGameMaterial;
+                this.weights[TABLE_STARTS[type][END_GAME] + tile] =
+                        PieceSquareTables.endGame(pieceType, Alliance.WHITE, tile) - endGameMaterial;
+            }
+        }
+        this.scalingConstant = 1;
+    }
+
+    public double[] getWeights() {
+        return this.weights.clone();
+    }
+
+    public double getScalingConstant() {
+        return this.scalingConstant;
+    }
+
+    /**
+     * Finds the k of the sigmoid that fits the current evaluation best, by a ternary search, it has to be found
+     * before the weights are tuned so the tuning does not just scale the evaluation
+     * @return the scaling constant
+     */
+    public double fitScalingConstant() {
+        double low = 0.05;
+        double high = 5;
+        while(high - low > 1e-3) {
+            final double first = low + (high - low) / 3;
+            final double second = high - (high - low) / 3;
+            if(computeError(first) < computeError(second)) {
+                high = second;
+            } else {
+                low = first;
+            }
+        }
+        this.scalingConstant = (low + high) / 2;
+        return this.scalingConstant;
+    }
+
+    /**
+     * @return the mean squared error of the current weights
+     */
+    public double computeError() {
+        return computeError(this.scalingConstant);
+    }
+
+    private double computeError(final double k) {
+        return IntStream.range(0, this.dataset.size()).parallel()
+                .mapToDouble(position -> {
+                    final double error = this.dataset.getResult(position) - sigmoid(evaluate(position), k);
+                    return error * error;
+                }).sum() / Math.max(this.dataset.size(), 1);
+    }
+
+    /**
+     * Tunes the weights
+     * @param epochs is the number of gradient steps, each one over all the positions
+     * @param learningRate is the step of Adam, roughly how many centipawns a weight moves per epoch
+     * @param progress gets the error after every epoch, it may be null
+     * @return the error after the last epoch
+     */
+    public double tune(final int epochs, final double learningRate, final EpochListener progress) {
+        final double[] firstMoment = new double[WEIGHTS];
+        final double[] secondMoment = new double[WEIGHTS];
+        double error = computeError();
+        for(int epoch = 1; epoch <= epochs; epoch++) {
+            final double[] gradient = computeGradient();
+            for(int i = 0; i < WEIGHTS; i++) {
+                firstMoment[i] = ADAM_BETA1 * firstMoment[i] + (1 - ADAM_BETA1) * gradient[i];
+                secondMoment[i] = ADAM_BETA2 * secondMoment[i] + (1 - ADAM_BETA2) * gradient[i] * gradient[i];
+                final double correctedFirst = firstMoment[i] / (1 - Math.pow(ADAM_BETA1, epoch));
+                final double correctedSecond = secondMoment[i] / (1 - Math.pow(ADAM_BETA2, epoch));
+                this.weights[i] -= learningRate * correctedFirst / (Math.sqrt(correctedSecond) + ADAM_EPSILON);
+            }
+            error = computeError();
+            if(progress != null) {
+                progress.onEpoch(epoch, error);
+            }
+        }
+        return error;
+    }
+
+    /**
+     * sums the gradient of the error of every position, each thread of the parallel stream fills its own array
+     * and the arrays are added when the threads are joined
+     */
+    private double[] computeGradient() {
+        final double[] gradient = IntStream.range(0, this.dataset.size()).parallel()
+                .collect(() -> new double[WEIGHTS], this::addGradient, (first, second) -> {
+                    for(int i = 0; i < WEIGHTS; i++) {
+                        first[i] += second[i];
+                    }
+                });
+        for(int i = 0; i < WEIGHTS; i++) {
+            gradient[i] /= Math.max(this.dataset.size(), 1);
+        }
+        return gradient;
+    }
+
+    private void addGradient(final double[] gradient, final int position) {
+        final double expected = sigmoid(evaluate(position), this.scalingConstant);
+        // the derivative of (result - sigmoid(eval))^2 by the evaluation
+        final double slope = -2 * (this.dataset.getResult(position) - expected) * expected * (1 - expected) *
+                LN_10 * this.scalingConstant / 400;
+        final int phase = phase(position);
+        final double middleGameSlope = slope * phase / PieceSquareTables.MAX_PHASE;
+        final double endGameSlope = slope * (PieceSquareTables.MAX_PHASE - phase) / PieceSquareTables.MAX_PHASE;
+        long tiles = this.dataset.getOccupancy(position);
+        for(int n = 0; tiles != 0; n++) {
+            final int tile = Long.numberOfTrailingZeros(tiles);
+            tiles &= tiles - 1;
+            final int code = this.dataset.getPiece(position, n);
+            final int type = (code & 7) - 1;
+            final int relativeTile = relativeTile(code, tile);
+            final double sign = code < TuningDataset.BLACK ? 1 : -1;
+            // a shared table gets the slope of both phases
+            gradient[MIDDLE_GAME * PIECE_TYPES + type] += sign * middleGameSlope;
+            gradient[END_GAME * PIECE_TYPES + type] += sign * endGameSlope;
+            gradient[TABLE_STARTS[type][MIDDLE_GAME] + relativeTile] += sign * middleGameSlope;
+            gradient[TABLE_STARTS[type][END_GAME] + relativeTile] += sign * endGameSlope;
+        }
+    }
+
+    /**
+     * @return the tapered material and piece square score of a position from white's side
+     */
+    double evaluate(final int position) {
+        double middleGame = 0;
+        double endGame = 0;
+        long tiles = this.dataset.getOccupancy(position);
+        for(int n = 0; tiles != 0; n++) {
+            final int tile = Long.numberOfTrailingZeros(tiles);
+            tiles &= tiles - 1;
+            final int code = this.dataset.getPiece(position, n);
+            final int type = (code & 7) - 1;
+            final int relativeTile = relativeTile(code, tile);
+            final double middleGameValue = this.weights[MIDDLE_GAME * PIECE_TYPES + type] +
+                    this.weights[TABLE_STARTS[type][MIDDLE_GAME] + relativeTile];
+            final double endGameValue = this.weights[END_GAME * PIECE_TYPES + type] +
+                    this.weights[TABLE_STARTS[type][END_GAME] + relativeTile];
+            if(code < TuningDataset.BLACK) {
+                middleGame += middleGameValue;
+                endGame += endGameValue;
+            } else {
+                middleGame -= middleGameValue;
+                endGame -= endGameValue;
+            }
+        }
+        final int phase = phase(position);
+        return (middleGame * phase + endGame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    private int phase(final int position) {
+        int phase = 0;
+        long tiles = this.dataset.getOccupancy(position);
+        for(int n = 0; tiles != 0; n++) {
+            tiles &= tiles - 1;
+            phase += PHASE_WEIGHTS[(this.dataset.getPiece(position, n) & 7) - 1];
+        }
+        return Math.min(phase, PieceSquareTables.MAX_PHASE);
+    }
+
+    /**
+     * @return the tile of a piece in the tables, a black piece reads the white table with the ranks flipped
+     */
+    private static int relativeTile(final int code, final int tile) {
+        return code < TuningDataset.BLACK ? tile : tile ^ 56;
+    }
+
+    private static int[][] tableStarts() {
+        final int[][] tableStarts = new int[PIECE_TYPES][2];
+        int start = 2 * PIECE_TYPES;
+        for(final PieceType pieceType : PieceType.values()) {
+            tableStarts[pieceType.ordinal()][MIDDLE_GAME] = start;
+            if(PieceSquareTables.hasPhaseTables(pieceType)) {
+                start += BoardUtils.NUM_TILES;
+            }
+            tableStarts[pieceType.ordinal()][END_GAME] = start;
+            start += BoardUtils.NUM_TILES;
+        }
+        return tableStarts;
+    }
+
+    private static double sigmoid(final double evaluation, final double k) {
+        return 1 / (1 + Math.pow(10, -k * evaluation / 400));
+    }
+
+    private static int[] phaseWeights() {
+        final int[] phaseWeights = new int[PIECE_TYPES];
+        for(final PieceType pieceType : PieceType.values()) {
+            phaseWeights[pieceType.ordinal()] = PieceSquareTables.phase(pieceType);
+        }
+        return phaseWeights;
+    }
+
+    /**
+     * Writes the tuned weights in the layout of PieceSquareTables: the material of every piece type and its tables
+     * without the material, one table for both phases when the piece has no table per phase. The tiles a pawn
+     * can't stand on stay 0
+     */
+    public void writeTables(final Writer writer) throws IOException {
+        final String[] phases = {"MIDDLE_GAME", "END_GAME"};
+        for(int phase = MIDDLE_GAME; phase <= END_GAME; phase++) {
+            writer.write("    static final int[] " + phases[phase] + "_MATERIAL = {");
+            for(int type = 0; type < PIECE_TYPES; type++) {
+                writer.write((type > 0 ? ", " : "") + Math.round(this.weights[phase * PIECE_TYPES + type]));
+            }
+            writer.write("};\n\n");
+        }
+        for(final PieceType pieceType : PieceType.values()) {
+            final boolean phaseTables = PieceSquareTables.hasPhaseTables(pieceType);
+            for(int phase = MIDDLE_GAME; phase <= (phaseTables ? END_GAME : MIDDLE_GAME); phase++) {
+                writer.write("    private static final int[] " + pieceType.name() +
+                        (phaseTables ? "_" + phases[phase] : "") + " = {\n");
+                for(int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+                    final boolean backRank = pieceType == PieceType.PAWN &&
+                            (tile < BoardUtils.NUM_TILES_PER_ROW || tile >= BoardUtils.NUM_TILES - BoardUtils.NUM_TILES_PER_ROW);
+                    final long value = backRank ? 0 :
+                            Math.round(this.weights[TABLE_STARTS[pieceType.ordinal()][phase] + tile]);
+                    writer.write((tile % BoardUtils.NUM_TILES_PER_ROW == 0 ? "            " : " ") +
+                            String.format("%3d", value) + (tile < BoardUtils.NUM_TILES - 1 ? "," : "") +
+                            (tile % BoardUtils.NUM_TILES_PER_ROW == BoardUtils.NUM_TILES_PER_ROW - 1 ? "\n" : ""));
+                }
+                writer.write("    };\n\n");
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Tunes the tables from a dataset file (see TuningDataset.read) and writes them
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: TexelTuner <positions.epd> <tables.txt> [epochs] [learningRate]");
+            return;
+        }
+        final int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        final double learningRate = args.length > 3 ? Double.parseDouble(args[3]) : 1;
+        final PrintStream out = System.out;
+        final long readStartTime = System.nanoTime();
+        final TuningDataset dataset = TuningDataset.read(Paths.get(args[0]));
+        out.println(dataset.size() + " positions (" + (dataset.getMemoryBytes() >> 20) + " MB) read in " +
+                (System.nanoTime() - readStartTime) / 1_000_000 + " ms");
+        final TexelTuner tuner = new TexelTuner(dataset);
+        out.println("k = " + tuner.fitScalingConstant() + ", error " + tuner.computeError());
+        final long tuneStartTime = System.nanoTime();
+        tuner.tune(epochs, learningRate, (epoch, error) -> out.println("epoch " + epoch + ": error " + error +
+                ", " + (System.nanoTime() - tuneStartTime) / 1_000_000 / epoch + " ms per epoch"));
+        try(final Writer writer = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            tuner.writeTables(writer);
+        }
+    }
+
+    /**
+     * EpochListener interface that gets the error of the tuning after every epoch
+     */
+    public interface EpochListener {
+        void onEpoch(int epoch, double error);
+    }
+}
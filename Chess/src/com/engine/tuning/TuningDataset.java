@@ -0,0 +1,245 @@
+package com.engine.tuning;
+
+import com.engine.board.BoardUtils;
+import com.engine.pieces.PieceType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * TuningDataset class that keeps millions of positions with the result of their game, for the TexelTuner
+ *
+ * A Board with its pieces, tiles and legal moves takes kilobytes, so no board is kept: a position is the bitboard
+ * of its occupied tiles and the codes of the pieces on them in tile order, 4 bits per piece in two longs, so 24
+ * bytes and a byte for the result. Ten million positions take 250MB.
+ * The FEN is read character by character straight into the arrays, without building a Board
+ */
+public final class TuningDataset {
+    public static final int MAX_PIECES = 32;
+    // the piece code of a white piece is its PieceType ordinal + 1, a black piece adds BLACK
+    public static final int BLACK = 8;
+    static final int BITS_PER_PIECE = 4;
+    static final int PIECES_PER_LONG = Long.SIZE / BITS_PER_PIECE;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    // the occupied tiles, bit 0 is a8 like the board coordinates
+    private long[] occupancy;
+    private long[] lowPieces;
+    private long[] highPieces;
+    // the result of the game for white in half points: 2 for a win, 1 for a draw and 0 for a loss
+    private byte[] results;
+    private int size;
+
+    public TuningDataset() {
+        this.occupancy = new long[INITIAL_CAPACITY];
+        this.lowPieces = new long[INITIAL_CAPACITY];
+        this.highPieces = new long[INITIAL_CAPACITY];
+        this.results = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Reads a file of positions, one per line: a FEN or EPD followed by the result of the game as "1-0", "0-1",
+     * "1/2-1/2", or as white's score 1.0, 0.5 or 0.0, like
+     * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - c9 \"1/2-1/2\";" or "... w - - 0 1 [1.0]".
+     * The lines without a result or with an invalid position are skipped
+     */
+    public static TuningDataset read(final Path file) throws IOException {
+        final TuningDataset dataset = new TuningDataset();
+        try(final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                final int placementEnd = line.indexOf(' ');
+                final int result = placementEnd < 0 ? -1 : parseResult(line, placementEnd);
+                if(result >= 0) {
+                    dataset.add(line.substring(0, placementEnd), result);
+                }
+            }
+        }
+        return dataset;
+    }
+
+    /**
+     * Reads a file of PackedPosition records, like the ones of the SelfPlayGenerator, the positions are labeled
+     * with the result of their game
+     */
+    public static TuningDataset readPacked(final Path file) throws IOException {
+        final TuningDataset dataset = new TuningDataset();
+        final ByteBuffer buffer = ByteBuffer.allocate(PackedPosition.RECORD_BYTES * 4096).order(ByteOrder.LITTLE_ENDIAN);
+        try(final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while(channel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                final int records = buffer.remaining() / PackedPosition.RECORD_BYTES;
+                if(records == 0) {
+                    break;
+                }
+                for(int i = 0; i < records; i++) {
+                    final int record = i * PackedPosition.RECORD_BYTES;
+                    dataset.add(PackedPosition.getOccupancy(buffer, record),
+                            PackedPosition.getLowPieces(buffer, record), PackedPosition.getHighPieces(buffer, record),
+                            PackedPosition.getResult(buffer, record));
+                }
+                buffer.position(records * PackedPosition.RECORD_BYTES);
+                buffer.compact();
+            }
+        }
+        return dataset;
+    }
+
+    /**
+     * Adds a position
+     * @param placement is the piece placement, the first field of a FEN (the rest of the FEN is ignored)
+     * @param halfPoints is the result of the game for white in half points
+     * @return false when the placement is not a valid position of at most MAX_PIECES pieces
+     */
+    public boolean add(final String placement, final int halfPoints) {
+        long tiles = 0;
+        long low = 0;
+        long high = 0;
+        int pieces = 0;
+        int tile = 0;
+        for(int i = 0; i < placement.length() && placement.charAt(i) != ' '; i++) {
+            final char c = placement.charAt(i);
+            if(c == '/') {
+                continue;
+            }
+            if(c >= '1' && c <= '8') {
+                tile += c - '0';
+                continue;
+            }
+            final int code = pieceCode(c);
+            if(code == 0 || tile >= BoardUtils.NUM_TILES || pieces == MAX_PIECES) {
+                return false;
+            }
+            tiles |= 1L << tile;
+            if(pieces < PIECES_PER_LONG) {
+                low |= (long) code << (pieces * BITS_PER_PIECE);
+            } else {
+                high |= (long) code << ((pieces - PIECES_PER_LONG) * BITS_PER_PIECE);
+            }
+            pieces++;
+            tile++;
+        }
+        if(tile != BoardUtils.NUM_TILES) {
+            return false;
+        }
+        add(tiles, low, high, halfPoints);
+        return true;
+    }
+
+    /**
+     * adds a position that is already packed, the pieces are in the layout of getPiece
+     */
+    public void add(final long tiles, final long low, final long high, final int halfPoints) {
+        if(this.size == this.occupancy.length) {
+            final int capacity = this.size * 2;
+            this.occupancy = Arrays.copyOf(this.occupancy, capacity);
+            this.lowPieces = Arrays.copyOf(this.lowPieces, capacity);
+            this.highPieces = Arrays.copyOf(this.highPieces, capacity);
+            this.results = Arrays.copyOf(this.results, capacity);
+        }
+        this.occupancy[this.size] = tiles;
+        this.lowPieces[this.size] = low;
+        this.highPieces[this.size] = high;
+        this.results[this.size] = (byte) halfPoints;
+        this.size++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the occupied tiles of a position, bit 0 is a8
+     */
+    public long getOccupancy(final int position) {
+        return this.occupancy[position];
+    }
+
+    /**
+     * @return the code of the n-th piece of a position, the pieces are in the order of their tiles
+     */
+    public int getPiece(final int position, final int n) {
+        final long pieces = n < PIECES_PER_LONG ? this.lowPieces[position] : this.highPieces[position];
+        return (int) (pieces >>> ((n % PIECES_PER_LONG) * BITS_PER_PIECE)) & 0xF;
+    }
+
+    /**
+     * @return white's result of the game of a position: 1, 0.5 or 0
+     */
+    public double getResult(final int position) {
+        return this.results[position] / 2.0;
+    }
+
+    /**
+     * @return the memory the positions take, without the unused capacity
+     */
+    public long getMemoryBytes() {
+        return this.size * (3L * Long.BYTES + 1);
+    }
+
+    /**
+     * @return the piece code of a FEN letter, 0 when it is not a piece
+     */
+    static int pieceCode(final char fenChar) {
+        final int black = Character.isLowerCase(fenChar) ? BLACK : 0;
+        switch(Character.toLowerCase(fenChar)) {
+            case 'p': return PieceType.PAWN.ordinal() + 1 + black;
+            case 'n': return PieceType.KNIGHT.ordinal() + 1 + black;
+            case 'b': return PieceType.BISHOP.ordinal() + 1 + black;
+            case 'r': return PieceType.ROOK.ordinal() + 1 + black;
+            case 'q': return PieceType.QUEEN.ordinal() + 1 + black;
+            case 'k': return PieceType.KING.ordinal() + 1 + black;
+            default: return 0;
+        }
+    }
+
+    /**
+     * finds the result of the line, the c9 operation of an EPD or else the last field of the line
+     * @return white's result in half points, or -1 when the line has none
+     */
+    static int parseResult(final String line, final int from) {
+        final int operation = line.indexOf(" c9 ", from);
+        final String field;
+        if(operation >= 0) {
+            final int end = line.indexOf(';', operation);
+            field = line.substring(operation + 4, end < 0 ? line.length() : end);
+        } else {
+            final String trimmed = line.trim();
+            final int start = trimmed.lastIndexOf(' ');
+            if(start < from) {
+                return -1;
+            }
+            field = trimmed.substring(start + 1);
+        }
+        int start = 0;
+        int end = field.length();
+        while(start < end && "\"[ ".indexOf(field.charAt(start)) >= 0) {
+            start++;
+        }
+        while(end > start && "\"]; ".indexOf(field.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        // the numbers of a FEN are whole, so 1.0 and 0.0 are results and 1 and 0 are not
+        switch(field.substring(start, end)) {
+            case "1-0":
+            case "1.0":
+                return 2;
+            case "1/2-1/2":
+            case "0.5":
+                return 1;
+            case "0-1":
+            case "0.0":
+                return 0;
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package com.engine.uci;
+
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.pieces.PieceType;
+import com.engine.player.MoveTransition;
+import com.engine.player.ai.AlphaBeta;
+import com.engine.player.ai.IterativeDeepening;
+import com.engine.player.ai.NnueEvaluator;
+import com.engine.player.ai.NnueNetwork;
+import com.engine.player.ai.ParallelSearch;
+import com.engine.player.ai.SearchResult;
+import com.engine.player.ai.TimeManager;
+import com.engine.player.ai.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * UciEngine class that runs the engine without the GUI and talks the UCI protocol on the standard input and output,
+ * so tournament managers and scripts can play with it
+ *
+ * The commands are read on the thread that calls run and the search runs on its own thread, so stop and ponderhit
+ * are handled while the engine thinks. An infinite or pondering search never sends its bestmove before stop or
+ * ponderhit, even when it finished early. A new position or go, or the end of the input, lets a search with a
+ * limit finish first, that way a list of commands like "position ... go depth 8" can be piped into the engine.
+ * Nothing of the GUI is used here, the engine starts without JavaFX
+ *
+ * Supported: uci, isready, ucinewgame, setoption (Hash, Threads, Ponder, EvalFile), position startpos/fen ...
+ * moves ..., go depth/nodes/movetime/wtime/btime/winc/binc/movestogo/infinite/ponder, stop, ponderhit, quit
+ */
+public final class UciEngine {
+    private static final String ENGINE_NAME = "Chess";
+    private static final int TRANSPOSITION_ENTRY_BYTES = 16;
+    private static final int DEFAULT_HASH_MEGABYTES =
+            TranspositionTable.DEFAULT_ENTRIES * TRANSPOSITION_ENTRY_BYTES >> 20;
+    private static final int MAX_HASH_MEGABYTES = 1024;
+    private static final int MAX_THREADS = 64;
+    private static final int MAX_PV_LENGTH = 32;
+
+    private final BufferedReader input;
+    private final PrintStream output;
+    private final ExecutorService searchService;
+    private final Object releaseLock;
+    private Board board;
+    private int hashMegabytes;
+    private int threads;
+    private NnueNetwork network;
+    private ParallelSearch search;
+    private Future<?> searchTask;
+    private volatile TimeManager timeManager;
+    private TimeManager ponderBudget;
+    // an infinite or pondering search waits for stop or ponderhit before it sends its move
+    private boolean waitForRelease;
+    private long searchStartTime;
+
+    public UciEngine(final InputStream input, final PrintStream output) {
+        this.input = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.output = output;
+        this.searchService = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "UCI search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.releaseLock = new Object();
+        this.board = Board.createStandardBoard();
+        this.hashMegabytes = DEFAULT_HASH_MEGABYTES;
+        this.threads = 1;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        new UciEngine(System.in, System.out).run();
+    }
+
+    /**
+     * reads and handles commands until quit or the end of the input
+     */
+    public void run() throws IOException {
+        String line;
+        while((line = this.input.readLine()) != null) {
+            if(!handleCommand(line.trim())) {
+                stopSearch();
+                closeSearch();
+                this.searchService.shutdown();
+                return;
+            }
+        }
+        closeSearch();
+        this.searchService.shutdown();
+    }
+
+    /**
+     * Handles one command
+     * @param line is the command line
+     * @return false when the engine must quit
+     */
+    boolean handleCommand(final String line) {
+        final String[] tokens = line.split("\\s+");
+        switch(tokens[0]) {
+            case "uci":
+                send("id name " + ENGINE_NAME);
+                send("id author the " + ENGINE_NAME + " authors");
+                send("option name Hash type spin default " + DEFAULT_HASH_MEGABYTES + " min 1 max " + MAX_HASH_MEGABYTES);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name Ponder type check default false");
+                send("option name EvalFile type string default <empty>");
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "ucinewgame":
+                finishSearch();
+                getSearch().getTranspositionTable().clear();
+                this.board = Board.createStandardBoard();
+                break;
+            case "position":
+                finishSearch();
+                try {
+                    this.board = parsePosition(tokens);
+                } catch (RuntimeException e) {
+                    // the position stays as it was
+                    send("info string invalid position " + line.substring(tokens[0].length()).trim() + ": " + e);
+                }
+                break;
+            case "go":
+                finishSearch();
+                go(tokens);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "quit":
+                return false;
+            default:
+                // unknown commands and debug are ignored, like the protocol says
+                break;
+        }
+        return true;
+    }
+
+    private void setOption(final String[] tokens) {
+        String name = null;
+        String value = null;
+        for(int i = 1; i < tokens.length - 1; i++) {
+            if(tokens[i].equals("name")) {
+                name = tokens[i + 1];
+            } else if(tokens[i].equals("value")) {
+                // a path can have spaces
+                value = String.join(" ", Arrays.asList(tokens).subList(i + 1, tokens.length));
+                break;
+            }
+        }
+        if(name == null || value == null) {
+            return;
+        }
+        try {
+            if(name.equalsIgnoreCase("Hash")) {
+                this.hashMegabytes = Math.min(Math.max(Integer.parseInt(value), 1), MAX_HASH_MEGABYTES);
+                closeSearch();
+            } else if(name.equalsIgnoreCase("Threads")) {
+                this.threads = Math.min(Math.max(Integer.parseInt(value), 1), MAX_THREADS);
+                closeSearch();
+            } else if(name.equalsIgnoreCase("EvalFile")) {
+                setEvalFile(value);
+            }
+        } catch (NumberFormatException e) {
+            send("info string invalid value " + value + " for " + name);
+        }
+    }
+
+    /**
+     * loads the network of the NnueEvaluator, the handcrafted evaluation is kept when there is none or it can't
+     * be loaded
+     */
+    private void setEvalFile(final String path) {
+        this.network = null;
+        closeSearch();
+        if(path.isEmpty() || path.equals("<empty>")) {
+            return;
+        }
+        try {
+            this.network = NnueNetwork.load(Paths.get(path));
+            send("info string loaded network " + path + " with " + this.network.getHiddenSize() + " hidden neurons");
+        } catch (IOException | RuntimeException e) {
+            send("info string could not load " + path + ", using the handcrafted evaluation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * closes the search after its move was sent, the next one is built with the current options
+     */
+    private void closeSearch() {
+        finishSearch();
+        if(this.search != null) {
+            this.search.close();
+            this.search = null;
+        }
+    }
+
+    /**
+     * @return the search with the current options, it is built again after an option changed
+     */
+    private ParallelSearch getSearch() {
+        if(this.search == null) {
+            final long entries = ((long) this.hashMegabytes << 20) / TRANSPOSITION_ENTRY_BYTES;
+            final NnueNetwork nnueNetwork = this.network;
+            final TranspositionTable transpositionTable =
+                    new TranspositionTable((int) Math.min(entries, Integer.MAX_VALUE));
+            this.search = nnueNetwork != null ?
+                    new ParallelSearch(this.threads, transpositionTable, () -> new NnueEvaluator(nnueNetwork)) :
+                    new ParallelSearch(this.threads, transpositionTable);
+            this.search.setIterationListener(this::sendInfo);
+        }
+        return this.search;
+    }
+
+    private Board parsePosition(final String[] tokens) {
+        int index = 1;
+        Board position;
+        if(tokens.length > 1 && tokens[1].equals("fen")) {
+            final StringBuilder fen = new StringBuilder();
+            index = 2;
+            while(index < tokens.length && !tokens[index].equals("moves")) {
+                fen.append(tokens[index++]).append(' ');
+            }
+            position = FenUtilities.createGameFromFEN(fen.toString());
+        } else {
+            position = Board.createStandardBoard();
+            index = 2;
+        }
+        if(index < tokens.length && tokens[index].equals("moves")) {
+            for(int i = index + 1; i < tokens.length; i++) {
+                final Move move = parseMove(position, tokens[i]);
+                if(move == null) {
+                    send("info string illegal move " + tokens[i]);
+                    break;
+                }
+                position = position.getCurrentPlayer().makeMove(move).getTransitionBoard();
+            }
+        }
+        return position;
+    }
+
+    private void go(final String[] tokens) {
+        int depth = IterativeDeepening.MAX_DEPTH;
+        long nodes = 0;
+        long moveTime = 0;
+        long whiteTime = 0;
+        long blackTime = 0;
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+        boolean ponder = false;
+        for(int i = 1; i < tokens.length; i++) {
+            final String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+            // a bad value is reported and left out, the search still runs so the GUI gets its bestmove
+            try {
+                switch(tokens[i]) {
+                    case "depth": depth = Integer.parseInt(value); i++; break;
+                    case "nodes": nodes = Long.parseLong(value); i++; break;
+                    case "movetime": moveTime = Long.parseLong(value); i++; break;
+                    case "wtime": whiteTime = Long.parseLong(value); i++; break;
+                    case "btime": blackTime = Long.parseLong(value); i++; break;
+                    case "winc": whiteIncrement = Long.parseLong(value); i++; break;
+                    case "binc": blackIncrement = Long.parseLong(value); i++; break;
+                    case "movestogo": movesToGo = Integer.parseInt(value); i++; break;
+                    case "infinite": infinite = true; break;
+                    case "ponder": ponder = true; break;
+                    default: break;
+                }
+            } catch (NumberFormatException e) {
+                send("info string invalid value " + value + " for " + tokens[i]);
+                i++;
+            }
+        }
+        final boolean white = this.board.getCurrentPlayer().getAlliance().isWhite();
+        final long clockTime = white ? whiteTime : blackTime;
+        final TimeManager budget;
+        if(moveTime > 0) {
+            budget = TimeManager.forMoveTime(moveTime);
+        } else if(clockTime > 0 && !infinite) {
+            budget = TimeManager.forClock(clockTime, white ? whiteIncrement : blackIncrement, movesToGo);
+        } else {
+            budget = TimeManager.infinite();
+        }
+        final TimeManager searchTimeManager = ponder ? TimeManager.forPondering() : budget;
+        if(nodes > 0) {
+            searchTimeManager.setNodeLimit(nodes);
+        }
+        final ParallelSearch parallelSearch = getSearch();
+        parallelSearch.setMaxDepth(depth);
+        parallelSearch.setTimeManager(searchTimeManager);
+        this.timeManager = searchTimeManager;
+        this.ponderBudget = budget;
+        synchronized(this.releaseLock) {
+            this.waitForRelease = infinite || ponder;
+        }
+        final Board searchBoard = this.board;
+        this.searchStartTime = System.nanoTime();
+        this.searchTask = this.searchService.submit(() -> {
+            final Move bestMove = parallelSearch.execute(searchBoard);
+            waitForRelease();
+            sendBestMove(searchBoard, bestMove, parallelSearch.getTranspositionTable());
+        });
+    }
+
+    private void ponderHit() {
+        final TimeManager searchTimeManager = this.timeManager;
+        if(searchTimeManager != null && this.ponderBudget != null) {
+            searchTimeManager.ponderHit(this.ponderBudget);
+        }
+        synchronized(this.releaseLock) {
+            // from now on it is a normal search, it may have been infinite (go ponder infinite)
+            this.waitForRelease = this.ponderBudget != null && this.ponderBudget.getSoftLimitMillis() == Long.MAX_VALUE;
+            this.releaseLock.notifyAll();
+        }
+    }
+
+    /**
+     * stops the running search and waits until it sent its move
+     */
+    private void stopSearch() {
+        synchronized(this.releaseLock) {
+            this.waitForRelease = false;
+            this.releaseLock.notifyAll();
+        }
+        if(this.timeManager != null) {
+            this.timeManager.stop();
+        }
+        waitForSearch();
+    }
+
+    /**
+     * lets a search with a limit finish and stops an infinite one, so commands piped after a go wait for its move
+     */
+    private void finishSearch() {
+        synchronized(this.releaseLock) {
+            if(this.waitForRelease && this.timeManager != null) {
+                this.timeManager.stop();
+            }
+            this.waitForRelease = false;
+            this.releaseLock.notifyAll();
+        }
+        waitForSearch();
+    }
+
+    private void waitForSearch() {
+        if(this.searchTask == null) {
+            return;
+        }
+        try {
+            this.searchTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("The search failed", e.getCause());
+        }
+        this.searchTask = null;
+    }
+
+    private void waitForRelease() {
+        synchronized(this.releaseLock) {
+            while(this.waitForRelease) {
+                try {
+                    this.releaseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void sendInfo(final SearchResult result) {
+        final long millis = Math.max((System.nanoTime() - this.searchStartTime) / 1_000_000, 1);
+        final StringBuilder info = new StringBuilder("info depth ").append(result.getDepth())
+                .append(" score ").append(formatScore(result.getScore()))
+                .append(" nodes ").append(result.getNodes())
+                .append(" nps ").append(result.getNodes() * 1000 / millis)
+                .append(" time ").append(millis);
+        final Move bestMove = result.getBestMove();
+        if(bestMove != null && bestMove != Move.MoveFactory.getNullMove()) {
+            info.append(" pv");
+            Board position = this.board;
+            Move move = bestMove;
+            for(int ply = 0; move != null && ply < Math.min(result.getDepth(), MAX_PV_LENGTH); ply++) {
+                info.append(' ').append(toUci(move));
+                position = position.getCurrentPlayer().makeMove(move).getTransitionBoard();
+                move = getSearch().getTranspositionTable().getBestMove(position);
+            }
+        }
+        send(info.toString());
+    }
+
+    private void sendBestMove(final Board searchBoard, final Move bestMove,
+                              final TranspositionTable transpositionTable) {
+        if(bestMove == null || bestMove == Move.MoveFactory.getNullMove()) {
+            send("bestmove 0000");
+            return;
+        }
+        final Board afterMove = searchBoard.getCurrentPlayer().makeMove(bestMove).getTransitionBoard();
+        final Move ponderMove = transpositionTable.getBestMove(afterMove);
+        send("bestmove " + toUci(bestMove) + (ponderMove != null ? " ponder " + toUci(ponderMove) : ""));
+    }
+
+    /**
+     * @return the score as the protocol wants it, a mate score as the number of moves to the mate
+     */
+    static String formatScore(final int score) {
+        if(Math.abs(score) >= AlphaBeta.MATE_SCORE - IterativeDeepening.MAX_DEPTH * 2) {
+            final int plies = AlphaBeta.MATE_SCORE - Math.abs(score);
+            return "mate " + (score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2);
+        }
+        return "cp " + score;
+    }
+
+    /**
+     * @return the move in long algebraic notation, like e2e4 or e7e8q
+     */
+    public static String toUci(final Move move) {
+        final int destination = move.getDestinationCoordinate();
+        final boolean promotion = move.getMovedPiece().getPieceType() == PieceType.PAWN &&
+                (destination < BoardUtils.NUM_TILES_PER_ROW || destination >= BoardUtils.NUM_TILES - BoardUtils.NUM_TILES_PER_ROW);
+        return BoardUtils.getPositionAtCoordinate(move.getCurrentCoordinate()) +
+                BoardUtils.getPositionAtCoordinate(destination) + (promotion ? "q" : "");
+    }
+
+    /**
+     * Finds the legal move of a move in long algebraic notation, a pawn always promotes to a queen on the board so
+     * the promotion letter is not checked
+     * @return the move, or null when it is not legal
+     */
+    public static Move parseMove(final Board board, final String text) {
+        if(text.length() < 4) {
+            return null;
+        }
+        if(!isSquare(text, 0) || !isSquare(text, 2)) {
+            return null;
+        }
+        final int from = BoardUtils.getCoordinateAtPosition(text.substring(0, 2));
+        final int to = BoardUtils.getCoordinateAtPosition(text.substring(2, 4));
+        final Move move = Move.MoveFactory.createMove(board, from, to);
+        if(move == Move.MoveFactory.getNullMove()) {
+            return null;
+        }
+        final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+        return transition.getMoveStatus().isDone() ? move : null;
+    }
+
+    private static boolean isSquare(final String text, final int index) {
+        final char file = text.charAt(index);
+        final char rank = text.charAt(index + 1);
+        return file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8';
+    }
+
+    private void send(final String message) {
+        synchronized(this.output) {
+            this.output.println(message);
+            this.output.flush();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.gui;
+
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.pgn.AlgebraicNotation;
+import com.engine.player.ai.AnalysisLine;
+import com.engine.player.ai.MultiPvSearch;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AnalysisPanel class that shows the best lines of the MultiPvSearch for the board of the game while it is played
+ *
+ * The search gives new lines many times a second at the low depths, so they are not drawn one by one: the last
+ * lines wait in a reference and are drawn at most every UPDATE_INTERVAL_MILLIS with Platform.runLater, the lines
+ * they replaced are dropped. The lines are formatted on the analysis thread, the FX thread only sets the rows
+ */
+class AnalysisPanel extends VBox {
+    private static final long UPDATE_INTERVAL_MILLIS = 250;
+
+    private final MultiPvSearch analysis;
+    private final Label depthLabel;
+    private final TableView<Row> table;
+    private final ScheduledExecutorService updateService;
+    private final AtomicReference<Update> pendingUpdate;
+    private final AtomicBoolean updateScheduled;
+    private volatile Board board;
+    private volatile long lastUpdateTime;
+
+    AnalysisPanel() {
+        this.setPrefSize(300, 550);
+        depthLabel = new Label("Analysis");
+        table = new TableView<>();
+        table.setPrefSize(300, 525);
+        table.setEditable(false);
+        TableColumn<Row, String> scoreCol = new TableColumn<>("Score");
+        scoreCol.setCellValueFactory(new PropertyValueFactory<>("score"));
+        scoreCol.setPrefWidth(55);
+        scoreCol.setSortable(false);
+        TableColumn<Row, String> lineCol = new TableColumn<>("Line");
+        lineCol.setCellValueFactory(new PropertyValueFactory<>("line"));
+        lineCol.setPrefWidth(240);
+        lineCol.setSortable(false);
+        table.getColumns().add(scoreCol);
+        table.getColumns().add(lineCol);
+        this.getChildren().addAll(depthLabel, table);
+
+        pendingUpdate = new AtomicReference<>();
+        updateScheduled = new AtomicBoolean();
+        updateService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Analysis update");
+            thread.setDaemon(true);
+            return thread;
+        });
+        analysis = new MultiPvSearch();
+        analysis.setListener(this::linesFound);
+    }
+
+    /**
+     * starts analyzing a new board of the game, the running analysis is dropped without waiting for it
+     */
+    void analyze(final Board board) {
+        this.board = board;
+        pendingUpdate.set(null);
+        analysis.analyze(board);
+        Platform.runLater(() -> {
+            depthLabel.setText("Analysis");
+            table.getItems().clear();
+        });
+    }
+
+    void stop() {
+        this.board = null;
+        analysis.stop();
+        Platform.runLater(() -> {
+            depthLabel.setText("Analysis");
+            table.getItems().clear();
+        });
+    }
+
+    /**
+     * called on the analysis thread with the lines of every depth
+     */
+    private void linesFound(final List<AnalysisLine> lines) {
+        if(lines.isEmpty() || lines.get(0).getBoard() != this.board) {
+            return;
+        }
+        final List<Row> rows = new ArrayList<>(lines.size());
+        for(final AnalysisLine line : lines) {
+            rows.add(new Row(formatScore(line), formatMoves(line)));
+        }
+        pendingUpdate.set(new Update(lines.get(0).getBoard(), "Depth " + lines.get(0).getDepth() + ", " +
+                lines.get(0).getNodes() + " nodes", rows));
+        if(!updateScheduled.getAndSet(true)) {
+            final long wait = lastUpdateTime + UPDATE_INTERVAL_MILLIS - System.currentTimeMillis();
+            updateService.schedule(this::publishUpdate, Math.max(wait, 0), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void publishUpdate() {
+        updateScheduled.set(false);
+        final Update update = pendingUpdate.getAndSet(null);
+        if(update == null) {
+            return;
+        }
+        lastUpdateTime = System.currentTimeMillis();
+        Platform.runLater(() -> {
+            if(update.board == this.board) {
+                depthLabel.setText(update.depth);
+                table.getItems().setAll(update.rows);
+            }
+        });
+    }
+
+    /**
+     * @return the score from white's side in pawns, like "+0.35", or the moves to the mate like "#3" and "-#2"
+     */
+    private static String formatScore(final AnalysisLine line) {
+        final boolean whiteToMove = line.getBoard().getCurrentPlayer().getAlliance().isWhite();
+        final int mateIn = whiteToMove ? line.getMateIn() : -line.getMateIn();
+        if(mateIn != 0) {
+            return (mateIn > 0 ? "#" : "-#") + Math.abs(mateIn);
+        }
+        final int score = whiteToMove ? line.getScore() : -line.getScore();
+        return String.format("%+.2f", score / 100.0);
+    }
+
+    private static String formatMoves(final AnalysisLine line) {
+        final StringBuilder text = new StringBuilder();
+        Board position = line.getBoard();
+        for(final Move move : line.getMoves()) {
+            if(text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(AlgebraicNotation.toSan(position, move));
+            position = position.getCurrentPlayer().makeMove(move).getTransitionBoard();
+        }
+        return text.toString();
+    }
+
+    private static class Update {
+        private final Board board;
+        private final String depth;
+        private final List<Row> rows;
+
+        Update(final Board board, final String depth, final List<Row> rows) {
+            this.board = board;
+            this.depth = depth;
+            this.rows = rows;
+        }
+    }
+
+    public static class Row {
+        private final String score;
+        private final String line;
+
+        Row(final String score, final String line) {
+            this.score = score;
+            this.line = line;
+        }
+
+        public String getScore() {
+            return score;
+        }
+
+        public String getLine() {
+            return line;
+        }
+    }
+}
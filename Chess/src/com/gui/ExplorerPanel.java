@@ -0,0 +1,131 @@
+package com.gui;
+
+import com.engine.board.Board;
+import com.engine.database.ExplorerMove;
+import com.engine.database.OpeningExplorer;
+import com.engine.pgn.AlgebraicNotation;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.VBox;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ExplorerPanel class that shows the moves the games of the OpeningExplorer played in the board of the game, with
+ * how often they were played, their score and the average rating of their games
+ *
+ * A lookup is a few microseconds, so the moves are looked up on the thread that changed the board and only the
+ * rows are set on the FX thread
+ */
+class ExplorerPanel extends VBox {
+    private final Label titleLabel;
+    private final TableView<Row> table;
+    private OpeningExplorer explorer;
+    private volatile Board board;
+
+    ExplorerPanel() {
+        this.setPrefSize(260, 550);
+        titleLabel = new Label("Explorer");
+        table = new TableView<>();
+        table.setPrefSize(260, 525);
+        table.setEditable(false);
+        TableColumn<Row, String> moveCol = new TableColumn<>("Move");
+        moveCol.setCellValueFactory(new PropertyValueFactory<>("move"));
+        moveCol.setPrefWidth(60);
+        moveCol.setSortable(false);
+        TableColumn<Row, String> gamesCol = new TableColumn<>("Games");
+        gamesCol.setCellValueFactory(new PropertyValueFactory<>("games"));
+        gamesCol.setPrefWidth(70);
+        gamesCol.setSortable(false);
+        TableColumn<Row, String> scoreCol = new TableColumn<>("Score");
+        scoreCol.setCellValueFactory(new PropertyValueFactory<>("score"));
+        scoreCol.setPrefWidth(60);
+        scoreCol.setSortable(false);
+        TableColumn<Row, String> ratingCol = new TableColumn<>("Rating");
+        ratingCol.setCellValueFactory(new PropertyValueFactory<>("rating"));
+        ratingCol.setPrefWidth(60);
+        ratingCol.setSortable(false);
+        table.getColumns().add(moveCol);
+        table.getColumns().add(gamesCol);
+        table.getColumns().add(scoreCol);
+        table.getColumns().add(ratingCol);
+        this.getChildren().addAll(titleLabel, table);
+    }
+
+    /**
+     * replaces the explorer of the panel, the old one is closed
+     */
+    synchronized void setExplorer(final OpeningExplorer explorer) {
+        if(this.explorer != null) {
+            try {
+                this.explorer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        this.explorer = explorer;
+        if(this.board != null) {
+            show(this.board);
+        }
+    }
+
+    /**
+     * shows the moves of a new board of the game
+     */
+    synchronized void show(final Board board) {
+        this.board = board;
+        final List<Row> rows = new ArrayList<>();
+        final String title;
+        if(explorer == null) {
+            title = "Explorer (no games)";
+        } else {
+            int games = 0;
+            for(final ExplorerMove move : explorer.getMoves(board)) {
+                rows.add(new Row(AlgebraicNotation.toSan(board, move.getMove()), move));
+                games += move.getGames();
+            }
+            title = "Explorer, " + games + " games";
+        }
+        Platform.runLater(() -> {
+            if(board == this.board) {
+                titleLabel.setText(title);
+                table.getItems().setAll(rows);
+            }
+        });
+    }
+
+    public static class Row {
+        private final String move;
+        private final String games;
+        private final String score;
+        private final String rating;
+
+        Row(final String move, final ExplorerMove explorerMove) {
+            this.move = move;
+            this.games = Integer.toString(explorerMove.getGames());
+            this.score = String.format("%.1f%%", explorerMove.getScore());
+            this.rating = explorerMove.getAverageRating() > 0 ? Integer.toString(explorerMove.getAverageRating()) : "-";
+        }
+
+        public String getMove() {
+            return move;
+        }
+
+        public String getGames() {
+            return games;
+        }
+
+        public String getScore() {
+            return score;
+        }
+
+        public String getRating() {
+            return rating;
+        }
+    }
+}
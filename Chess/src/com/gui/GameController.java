@@ -5,8 +5,15 @@ import com.engine.board.Board;
 import com.engine.board.BoardUtils;
 import com.engine.board.Move;
 import com.engine.board.Tile;
+import com.engine.book.PolyglotBook;
+import com.engine.book.PolyglotKeys;
+import com.engine.database.OpeningExplorer;
+import com.engine.pgn.PgnGame;
+import com.engine.pgn.PgnWriter;
 import com.engine.pieces.Piece;
 import com.engine.player.MoveTransition;
+import com.engine.player.ai.PonderingSearch;
+import com.engine.player.ai.TimeManager;
 import com.google.common.collect.Lists;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
@@ -20,11 +27,18 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
+import javafx.stage.FileChooser;
 
 import javax.microedition.io.StreamConnection;
 import java.io.*;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -35,6 +49,8 @@ import java.util.concurrent.Executors;
 
 public class GameController implements Initializable {
     static final String RESOURCES_PATH = "Resources\\";
+    private static final String OPENING_BOOK_PATH = RESOURCES_PATH + "book.bin";
+    private static final String OPENING_EXPLORER_PATH = RESOURCES_PATH + "explorer.bin";
     private static final int BOARD_PANEL_WIDTH = 650;
     private static final int BOARD_PANEL_HEIGHT = 550;
     private static final double TILE_PANEL_WIDTH = 81.25;
@@ -47,6 +63,8 @@ public class GameController implements Initializable {
     private BorderPane borderPane;
 
     private LogHistoryPanel logHistoryPanel;
+    private AnalysisPanel analysisPanel;
+    private ExplorerPanel explorerPanel;
     private TakenPiecesPanel takenPiecesPanel;
     private BoardPanel chessBoard;
     private MoveLog moveLog;
@@ -59,6 +77,17 @@ public class GameController implements Initializable {
     private boolean highlightTiles;
     private Alliance chosenAlliance;
 
+    // the computer player searches on its own thread and ponders on the opponent's time, the board of the game is
+    // only changed on the FX thread, the search gets a snapshot of it and its move is applied back on the FX thread
+    private final PonderingSearch computerPlayer = new PonderingSearch();
+    private final ExecutorService computerService = Executors.newSingleThreadExecutor();
+    private volatile boolean computerPlaysChosenAlliance;
+    private long computerTimeLeft = TimeManager.GAME_TIME_LIMIT_MILLIS;
+    // counts the games, a computer move of an earlier game is dropped
+    private int gameGeneration;
+    private PolyglotBook openingBook;
+    private volatile boolean showAnalysis = true;
+
     /**
      * Initialize method that will create all the objects on the board before starting the game
      *
@@ -77,6 +106,7 @@ public class GameController implements Initializable {
         service.execute(this::receivedMoveMessage);
 
         chosenAlliance = PrimaryController.getChosenPlayerAlliance();
+        this.openingBook = openOpeningBook();
 
         if(chosenAlliance == Alliance.WHITE) {
             this.boardDirection = BoardDirection.NORMAL;
@@ -89,14 +119,29 @@ public class GameController implements Initializable {
         MenuBar menuBar = createTableMenuBar();
         this.moveLog = new MoveLog();
         this.logHistoryPanel = new LogHistoryPanel();
+        this.analysisPanel = new AnalysisPanel();
+        this.explorerPanel = new ExplorerPanel();
+        this.explorerPanel.setExplorer(openOpeningExplorer(Paths.get(OPENING_EXPLORER_PATH)));
         this.takenPiecesPanel = new TakenPiecesPanel();
         this.chessBoard = new BoardPanel();
         this.chessBoard.drawBoard(gameBoard);
 
         this.borderPane.setTop(menuBar);
-        this.borderPane.setRight(this.logHistoryPanel);
+        this.borderPane.setRight(new HBox(this.logHistoryPanel, this.analysisPanel, this.explorerPanel));
         this.borderPane.setLeft(this.takenPiecesPanel);
         this.borderPane.setCenter(this.chessBoard);
+        updateAnalysis();
+    }
+
+    /**
+     * restarts the analysis and shows the explorer moves of the current board, called whenever the board of the
+     * game changes. It never waits for the search, so it can be called from the FX thread
+     */
+    private void updateAnalysis() {
+        if (showAnalysis) {
+            analysisPanel.analyze(gameBoard);
+        }
+        explorerPanel.show(gameBoard);
     }
 
     private void resetGame() {
@@ -107,14 +152,15 @@ public class GameController implements Initializable {
         }
         highlightTiles = true;
 
+        computerService.execute(computerPlayer::stopPondering);
+        this.gameGeneration++;
+        this.computerTimeLeft = TimeManager.GAME_TIME_LIMIT_MILLIS;
         this.gameBoard = Board.createStandardBoard();
         moveLog.clear();
-
-        Platform.runLater(() -> {
-            logHistoryPanel.clear();
-            takenPiecesPanel.draw(moveLog);
-            this.chessBoard.drawBoard(gameBoard);
-        });
+        updateAnalysis();
+        logHistoryPanel.clear();
+        takenPiecesPanel.draw(moveLog);
+        this.chessBoard.drawBoard(gameBoard);
     }
 
     private void receivedMoveMessage() {
@@ -151,25 +197,133 @@ public class GameController implements Initializable {
                     }
                 }
                 if (incomingMessage.equals("Reset")) {
-                    resetGame();
+                    Platform.runLater(this::resetGame);
                 } else if (!incomingMessage.equals("Start")) {
-                    final Move move = Move.MoveFactory.createMove(gameBoard,
-                            currentCoordinate, destinationCoordinate);
-                    final MoveTransition transition = gameBoard.getCurrentPlayer().makeMove(move);
-                    if (transition.getMoveStatus().isDone()) {
-                        gameBoard = transition.getTransitionBoard();
-                        moveLog.addMove(move);
-                        Platform.runLater(() -> {
-                            logHistoryPanel.draw(gameBoard, move);
-                            takenPiecesPanel.draw(moveLog);
-                            chessBoard.drawBoard(gameBoard);
-                        });
-                    }
+                    final int current = currentCoordinate;
+                    final int destination = destinationCoordinate;
+                    Platform.runLater(() -> applyReceivedMove(current, destination));
                 }
             }
         }
     }
 
+    /**
+     * plays the move of the opponent on the board of the game, called on the FX thread
+     */
+    private void applyReceivedMove(final int currentCoordinate, final int destinationCoordinate) {
+        final Move move = Move.MoveFactory.createMove(gameBoard, currentCoordinate, destinationCoordinate);
+        final MoveTransition transition = gameBoard.getCurrentPlayer().makeMove(move);
+        if (transition.getMoveStatus().isDone()) {
+            gameBoard = transition.getTransitionBoard();
+            moveLog.addMove(move);
+            updateAnalysis();
+            logHistoryPanel.draw(move);
+            takenPiecesPanel.draw(moveLog);
+            chessBoard.drawBoard(gameBoard);
+            requestComputerMove();
+        }
+    }
+
+    /**
+     * hands a snapshot of the board of the game to the computer thread when it is the computer's turn, called on
+     * the FX thread
+     */
+    private void requestComputerMove() {
+        if (!computerPlaysChosenAlliance || chosenAlliance != gameBoard.getCurrentPlayer().getAlliance()) {
+            return;
+        }
+        final Board board = gameBoard;
+        final int generation = gameGeneration;
+        final long timeLeft = computerTimeLeft;
+        computerService.execute(() -> makeComputerMove(board, generation, timeLeft));
+    }
+
+    /**
+     * Lets the computer find the move of the chosen alliance on the computer thread
+     *
+     * the search continues the pondering search when the opponent played the expected move, the move is applied
+     * on the FX thread
+     * @param board is the board of the game when the move was requested
+     * @param generation is the game the board belongs to
+     * @param timeLeft is the time the computer had left when the move was requested
+     */
+    private void makeComputerMove(final Board board, final int generation, final long timeLeft) {
+        if (!computerPlaysChosenAlliance) {
+            return;
+        }
+        final Move bookMove = openingBook != null ? openingBook.getWeightedMove(board, new Random()) : null;
+        final Move move;
+        final long elapsedMillis;
+        if (bookMove != null) {
+            computerPlayer.stopPondering();
+            move = bookMove;
+            elapsedMillis = 0;
+        } else {
+            final TimeManager timeManager = TimeManager.forClock(timeLeft, 0, 0);
+            move = computerPlayer.search(board, timeManager);
+            elapsedMillis = timeManager.getElapsedMillis();
+        }
+        Platform.runLater(() -> applyComputerMove(board, generation, move, elapsedMillis));
+    }
+
+    /**
+     * plays the move of the computer and sends it like a move of the mouse, called on the FX thread. The move is
+     * dropped when the board changed while the computer was searching (a new game or the computer was switched
+     * off and on), after the move the computer ponders on the expected reply until the next move message arrives
+     */
+    private void applyComputerMove(final Board board, final int generation, final Move move, final long elapsedMillis) {
+        if (generation != gameGeneration || board != gameBoard || !computerPlaysChosenAlliance) {
+            return;
+        }
+        final MoveTransition transition = gameBoard.getCurrentPlayer().makeMove(move);
+        if (transition.getMoveStatus().isDone()) {
+            computerTimeLeft -= elapsedMillis;
+            gameBoard = transition.getTransitionBoard();
+            moveLog.addMove(move);
+            updateAnalysis();
+            try {
+                dataOut.writeUTF(move.getCurrentCoordinate() + " " + move.getDestinationCoordinate());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            logHistoryPanel.draw(move);
+            takenPiecesPanel.draw(moveLog);
+            chessBoard.drawBoard(gameBoard);
+            final Board ponderBoard = gameBoard;
+            computerService.execute(() -> computerPlayer.startPondering(ponderBoard));
+        }
+    }
+
+    /**
+     * opens the Polyglot book of the resources folder, the computer plays without a book when it is missing
+     */
+    private static PolyglotBook openOpeningBook() {
+        final Path bookPath = Paths.get(OPENING_BOOK_PATH);
+        if (!Files.exists(bookPath)) {
+            return null;
+        }
+        try {
+            return PolyglotBook.open(bookPath, PolyglotKeys.STANDARD);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Opening book failed. The computer will play without it.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static OpeningExplorer openOpeningExplorer(final Path explorerPath) {
+        if (!Files.exists(explorerPath)) {
+            return null;
+        }
+        try {
+            return OpeningExplorer.open(explorerPath);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Opening explorer failed.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     private MenuBar createTableMenuBar() {
         final MenuBar tableMenuBar = new MenuBar();
         tableMenuBar.getMenus().add(createFileMenu());
@@ -196,12 +350,61 @@ public class GameController implements Initializable {
             }
             System.exit(0);
         });
+        final MenuItem exportPgn = createMenuItem("Export PGN...", e -> exportPgn());
+        final MenuItem openExplorer = createMenuItem("Open Explorer...", e -> {
+            final FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Open Explorer");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Explorer files", "*.bin"));
+            final File file = fileChooser.showOpenDialog(borderPane.getScene().getWindow());
+            if (file != null) {
+                explorerPanel.setExplorer(openOpeningExplorer(file.toPath()));
+            }
+        });
         fileMenu.getItems().add(reset);
+        fileMenu.getItems().add(exportPgn);
+        fileMenu.getItems().add(openExplorer);
         fileMenu.getItems().add(new SeparatorMenuItem());
         fileMenu.getItems().add(exitMenuItem);
         return fileMenu;
     }
 
+    /**
+     * asks for a file and writes the moves of the game to it in PGN
+     */
+    private void exportPgn() {
+        final FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export PGN");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PGN files", "*.pgn"));
+        final File file = fileChooser.showSaveDialog(borderPane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        final String player = computerPlaysChosenAlliance ? "Computer" : "Player";
+        final Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Casual game");
+        tags.put("Site", "?");
+        tags.put("Date", new SimpleDateFormat("yyyy.MM.dd").format(new Date()));
+        tags.put("Round", "-");
+        tags.put("White", chosenAlliance == Alliance.WHITE ? player : "Opponent");
+        tags.put("Black", chosenAlliance == Alliance.BLACK ? player : "Opponent");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            moveLog.writePgn(writer, tags, gameResult(gameBoard));
+        } catch (IOException e) {
+            System.err.println("Exporting the game failed.");
+            e.printStackTrace();
+        }
+    }
+
+    private static String gameResult(final Board board) {
+        if (board.getCurrentPlayer().isInCheckMate()) {
+            return board.getCurrentPlayer().getAlliance().isWhite() ? PgnGame.BLACK_WINS : PgnGame.WHITE_WINS;
+        }
+        if (board.getCurrentPlayer().isInStaleMate()) {
+            return PgnGame.DRAW;
+        }
+        return PgnGame.UNKNOWN_RESULT;
+    }
+
     private Menu createPreferencesMenu() {
         final Menu preferencesMenu = new Menu("Preferences");
         MenuItem flipBoardMenuItem = createMenuItem("Flip Board", e -> {
@@ -211,9 +414,30 @@ public class GameController implements Initializable {
         CheckMenuItem highlightTilesMenuItem = new CheckMenuItem("Highlight Tiles");
         highlightTilesMenuItem.setOnAction(e -> this.highlightTiles = !this.highlightTiles);
         highlightTilesMenuItem.setSelected(true);
+        CheckMenuItem computerPlayerMenuItem = new CheckMenuItem("Computer Player");
+        computerPlayerMenuItem.setOnAction(e -> {
+            this.computerPlaysChosenAlliance = computerPlayerMenuItem.isSelected();
+            if (this.computerPlaysChosenAlliance) {
+                requestComputerMove();
+            } else {
+                computerService.execute(computerPlayer::stopPondering);
+            }
+        });
+        CheckMenuItem analysisMenuItem = new CheckMenuItem("Engine Analysis");
+        analysisMenuItem.setSelected(true);
+        analysisMenuItem.setOnAction(e -> {
+            this.showAnalysis = analysisMenuItem.isSelected();
+            if (this.showAnalysis) {
+                updateAnalysis();
+            } else {
+                analysisPanel.stop();
+            }
+        });
         preferencesMenu.getItems().add(flipBoardMenuItem);
         preferencesMenu.getItems().add(new SeparatorMenuItem());
         preferencesMenu.getItems().add(highlightTilesMenuItem);
+        preferencesMenu.getItems().add(computerPlayerMenuItem);
+        preferencesMenu.getItems().add(analysisMenuItem);
         return preferencesMenu;
     }
 
@@ -269,6 +493,16 @@ public class GameController implements Initializable {
         void clear() {
             this.moves.clear();
         }
+
+        /**
+         * Writes the game in PGN with the SAN of every move, the game always starts from the standard board
+         * @param writer gets the game
+         * @param tags are the tags of the game, the result tag is added
+         * @param result is the result, one of the PgnGame results
+         */
+        void writePgn(final Writer writer, final Map<String, String> tags, final String result) throws IOException {
+            new PgnWriter(writer).writeGame(tags, Board.createStandardBoard(), this.moves, result);
+        }
     }
 
     class BoardPanel extends GridPane {
@@ -310,7 +544,7 @@ public class GameController implements Initializable {
             assignTilePieceIcon(gameBoard);
 
             EventHandler<MouseEvent> eventHandlerForMouseClick = mouseEvent -> {
-                if(chosenAlliance == gameBoard.getCurrentPlayer().getAlliance()) {
+                if(chosenAlliance == gameBoard.getCurrentPlayer().getAlliance() && !computerPlaysChosenAlliance) {
                     if (mouseEvent.getButton() == MouseButton.SECONDARY) {
                         sourceTile = null;
                         targetTile = null;
@@ -332,7 +566,8 @@ public class GameController implements Initializable {
                             if (transition.getMoveStatus().isDone()) {
                                 gameBoard = transition.getTransitionBoard();
                                 moveLog.addMove(move);
-                                logHistoryPanel.draw(gameBoard, move);
+                                logHistoryPanel.draw(move);
+                                updateAnalysis();
                                 try {
                                     dataOut.writeUTF(move.getCurrentCoordinate() + " " + move.getDestinationCoordinate());
                                 } catch (IOException e) {
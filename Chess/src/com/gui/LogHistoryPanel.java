@@ -1,7 +1,7 @@
 package com.gui;
 
-import com.engine.board.Board;
 import com.engine.board.Move;
+import com.engine.pgn.AlgebraicNotation;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -29,8 +29,9 @@ class LogHistoryPanel extends Pane {
 
     }
 
-    void draw(final Board board, final Move move) {
-        String moveText = move.toString() + calculateCheckAndCheckMateHash(board);
+    void draw(final Move move) {
+        // the move was made on its own board, toSan adds the check and the mate marks
+        String moveText = AlgebraicNotation.toSan(move.getBoard(), move);
         if (move.getMovedPiece().getPieceAlliance().isWhite()) {
             whiteMove = moveText;
             table.getItems().add(new Row(moveText, ""));
@@ -40,15 +41,6 @@ class LogHistoryPanel extends Pane {
         }
     }
 
-    private String calculateCheckAndCheckMateHash(final Board board) {
-        if(board.getCurrentPlayer().isInCheckMate()) {
-            return "#";
-        } else if(board.getCurrentPlayer().isInCheck()) {
-            return "+";
-        }
-        return "";
-    }
-
     void clear() {
         whiteMove = "";
         this.currentRowIndex = 0;
@@ -1,6 +1,11 @@
 package com.tests.engine.board;
 
 import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.board.PieceSquareScore;
+import com.engine.player.MoveTransition;
 import org.junit.jupiter.api.Test;
 
 import static com.engine.board.Board.*;
@@ -19,4 +24,46 @@ class TestBoard {
         assertFalse(board.getCurrentPlayer().getOpponent().isInCheck());
         assertFalse(board.getCurrentPlayer().getOpponent().isInCheckMate());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void standardBoardFen() {
+        final String standardFen = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+        assertEquals(standardFen, FenUtilities.createFENFromGame(createStandardBoard()));
+        final Board board = FenUtilities.createGameFromFEN(standardFen);
+        assertEquals(standardFen, FenUtilities.createFENFromGame(board));
+        assertEquals(board.getCurrentPlayer().getLegalMoves().size(), 20);
+    }
+
+    @Test
+    public void incrementalPieceSquareScore() {
+        // castling, a capture and a promotion all update the score of the board they were made on
+        Board board = FenUtilities.createGameFromFEN("r3k2r/1P6/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                final Board transitionBoard = transition.getTransitionBoard();
+                assertEquals(PieceSquareScore.calculate(transitionBoard.getWhitePieces(), transitionBoard.getBlackPieces()),
+                        transitionBoard.getPieceSquareScore());
+                assertEquals(board.getZobristHash(), transitionBoard.getTransition().getPreviousZobristHash());
+            }
+        }
+    }
+
+    @Test
+    public void transpositionsHaveTheSameZobristHash() {
+        final Board first = makeMoves(createStandardBoard(), "g1", "f3", "b8", "c6", "b1", "c3");
+        final Board second = makeMoves(createStandardBoard(), "b1", "c3", "b8", "c6", "g1", "f3");
+        assertEquals(first.getZobristHash(), second.getZobristHash());
+        assertEquals(first.getPawnZobristHash(), createStandardBoard().getPawnZobristHash());
+        assertNotEquals(first.getZobristHash(), makeMoves(first, "g8", "f6").getZobristHash());
+    }
+
+    private static Board makeMoves(Board board, final String... positions) {
+        for(int i = 0; i < positions.length; i += 2) {
+            final Move move = Move.MoveFactory.createMove(board, BoardUtils.getCoordinateAtPosition(positions[i]),
+                    BoardUtils.getCoordinateAtPosition(positions[i + 1]));
+            board = board.getCurrentPlayer().makeMove(move).getTransitionBoard();
+        }
+        return board;
+    }
+}
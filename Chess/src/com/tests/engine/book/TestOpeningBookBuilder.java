@@ -0,0 +1,127 @@
+package com.tests.engine.book;
+
+import com.engine.board.Board;
+import com.engine.book.BookEntry;
+import com.engine.book.OpeningBookBuilder;
+import com.engine.book.PolyglotBook;
+import com.engine.book.PolyglotKeys;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestOpeningBookBuilder {
+    private static final String[] FIRST_MOVES = {"e4 e5", "e4 c5", "d4 d5", "d4 Nf6", "c4 e5", "f4 d5"};
+    private static final String[] SECOND_MOVES = {"Nc3 Nc6", "h3 h6", "g3 g6", "b3 b6", "a3 a6"};
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    private static PolyglotKeys randomKeys() {
+        final Random random = new Random(781);
+        final long[] keys = new long[PolyglotKeys.NUM_KEYS];
+        for(int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        return new PolyglotKeys(keys);
+    }
+
+    /**
+     * writes every combination of the first and second moves with every result, a quarter of the games have no
+     * result
+     */
+    private static Path writeGames(final Path directory) throws IOException {
+        final StringBuilder text = new StringBuilder();
+        for(final String first : FIRST_MOVES) {
+            for(final String second : SECOND_MOVES) {
+                for(final String result : RESULTS) {
+                    final String[] moves = (first + " " + second).split(" ");
+                    text.append("[Result \"").append(result).append("\"]\n\n1. ").append(moves[0]).append(' ')
+                            .append(moves[1]).append(" 2. ").append(moves[2]).append(' ').append(moves[3])
+                            .append(' ').append(result).append("\n\n");
+                }
+            }
+        }
+        final Path pgnPath = directory.resolve("games.pgn");
+        Files.write(pgnPath, text.toString().getBytes(StandardCharsets.ISO_8859_1));
+        return pgnPath;
+    }
+
+    private static BookEntry findEntry(final List<BookEntry> entries, final String move) {
+        for(final BookEntry entry : entries) {
+            if(entry.getMove().toString().equals(move)) {
+                return entry;
+            }
+        }
+        throw new RuntimeException("No entry " + move);
+    }
+
+    private static void deleteAll(final Path directory) throws IOException {
+        try(final Stream<Path> files = Files.list(directory)) {
+            for(final Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void spilledRunsAreMergedLikeOneRun() throws IOException {
+        final Path directory = Files.createTempDirectory("book");
+        try {
+            final Path pgnPath = writeGames(directory);
+            final Path oneRunPath = directory.resolve("one-run.bin");
+            final Path spilledPath = directory.resolve("spilled.bin");
+            final OpeningBookBuilder oneRun = new OpeningBookBuilder.Builder(randomKeys()).setThreads(1)
+                    .setTemporaryDirectory(directory).build();
+            final long entries = oneRun.build(pgnPath, oneRunPath);
+            // a table of 4 entries writes a run every few games, the pairs of a position end up in many runs
+            final OpeningBookBuilder spilled = new OpeningBookBuilder.Builder(randomKeys()).setThreads(3)
+                    .setMaxEntriesPerWorker(4).setTemporaryDirectory(directory).build();
+            assertEquals(entries, spilled.build(pgnPath, spilledPath));
+            assertArrayEquals(Files.readAllBytes(oneRunPath), Files.readAllBytes(spilledPath));
+            assertEquals(4 + FIRST_MOVES.length + FIRST_MOVES.length * SECOND_MOVES.length * 2, entries);
+            assertEquals(FIRST_MOVES.length * SECOND_MOVES.length * RESULTS.length, spilled.getGamesRead());
+            assertEquals(FIRST_MOVES.length * SECOND_MOVES.length * 3, spilled.getGamesUsed());
+            assertEquals(spilled.getGamesUsed() * 4, spilled.getPositions());
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void resultsAreCountedForThePlayerOfTheMove() throws IOException {
+        final Path directory = Files.createTempDirectory("book");
+        final Path bookPath = directory.resolve("book.bin");
+        // a mapped file can't be deleted on windows until the mapping is collected, the files are deleted in the
+        // reverse order
+        directory.toFile().deleteOnExit();
+        bookPath.toFile().deleteOnExit();
+        final Path pgnPath = writeGames(directory);
+        new OpeningBookBuilder.Builder(randomKeys()).setTemporaryDirectory(directory).build().build(pgnPath, bookPath);
+        Files.delete(pgnPath);
+        try(final PolyglotBook book = PolyglotBook.openWithStatistics(bookPath, randomKeys())) {
+            final Board board = Board.createStandardBoard();
+            final List<BookEntry> entries = book.getEntries(board);
+            assertEquals(4, entries.size());
+            final BookEntry e4 = findEntry(entries, "e4");
+            // the games without a result are skipped
+            assertEquals(2 * SECOND_MOVES.length * 3, e4.getGames());
+            assertEquals(2 * SECOND_MOVES.length, e4.getWins());
+            assertEquals(2 * SECOND_MOVES.length, e4.getDraws());
+            assertEquals(2 * SECOND_MOVES.length, e4.getLosses());
+            assertEquals(2 * e4.getWins() + e4.getDraws(), e4.getWeight());
+            assertEquals(SECOND_MOVES.length * 3, findEntry(entries, "c4").getGames());
+            final Board afterE4 = e4.getMove().execute();
+            final BookEntry e5 = findEntry(book.getEntries(afterE4), "e5");
+            assertEquals(SECOND_MOVES.length * 3, e5.getGames());
+            // 1-0 is a loss for the player of e5
+            assertEquals(SECOND_MOVES.length, e5.getLosses());
+        }
+    }
+}
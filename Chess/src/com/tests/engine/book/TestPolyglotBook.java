@@ -0,0 +1,125 @@
+package com.tests.engine.book;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.book.BookEntry;
+import com.engine.book.PolyglotBook;
+import com.engine.book.PolyglotKeys;
+import com.engine.pgn.AlgebraicNotation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.engine.board.Board.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPolyglotBook {
+
+    private static PolyglotKeys randomKeys() {
+        final Random random = new Random(781);
+        final long[] keys = new long[PolyglotKeys.NUM_KEYS];
+        for(int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        return new PolyglotKeys(keys);
+    }
+
+    private static Move findMove(final Board board, final String text) {
+        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            if(move.toString().equals(text)) {
+                return move;
+            }
+        }
+        throw new RuntimeException("No move " + text);
+    }
+
+    @Test
+    public void bookMovesAreFoundAndDecoded() throws IOException {
+        final PolyglotKeys keys = randomKeys();
+        final Board standardBoard = createStandardBoard();
+        final Board castleBoard = FenUtilities.createGameFromFEN("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        final List<long[]> entries = new ArrayList<>();
+        entries.add(new long[] {keys.hash(standardBoard), PolyglotBook.encodeMove(findMove(standardBoard, "e4")), 10});
+        entries.add(new long[] {keys.hash(standardBoard), PolyglotBook.encodeMove(findMove(standardBoard, "d4")), 30});
+        entries.add(new long[] {keys.hash(castleBoard), PolyglotBook.encodeMove(findMove(castleBoard, "0-0")), 5});
+        entries.add(new long[] {keys.hash(castleBoard), PolyglotBook.encodeMove(findMove(castleBoard, "0-0-0")), 7});
+        entries.sort((e1, e2) -> Long.compareUnsigned(e1[0], e2[0]));
+        final ByteBuffer buffer = ByteBuffer.allocate(entries.size() * 16);
+        for(final long[] entry : entries) {
+            buffer.putLong(entry[0]).putShort((short) entry[1]).putShort((short) entry[2]).putInt(0);
+        }
+        final Path bookPath = Files.createTempFile("book", ".bin");
+        // a mapped file can't be deleted on windows until the mapping is collected
+        bookPath.toFile().deleteOnExit();
+        Files.write(bookPath, buffer.array());
+        try(final PolyglotBook book = PolyglotBook.open(bookPath, keys)) {
+            assertEquals(4, book.size());
+            final List<BookEntry> standardEntries = book.getEntries(standardBoard);
+            assertEquals(2, standardEntries.size());
+            assertEquals(findMove(standardBoard, "d4"), standardEntries.get(0).getMove());
+            assertEquals(30, standardEntries.get(0).getWeight());
+            assertTrue(book.getBestMove(castleBoard) instanceof Move.QueenSideCastleMove);
+            assertTrue(book.getEntries(castleBoard).get(1).getMove() instanceof Move.KingSideCastleMove);
+            final Board blackToMove = standardBoard.getCurrentPlayer().makeMove(findMove(standardBoard, "e4"))
+                    .getTransitionBoard();
+            assertNull(book.getBestMove(blackToMove));
+        }
+    }
+
+    private static Board play(final Board board, final String moves) {
+        Board result = board;
+        for(final String move : moves.split(" ")) {
+            result = AlgebraicNotation.playSan(result, move).getTransitionBoard();
+        }
+        return result;
+    }
+
+    @Test
+    public void standardKeysHashTheReferencePositions() {
+        final PolyglotKeys keys = PolyglotKeys.STANDARD;
+        // the keys of the Polyglot format description
+        Board board = createStandardBoard();
+        assertEquals(0x463B96181691FC9CL, keys.hash(board));
+        board = play(board, "e4");
+        assertEquals(0x823C9B50FD114196L, keys.hash(board));
+        board = play(board, "d5");
+        assertEquals(0x0756B94461C50FB0L, keys.hash(board));
+        board = play(board, "e5");
+        assertEquals(0x662FAFB965DB29D4L, keys.hash(board));
+        // the en passant file counts, a pawn can take on f6
+        board = play(board, "f5");
+        assertEquals(0x22A48B5A8E47FF78L, keys.hash(board));
+        board = play(board, "Ke2");
+        assertEquals(0x652A607CA3F242C1L, keys.hash(board));
+        board = play(board, "Kf7");
+        assertEquals(0x00FDD303C946BDD9L, keys.hash(board));
+        board = play(createStandardBoard(), "a4 b5 h4 b4 c4");
+        assertEquals(0x3C8123EA7B067637L, keys.hash(board));
+        board = play(board, "bxc3 Ra3");
+        assertEquals(0x5C3F9B829B279560L, keys.hash(board));
+    }
+
+    @Test
+    public void otherKeysAreRejected() throws IOException {
+        final Path keysPath = Files.createTempFile("keys", ".txt");
+        final StringBuilder text = new StringBuilder();
+        final Random random = new Random(781);
+        for(int i = 0; i < PolyglotKeys.NUM_KEYS; i++) {
+            text.append(String.format("0x%016X,%n", random.nextLong()));
+        }
+        Files.write(keysPath, text.toString().getBytes(StandardCharsets.US_ASCII));
+        try {
+            assertThrows(RuntimeException.class, () -> PolyglotKeys.load(keysPath));
+        } finally {
+            Files.delete(keysPath);
+        }
+    }
+}
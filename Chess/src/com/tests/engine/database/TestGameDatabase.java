@@ -0,0 +1,216 @@
+package com.tests.engine.database;
+
+import com.engine.Alliance;
+import com.engine.board.Board;
+import com.engine.board.Move;
+import com.engine.database.GameDatabase;
+import com.engine.database.ExplorerMove;
+import com.engine.database.GameDatabaseWriter;
+import com.engine.database.MaterialIndex;
+import com.engine.database.MaterialIndexBuilder;
+import com.engine.database.MaterialQuery;
+import com.engine.database.MaterialSignature;
+import com.engine.database.OpeningExplorer;
+import com.engine.database.OpeningExplorerBuilder;
+import com.engine.database.PositionIndex;
+import com.engine.database.PositionIndexBuilder;
+import com.engine.database.StoredGame;
+import com.engine.pgn.AlgebraicNotation;
+import com.engine.pieces.PieceType;
+import com.engine.pgn.PgnGame;
+import com.engine.pgn.PgnReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestGameDatabase {
+    private static final String GAMES =
+            "[Event \"First\"]\n" +
+            "[White \"Anderssen\"]\n" +
+            "[WhiteElo \"2600\"]\n" +
+            "[Result \"1-0\"]\n" +
+            "\n" +
+            "1. e4 e5 2. Nf3 Nc6 3. Bc4 Nf6 4. Ng5 d5 5. exd5 Na5 6. Bb5+ c6 7. dxc6 bxc6 8. Qf3 Rb8\n" +
+            "9. Bxc6+ Nxc6 10. Qxc6+ Bd7 11. Qxf6 Qxf6 12. Nxf7 Qxf2+ 13. Kxf2 Kxf7 1-0\n" +
+            "\n" +
+            "[Event \"Second\"]\n" +
+            "[FEN \"r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1\"]\n" +
+            "\n" +
+            "1. O-O-O O-O 2. Rh8+ Kxh8 3. Rd8 Rfxd8 1/2-1/2\n";
+
+    // a new directory for every test, it is deleted with the database and the index files after the test
+    @TempDir
+    Path directory;
+
+    private static List<PgnGame> writeGames(final Path directory) throws IOException {
+        final List<PgnGame> games = new ArrayList<>();
+        try(final PgnReader reader = new PgnReader(new StringReader(GAMES));
+            final GameDatabaseWriter writer = GameDatabaseWriter.open(directory)) {
+            PgnGame game;
+            while((game = reader.readGame()) != null) {
+                assertEquals(games.size(), writer.append(game));
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    @Test
+    public void gamesAreStoredAndReplayed() throws IOException {
+        final List<PgnGame> games = writeGames(directory);
+        // a writer opened again appends after the games that are there
+        try(final GameDatabaseWriter writer = GameDatabaseWriter.open(directory)) {
+            assertEquals(2, writer.size());
+            assertEquals(2, writer.append(games.get(0)));
+        }
+        try(final GameDatabase database = GameDatabase.open(directory)) {
+            assertEquals(3, database.size());
+            for(int id = 0; id < database.size(); id++) {
+                final PgnGame game = games.get(id % 2);
+                final List<Move> expectedMoves = new ArrayList<>();
+                final Board expectedBoard = game.replay(expectedMoves);
+                final List<Move> moves = new ArrayList<>();
+                assertEquals(expectedBoard.toString(), database.replay(id, moves).toString());
+                assertEquals(expectedMoves, moves);
+                final StoredGame storedGame = database.getGame(id);
+                assertEquals(game.getTags(), storedGame.getTags());
+                assertEquals(game.getResult(), database.getResult(id));
+                assertEquals(expectedMoves.size(), database.getPlies(id));
+                assertEquals(expectedMoves, storedGame.resolveMoves());
+            }
+            assertEquals(2600, database.getWhiteElo(0));
+            assertEquals(0, database.getBlackElo(0));
+            assertEquals(PgnGame.DRAW, database.getGame(1).getResult());
+        }
+    }
+
+    @Test
+    public void positionsAreFoundInTheIndex() throws IOException {
+        final List<PgnGame> games = writeGames(directory);
+        final Path indexPath = directory.resolve("positions.idx");
+        try(final GameDatabase database = GameDatabase.open(directory)) {
+            // runs of 5 positions make the merge do the work
+            final long entries = new PositionIndexBuilder.Builder().setThreads(2).setMaxEntriesPerWorker(5).build()
+                    .build(database, indexPath);
+            assertEquals(database.getPlies(0) + database.getPlies(1) + 2, entries);
+        }
+        try(final PositionIndex index = PositionIndex.open(indexPath)) {
+            final List<Move> moves = games.get(0).resolveMoves();
+            assertEquals("[game 0 ply 0]", index.find(Board.createStandardBoard(), 10).toString());
+            assertEquals("[game 0 ply 5]", index.find(moves.get(5).getBoard(), 10).toString());
+            assertEquals(1, index.count(moves.get(5).getBoard()));
+            final Board endBoard = games.get(1).replay(new ArrayList<>());
+            assertEquals("[game 1 ply 6]", index.find(endBoard, 10).toString());
+            final Board notPlayed = AlgebraicNotation.playSan(Board.createStandardBoard(), "d4").getTransitionBoard();
+            assertEquals(0, index.count(notPlayed));
+            assertTrue(index.find(notPlayed, 10).isEmpty());
+            assertTrue(index.find(endBoard, 0).isEmpty());
+        }
+    }
+
+    @Test
+    public void materialIsFoundWithoutReplay() throws IOException {
+        final List<PgnGame> games = writeGames(directory);
+        final Path indexPath = directory.resolve("material.idx");
+        try(final GameDatabase database = GameDatabase.open(directory)) {
+            new MaterialIndexBuilder.Builder().setThreads(2).build().build(database, indexPath);
+        }
+        final long start = MaterialSignature.of(Board.createStandardBoard());
+        assertEquals("KQRRBBNNPPPPPPPPvKQRRBBNNPPPPPPPP", MaterialSignature.toString(start));
+        assertEquals(start, MaterialSignature.parse("KPPPPPPPPNNBBRRQvKQRRBBNNPPPPPPPP"));
+        try(final MaterialIndex index = MaterialIndex.open(indexPath)) {
+            assertEquals(2, index.getGames());
+            for(int id = 0; id < games.size(); id++) {
+                final List<Move> moves = new ArrayList<>();
+                final long end = MaterialSignature.of(games.get(id).replay(moves));
+                assertTrue(index.getGames(end).contains(id));
+                for(final Move move : moves) {
+                    assertTrue(index.getGames(MaterialSignature.of(move.getBoard())).contains(id));
+                }
+            }
+            assertArrayEquals(new int[] {0}, index.find(MaterialQuery.reached(
+                    "KQRRBBNNPPPPPPPPvKQRRBBNNPPPPPPPP")).toArray());
+            // the second game starts with two rooks each and ends with a rook against two
+            final MaterialQuery rooks = MaterialQuery.reached("KRRvKRR");
+            assertArrayEquals(new int[] {1}, index.find(rooks).toArray());
+            assertArrayEquals(new int[] {0}, index.find(rooks.not()).toArray());
+            assertArrayEquals(new int[] {0, 1}, index.find(rooks.or(MaterialQuery.reached(
+                    signature -> MaterialSignature.count(signature, Alliance.WHITE, PieceType.QUEEN) == 1))).toArray());
+            assertTrue(index.find(rooks.and(rooks.not())).isEmpty());
+            assertEquals(0, index.getCardinality(MaterialSignature.parse("KvK")));
+        }
+    }
+
+    @Test
+    public void explorerCountsTheMoves() throws IOException {
+        final List<PgnGame> games = writeGames(directory);
+        try(final GameDatabaseWriter writer = GameDatabaseWriter.open(directory)) {
+            writer.append(games.get(0));
+        }
+        final Path explorerPath = directory.resolve("explorer.bin");
+        try(final GameDatabase database = GameDatabase.open(directory)) {
+            // a table of 2 slots grows while it is built
+            new OpeningExplorerBuilder.Builder().setThreads(2).setMaxPly(4).setInitialCapacity(2).build()
+                    .build(database, explorerPath);
+        }
+        try(final OpeningExplorer explorer = OpeningExplorer.open(explorerPath)) {
+            assertEquals(3, explorer.getGames());
+            final Board board = Board.createStandardBoard();
+            List<ExplorerMove> moves = explorer.getMoves(board);
+            assertEquals(1, moves.size());
+            assertEquals("e4", AlgebraicNotation.toSan(board, moves.get(0).getMove()));
+            assertEquals(2, moves.get(0).getGames());
+            assertEquals(100.0, moves.get(0).getScore());
+            assertEquals(2600, moves.get(0).getAverageRating());
+            moves = explorer.getMoves(AlgebraicNotation.playSan(board, "e4").getTransitionBoard());
+            assertEquals(2, moves.get(0).getLosses());
+            assertEquals(0.0, moves.get(0).getScore());
+            final Board fenBoard = games.get(1).getStartBoard();
+            moves = explorer.getMoves(fenBoard);
+            assertEquals("O-O-O", AlgebraicNotation.toSan(fenBoard, moves.get(0).getMove()));
+            assertEquals(50.0, moves.get(0).getScore());
+            assertEquals(0, moves.get(0).getAverageRating());
+            // the fifth ply is past the maximum ply
+            final List<Move> gameMoves = games.get(0).resolveMoves();
+            assertTrue(explorer.getMoves(gameMoves.get(4).getBoard()).isEmpty());
+        }
+    }
+
+    @Test
+    public void explorerDropsSingleGamesAtTheMaximumCapacity() throws IOException {
+        final String[] whiteMoves = {"Nf3", "Nc3", "Bc4", "d3"};
+        final String[] blackMoves = {"Nc6", "Nf6", "d6", "a6", "h6", "g6", "b6", "f6"};
+        try(final GameDatabaseWriter writer = GameDatabaseWriter.open(directory)) {
+            for(final String whiteMove : whiteMoves) {
+                for(final String blackMove : blackMoves) {
+                    writer.append(new PgnReader(new StringReader("[Result \"1-0\"]\n1. e4 e5 2. " + whiteMove +
+                            " " + blackMove + " 1-0\n")).readGame());
+                }
+            }
+        }
+        final Path explorerPath = directory.resolve("explorer.bin");
+        try(final GameDatabase database = GameDatabase.open(directory)) {
+            // 38 pairs don't fit in 16 slots, the pairs of the last plies are dropped
+            new OpeningExplorerBuilder.Builder().setThreads(2).setMaxPly(4).setInitialCapacity(2)
+                    .setMaxCapacity(16).build().build(database, explorerPath);
+        }
+        // a header of 32 bytes and 16 slots of 40 bytes
+        assertEquals(32 + 16 * 40, Files.size(explorerPath));
+        try(final OpeningExplorer explorer = OpeningExplorer.open(explorerPath)) {
+            assertEquals(32, explorer.getGames());
+            assertTrue(explorer.size() <= 16 * 60 / 100);
+            final Board board = Board.createStandardBoard();
+            assertEquals(32, explorer.getMoves(board).get(0).getGames());
+            final Board afterE4 = AlgebraicNotation.playSan(board, "e4").getTransitionBoard();
+            assertEquals(32, explorer.getMoves(afterE4).get(0).getGames());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.tests.engine.pgn;
+
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.pgn.AlgebraicNotation;
+import com.engine.pgn.PgnFiles;
+import com.engine.pgn.PgnGame;
+import com.engine.pgn.PgnReader;
+import com.engine.pgn.PgnWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPgnReader {
+    private static final String GAMES =
+            "[Event \"First\"]\n" +
+            "[Result \"1-0\"]\n" +
+            "\n" +
+            "1. e4 {the king's pawn} e5 2. Nf3 (2. f4 exf4 (2... d5)) Nc6 3. Bc4 Nf6?! 4. Ng5 d5 5. exd5 Na5\n" +
+            "6. Bb5+ c6 7. dxc6 bxc6 8. Qf3!! $1 ; a line comment\n" +
+            "Rb8 9. Bxc6+ Nxc6 10. Qxc6+ Bd7 11. Qxf6 Qxf6 12. Nxf7 Qxf2+ 13. Kxf2 Kxf7 1-0\n" +
+            "\n" +
+            "[Event \"Second\"]\n" +
+            "[SetUp \"1\"]\n" +
+            "[FEN \"r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1\"]\n" +
+            "\n" +
+            "1. O-O-O O-O 2. Rh8+ Kxh8 3. Rd8 Rfxd8 *\n";
+
+    @Test
+    public void gamesAreReadAndReplayed() throws IOException {
+        final List<PgnGame> games = new ArrayList<>();
+        try(final PgnReader reader = new PgnReader(new StringReader(GAMES))) {
+            PgnGame game;
+            while((game = reader.readGame()) != null) {
+                games.add(game);
+            }
+        }
+        assertEquals(2, games.size());
+        assertEquals(PgnGame.WHITE_WINS, games.get(0).getResult());
+        assertEquals(Arrays.asList("e4", "e5", "Nf3", "Nc6", "Bc4", "Nf6"), games.get(0).getMoves().subList(0, 6));
+        assertEquals(26, games.get(0).resolveMoves().size());
+        final List<Move> moves = new ArrayList<>();
+        final Board end = games.get(1).replay(moves);
+        assertEquals(6, moves.size());
+        assertTrue(moves.get(0).isCastlingMove());
+        assertTrue(end.getCurrentPlayer().getAlliance().isWhite());
+    }
+
+    @Test
+    public void writtenGamesAreReadBack() throws IOException {
+        final PgnGame game = new PgnReader(new StringReader(GAMES)).readGame();
+        final StringWriter text = new StringWriter();
+        new PgnWriter(text).writeGame(game.getTags(), game.getStartBoard(), game.resolveMoves(), game.getResult());
+        final PgnGame readBack = new PgnReader(new StringReader(text.toString())).readGame();
+        // the annotations are dropped and the checks are marked
+        assertEquals(game.getMoves().size(), readBack.getMoves().size());
+        assertEquals("Bb5+", readBack.getMoves().get(10));
+        assertEquals("Qxf2+", readBack.getMoves().get(23));
+    }
+
+    @Test
+    public void fileIsReadInParallel() throws IOException {
+        final Path file = Files.createTempFile("games", ".pgn");
+        final StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 200; i++) {
+            text.append(GAMES).append('\n');
+        }
+        Files.write(file, text.toString().getBytes(StandardCharsets.ISO_8859_1));
+        final AtomicInteger moves = new AtomicInteger();
+        assertEquals(400, PgnFiles.forEachGame(file, 4, game -> moves.addAndGet(game.resolveMoves().size())));
+        assertEquals(200 * 32, moves.get());
+        Files.delete(file);
+    }
+
+    @Test
+    public void unmatchedParenthesisIsSkipped() throws IOException {
+        final PgnGame game = new PgnReader(new StringReader("[Event \"x\"]\n1. e4 ) e5 1-0\n")).readGame();
+        assertEquals(Arrays.asList("e4", "e5"), game.getMoves());
+        assertEquals(PgnGame.WHITE_WINS, game.getResult());
+    }
+
+    @Test
+    public void sanMovesAreDisambiguated() {
+        // the knights of b1 and f3 both go to d2, the rooks of a1 and a5 both go to a3
+        final Board board = FenUtilities.createGameFromFEN("4k3/8/8/R7/8/5N2/8/RN2K3 w - - 0 1");
+        assertNull(AlgebraicNotation.parseSan(board, "Nd2"));
+        assertEquals(BoardUtils.getCoordinateAtPosition("b1"),
+                AlgebraicNotation.parseSan(board, "Nbd2").getCurrentCoordinate());
+        assertEquals(BoardUtils.getCoordinateAtPosition("f3"),
+                AlgebraicNotation.parseSan(board, "Nfd2").getCurrentCoordinate());
+        assertNull(AlgebraicNotation.parseSan(board, "Ra3"));
+        final Move rookMove = AlgebraicNotation.parseSan(board, "R5a3");
+        assertEquals(BoardUtils.getCoordinateAtPosition("a5"), rookMove.getCurrentCoordinate());
+        assertEquals("R5a3", AlgebraicNotation.toSan(board, rookMove));
+        assertEquals("Nfd2", AlgebraicNotation.toSan(board, AlgebraicNotation.parseSan(board, "Nf3d2")));
+    }
+}
@@ -0,0 +1,184 @@
+package com.tests.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.player.ai.AlphaBeta;
+import com.engine.player.ai.AnalysisLine;
+import com.engine.player.ai.IterativeDeepening;
+import com.engine.player.ai.MultiPvSearch;
+import com.engine.player.ai.PonderingSearch;
+import com.engine.player.ai.SearchOptions;
+import com.engine.player.ai.StandardBoardEvaluator;
+import com.engine.player.ai.StaticExchangeEvaluator;
+import com.engine.player.ai.TimeManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.engine.board.Board.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestAlphaBeta {
+    // FEN, source and destination of the best move
+    private static final String[][] TACTICAL_SUITE = {
+            {"r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4", "h5", "f7"},
+            {"6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1", "d1", "d8"},
+            {"6k1/5ppp/8/8/8/8/1Q3PPP/6K1 w - - 0 1", "b2", "b8"},
+            {"q3k3/8/8/3N4/8/8/8/4K3 w - - 0 1", "d5", "c7"},
+            {"4k3/8/8/2n1n3/8/3P4/8/4K3 w - - 0 1", "d3", "d4"},
+            {"4k3/8/8/8/8/5n2/3PPP2/4K3 w - - 0 1", "e2", "f3"}
+    };
+
+    private static Move createMove(final Board board, final String from, final String to) {
+        return Move.MoveFactory.createMove(board, BoardUtils.getCoordinateAtPosition(from),
+                BoardUtils.getCoordinateAtPosition(to));
+    }
+
+    private static Board makeMove(final Board board, final String from, final String to) {
+        return board.getCurrentPlayer().makeMove(createMove(board, from, to)).getTransitionBoard();
+    }
+
+    @Test
+    public void pawnTradeIsEven() {
+        Board board = createStandardBoard();
+        board = makeMove(board, "e2", "e4");
+        board = makeMove(board, "d7", "d5");
+        assertEquals(0, StaticExchangeEvaluator.evaluate(board, createMove(board, "e4", "d5")));
+    }
+
+    @Test
+    public void foolsMateIsFound() {
+        Board board = createStandardBoard();
+        board = makeMove(board, "e2", "e4");
+        board = makeMove(board, "e7", "e5");
+        board = makeMove(board, "d1", "h5");
+        board = makeMove(board, "b8", "c6");
+        board = makeMove(board, "f1", "c4");
+        board = makeMove(board, "g8", "f6");
+        final Move bestMove = new AlphaBeta(3).execute(board);
+        assertEquals(createMove(board, "h5", "f7"), bestMove);
+        assertTrue(board.getCurrentPlayer().makeMove(bestMove).getTransitionBoard().getCurrentPlayer().isInCheckMate());
+    }
+
+    @Test
+    public void selectiveSearchSolvesTacticalSuite() {
+        for(final SearchOptions options : new SearchOptions[] {SearchOptions.PLAIN, SearchOptions.DEFAULT}) {
+            for(final String[] position : TACTICAL_SUITE) {
+                final Board board = FenUtilities.createGameFromFEN(position[0]);
+                final Move bestMove = new AlphaBeta(new StandardBoardEvaluator(), 4, options).execute(board);
+                assertEquals(createMove(board, position[1], position[2]), bestMove, options + " " + position[0]);
+            }
+        }
+    }
+
+    @Test
+    public void selectiveSearchVisitsFewerNodesAtFixedDepth() {
+        for(final String[] position : TACTICAL_SUITE) {
+            final Board board = FenUtilities.createGameFromFEN(position[0]);
+            final AlphaBeta plain = new AlphaBeta(new StandardBoardEvaluator(), 5, SearchOptions.PLAIN);
+            final AlphaBeta selective = new AlphaBeta(new StandardBoardEvaluator(), 5, SearchOptions.DEFAULT);
+            final Move plainMove = plain.execute(board);
+            final Move selectiveMove = selective.execute(board);
+            assertEquals(plainMove, selectiveMove, position[0]);
+            assertTrue(selective.getNodes() + selective.getQuiescenceNodes() <
+                    plain.getNodes() + plain.getQuiescenceNodes(), position[0]);
+        }
+    }
+
+    @Test
+    public void timeManagedSearchStopsOnTime() {
+        final Board board = FenUtilities.createGameFromFEN("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4");
+        final IterativeDeepening iterativeDeepening = new IterativeDeepening();
+        final TimeManager timeManager = TimeManager.forMoveTime(500);
+        iterativeDeepening.setTimeManager(timeManager);
+        final Move bestMove = iterativeDeepening.execute(board);
+        assertTrue(board.getCurrentPlayer().makeMove(bestMove).getMoveStatus().isDone());
+        assertTrue(timeManager.getElapsedMillis() < 600, "elapsed " + timeManager.getElapsedMillis());
+    }
+
+    @Test
+    public void forcedMoveIsPlayedWithoutSearching() {
+        final Board board = FenUtilities.createGameFromFEN("7k/8/8/8/8/8/6q1/7K w - - 0 1");
+        final IterativeDeepening iterativeDeepening = new IterativeDeepening();
+        iterativeDeepening.setTimeManager(TimeManager.forClock(TimeManager.GAME_TIME_LIMIT_MILLIS, 0, 0));
+        assertEquals(createMove(board, "h1", "g2"), iterativeDeepening.execute(board));
+        assertEquals(0, iterativeDeepening.getLastResult().getDepth());
+    }
+
+    @Test
+    public void ponderHitRepliesAtOnce() throws InterruptedException {
+        final Board board = FenUtilities.createGameFromFEN("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4");
+        final PonderingSearch pondering = new PonderingSearch();
+        final Move move = pondering.search(board, TimeManager.forMoveTime(500));
+        final Board opponentBoard = board.getCurrentPlayer().makeMove(move).getTransitionBoard();
+        assertTrue(pondering.startPondering(opponentBoard));
+        Thread.sleep(1000);
+        final Board ponderedBoard = opponentBoard.getCurrentPlayer().makeMove(pondering.getExpectedMove())
+                .getTransitionBoard();
+        final TimeManager timeManager = TimeManager.forMoveTime(500);
+        final Move reply = pondering.search(ponderedBoard, timeManager);
+        assertTrue(ponderedBoard.getCurrentPlayer().makeMove(reply).getMoveStatus().isDone());
+        assertEquals(1, pondering.getPonderHits());
+        assertTrue(timeManager.getElapsedMillis() < 100, "elapsed " + timeManager.getElapsedMillis());
+    }
+
+    @Test
+    public void ponderHitKeepsTheHardLimitForExtensions() {
+        final TimeManager timeManager = TimeManager.forPondering();
+        final TimeManager budget = TimeManager.forClock(60_000, 0, 0);
+        timeManager.ponderHit(budget);
+        assertEquals(budget.getHardLimitMillis(), timeManager.getHardLimitMillis());
+        // the best move of the starting position changes from e4 to d4 at depth 3, which extends the soft limit
+        final IterativeDeepening iterativeDeepening = new IterativeDeepening();
+        iterativeDeepening.setTimeManager(timeManager);
+        iterativeDeepening.setMaxDepth(4);
+        iterativeDeepening.execute(createStandardBoard());
+        assertTrue(timeManager.getSoftLimitMillis() > budget.getSoftLimitMillis(),
+                "soft limit " + timeManager.getSoftLimitMillis());
+        assertTrue(timeManager.getSoftLimitMillis() <= timeManager.getHardLimitMillis());
+    }
+
+    @Test
+    public void multiPvKeepsTheBestLines() {
+        final Board board = FenUtilities.createGameFromFEN("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+        final List<AnalysisLine> lines = new MultiPvSearch().search(board, 3, 3);
+        assertEquals(3, lines.size());
+        // the mate comes first, then two more different moves with lower scores
+        assertEquals(createMove(board, "h5", "f7"), lines.get(0).getMoves().get(0));
+        assertEquals(1, lines.get(0).getMateIn());
+        final Set<Move> rootMoves = new HashSet<>();
+        for(int i = 0; i < lines.size(); i++) {
+            rootMoves.add(lines.get(i).getMoves().get(0));
+            if(i > 0) {
+                assertTrue(lines.get(i - 1).getScore() >= lines.get(i).getScore());
+            }
+        }
+        assertEquals(3, rootMoves.size());
+        // a board with fewer legal moves has fewer lines
+        assertEquals(1, new MultiPvSearch().search(FenUtilities.createGameFromFEN("7k/8/8/8/8/8/6q1/7K w - - 0 1"), 2, 3).size());
+    }
+
+    @Test
+    public void analysisRestartsOnANewBoard() throws InterruptedException {
+        final Board first = createStandardBoard();
+        final Board second = FenUtilities.createGameFromFEN("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+        final MultiPvSearch analysis = new MultiPvSearch();
+        final CountDownLatch secondLines = new CountDownLatch(3);
+        analysis.setListener(lines -> {
+            if(lines.get(0).getBoard() == second) {
+                secondLines.countDown();
+            }
+        });
+        analysis.analyze(first);
+        Thread.sleep(50);
+        analysis.analyze(second);
+        assertTrue(secondLines.await(10, TimeUnit.SECONDS));
+        analysis.stop();
+    }
+}
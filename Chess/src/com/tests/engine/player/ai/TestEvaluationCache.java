@@ -0,0 +1,73 @@
+package com.tests.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.player.ai.BoardEvaluator;
+import com.engine.player.ai.CachedBoardEvaluator;
+import com.engine.player.ai.EvaluationCache;
+import com.engine.player.ai.TaperedBoardEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestEvaluationCache {
+
+    private static List<Board> randomGame(final Board start, final int plies, final long seed) {
+        final Random random = new Random(seed);
+        final List<Board> boards = new ArrayList<>();
+        Board board = start;
+        for(int ply = 0; ply < plies; ply++) {
+            boards.add(board);
+            final List<Move> moves = new ArrayList<>();
+            for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+                if(board.getCurrentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                    moves.add(move);
+                }
+            }
+            if(moves.isEmpty()) {
+                break;
+            }
+            board = moves.get(random.nextInt(moves.size())).execute();
+        }
+        return boards;
+    }
+
+    @Test
+    public void cachedScoresMatchTheEvaluator() {
+        final BoardEvaluator evaluator = new TaperedBoardEvaluator();
+        final CachedBoardEvaluator cached = new CachedBoardEvaluator(new TaperedBoardEvaluator());
+        final List<Board> boards = randomGame(Board.createStandardBoard(), 80, 5);
+        boards.addAll(randomGame(FenUtilities.createGameFromFEN(
+                "r3k2r/pPppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"), 80, 7));
+        for(int pass = 0; pass < 2; pass++) {
+            for(final Board board : boards) {
+                assertEquals(evaluator.evaluate(board, 0), cached.evaluate(board, 0));
+            }
+        }
+        // every board of the second pass is still in the cache
+        assertTrue(cached.getCache().getHits() >= boards.size());
+    }
+
+    @Test
+    public void positionReplacesTheOneInItsSlot() {
+        final EvaluationCache cache = new EvaluationCache(1);
+        final CachedBoardEvaluator cached = new CachedBoardEvaluator(new TaperedBoardEvaluator(), cache);
+        final Board start = Board.createStandardBoard();
+        final Board other = FenUtilities.createGameFromFEN("4k3/8/8/8/3P4/8/8/4K3 w - - 0 1");
+        final int startScore = cached.evaluate(start, 0);
+        assertEquals(startScore, cached.evaluate(start, 0));
+        assertEquals(1, cache.getHits());
+        final int otherScore = cached.evaluate(other, 0);
+        assertEquals(startScore, cached.evaluate(start, 0));
+        assertEquals(otherScore, cached.evaluate(other, 0));
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        cache.clear();
+        assertEquals(0.0, cache.getHitRate());
+    }
+}
@@ -0,0 +1,93 @@
+package com.tests.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.player.ai.MonteCarloTreeSearch;
+import com.engine.player.ai.PlayoutBoard;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMonteCarloTreeSearch {
+
+    @Test
+    public void playoutBoardHasTheLegalMovesOfTheBoard() {
+        final String[] fens = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 1",
+                "8/2P5/8/8/8/8/k6K/8 w - - 0 1"
+        };
+        final int[] moves = new int[PlayoutBoard.MAX_MOVES];
+        for(final String fen : fens) {
+            final Board board = FenUtilities.createGameFromFEN(fen);
+            int legalMoves = 0;
+            for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+                if(board.getCurrentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                    legalMoves++;
+                }
+            }
+            assertEquals(legalMoves, PlayoutBoard.of(board).generateLegalMoves(moves), fen);
+        }
+    }
+
+    @Test
+    public void mateInOneIsPlayed() {
+        try(final MonteCarloTreeSearch search = new MonteCarloTreeSearch(2, 1 << 16)) {
+            search.setMaxPlayouts(5000);
+            final Board board = FenUtilities.createGameFromFEN("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+            final Move move = search.execute(board);
+            assertTrue(board.getCurrentPlayer().makeMove(move).getTransitionBoard().getCurrentPlayer().isInCheckMate());
+            assertTrue(search.getPlayouts() >= 5000);
+        }
+    }
+
+    @Test
+    public void treeIsReusedAfterTwoMoves() {
+        try(final MonteCarloTreeSearch search = new MonteCarloTreeSearch(1, 1 << 18)) {
+            search.setMaxPlayouts(3000);
+            final Board board = Board.createStandardBoard();
+            final Move move = search.execute(board);
+            final Board afterMove = board.getCurrentPlayer().makeMove(move).getTransitionBoard();
+            final Move reply = afterMove.getCurrentPlayer().getLegalMoves().iterator().next();
+            final Board afterReply = afterMove.getCurrentPlayer().makeMove(reply).getTransitionBoard();
+            search.setMaxPlayouts(1);
+            search.execute(afterReply);
+            // the visits of the old grandchild are kept
+            assertTrue(search.getRootVisits() > 1);
+        }
+    }
+
+    @Test
+    public void treeIsReusedOverSeveralMoves() throws InterruptedException {
+        final int threadsBefore = countPlayoutThreads();
+        try(final MonteCarloTreeSearch search = new MonteCarloTreeSearch(2, 1 << 16)) {
+            Board board = Board.createStandardBoard();
+            // the search plays both sides, every move copies the subtree into the pool of the copy before
+            for(int ply = 0; ply < 6; ply++) {
+                search.setMaxPlayouts(2000);
+                final Move move = search.execute(board);
+                board = board.getCurrentPlayer().makeMove(move).getTransitionBoard();
+                search.setMaxPlayouts(1);
+                search.execute(board);
+                // the visits of the played child are kept
+                assertTrue(search.getRootVisits() > 1);
+            }
+        }
+        for(int i = 0; i < 100 && countPlayoutThreads() > threadsBefore; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(threadsBefore, countPlayoutThreads());
+    }
+
+    private static int countPlayoutThreads() {
+        int threads = 0;
+        for(final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if(thread.getName().equals("MCTS") && thread.isAlive()) {
+                threads++;
+            }
+        }
+        return threads;
+    }
+}
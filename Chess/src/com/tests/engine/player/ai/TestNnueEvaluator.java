@@ -0,0 +1,61 @@
+package com.tests.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.player.ai.NnueEvaluator;
+import com.engine.player.ai.NnueNetwork;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestNnueEvaluator {
+
+    @Test
+    public void incrementalUpdatesMatchAFullRefresh() {
+        final NnueNetwork network = NnueNetwork.random(64, 7);
+        final NnueEvaluator incremental = new NnueEvaluator(network);
+        final Random random = new Random(3);
+        // castles, captures, en passant and promotions are all reachable from here
+        Board board = FenUtilities.createGameFromFEN("r3k2r/pPppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        for(int ply = 0; ply < 200; ply++) {
+            final List<Move> moves = new ArrayList<>();
+            for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
+                if(board.getCurrentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                    moves.add(move);
+                }
+            }
+            if(moves.isEmpty()) {
+                break;
+            }
+            board = board.getCurrentPlayer().makeMove(moves.get(random.nextInt(moves.size()))).getTransitionBoard();
+            final Board rebuilt = FenUtilities.createGameFromFEN(FenUtilities.createFENFromGame(board));
+            assertEquals(new NnueEvaluator(network).evaluate(rebuilt, 0), incremental.evaluate(board, 0),
+                    FenUtilities.createFENFromGame(board));
+        }
+    }
+
+    @Test
+    public void networkFileIsMapped() throws IOException {
+        final NnueNetwork network = NnueNetwork.random(32, 11);
+        final Path file = Files.createTempFile("network", ".nnue");
+        try {
+            network.save(file);
+            final NnueNetwork loaded = NnueNetwork.load(file);
+            assertEquals(32, loaded.getHiddenSize());
+            final Board board = Board.createStandardBoard();
+            assertEquals(new NnueEvaluator(network).evaluate(board, 0), new NnueEvaluator(loaded).evaluate(board, 0));
+            Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+            assertThrows(RuntimeException.class, () -> NnueNetwork.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
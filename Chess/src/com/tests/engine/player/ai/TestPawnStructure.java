@@ -0,0 +1,85 @@
+package com.tests.engine.player.ai;
+
+import com.engine.Alliance;
+import com.engine.board.Board;
+import com.engine.board.BoardUtils;
+import com.engine.board.FenUtilities;
+import com.engine.player.ai.PawnHashTable;
+import com.engine.player.ai.PawnStructure;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPawnStructure {
+
+    private static long tiles(final String... coordinates) {
+        long tiles = 0;
+        for(final String coordinate : coordinates) {
+            tiles |= 1L << BoardUtils.getCoordinateAtPosition(coordinate);
+        }
+        return tiles;
+    }
+
+    @Test
+    public void isolatedPassedPawnIsScored() {
+        final PawnStructure pawnStructure = PawnStructure.calculate(
+                FenUtilities.createGameFromFEN("4k3/8/8/8/3P4/8/8/4K3 w - - 0 1"));
+        // isolated (-10, -15) and passed on the fourth rank (15, 35)
+        assertEquals(5, pawnStructure.getMiddleGameScore());
+        assertEquals(20, pawnStructure.getEndGameScore());
+        assertEquals(tiles("d4"), pawnStructure.getPassedPawns(Alliance.WHITE));
+        assertEquals(0, pawnStructure.getPassedPawns(Alliance.BLACK));
+    }
+
+    @Test
+    public void doubledPawnsAreScored() {
+        final PawnStructure pawnStructure = PawnStructure.calculate(
+                FenUtilities.createGameFromFEN("4k3/3p4/8/8/3P4/3P4/8/4K3 w - - 0 1"));
+        // white: doubled (-10, -20) and two isolated (-20, -30), black: one isolated (-10, -15), nothing is passed
+        assertEquals(-20, pawnStructure.getMiddleGameScore());
+        assertEquals(-35, pawnStructure.getEndGameScore());
+        assertEquals(0, pawnStructure.getPassedPawns(Alliance.WHITE));
+        assertEquals(0, pawnStructure.getPassedPawns(Alliance.BLACK));
+    }
+
+    @Test
+    public void shieldIsCountedOnTheWingOfTheKing() {
+        final PawnStructure pawnStructure = PawnStructure.calculate(
+                FenUtilities.createGameFromFEN("4k3/8/8/8/8/6P1/5P1P/6K1 w - - 0 1"));
+        // f2 and h2 on the second rank, g3 on the third
+        assertEquals(12 + 6 + 12, pawnStructure.getShield(Alliance.WHITE, 6));
+        assertEquals(0, pawnStructure.getShield(Alliance.WHITE, 1));
+        assertEquals(0, pawnStructure.getShield(Alliance.BLACK, 4));
+        // three passed pawns on the second, third and second rank
+        assertEquals(20, pawnStructure.getMiddleGameScore());
+        assertEquals(40, pawnStructure.getEndGameScore());
+        assertEquals(tiles("f2", "g3", "h2"), pawnStructure.getPassedPawns(Alliance.WHITE));
+        final PawnStructure start = PawnStructure.calculate(Board.createStandardBoard());
+        assertEquals(36, start.getShield(Alliance.WHITE, 4));
+        assertEquals(36, start.getShield(Alliance.BLACK, 4));
+        assertEquals(0, start.getMiddleGameScore());
+    }
+
+    @Test
+    public void pawnHashTableHitsAndReplaces() {
+        final PawnHashTable table = new PawnHashTable(1);
+        final Board board = FenUtilities.createGameFromFEN("4k3/3p4/8/8/3P4/3P4/8/4K3 w - - 0 1");
+        // the same pawns with other pieces have the same pawn hash
+        final Board samePawns = FenUtilities.createGameFromFEN("r3k3/3p4/8/8/3P4/3P4/8/4K2R b - - 0 1");
+        final Board otherPawns = FenUtilities.createGameFromFEN("4k3/8/8/8/3P4/8/8/4K3 w - - 0 1");
+        assertEquals(-20, table.get(board).getMiddleGameScore());
+        assertEquals(0, table.getHits());
+        final PawnStructure cached = table.get(samePawns);
+        assertEquals(1, table.getHits());
+        assertEquals(-20, cached.getMiddleGameScore());
+        assertEquals(-35, cached.getEndGameScore());
+        assertEquals(PawnStructure.calculate(board).getShield(Alliance.WHITE, 4), cached.getShield(Alliance.WHITE, 4));
+        // the table has one entry, the other pawns replace it
+        assertEquals(5, table.get(otherPawns).getMiddleGameScore());
+        assertEquals(-20, table.get(board).getMiddleGameScore());
+        assertEquals(1, table.getHits());
+        assertEquals(3, table.getMisses());
+        table.clear();
+        assertEquals(0, table.getMisses());
+    }
+}
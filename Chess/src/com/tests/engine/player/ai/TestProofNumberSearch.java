@@ -0,0 +1,46 @@
+package com.tests.engine.player.ai;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.player.ai.MateSearchResult;
+import com.engine.player.ai.ProofNumberSearch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestProofNumberSearch {
+
+    private static final String[] MATE_SUITE = {
+            "6k1/5ppp/8/8/8/8/8/R6K w - - dm 1",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/2B1P3/5Q2/PPPP1PPP/RNB1K1NR w KQkq - dm 1",
+            "kbK5/pp6/1P6/8/8/8/8/R7 w - - dm 2",
+            "8/7R/5K2/8/8/8/1k1B4/6Q1 w - - dm 3",
+            "8/2P5/6Q1/8/8/PN5K/1k6/4R3 w - - dm 3"
+    };
+
+    @Test
+    public void mateSuiteIsSolved() {
+        for(final String problem : MATE_SUITE) {
+            final String[] parts = problem.split(" dm ");
+            final Board board = FenUtilities.createGameFromFEN(parts[0]);
+            final MateSearchResult result = new ProofNumberSearch.Builder().build().solve(board, 5);
+            assertTrue(result.isMate(), problem);
+            assertEquals(Integer.parseInt(parts[1]), result.getMateIn(), problem);
+            Board position = board;
+            for(final Move move : result.getLine()) {
+                position = position.getCurrentPlayer().makeMove(move).getTransitionBoard();
+            }
+            assertTrue(position.getCurrentPlayer().isInCheckMate(), problem);
+        }
+    }
+
+    @Test
+    public void noMateAndNodeBudget() {
+        final Board rookEnding = FenUtilities.createGameFromFEN("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertEquals(MateSearchResult.Status.NO_MATE, new ProofNumberSearch.Builder().build().solve(rookEnding, 2).getStatus());
+        final Board mateInThree = FenUtilities.createGameFromFEN("8/7R/5K2/8/8/8/1k1B4/6Q1 w - - 0 1");
+        final MateSearchResult result = new ProofNumberSearch.Builder().setMaxNodes(100).build().solve(mateInThree, 3);
+        assertEquals(MateSearchResult.Status.UNKNOWN, result.getStatus());
+    }
+}
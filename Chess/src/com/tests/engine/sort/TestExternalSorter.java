@@ -0,0 +1,110 @@
+package com.tests.engine.sort;
+
+import com.engine.sort.ExternalSorter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestExternalSorter {
+    private static final ExternalSorter.RecordFormat<long[]> FORMAT = new ExternalSorter.RecordFormat<long[]>() {
+        @Override
+        public long[] newRecord() {
+            return new long[1];
+        }
+
+        @Override
+        public boolean read(final DataInputStream input, final long[] record) throws IOException {
+            try {
+                record[0] = input.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int compare(final long[] first, final long[] second) {
+            return Long.compare(first[0], second[0]);
+        }
+    };
+
+    @TempDir
+    Path temporaryDirectory;
+
+    private static ExternalSorter.Sortable sortable(final long[] values) {
+        return new ExternalSorter.Sortable() {
+            @Override
+            public int compare(final int i, final int j) {
+                return Long.compare(values[i], values[j]);
+            }
+
+            @Override
+            public void swap(final int i, final int j) {
+                final long value = values[i];
+                values[i] = values[j];
+                values[j] = value;
+            }
+        };
+    }
+
+    @Test
+    public void entriesAreSortedInPlace() {
+        final Random random = new Random(11);
+        for(final int bound : new int[] {2, 10, 1000}) {
+            final long[] values = new long[5000];
+            for(int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(bound);
+            }
+            final long[] expected = values.clone();
+            Arrays.sort(expected);
+            ExternalSorter.sort(sortable(values), 0, values.length - 1);
+            assertArrayEquals(expected, values);
+        }
+        final long[] single = {7};
+        ExternalSorter.sort(sortable(single), 0, 0);
+        assertEquals(7, single[0]);
+    }
+
+    @Test
+    public void runsAreMergedAndDeleted() throws IOException {
+        final Random random = new Random(13);
+        final List<Long> expected = new ArrayList<>();
+        final List<Long> merged = new ArrayList<>();
+        try(final ExternalSorter<long[]> sorter = new ExternalSorter<>(temporaryDirectory, "runs", FORMAT)) {
+            for(int run = 0; run < 4; run++) {
+                final long[] values = new long[100 + run];
+                for(int i = 0; i < values.length; i++) {
+                    values[i] = random.nextInt(50);
+                    expected.add(values[i]);
+                }
+                sorter.writeRun(sortable(values), values.length, output -> {
+                    for(final long value : values) {
+                        output.writeLong(value);
+                    }
+                });
+            }
+            assertEquals(expected.size(), sorter.merge(record -> merged.add(record[0])));
+            // a file that is not a run, like the half written run of a failed worker, is deleted too
+            try(final Stream<Path> directories = Files.list(temporaryDirectory)) {
+                Files.createFile(directories.findFirst().get().resolve("partial.bin"));
+            }
+        }
+        expected.sort(null);
+        assertEquals(expected, merged);
+        try(final Stream<Path> files = Files.list(temporaryDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tests.engine.tablebase;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.player.ai.AlphaBeta;
+import com.engine.tablebase.EndgameTablebases;
+import com.engine.tablebase.Material;
+import com.engine.tablebase.TablebaseGenerator;
+import com.engine.tablebase.TablebaseResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTablebase {
+    // a new directory for every test, the tables are closed before it is deleted
+    @TempDir
+    Path directory;
+
+    private static EndgameTablebases generate(final Path directory, final String... endings) throws IOException {
+        final EndgameTablebases tablebases = new EndgameTablebases(directory);
+        final TablebaseGenerator generator = new TablebaseGenerator(tablebases, 2);
+        for(final String ending : endings) {
+            generator.generate(Material.parse(ending));
+        }
+        return tablebases;
+    }
+
+    @Test
+    public void kingAndQueenMates() throws IOException {
+        try(final EndgameTablebases tablebases = generate(directory, "KQvK")) {
+            // mate in one
+            final TablebaseResult mateInOne = tablebases.probe(FenUtilities.createGameFromFEN("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1"));
+            assertEquals(TablebaseResult.Outcome.WIN, mateInOne.getOutcome());
+            assertEquals(1, mateInOne.getDistanceToMate());
+            // mated
+            final TablebaseResult mated = tablebases.probe(FenUtilities.createGameFromFEN("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1"));
+            assertEquals(TablebaseResult.Outcome.LOSS, mated.getOutcome());
+            assertEquals(0, mated.getDistanceToMate());
+            // stalemate
+            final TablebaseResult stalemate = tablebases.probe(FenUtilities.createGameFromFEN("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+            assertEquals(TablebaseResult.Outcome.DRAW, stalemate.getOutcome());
+            // the same ending with the colors swapped is read from the same table
+            final TablebaseResult flipped = tablebases.probe(FenUtilities.createGameFromFEN("1q6/8/8/8/8/6k1/8/7K b - - 0 1"));
+            assertEquals(TablebaseResult.Outcome.WIN, flipped.getOutcome());
+            assertEquals(1, flipped.getDistanceToMate());
+        }
+    }
+
+    @Test
+    public void kingAndPawnWinsOrDraws() throws IOException {
+        try(final EndgameTablebases tablebases = generate(directory, "KPvK")) {
+            // the king in front of its pawn on the sixth row wins
+            final TablebaseResult loss = tablebases.probe(FenUtilities.createGameFromFEN("3k4/8/3K4/3P4/8/8/8/8 b - - 0 1"));
+            assertEquals(TablebaseResult.Outcome.LOSS, loss.getOutcome());
+            // but one row further with the other side to move it is stalemate
+            final TablebaseResult draw = tablebases.probe(FenUtilities.createGameFromFEN("3k4/3P4/3K4/8/8/8/8/8 b - - 0 1"));
+            assertEquals(TablebaseResult.Outcome.DRAW, draw.getOutcome());
+            // a rook pawn with the defending king in the corner is a draw
+            final TablebaseResult rookPawn = tablebases.probe(FenUtilities.createGameFromFEN("k7/8/8/P7/8/8/8/7K w - - 0 1"));
+            assertEquals(TablebaseResult.Outcome.DRAW, rookPawn.getOutcome());
+            // too many pieces
+            assertNull(tablebases.probe(Board.createStandardBoard()));
+        }
+    }
+
+    @Test
+    public void searchPlaysTheTablebaseMove() throws IOException {
+        try(final EndgameTablebases tablebases = generate(directory, "KRvK")) {
+            final Board board = FenUtilities.createGameFromFEN("6k1/8/6K1/8/8/8/8/R7 w - - 0 1");
+            final AlphaBeta search = new AlphaBeta(2);
+            search.setTablebases(tablebases);
+            final Move move = search.execute(board);
+            final Board afterMove = board.getCurrentPlayer().makeMove(move).getTransitionBoard();
+            assertTrue(afterMove.getCurrentPlayer().isInCheckMate());
+        }
+    }
+}
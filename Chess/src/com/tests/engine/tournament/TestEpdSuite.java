@@ -0,0 +1,55 @@
+package com.tests.engine.tournament;
+
+import com.engine.tournament.EpdPosition;
+import com.engine.tournament.EpdSuite;
+import com.engine.tournament.EpdSuiteResult;
+import com.engine.tournament.TournamentEngine;
+import com.engine.player.ai.SearchOptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestEpdSuite {
+
+    @Test
+    public void operationsAreParsed() {
+        final EpdPosition position = EpdPosition.parse(
+                "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - bm Qxf7#; id \"mate; in one\";");
+        assertEquals("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq -", position.getFen());
+        assertEquals("mate; in one", position.getId());
+        assertEquals(Arrays.asList("Qxf7#"), position.getOperands("bm"));
+        assertEquals(1, position.getBestMoves().size());
+        assertTrue(position.getAvoidMoves().isEmpty());
+        // the long algebraic notation works too
+        assertEquals(position.getBestMoves(), EpdPosition.parse(
+                "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - bm h5f7;").getBestMoves());
+        assertNull(EpdPosition.parse("# a comment"));
+    }
+
+    @Test
+    public void suiteIsSolvedInParallel() throws IOException {
+        final List<EpdPosition> positions = Arrays.asList(
+                EpdPosition.parse("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - bm Rd8#; id \"back rank\";"),
+                EpdPosition.parse("q3k3/8/8/3N4/8/8/8/4K3 w - - bm Nc7+; id \"fork\";"),
+                EpdPosition.parse("4k3/8/8/8/8/5n2/3PPP2/4K3 w - - am Kf1 Kd1; id \"capture\";"));
+        final EpdSuite suite = new EpdSuite.Builder().setMoveTimeMillis(0).setNodesPerPosition(50_000)
+                .setThreads(2).build();
+        final List<EpdSuiteResult> results = suite.run(positions,
+                TournamentEngine.withOptions("default", SearchOptions.DEFAULT));
+        assertEquals(3, results.size());
+        for(int i = 0; i < results.size(); i++) {
+            assertSame(positions.get(i), results.get(i).getPosition());
+            assertTrue(results.get(i).isSolved(), results.get(i).toString());
+            assertTrue(results.get(i).getSolutionNodes() <= results.get(i).getNodes());
+        }
+        final StringWriter json = new StringWriter();
+        EpdSuite.writeJson(results, 100, json);
+        assertTrue(json.toString().contains("\"solved\": 3,"));
+        assertTrue(json.toString().contains("{\"id\": \"fork\", \"solved\": true, \"move\": \"Nc7+\""));
+    }
+}
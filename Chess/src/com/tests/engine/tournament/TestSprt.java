@@ -0,0 +1,54 @@
+package com.tests.engine.tournament;
+
+import com.engine.tournament.Sprt;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestSprt {
+
+    @Test
+    public void evenResultsGiveZeroElo() {
+        final Sprt sprt = new Sprt.Builder().build();
+        for(int i = 0; i < 100; i++) {
+            sprt.addPair(1);
+            sprt.addPair(2);
+            sprt.addPair(2);
+            sprt.addPair(3);
+        }
+        assertEquals(0, sprt.getElo(), 1e-9);
+        assertTrue(sprt.getEloError() > 0 && sprt.getEloError() < 50);
+        assertEquals(400, sprt.getPairs());
+        assertArrayEquals(new long[] {0, 100, 200, 100, 0}, sprt.getPentanomial());
+    }
+
+    @Test
+    public void clearResultsDecideTheTest() {
+        final Sprt stronger = new Sprt.Builder().setElo0(0).setElo1(10).build();
+        final Sprt weaker = new Sprt.Builder().setElo0(0).setElo1(10).build();
+        for(int i = 0; i < 2000 && (stronger.getStatus() == Sprt.Status.CONTINUE ||
+                weaker.getStatus() == Sprt.Status.CONTINUE); i++) {
+            // the stronger engine wins one pair in three, the weaker one loses one pair in three
+            stronger.addPair(i % 3 == 0 ? 3 : 2);
+            weaker.addPair(i % 3 == 0 ? 1 : 2);
+        }
+        assertEquals(Sprt.Status.H1_ACCEPTED, stronger.getStatus());
+        assertEquals(Sprt.Status.H0_ACCEPTED, weaker.getStatus());
+        assertTrue(stronger.getElo() > 0);
+        assertTrue(stronger.getLlr() >= stronger.getUpperBound());
+    }
+
+    @Test
+    public void equalResultsDecideOnlyWhenTheyAreClear() {
+        final Sprt winner = new Sprt.Builder().build();
+        final Sprt drawer = new Sprt.Builder().build();
+        for(int i = 0; i < 30; i++) {
+            winner.addPair(4);
+            drawer.addPair(2);
+        }
+        // every pair has the same result, the variance is not 0 and the LLR is finite
+        assertTrue(Double.isFinite(winner.getLlr()) && Double.isFinite(drawer.getLlr()));
+        assertEquals(Sprt.Status.H1_ACCEPTED, winner.getStatus());
+        assertEquals(Sprt.Status.CONTINUE, drawer.getStatus());
+    }
+}
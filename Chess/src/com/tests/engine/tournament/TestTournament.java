@@ -0,0 +1,88 @@
+package com.tests.engine.tournament;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.pgn.AlgebraicNotation;
+import com.engine.pgn.PgnGame;
+import com.engine.pgn.PgnReader;
+import com.engine.pgn.PgnWriter;
+import com.engine.player.ai.SearchOptions;
+import com.engine.tournament.Adjudicator;
+import com.engine.tournament.Tournament;
+import com.engine.tournament.TournamentEngine;
+import com.engine.tournament.TournamentGame;
+import com.engine.tournament.TournamentScore;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTournament {
+
+    @Test
+    public void sanIsDisambiguated() {
+        final Board board = FenUtilities.createGameFromFEN("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+        assertEquals("Rad1", AlgebraicNotation.toSan(board, AlgebraicNotation.parseSan(board, "Rad1")));
+        final Board castle = FenUtilities.createGameFromFEN("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        assertEquals("Rd1", AlgebraicNotation.toSan(castle, AlgebraicNotation.parseSan(castle, "Rd1")));
+        assertEquals("O-O", AlgebraicNotation.toSan(castle, AlgebraicNotation.parseSan(castle, "O-O")));
+        final Board mate = FenUtilities.createGameFromFEN("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        assertEquals("Ra8#", AlgebraicNotation.toSan(mate, AlgebraicNotation.parseSan(mate, "Ra8")));
+        final Board rooks = FenUtilities.createGameFromFEN("4k3/8/R7/8/8/8/8/R3K3 w - - 0 1");
+        assertEquals("R1a3", AlgebraicNotation.toSan(rooks, AlgebraicNotation.parseSan(rooks, "R1a3")));
+    }
+
+    @Test
+    public void fiftyMoveRuleCountsTheHalfMoveClockOfTheFen() {
+        final String fen = "4k3/8/8/8/8/8/8/R3K3 w - - 99 80";
+        final Board board = FenUtilities.createGameFromFEN(fen);
+        final Adjudicator adjudicator = new Adjudicator(board, FenUtilities.getHalfMoveClock(fen));
+        assertNull(adjudicator.getTermination());
+        final Move move = AlgebraicNotation.parseSan(board, "Ra7");
+        adjudicator.addMove(move, board.getCurrentPlayer().makeMove(move).getTransitionBoard());
+        assertEquals(Adjudicator.FIFTY_MOVE_RULE, adjudicator.getTermination());
+    }
+
+    @Test
+    public void gamePairIsPlayedAndWritten() throws IOException {
+        final StringWriter pgn = new StringWriter();
+        final List<TournamentGame> games = Collections.synchronizedList(new ArrayList<>());
+        final Tournament tournament = new Tournament.Builder()
+                .setTimeControl(300, 10)
+                .setMaxPlies(16)
+                .setThreads(2)
+                .setPgnWriter(new PgnWriter(pgn))
+                .setGameListener(games::add)
+                .build();
+        final TournamentEngine first = TournamentEngine.withOptions("first", SearchOptions.DEFAULT);
+        final TournamentEngine second = TournamentEngine.withOptions("second", SearchOptions.PLAIN);
+        final TournamentScore score = tournament.run(first, second);
+        assertEquals(2, score.getGames());
+        assertEquals(2, games.size());
+        int halfPoints = 0;
+        for(final TournamentGame game : games) {
+            halfPoints += game.getHalfPoints(first) + game.getHalfPoints(second);
+        }
+        assertEquals(4, halfPoints);
+        final PgnReader reader = new PgnReader(new StringReader(pgn.toString()));
+        for(int i = 0; i < 2; i++) {
+            final PgnGame pgnGame = reader.readGame();
+            assertNotNull(pgnGame);
+            // every SAN move written must be read back as the same move
+            Board board = Board.createStandardBoard();
+            for(final String san : pgnGame.getMoves()) {
+                final Move move = AlgebraicNotation.parseSan(board, san);
+                assertNotNull(move, san);
+                board = board.getCurrentPlayer().makeMove(move).getTransitionBoard();
+            }
+        }
+        assertNull(reader.readGame());
+    }
+}
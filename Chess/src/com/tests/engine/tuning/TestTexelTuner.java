@@ -0,0 +1,111 @@
+package com.tests.engine.tuning;
+
+import com.engine.tuning.SelfPlayGenerator;
+import com.engine.tuning.TexelTuner;
+import com.engine.tuning.TuningDataset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTexelTuner {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void datasetKeepsThePiecesInTileOrder() {
+        final TuningDataset dataset = new TuningDataset();
+        assertTrue(dataset.add("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR", 1));
+        assertFalse(dataset.add("rnbqkbnr/pppppppp/8/8/8/PPPP1PPP/RNBQKBNR", 1));
+        assertEquals(1, dataset.size());
+        assertEquals(32, Long.bitCount(dataset.getOccupancy(0)));
+        // a8 is the black rook, e4 the white pawn and h1 the white rook
+        assertEquals(4 + TuningDataset.BLACK, dataset.getPiece(0, 0));
+        assertEquals(1, dataset.getPiece(0, 16));
+        assertEquals(4, dataset.getPiece(0, 31));
+        assertEquals(0.5, dataset.getResult(0));
+    }
+
+    @Test
+    public void tuningLowersTheError() throws IOException {
+        final TuningDataset dataset = new TuningDataset();
+        // white wins most games with an extra knight, and the games with even material are drawn
+        for(int i = 0; i < 200; i++) {
+            dataset.add("4k3/pppppppp/8/8/8/" + (i % 2 == 0 ? "2N5" : "5N2") + "/PPPPPPPP/4K3", i % 4 == 0 ? 1 : 2);
+            dataset.add("4k3/pppppppp/8/8/8/8/PPPPPPPP/4K3", 1);
+            dataset.add("4k3/pppppppp/2n5/8/8/" + (i % 2 == 0 ? "2N5" : "5N2") + "/PPPPPPPP/4K3", 1);
+        }
+        final TexelTuner tuner = new TexelTuner(dataset);
+        tuner.fitScalingConstant();
+        final double startError = tuner.computeError();
+        final double endError = tuner.tune(50, 2, null);
+        assertTrue(endError < startError, endError + " " + startError);
+        final StringWriter tables = new StringWriter();
+        tuner.writeTables(tables);
+        assertTrue(tables.toString().contains("MIDDLE_GAME_MATERIAL"));
+        assertTrue(tables.toString().contains("KNIGHT = {"));
+        assertFalse(tables.toString().contains("KNIGHT_END_GAME"));
+    }
+
+    @Test
+    public void untunedTablesAreWrittenAsTheyAre() throws IOException {
+        final StringWriter tables = new StringWriter();
+        new TexelTuner(new TuningDataset()).writeTables(tables);
+        final String text = tables.toString();
+        assertTrue(text.contains("    static final int[] MIDDLE_GAME_MATERIAL = {82, 337, 365, 477, 1025, 0};\n"));
+        assertTrue(text.contains("    static final int[] END_GAME_MATERIAL = {94, 281, 297, 512, 936, 0};\n"));
+        assertTrue(text.contains("    private static final int[] KNIGHT = {\n" +
+                "            -50, -40, -30, -30, -30, -30, -40, -50,\n"));
+        assertTrue(text.contains("    private static final int[] KING_END_GAME = {\n"));
+        assertTrue(text.contains("              0,   0,   0,   5,   5,   0,   0,   0\n    };\n"));
+    }
+
+    @Test
+    public void resultIsReadFromTheResultField() throws IOException {
+        final Path file = Files.createTempFile("positions", ".epd");
+        Files.write(file, Arrays.asList(
+                "4k3/8/8/8/8/8/4P3/4K3 w - - id \"1/2 a pawn up\"; c9 \"1-0\";",
+                "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1 [0.5]",
+                "4k3/8/8/8/8/8/4P3/4K3 b - - 0 1 \"0-1\";",
+                "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"), StandardCharsets.UTF_8);
+        try {
+            final TuningDataset dataset = TuningDataset.read(file);
+            assertEquals(3, dataset.size());
+            assertEquals(1.0, dataset.getResult(0));
+            assertEquals(0.5, dataset.getResult(1));
+            assertEquals(0.0, dataset.getResult(2));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void selfPlayPositionsAreReadBack() throws IOException {
+        final SelfPlayGenerator generator = new SelfPlayGenerator.Builder(directory)
+                .setThreads(1)
+                .setNodesPerMove(200)
+                .setMaxPlies(60)
+                .setPositions(20)
+                .build();
+        generator.run();
+        final Path file = directory.resolve("selfplay-0.bin");
+        assertEquals(generator.getWrittenPositions() * 32, Files.size(file));
+        final TuningDataset dataset = TuningDataset.readPacked(file);
+        assertEquals(generator.getWrittenPositions(), dataset.size());
+        for(int i = 0; i < dataset.size(); i++) {
+            // both kings are on the board
+            int kings = 0;
+            for(int n = 0; n < Long.bitCount(dataset.getOccupancy(i)); n++) {
+                kings += (dataset.getPiece(i, n) & (TuningDataset.BLACK - 1)) == 6 ? 1 : 0;
+            }
+            assertEquals(2, kings);
+        }
+    }
+}
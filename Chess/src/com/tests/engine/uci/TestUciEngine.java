@@ -0,0 +1,94 @@
+package com.tests.engine.uci;
+
+import com.engine.board.Board;
+import com.engine.board.FenUtilities;
+import com.engine.board.Move;
+import com.engine.uci.UciEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestUciEngine {
+
+    private static String run(final String commands) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new UciEngine(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(output, true, "UTF-8")).run();
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void handshake() throws IOException {
+        final String output = run("uci\nisready\nquit\n");
+        assertTrue(output.contains("id name "));
+        assertTrue(output.contains("option name Hash type spin"));
+        assertTrue(output.contains("uciok"));
+        assertTrue(output.contains("readyok"));
+    }
+
+    @Test
+    public void mateInOneIsPlayed() throws IOException {
+        final String output = run("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1\ngo depth 3\n");
+        assertTrue(output.contains("score mate 1"), output);
+        assertTrue(output.contains("bestmove a1a8"), output);
+    }
+
+    @Test
+    public void movesAreAppliedToThePosition() throws IOException {
+        final String output = run("position startpos moves e2e4 e7e5 g1f3\ngo depth 1\n");
+        final String bestMove = output.substring(output.indexOf("bestmove ") + 9).trim().split("\\s+")[0];
+        Board board = Board.createStandardBoard();
+        for(final String move : new String[] {"e2e4", "e7e5", "g1f3"}) {
+            board = board.getCurrentPlayer().makeMove(UciEngine.parseMove(board, move)).getTransitionBoard();
+        }
+        assertTrue(board.getCurrentPlayer().getAlliance().isBlack());
+        assertNotNull(UciEngine.parseMove(board, bestMove), bestMove);
+    }
+
+    @Test
+    public void movesAreWrittenInLongAlgebraicNotation() {
+        final Board board = FenUtilities.createGameFromFEN("8/2P5/8/8/8/8/k6K/8 w - - 0 1");
+        final Move promotion = UciEngine.parseMove(board, "c7c8q");
+        assertNotNull(promotion);
+        assertEquals("c7c8q", UciEngine.toUci(promotion));
+        assertNull(UciEngine.parseMove(board, "c7c6"));
+        assertNull(UciEngine.parseMove(board, "z9a1"));
+    }
+
+    @Test
+    public void badCommandsAreReportedAndSkipped() throws IOException {
+        final String output = run("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1\nposition fen not a fen\n" +
+                "go depth x movetime\ngo depth 3\n");
+        assertTrue(output.contains("info string invalid position fen not a fen"), output);
+        assertTrue(output.contains("info string invalid value x for depth"), output);
+        // the bad position is dropped and both searches play the mate
+        assertEquals(2, output.split("bestmove a1a8", -1).length - 1, output);
+    }
+
+    @Test
+    public void helperThreadsEndWithTheirSearch() throws IOException, InterruptedException {
+        final String output = run("setoption name Threads value 3\ngo depth 2\nsetoption name Threads value 2\n" +
+                "go depth 2\nsetoption name Hash value 2\n");
+        assertEquals(2, output.split("bestmove ", -1).length - 1, output);
+        for(int i = 0; i < 100 && countHelperThreads() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, countHelperThreads());
+    }
+
+    private static int countHelperThreads() {
+        int helpers = 0;
+        for(final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if(thread.getName().equals("Search helper") && thread.isAlive()) {
+                helpers++;
+            }
+        }
+        return helpers;
+    }
+}